@@ -1,37 +1,61 @@
 package com.sap.scimono.client;
 
 import static com.fasterxml.jackson.annotation.JsonProperty.Access.READ_WRITE;
+import static com.sap.scimono.api.API.APPLICATION_CBOR_SCIM;
 import static com.sap.scimono.api.API.APPLICATION_JSON_SCIM;
+import static com.sap.scimono.api.API.APPLICATION_SMILE_SCIM;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.Produces;
-import javax.ws.rs.ext.ContextResolver;
+import javax.ws.rs.core.MediaType;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.sap.scimono.api.helper.ObjectMapperFactory;
+import com.sap.scimono.api.helper.ScimObjectMapperResolver;
 import com.sap.scimono.entity.User;
 
-@Consumes(APPLICATION_JSON_SCIM)
-@Produces(APPLICATION_JSON_SCIM)
-public class ClientJacksonResolver implements ContextResolver<ObjectMapper> {
-  private final boolean isUserNameOptional;
+@Consumes({ APPLICATION_JSON_SCIM, APPLICATION_CBOR_SCIM, APPLICATION_SMILE_SCIM })
+@Produces({ APPLICATION_JSON_SCIM, APPLICATION_CBOR_SCIM, APPLICATION_SMILE_SCIM })
+public class ClientJacksonResolver implements ScimObjectMapperResolver {
+  private final ObjectMapper mapper;
+  private final ObjectMapper cborMapper;
+  private final ObjectMapper smileMapper;
   
   public ClientJacksonResolver(boolean isUserNameOptional) {
-    this.isUserNameOptional = isUserNameOptional;
+    mapper = createObjectMapper(null, isUserNameOptional);
+    cborMapper = createObjectMapper(new CBORFactory(), isUserNameOptional);
+    smileMapper = createObjectMapper(new SmileFactory(), isUserNameOptional);
   }
 
   @Override
   public ObjectMapper getContext(Class<?> type) {
-    ObjectMapper mapper = ObjectMapperFactory.createObjectMapper();
-    mapper.addMixIn(User.class, UserWithSerializablePassword.class);
-    if (isUserNameOptional) {
-      mapper.addMixIn(User.class, UserWithUserNameOptionalMixIn.class);
+    return mapper;
+  }
+
+  @Override
+  public ObjectMapper getContext(Class<?> type, MediaType mediaType) {
+    if (ObjectMapperFactory.isMediaType(mediaType, APPLICATION_CBOR_SCIM)) {
+      return cborMapper;
+    }
+    if (ObjectMapperFactory.isMediaType(mediaType, APPLICATION_SMILE_SCIM)) {
+      return smileMapper;
     }
-    
     return mapper;
   }
 
+  private static ObjectMapper createObjectMapper(JsonFactory dataFormat, boolean isUserNameOptional) {
+    ObjectMapper objectMapper = ObjectMapperFactory.createObjectMapper(dataFormat, ObjectMapperFactory.Profile.COMPACT);
+    objectMapper.addMixIn(User.class, UserWithSerializablePassword.class);
+    if (isUserNameOptional) {
+      objectMapper.addMixIn(User.class, UserWithUserNameOptionalMixIn.class);
+    }
+    return objectMapper;
+  }
+
   private static class UserWithSerializablePassword {
     @JsonProperty(access = READ_WRITE)
     private String password;
@@ -13,6 +13,7 @@ import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.ext.ContextResolver;
 
+import com.sap.scimono.api.helper.BinaryScimMessageBodyProvider;
 import com.sap.scimono.client.authentication.OauthClientCredentialsAuthenticator;
 import com.sap.scimono.client.authentication.TargetSystemAuthenticator;
 
@@ -122,6 +123,7 @@ public class SCIMClientService {
       }
 
       registerResolvers(client);
+      client.register(BinaryScimMessageBodyProvider.class);
       properties.forEach(client::property);
       return new SCIMClientService(client.target(serviceUrl));
     }
@@ -6,24 +6,31 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import javax.ws.rs.core.Application;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.sap.scimono.api.AttributeProjectionInterceptor;
 import com.sap.scimono.api.Bulk;
 import com.sap.scimono.api.Groups;
+import com.sap.scimono.api.ResourceLocationInterceptor;
 import com.sap.scimono.api.ResourceTypes;
 import com.sap.scimono.api.Schemas;
+import com.sap.scimono.api.Search;
 import com.sap.scimono.api.ServiceProviderConfiguration;
 import com.sap.scimono.api.ServletRequestProviderFilter;
+import com.sap.scimono.api.TotalResultsCache;
 import com.sap.scimono.api.Users;
+import com.sap.scimono.api.helper.BinaryScimMessageBodyProvider;
 import com.sap.scimono.api.helper.InternalExceptionMapper;
 import com.sap.scimono.api.helper.JacksonResolver;
 import com.sap.scimono.api.helper.JsonParseExceptionMapper;
 import com.sap.scimono.api.helper.JsonMappingExceptionMapper;
 import com.sap.scimono.api.helper.JsonProcessingExceptionMapper;
+import com.sap.scimono.api.helper.ObjectMapperFactory;
 import com.sap.scimono.api.helper.ScimExceptionMapper;
 import com.sap.scimono.api.helper.ValidationExceptionMapper;
 import com.sap.scimono.callback.bulk.BulkRequestCallback;
@@ -34,11 +41,14 @@ import com.sap.scimono.callback.groups.DefaultGroupsCallback;
 import com.sap.scimono.callback.groups.GroupsCallback;
 import com.sap.scimono.callback.resourcetype.DefaultResourceTypesCallback;
 import com.sap.scimono.callback.resourcetype.ResourceTypesCallback;
+import com.sap.scimono.callback.schemas.CompiledSchemasCallback;
 import com.sap.scimono.callback.schemas.DefaultSchemasCallback;
+import com.sap.scimono.callback.schemas.SchemaRegistryProvider;
 import com.sap.scimono.callback.schemas.SchemasCallback;
 import com.sap.scimono.callback.users.DefaultUsersCallback;
 import com.sap.scimono.callback.users.UsersCallback;
 import com.sap.scimono.entity.schema.validation.CustomInputValidator;
+import com.sap.scimono.helper.BulkExecutors;
 
 public abstract class SCIMApplication extends Application {
   private static final Logger logger = LoggerFactory.getLogger(SCIMApplication.class);
@@ -46,6 +56,8 @@ public abstract class SCIMApplication extends Application {
   private static final String SCIM_IMPLEMENTATION_INSTANCE = "SCIM_IMPLEMENTATION_INSTANCE";
 
   private Map<String, Object> props = new HashMap<>();
+  private final SchemaRegistryProvider schemaRegistryProvider = new SchemaRegistryProvider();
+  private final TotalResultsCache totalResultsCache = new TotalResultsCache();
 
   @Override
   public Map<String, Object> getProperties() {
@@ -66,10 +78,14 @@ public abstract class SCIMApplication extends Application {
     scimResources.add(ResourceTypes.class);
     scimResources.add(ServiceProviderConfiguration.class);
     scimResources.add(Bulk.class);
+    scimResources.add(Search.class);
 
     scimResources.addAll(getAdditionalResourceProviders());
 
     // internal providers
+    if (ObjectMapperFactory.isBinaryMediaTypeSupported()) {
+      scimResources.add(BinaryScimMessageBodyProvider.class);
+    }
     scimResources.add(InternalExceptionMapper.class);
     scimResources.add(JacksonResolver.class);
     scimResources.add(JsonMappingExceptionMapper.class);
@@ -78,6 +94,8 @@ public abstract class SCIMApplication extends Application {
     scimResources.add(ScimExceptionMapper.class);
 
     scimResources.add(ServletRequestProviderFilter.class);
+    scimResources.add(ResourceLocationInterceptor.class);
+    scimResources.add(AttributeProjectionInterceptor.class);
 
     logger.info("Initializing SCIM resource providers {}", scimResources);
     return scimResources;
@@ -120,12 +138,65 @@ public abstract class SCIMApplication extends Application {
   }
   
   /**
+   * @return the request-scoped SchemasCallback with schema and attribute lookups served by the application-scoped compiled schema registry
+   *         of its {@link SchemasCallback#getSchemaRegistryKey() key}, e.g. of its tenant.
+   */
+  public SchemasCallback getCompiledSchemasCallback() {
+    return new CompiledSchemasCallback(getSchemasCallback(), schemaRegistryProvider);
+  }
+
+  /**
+   * Discards the compiled schema registries of all keys, so that they are rebuilt on next use. Needs to be called only when custom schemas
+   * are changed without going through the /Schemas endpoint.
+   */
+  public void invalidateSchemaRegistry() {
+    schemaRegistryProvider.invalidate();
+  }
+
+  /**
+   * @return the application-scoped cache of the total resource counts of list requests, see
+   *         {@link SCIMConfigurationCallback#getTotalResultsCacheTimeToLive()}
+   */
+  public TotalResultsCache getTotalResultsCache() {
+    return totalResultsCache;
+  }
+
+  /**
+   * Bulk requests are not supported by default. Return a {@link com.sap.scimono.callback.bulk.ParallelBulkRequestCallback} to execute their
+   * operations by the users and groups callbacks.
+   *
    * @return a request-scoped BulkRequestCallback implementation.
    */
   public BulkRequestCallback getBulkRequestCallback() {
     return new DefaultBulkRequestCallback();
   }
 
+  /**
+   * Returns the maximum number of operations of a bulk request which are preprocessed and validated at once. By default 1, the operations
+   * are preprocessed one after the other by the request thread.
+   * <p>
+   * Return a greater value, e.g. the number of available processors, to preprocess large bulk requests concurrently. The operations are
+   * then preprocessed also by the threads of {@link #getBulkPreProcessingExecutor()}, not only by the request thread. So the callbacks
+   * called while preprocessing must not depend on thread-local request state, e.g. the tenant or request-scoped injection:
+   * {@link UsersCallback#generateId()}, {@link GroupsCallback#generateId()}, the schemas and resource types callbacks, the patch validators,
+   * and the {@link SCIMConfigurationCallback} and the injected {@link javax.ws.rs.core.UriInfo} which resolve the resource locations.
+   *
+   * @return the parallelism of the preprocessing of bulk operations, 1 by default
+   */
+  public int getBulkPreProcessingParallelism() {
+    return 1;
+  }
+
+  /**
+   * Returns the executor running the preprocessing of bulk operations if {@link #getBulkPreProcessingParallelism()} is greater than 1.
+   * Override it to return e.g. a pool shared with the application.
+   *
+   * @return the executor of the preprocessing of bulk operations, {@link BulkExecutors#getDefaultExecutor()} by default
+   */
+  public Executor getBulkPreProcessingExecutor() {
+    return BulkExecutors.getDefaultExecutor();
+  }
+
   /**
    * @return a request-scoped ResourceTypesCallback implementation.
    */
@@ -149,6 +220,16 @@ public abstract class SCIMApplication extends Application {
     return Collections.emptySet();
   }
 
+  /**
+   * Returns the output profile of the responses, {@link ObjectMapperFactory.Profile#PRETTY} by default. Override it to return
+   * {@link ObjectMapperFactory.Profile#COMPACT responses without whitespace}, which are smaller and faster to write.
+   *
+   * @return the output profile of the responses, PRETTY by default
+   */
+  public ObjectMapperFactory.Profile getSerializationProfile() {
+    return ObjectMapperFactory.Profile.PRETTY;
+  }
+
   public Map<CustomInputValidator.Type, CustomInputValidator> getCustomConstraintValidators() {
     return Collections.emptyMap();
   }
@@ -8,11 +8,19 @@ public interface API {
   String RESOURCE_TYPES = "ResourceTypes";
   String SCHEMAS = "Schemas";
   String SERVICE_PROVIDER_CONFIG = "ServiceProviderConfig";
+  String SEARCH = ".search";
   String FILTER_PARAM = "filter";
   String ATTRIBUTES_PARAM = "attributes";
   String EXCLUDED_ATTRIBUTES_PARAM = "excludedAttributes";
   String START_INDEX_PARAM = "startIndex";
   String START_ID_PARAM = "startId";
   String COUNT_PARAM = "count";
+  String CURSOR_PARAM = "cursor";
+  String SORT_BY_PARAM = "sortBy";
+  String SORT_ORDER_PARAM = "sortOrder";
   String APPLICATION_JSON_SCIM = "application/scim+json";
+  String APPLICATION_CBOR_SCIM = "application/scim+cbor";
+  String APPLICATION_SMILE_SCIM = "application/scim+smile";
+  String APPLICATION_CBOR_SCIM_NEGOTIABLE = APPLICATION_CBOR_SCIM + ";qs=0.5";
+  String APPLICATION_SMILE_SCIM_NEGOTIABLE = APPLICATION_SMILE_SCIM + ";qs=0.5";
 }
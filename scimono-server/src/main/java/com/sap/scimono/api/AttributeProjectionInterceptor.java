@@ -0,0 +1,64 @@
+package com.sap.scimono.api;
+
+import static com.sap.scimono.api.API.ATTRIBUTES_PARAM;
+import static com.sap.scimono.api.API.EXCLUDED_ATTRIBUTES_PARAM;
+
+import java.io.IOException;
+
+import javax.ws.rs.core.Application;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+import com.sap.scimono.SCIMApplication;
+import com.sap.scimono.api.request.AttributeProjection;
+import com.sap.scimono.callback.schemas.SchemaRegistry;
+import com.sap.scimono.entity.Group;
+import com.sap.scimono.entity.User;
+
+/**
+ * Binds the {@link AttributeProjection} of the <b>attributes</b> and <b>excludedAttributes</b> query parameters to the thread while a user or
+ * a group is written, so that the attributes which are not returned are pruned during its serialization. List responses bind their
+ * projection themselves, see {@link ListResponseWriter}.
+ */
+@Provider
+public class AttributeProjectionInterceptor implements WriterInterceptor {
+
+  @Context
+  Application appContext;
+
+  @Context
+  UriInfo uriInfo;
+
+  @Override
+  public void aroundWriteTo(final WriterInterceptorContext context) throws IOException {
+    String resourceSchemaId = getResourceSchemaId(context.getEntity());
+    if (resourceSchemaId == null) {
+      context.proceed();
+      return;
+    }
+
+    SchemaRegistry schemaRegistry = SCIMApplication.from(appContext).getCompiledSchemasCallback().getSchemaRegistry();
+    MultivaluedMap<String, String> queryParameters = uriInfo.getQueryParameters();
+    AttributeProjection.bind(AttributeProjection.compile(schemaRegistry, resourceSchemaId, queryParameters.getFirst(ATTRIBUTES_PARAM),
+        queryParameters.getFirst(EXCLUDED_ATTRIBUTES_PARAM)));
+    try {
+      context.proceed();
+    } finally {
+      AttributeProjection.unbind();
+    }
+  }
+
+  private static String getResourceSchemaId(final Object entity) {
+    if (entity instanceof User) {
+      return User.SCHEMA;
+    }
+    if (entity instanceof Group) {
+      return Group.SCHEMA;
+    }
+    return null;
+  }
+}
@@ -1,16 +1,23 @@
 
 package com.sap.scimono.api;
 
+import static com.sap.scimono.api.API.APPLICATION_CBOR_SCIM;
+import static com.sap.scimono.api.API.APPLICATION_CBOR_SCIM_NEGOTIABLE;
 import static com.sap.scimono.api.API.APPLICATION_JSON_SCIM;
+import static com.sap.scimono.api.API.APPLICATION_SMILE_SCIM;
+import static com.sap.scimono.api.API.APPLICATION_SMILE_SCIM_NEGOTIABLE;
 import static com.sap.scimono.api.API.BULK;
 import static com.sap.scimono.api.API.GROUPS;
 import static com.sap.scimono.api.API.USERS;
 import static com.sap.scimono.entity.Group.RESOURCE_TYPE_GROUP;
+import static com.sap.scimono.exception.SCIMException.Type.TOO_MANY;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.Instant;
-import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.POST;
@@ -18,14 +25,15 @@ import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.Application;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sap.scimono.SCIMApplication;
 import com.sap.scimono.api.helper.ObjectMapperFactory;
 import com.sap.scimono.api.helper.ScimErrorResponseParser;
+import com.sap.scimono.api.preprocessor.BulkOperationsPreProcessor;
 import com.sap.scimono.api.preprocessor.ResourcePreProcessor;
 import com.sap.scimono.callback.bulk.BulkRequestCallback;
 import com.sap.scimono.callback.config.SCIMConfigurationCallback;
@@ -37,22 +45,23 @@ import com.sap.scimono.entity.Group;
 import com.sap.scimono.entity.Meta;
 import com.sap.scimono.entity.User;
 import com.sap.scimono.entity.bulk.BulkBody;
+import com.sap.scimono.entity.bulk.BulkRequestReader;
 import com.sap.scimono.entity.bulk.RequestOperation;
 import com.sap.scimono.entity.bulk.ResponseOperation;
 import com.sap.scimono.entity.bulk.validation.BulkOperationsValidator;
-import com.sap.scimono.entity.bulk.validation.ValidBulkRequest;
+import com.sap.scimono.entity.config.BulkSetting;
 import com.sap.scimono.entity.patch.PatchBody;
 import com.sap.scimono.entity.validation.patch.PatchValidationFramework;
 import com.sap.scimono.exception.InternalScimonoException;
+import com.sap.scimono.exception.SCIMException;
 import com.sap.scimono.helper.ResourceLocationService;
 
 @Path(BULK)
-@Produces(APPLICATION_JSON_SCIM)
-@Consumes(APPLICATION_JSON_SCIM)
+@Produces({ APPLICATION_JSON_SCIM, APPLICATION_CBOR_SCIM_NEGOTIABLE, APPLICATION_SMILE_SCIM_NEGOTIABLE })
+@Consumes({ APPLICATION_JSON_SCIM, APPLICATION_CBOR_SCIM, APPLICATION_SMILE_SCIM })
 @ServletRequestProvider
 public class Bulk {
 
-  private static final ObjectMapper JSON_OBJECT_MAPPER = ObjectMapperFactory.createObjectMapper();
   private final BulkRequestCallback bulkAPI;
 
   private final ResourcePreProcessor<User> userPreProcessor;
@@ -65,16 +74,22 @@ public class Bulk {
   private final ResourceLocationService groupsLocationService;
 
   private final SCIMConfigurationCallback scimConfigurationCallback;
+  private final ObjectMapperFactory.Profile serializationProfile;
+  private final Executor preProcessingExecutor;
+  private final int preProcessingParallelism;
 
   public Bulk(@Context final Application appContext, @Context final UriInfo uriInfo) {
     SCIMApplication scimApplication = SCIMApplication.from(appContext);
     bulkAPI = scimApplication.getBulkRequestCallback();
     scimConfigurationCallback = scimApplication.getConfigurationCallback();
+    serializationProfile = scimApplication.getSerializationProfile();
+    preProcessingExecutor = scimApplication.getBulkPreProcessingExecutor();
+    preProcessingParallelism = Math.max(1, scimApplication.getBulkPreProcessingParallelism());
 
     usersLocationService = new ResourceLocationService(uriInfo, scimConfigurationCallback, USERS);
     groupsLocationService = new ResourceLocationService(uriInfo, scimConfigurationCallback, GROUPS);
 
-    SchemasCallback schemasAPI = scimApplication.getSchemasCallback();
+    SchemasCallback schemasAPI = scimApplication.getCompiledSchemasCallback();
     ResourceTypesCallback resourceTypesAPI = scimApplication.getResourceTypesCallback();
 
     UsersCallback usersAPI = scimApplication.getUsersCallback();
@@ -88,50 +103,63 @@ public class Bulk {
   }
 
   @POST
-  public Response handleBulkRequest(@ValidBulkRequest BulkBody<RequestOperation> bulkRequest) {
+  public Response handleBulkRequest(@Context final HttpHeaders httpHeaders, final InputStream entityStream) throws IOException {
     BulkOperationsValidator operationsValidator = new BulkOperationsValidator(scimConfigurationCallback, usersLocationService, groupsLocationService);
-    List<RequestOperation> validatedOperations = operationsValidator.getValidBulkOperations(bulkRequest);
-    List<RequestOperation> formattedBulkOperations = normalizeRequestOperations(validatedOperations);
+    BulkSetting bulkSetting = operationsValidator.getSupportedBulkSetting();
+    if (bulkSetting.getMaxPayloadSize() > 0 && httpHeaders.getLength() > bulkSetting.getMaxPayloadSize()) {
+      throw new SCIMException(TOO_MANY, "Bulk request payload exceeded the maximum size supported.", Response.Status.REQUEST_ENTITY_TOO_LARGE);
+    }
 
-    bulkRequest = BulkBody.forRequest(bulkRequest.getFailOnErrors(), formattedBulkOperations);
+    ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper(httpHeaders.getMediaType(), serializationProfile);
+    BulkOperationsPreProcessor operationsPreProcessor = new BulkOperationsPreProcessor(this::normalizeRequestOperation,
+        preProcessingExecutor, preProcessingParallelism);
+    BulkBody<RequestOperation> bulkRequest;
+    try {
+      bulkRequest = new BulkRequestReader(objectMapper, bulkSetting).read(entityStream, operation -> {
+        operationsPreProcessor.submit(operationsValidator.getValidBulkOperation(operation));
+        return operation;
+      });
+    } catch (IOException | RuntimeException e) {
+      operationsPreProcessor.cancel();
+      throw e;
+    }
+    bulkRequest = BulkBody.forRequest(bulkRequest.getFailOnErrors(), operationsPreProcessor.getPreProcessedOperations());
     BulkBody<ResponseOperation> bulkResponse = bulkAPI.handleBulkRequest(bulkRequest);
 
-    bulkResponse = operationsValidator.getValidResponseData(bulkRequest, bulkResponse);
+    bulkResponse = operationsValidator.getValidResponseData(bulkResponse);
     return Response.ok().entity(bulkResponse).build();
   }
 
-  private List<RequestOperation> normalizeRequestOperations(List<RequestOperation> requestOperations) {
-    return requestOperations.stream().map(operation -> {
-      if (!operation.hasValidationError()) {
-        String resourceType = operation.getResourceType();
-        if (User.RESOURCE_TYPE_USER.equalsIgnoreCase(resourceType)) {
-          return prepareUserBulkOperation(operation);
-        }
-
-        if (RESOURCE_TYPE_GROUP.equalsIgnoreCase(resourceType)) {
-          return prepareGroupBulkOperation(operation);
-        }
+  private RequestOperation normalizeRequestOperation(RequestOperation operation) {
+    if (!operation.hasValidationError()) {
+      String resourceType = operation.getResourceType();
+      if (User.RESOURCE_TYPE_USER.equalsIgnoreCase(resourceType)) {
+        return prepareUserBulkOperation(operation);
+      }
+
+      if (RESOURCE_TYPE_GROUP.equalsIgnoreCase(resourceType)) {
+        return prepareGroupBulkOperation(operation);
       }
+    }
 
-      return operation;
-    }).collect(Collectors.toList());
+    return operation;
   }
 
   private RequestOperation prepareUserBulkOperation(RequestOperation operation) {
     RequestOperation.Builder builder = operation.builder();
     switch (operation.getMethod()) {
       case POST:
-        builder.setData(parseAndPreprocessUserData(userPreProcessor::prepareForCreate, operation));
+        builder.setData(preprocessData(userPreProcessor::prepareForCreate, operation::getDataAsUser));
         break;
       case PUT:
         String resourceId = requireResourceId(operation);
         PreProcessorExecutor<User> updateProcessor = group -> userPreProcessor.prepareForUpdate(group, resourceId);
-        builder.setData(parseAndPreprocessUserData(updateProcessor, operation));
+        builder.setData(preprocessData(updateProcessor, operation::getDataAsUser));
         break;
       case PATCH:
         requireResourceId(operation);
         PreProcessorExecutor<PatchBody> patchProcessor = data -> preparePatchBodyWithMeta(userPatchValidator, data);
-        builder.setData(parseAndPreprocessPatchData(patchProcessor, operation));
+        builder.setData(preprocessData(patchProcessor, operation::getDataAsPatch));
         break;
     }
 
@@ -142,38 +170,26 @@ public class Bulk {
     RequestOperation.Builder builder = operation.builder();
     switch (operation.getMethod()) {
       case POST:
-        builder.setData(parseAndPreprocessGroupData(groupPreProcessor::prepareForCreate, operation));
+        builder.setData(preprocessData(groupPreProcessor::prepareForCreate, operation::getDataAsGroup));
         break;
       case PUT:
         String resourceId = requireResourceId(operation);
         PreProcessorExecutor<Group> updateProcessor = group -> groupPreProcessor.prepareForUpdate(group, resourceId);
-        builder.setData(parseAndPreprocessGroupData(updateProcessor, operation));
+        builder.setData(preprocessData(updateProcessor, operation::getDataAsGroup));
         break;
       case PATCH:
         requireResourceId(operation);
         PreProcessorExecutor<PatchBody> patchProcessor = data -> preparePatchBodyWithMeta(groupPatchValidator, data);
-        builder.setData(parseAndPreprocessPatchData(patchProcessor, operation));
+        builder.setData(preprocessData(patchProcessor, operation::getDataAsPatch));
         break;
     }
 
     return builder.build();
   }
 
-  private Object parseAndPreprocessGroupData(PreProcessorExecutor<Group> preProcessor, RequestOperation reqOp) {
-    return parseAndPreprocessData(preProcessor, () -> JSON_OBJECT_MAPPER.treeToValue(reqOp.getRawData(), Group.class));
-  }
-
-  private Object parseAndPreprocessUserData(PreProcessorExecutor<User> preProcessor, RequestOperation reqOp) {
-    return parseAndPreprocessData(preProcessor, () -> JSON_OBJECT_MAPPER.treeToValue(reqOp.getRawData(), User.class));
-  }
-
-  private Object parseAndPreprocessPatchData(PreProcessorExecutor<PatchBody> preProcessor, RequestOperation reqOp) {
-    return parseAndPreprocessData(preProcessor, () -> JSON_OBJECT_MAPPER.treeToValue(reqOp.getRawData(), PatchBody.class));
-  }
-
-  private <T> Object parseAndPreprocessData(PreProcessorExecutor<T> preProcessor, JsonMappingExecutor<T> resourceMapping) {
+  private <T> Object preprocessData(PreProcessorExecutor<T> preProcessor, Supplier<T> data) {
     try {
-      return preProcessor.execute(resourceMapping.execute());
+      return preProcessor.execute(data.get());
     } catch (Throwable e) {
       return ScimErrorResponseParser.parseException(e);
     }
@@ -196,10 +212,4 @@ public class Bulk {
 
     T execute(T data);
   }
-
-  @FunctionalInterface
-  private interface JsonMappingExecutor<T> {
-
-    T execute() throws JsonProcessingException;
-  }
 }
\ No newline at end of file
@@ -1,11 +1,19 @@
 
 package com.sap.scimono.api;
 
+import static com.sap.scimono.api.API.APPLICATION_CBOR_SCIM;
+import static com.sap.scimono.api.API.APPLICATION_CBOR_SCIM_NEGOTIABLE;
 import static com.sap.scimono.api.API.APPLICATION_JSON_SCIM;
+import static com.sap.scimono.api.API.APPLICATION_SMILE_SCIM;
+import static com.sap.scimono.api.API.APPLICATION_SMILE_SCIM_NEGOTIABLE;
 import static com.sap.scimono.api.API.ATTRIBUTES_PARAM;
 import static com.sap.scimono.api.API.COUNT_PARAM;
+import static com.sap.scimono.api.API.CURSOR_PARAM;
 import static com.sap.scimono.api.API.EXCLUDED_ATTRIBUTES_PARAM;
 import static com.sap.scimono.api.API.FILTER_PARAM;
+import static com.sap.scimono.api.API.SEARCH;
+import static com.sap.scimono.api.API.SORT_BY_PARAM;
+import static com.sap.scimono.api.API.SORT_ORDER_PARAM;
 import static com.sap.scimono.api.API.GROUPS;
 import static com.sap.scimono.api.API.START_ID_PARAM;
 import static com.sap.scimono.api.API.START_INDEX_PARAM;
@@ -13,11 +21,13 @@ import static com.sap.scimono.entity.Group.RESOURCE_TYPE_GROUP;
 import static com.sap.scimono.entity.paging.PagedByIndexSearchResult.DEFAULT_COUNT;
 import static com.sap.scimono.entity.paging.PagedByIndexSearchResult.DEFAULT_START_INDEX;
 
+import java.time.Duration;
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Predicate;
 
 import javax.validation.Valid;
 import javax.ws.rs.Consumes;
@@ -38,9 +48,12 @@ import javax.ws.rs.core.UriInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sap.scimono.SCIMApplication;
+import com.sap.scimono.api.helper.ObjectMapperFactory;
 import com.sap.scimono.api.patch.PATCH;
 import com.sap.scimono.api.preprocessor.ResourcePreProcessor;
+import com.sap.scimono.api.request.RequestedResourceAttributes;
 import com.sap.scimono.api.request.RequestedResourceAttributesParser;
 import com.sap.scimono.callback.config.SCIMConfigurationCallback;
 import com.sap.scimono.callback.groups.GroupsCallback;
@@ -49,17 +62,27 @@ import com.sap.scimono.callback.schemas.SchemasCallback;
 import com.sap.scimono.entity.Group;
 import com.sap.scimono.entity.Meta;
 import com.sap.scimono.entity.paging.PageInfo;
-import com.sap.scimono.entity.paging.PagedResult;
+import com.sap.scimono.entity.paging.SearchRequest;
+import com.sap.scimono.entity.paging.SortInfo;
+import com.sap.scimono.entity.paging.StreamedPagedResult;
 import com.sap.scimono.entity.patch.PatchBody;
+import com.sap.scimono.entity.schema.validation.CustomInputValidator;
+import com.sap.scimono.entity.schema.validation.StartIdValidator;
 import com.sap.scimono.entity.schema.validation.ValidStartId;
 import com.sap.scimono.entity.validation.patch.PatchValidationFramework;
 import com.sap.scimono.exception.InvalidInputException;
 import com.sap.scimono.exception.ResourceNotFoundException;
+import com.sap.scimono.filter.FilterExpressionParser;
+import com.sap.scimono.filter.FilterPlan;
+import com.sap.scimono.filter.FilterPlanner;
+import com.sap.scimono.filter.FilterPredicateCompiler;
+import com.sap.scimono.filter.ResourceComparator;
+import com.sap.scimono.filter.expression.FilterExpression;
 import com.sap.scimono.helper.ResourceLocationService;
 
 @Path(API.GROUPS)
-@Produces(APPLICATION_JSON_SCIM)
-@Consumes(APPLICATION_JSON_SCIM)
+@Produces({ APPLICATION_JSON_SCIM, APPLICATION_CBOR_SCIM_NEGOTIABLE, APPLICATION_SMILE_SCIM_NEGOTIABLE })
+@Consumes({ APPLICATION_JSON_SCIM, APPLICATION_CBOR_SCIM, APPLICATION_SMILE_SCIM })
 @ServletRequestProvider
 public class Groups {
   private static final Logger logger = LoggerFactory.getLogger(Groups.class);
@@ -68,8 +91,11 @@ public class Groups {
   private final SchemasCallback schemaAPI;
   private final ResourceTypesCallback resourceTypesAPI;
   private final SCIMConfigurationCallback scimConfig;
+  private final ObjectMapper objectMapper;
   private final ResourceLocationService resourceLocationService;
   private final ResourcePreProcessor<Group> groupPreProcessor;
+  private final TotalResultsCache totalResultsCache;
+  private final Map<CustomInputValidator.Type, CustomInputValidator> customConstraintValidators;
 
   private static final String NOT_VALID_INPUTS = "One of the request inputs is not valid.";
 
@@ -77,9 +103,12 @@ public class Groups {
     SCIMApplication scimApplication = SCIMApplication.from(appContext);
 
     groupAPI = scimApplication.getGroupsCallback();
-    schemaAPI = scimApplication.getSchemasCallback();
+    schemaAPI = scimApplication.getCompiledSchemasCallback();
     resourceTypesAPI = scimApplication.getResourceTypesCallback();
     scimConfig = scimApplication.getConfigurationCallback();
+    totalResultsCache = scimApplication.getTotalResultsCache();
+    customConstraintValidators = scimApplication.getCustomConstraintValidators();
+    objectMapper = ObjectMapperFactory.getObjectMapper(scimApplication.getSerializationProfile());
     resourceLocationService = new ResourceLocationService(uriInfo, scimConfig, GROUPS);
     groupPreProcessor = ResourcePreProcessor.forGroups(resourceLocationService, groupAPI, resourceTypesAPI, schemaAPI);
   }
@@ -92,15 +121,15 @@ public class Groups {
                            @QueryParam(EXCLUDED_ATTRIBUTES_PARAM) final String excludedAttributes) {
     // @formatter:on
     logger.trace("Reading group {}", groupId);
-    Group groupFromDb = groupAPI.getGroup(groupId, RequestedResourceAttributesParser.parse(attributes, excludedAttributes));
+    RequestedResourceAttributes requestedAttributes = RequestedResourceAttributesParser.parse(attributes, excludedAttributes,
+        schemaAPI.getSchemaRegistry(), Group.SCHEMA);
+    Group groupFromDb = groupAPI.getGroup(groupId, requestedAttributes);
 
     if (groupFromDb == null) {
       throw new ResourceNotFoundException(RESOURCE_TYPE_GROUP, groupId);
     }
 
-    Group group = resourceLocationService.addLocation(groupFromDb, groupId);
-    group = resourceLocationService.addMembersLocation(group);
-    return Response.ok(group).tag(group.getMeta().getVersion()).location(resourceLocationService.getLocation(groupId)).build();
+    return Response.ok(groupFromDb).tag(getVersion(groupFromDb)).location(resourceLocationService.getLocation(groupId)).build();
   }
 
   @GET
@@ -110,12 +139,16 @@ public class Groups {
                             @QueryParam(START_ID_PARAM) @ValidStartId String startId,
                             @QueryParam(FILTER_PARAM) final String filter,
                             @QueryParam(ATTRIBUTES_PARAM) final String attributes,
-                            @QueryParam(EXCLUDED_ATTRIBUTES_PARAM) final String excludedAttributes) {
+                            @QueryParam(EXCLUDED_ATTRIBUTES_PARAM) final String excludedAttributes,
+                            @QueryParam(SORT_BY_PARAM) final String sortBy,
+                            @QueryParam(SORT_ORDER_PARAM) final String sortOrder,
+                            @QueryParam(CURSOR_PARAM) final String cursor) {
     // @formatter:on
     logger.trace("Reading groups with paging parameters startIndex {} startId {} count {}", startIndexParam, startId, countParam);
 
     int startIndex = PagingParamsParser.parseStartIndex(startIndexParam);
     int count = PagingParamsParser.parseCount(countParam);
+    SortInfo sortInfo = scimConfig.getSortSupportedSetting() ? PagingParamsParser.parseSortInfo(sortBy, sortOrder) : null;
 
     int maxCount = scimConfig.getMaxResourcesPerPage();
     logger.trace("Configured max count of returned resources is {}", maxCount);
@@ -123,23 +156,98 @@ public class Groups {
       count = maxCount;
     }
 
-    PageInfo pageInfo = PageInfo.getInstance(count, startIndex - 1, startId);
-    PagedResult<Group> groups = groupAPI.getGroups(pageInfo, filter, RequestedResourceAttributesParser.parse(attributes, excludedAttributes));
-
-    List<Group> groupsToReturn = new ArrayList<>();
-    for (Group group : groups.getResources()) {
-      group = resourceLocationService.addLocation(group, group.getId());
-      group = resourceLocationService.addMembersLocation(group);
-      groupsToReturn.add(group);
+    FilterExpression filterExpression = parseFilter(filter);
+    PageCursorCodec<Group> cursorCodec = null;
+    PageInfo pageInfo;
+    if (cursor == null) {
+      pageInfo = PageInfo.getInstance(count, startIndex - 1, startId);
+    } else {
+      if (startId != null) {
+        throw new InvalidInputException("Paging by cursor cannot be combined with startId.");
+      }
+      cursorCodec = PageCursorCodec.forGroups(scimConfig, schemaAPI.getSchemaRegistry(), filterExpression, sortInfo);
+      pageInfo = PageInfo.getInstance(count, cursorCodec.decode(cursor));
     }
 
-    return ListResponseBuilder.forGroups(groupsToReturn)
-        .withPagingStartParameters(startId, startIndex)
+    RequestedResourceAttributes requestedAttributes = RequestedResourceAttributesParser.parse(attributes, excludedAttributes,
+        schemaAPI.getSchemaRegistry(), Group.SCHEMA);
+    StreamedPagedResult<Group> groups = readGroups(pageInfo, filterExpression, sortInfo, attributes, requestedAttributes);
+
+    PagingStartParametersSetter<Group> listResponse = ListResponseBuilder.forGroups(groups.getResources(), objectMapper,
+        requestedAttributes.getProjection());
+    RequestedCountSetter pagedListResponse;
+    if (cursorCodec == null) {
+      pagedListResponse = listResponse.withPagingStartParameters(startId, startIndex);
+    } else {
+      pagedListResponse = listResponse.withNextCursor(cursorCodec::encode);
+    }
+    return pagedListResponse
         .withRequestedCount(PagingParamsParser.getExtendedCountOrDefault(groups.getCount(), count))
-        .withTotalResultsCount(groups.getTotalResourceCount())
+        .withTotalResultsCount(groups.getTotalResourceCount(), groups.isTotalResourceCountExact())
         .build();
   }
 
+  /**
+   * Reads the requested page of groups, see {@link #getGroups}, also for searches across resource types.
+   *
+   * @param attributes the <b>attributes</b> parameter, which the candidates of filters the callback does not support are read with
+   * @param requestedAttributes the attributes to be returned
+   */
+  StreamedPagedResult<Group> readGroups(final PageInfo requestedPageInfo, final FilterExpression filterExpression, final SortInfo sortInfo,
+      final String attributes, final RequestedResourceAttributes requestedAttributes) {
+    int maxCount = scimConfig.getMaxResourcesPerPage();
+    PageInfo pageInfo = requestedPageInfo;
+    FilterPlan filterPlan = FilterPlanner.forGroups().plan(filterExpression, groupAPI.getFilterCapabilities());
+    // pages of residually filtered candidates would have to continue at the sort value of the first candidate of the next page
+    boolean isSortedByServer = !groupAPI.isSortingSupported() || pageInfo.getCursor() != null && filterPlan.hasResidualFilter();
+    Duration countTimeToLive = scimConfig.getTotalResultsCacheTimeToLive();
+    Integer cachedCount = totalResultsCache.get(RESOURCE_TYPE_GROUP, filterExpression, countTimeToLive);
+    if (cachedCount != null) {
+      pageInfo = pageInfo.withoutTotalResourceCount();
+    }
+
+    StreamedPagedResult<Group> groups;
+    if (sortInfo != null && isSortedByServer) {
+      RequestedResourceAttributes candidateAttributes = RequestedResourceAttributesParser.parse(attributes, null);
+      Predicate<Group> residualFilter = null;
+      if (filterPlan.hasResidualFilter()) {
+        residualFilter = FilterPredicateCompiler.forGroups(schemaAPI).compile(filterPlan.getResidualFilter());
+      }
+      SortingPager<Group> pager = new SortingPager<>(
+          candidatesPageInfo -> groupAPI.getGroups(candidatesPageInfo, filterPlan.getPushdownFilter(), candidateAttributes), residualFilter,
+          ResourceComparator.forGroups(schemaAPI.getSchemaRegistry(), sortInfo), maxCount, scimConfig.getMaxFilterCandidates());
+      groups = StreamedPagedResult.of(pager.getPage(pageInfo));
+    } else if (filterPlan.hasResidualFilter()) {
+      RequestedResourceAttributes candidateAttributes = RequestedResourceAttributesParser.parse(attributes, null);
+      ResidualFilterPager<Group> pager = new ResidualFilterPager<>(
+          candidatesPageInfo -> groupAPI.getGroups(candidatesPageInfo, filterPlan.getPushdownFilter(), sortInfo, candidateAttributes),
+          FilterPredicateCompiler.forGroups(schemaAPI).compile(filterPlan.getResidualFilter()), maxCount, scimConfig.getMaxFilterCandidates());
+      groups = StreamedPagedResult.of(pager.getPage(pageInfo));
+    } else {
+      groups = groupAPI.streamGroups(pageInfo, filterPlan.getPushdownFilter(), sortInfo, requestedAttributes);
+    }
+
+    return totalResultsCache.complete(RESOURCE_TYPE_GROUP, filterExpression, countTimeToLive, groups, cachedCount);
+  }
+
+  @POST
+  @Path(SEARCH)
+  public Response searchGroups(@Valid final SearchRequest searchRequest) {
+    SearchRequest search = searchRequest == null ? new SearchRequest.Builder().build() : searchRequest;
+    StartIdValidator.validateStartId(search.getStartId(), customConstraintValidators, GROUPS);
+    // @formatter:off
+    return getGroups(Objects.toString(search.getStartIndex(), DEFAULT_START_INDEX),
+                     Objects.toString(search.getCount(), DEFAULT_COUNT),
+                     search.getStartId(),
+                     search.getFilter(),
+                     RequestedResourceAttributesParser.join(search.getAttributes()),
+                     RequestedResourceAttributesParser.join(search.getExcludedAttributes()),
+                     search.getSortBy(),
+                     search.getSortOrder(),
+                     search.getCursor());
+    // @formatter:on
+  }
+
   @POST
   public Response createGroup(@Valid Group newGroup) {
     if (newGroup == null) {
@@ -149,9 +257,6 @@ public class Groups {
     Group preparedGroup = groupPreProcessor.prepareForCreate(newGroup);
     Group createdGroup = groupAPI.createGroup(preparedGroup);
 
-    createdGroup = resourceLocationService.addMembersLocation(createdGroup);
-    createdGroup = resourceLocationService.addLocation(createdGroup, createdGroup.getId());
-
     String version = preparedGroup.getMeta().getVersion();
     logger.trace("Created group {} with version {}", createdGroup.getId(), version);
     return Response.created(resourceLocationService.getLocation(createdGroup.getId())).tag(version).entity(createdGroup).build();
@@ -167,9 +272,6 @@ public class Groups {
 
     Group updatedGroup = groupAPI.updateGroup(preparedGroup);
 
-    updatedGroup = resourceLocationService.addMembersLocation(updatedGroup);
-    updatedGroup = resourceLocationService.addLocation(updatedGroup, updatedGroup.getId());
-
     String version = preparedGroup.getMeta().getVersion();
     logger.trace("Updated group {}, new version is {}", groupId, version);
     return Response.ok(updatedGroup).tag(version).location(resourceLocationService.getLocation(groupId)).build();
@@ -199,4 +301,15 @@ public class Groups {
     logger.trace("Updated group {}", groupId);
     return Response.status(Response.Status.NO_CONTENT).build();
   }
+
+  private FilterExpression parseFilter(final String filter) {
+    if (filter == null || filter.trim().isEmpty()) {
+      return null;
+    }
+    return FilterExpressionParser.forGroups().parse(filter, schemaAPI.getSchemaRegistry());
+  }
+
+  private static String getVersion(final Group resource) {
+    return resource.getMeta() == null ? null : resource.getMeta().getVersion();
+  }
 }
@@ -1,36 +1,44 @@
 package com.sap.scimono.api;
 
-import static com.sap.scimono.entity.paging.PagedByIdentitySearchResult.PAGINATION_BY_ID_END_PARAM;
 import static com.sap.scimono.helper.Strings.isNullOrEmpty;
 
-import java.util.List;
+import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import javax.ws.rs.core.Response;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sap.scimono.api.request.AttributeProjection;
 import com.sap.scimono.entity.Group;
 import com.sap.scimono.entity.Resource;
 import com.sap.scimono.entity.User;
-import com.sap.scimono.entity.paging.PagedByIdentitySearchResult;
-import com.sap.scimono.entity.paging.PagedByIndexSearchResult;
 
-public class ListResponseBuilder<T extends Resource<T>> implements PagingStartParametersSetter, RequestedCountSetter, TotalResultsCountSetter, ResponseBuilder {
-  private final List<T> resources;
+/**
+ * Builds list responses whose resources are written while they are read, see {@link ListResponseWriter}.
+ */
+public class ListResponseBuilder<T extends Resource<T>> implements PagingStartParametersSetter<T>, RequestedCountSetter, TotalResultsCountSetter, ResponseBuilder {
+  private final Stream<T> resources;
+  private final ObjectMapper objectMapper;
+  private final AttributeProjection projection;
 
   private Supplier<Response> responseSupplier;
   private int requestedCount;
   private int totalResultsCount;
+  private boolean totalResultsCountExact = true;
 
-  private ListResponseBuilder(List<T> resources) {
+  private ListResponseBuilder(Stream<T> resources, ObjectMapper objectMapper, AttributeProjection projection) {
     this.resources = resources;
+    this.objectMapper = objectMapper;
+    this.projection = projection;
   }
 
-  public static PagingStartParametersSetter forUsers(List<User> users) {
-    return new ListResponseBuilder<>(users);
+  public static PagingStartParametersSetter<User> forUsers(Stream<User> users, ObjectMapper objectMapper, AttributeProjection projection) {
+    return new ListResponseBuilder<>(users, objectMapper, projection);
   }
 
-  public static PagingStartParametersSetter forGroups(List<Group> groups) {
-    return new ListResponseBuilder<>(groups);
+  public static PagingStartParametersSetter<Group> forGroups(Stream<Group> groups, ObjectMapper objectMapper, AttributeProjection projection) {
+    return new ListResponseBuilder<>(groups, objectMapper, projection);
   }
 
   @Override
@@ -44,6 +52,14 @@ public class ListResponseBuilder<T extends Resource<T>> implements PagingStartPa
     return this;
   }
 
+  @Override
+  public RequestedCountSetter withNextCursor(Function<T, String> nextCursorEncoder) {
+    this.responseSupplier = () -> Response
+        .ok(completed(ListResponseWriter.pagedByCursor(objectMapper, resources, totalResultsCount, requestedCount, nextCursorEncoder)))
+        .build();
+    return this;
+  }
+
   @Override
   public TotalResultsCountSetter withRequestedCount(int count) {
     this.requestedCount = count;
@@ -56,44 +72,32 @@ public class ListResponseBuilder<T extends Resource<T>> implements PagingStartPa
     return this;
   }
 
+  @Override
+  public ResponseBuilder withTotalResultsCount(int count, boolean exact) {
+    this.totalResultsCount = count;
+    this.totalResultsCountExact = exact;
+    return this;
+  }
+
   @Override
   public Response build() {
     return responseSupplier.get();
   }
 
   private void setStartIdResponseSupplier(String startId) {
-    this.responseSupplier = () -> {
-      if (resources.size() <= requestedCount) {
-        return Response.ok(new PagedByIdentitySearchResult<>(resources, totalResultsCount, requestedCount, startId, PAGINATION_BY_ID_END_PARAM))
-            .build();
-      }
-
-      int indexOfLastResource = resources.size() - 1;
-      Resource<?> nextResource = resources.remove(indexOfLastResource);
-
-      return Response.ok(new PagedByIdentitySearchResult<>(resources, totalResultsCount, requestedCount, startId, nextResource.getId())).build();
-
-    };
+    this.responseSupplier = () -> Response
+        .ok(completed(ListResponseWriter.pagedByIdentity(objectMapper, resources, totalResultsCount, requestedCount, startId)))
+        .build();
   }
 
   private void setStartIndexResponseSupplier(int startIndex) {
-    this.responseSupplier = () ->
-        Response.ok(new PagedByIndexSearchResult<>(resources, totalResultsCount, requestedCount, startIndex)).build();
+    this.responseSupplier = () -> Response
+        .ok(completed(ListResponseWriter.pagedByIndex(objectMapper, resources, totalResultsCount, requestedCount, startIndex)))
+        .build();
   }
-}
-
-interface PagingStartParametersSetter {
-  RequestedCountSetter withPagingStartParameters(String startId, int startIndex);
-}
 
-interface RequestedCountSetter {
-  TotalResultsCountSetter withRequestedCount(int count);
-}
-
-interface TotalResultsCountSetter {
-  ResponseBuilder withTotalResultsCount(int count);
-}
-
-interface ResponseBuilder {
-  Response build();
+  private ListResponseWriter<T> completed(ListResponseWriter<T> listResponseWriter) {
+    ListResponseWriter<T> projectedWriter = listResponseWriter.projectedBy(projection);
+    return totalResultsCountExact ? projectedWriter : projectedWriter.withInexactTotalResults();
+  }
 }
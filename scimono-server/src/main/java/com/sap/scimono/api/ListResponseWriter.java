@@ -0,0 +1,179 @@
+package com.sap.scimono.api;
+
+import static com.sap.scimono.entity.paging.PagedByIdentitySearchResult.PAGINATION_BY_ID_END_PARAM;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sap.scimono.api.helper.MapperStreamingOutput;
+import com.sap.scimono.api.request.AttributeProjection;
+import com.sap.scimono.entity.Resource;
+import com.sap.scimono.entity.paging.PagedByIndexSearchResult;
+
+/**
+ * Writes a list response while reading its resources, so that only the resource being written is held in memory. The attributes are the ones
+ * of {@link PagedByIndexSearchResult} and {@link com.sap.scimono.entity.paging.PagedByIdentitySearchResult}, the paging attributes are written
+ * before the resources and the <b>nextId</b> or <b>nextCursor</b> after them. Total results which are not exact are written after the
+ * resources, once the number of resources on the page is known.
+ * <p>
+ * The resources are decorated while they are serialized, e.g. by {@link com.sap.scimono.api.helper.ResourceLocationModule}. The resources
+ * stream is closed after the response is written. The attributes which are not returned by the {@link AttributeProjection} of the request, if
+ * any, are pruned. The response is written with the object mapper of the negotiated data format, if any.
+ */
+class ListResponseWriter<T extends Resource<?>> implements MapperStreamingOutput {
+  private final ObjectMapper objectMapper;
+  private final Stream<T> resources;
+  private final int totalResults;
+  private final boolean totalResultsExact;
+  private final int itemsPerPage;
+  private final Integer startIndex;
+  private final String startId;
+  private final Function<T, String> nextCursorEncoder;
+  private final Function<? super T, AttributeProjection> projection;
+
+  private ListResponseWriter(final ObjectMapper objectMapper, final Stream<T> resources, final int totalResults,
+      final boolean totalResultsExact, final int itemsPerPage, final Integer startIndex, final String startId,
+      final Function<T, String> nextCursorEncoder, final Function<? super T, AttributeProjection> projection) {
+    this.objectMapper = objectMapper;
+    this.resources = resources;
+    this.totalResults = totalResults;
+    this.totalResultsExact = totalResultsExact;
+    this.itemsPerPage = itemsPerPage;
+    this.startIndex = startIndex;
+    this.startId = startId;
+    this.nextCursorEncoder = nextCursorEncoder;
+    this.projection = projection;
+  }
+
+  static <T extends Resource<?>> ListResponseWriter<T> pagedByIndex(final ObjectMapper objectMapper, final Stream<T> resources,
+      final int totalResults, final int itemsPerPage, final int startIndex) {
+    return new ListResponseWriter<>(objectMapper, resources, totalResults, true, itemsPerPage, startIndex, null, null, null);
+  }
+
+  /**
+   * The resources are expected to contain one more resource than the items per page, whose id is written as <b>nextId</b>.
+   */
+  static <T extends Resource<?>> ListResponseWriter<T> pagedByIdentity(final ObjectMapper objectMapper, final Stream<T> resources,
+      final int totalResults, final int itemsPerPage, final String startId) {
+    return new ListResponseWriter<>(objectMapper, resources, totalResults, true, itemsPerPage, null, startId, null, null);
+  }
+
+  /**
+   * The resources are expected to contain one more resource than the items per page, whose cursor is written as <b>nextCursor</b>. There is
+   * no <b>nextCursor</b> on the last page.
+   *
+   * @param nextCursorEncoder encodes the cursor of the page starting at the given resource
+   */
+  static <T extends Resource<?>> ListResponseWriter<T> pagedByCursor(final ObjectMapper objectMapper, final Stream<T> resources,
+      final int totalResults, final int itemsPerPage, final Function<T, String> nextCursorEncoder) {
+    return new ListResponseWriter<>(objectMapper, resources, totalResults, true, itemsPerPage, null, null, nextCursorEncoder, null);
+  }
+
+  /**
+   * @param attributeProjection the attributes of the resources to write, null to write all attributes
+   * @return a writer of the same list response, which prunes the attributes which are not returned
+   */
+  ListResponseWriter<T> projectedBy(final AttributeProjection attributeProjection) {
+    return projectedBy(attributeProjection == null ? null : resource -> attributeProjection);
+  }
+
+  /**
+   * @param resourceProjection the attributes to write of each resource, e.g. of resources of several types, null to write all attributes
+   * @return a writer of the same list response, which prunes the attributes which are not returned
+   */
+  ListResponseWriter<T> projectedBy(final Function<? super T, AttributeProjection> resourceProjection) {
+    return new ListResponseWriter<>(objectMapper, resources, totalResults, totalResultsExact, itemsPerPage, startIndex, startId,
+        nextCursorEncoder, resourceProjection);
+  }
+
+  /**
+   * @return a writer of the same list response, whose total results are unknown or estimated. The total results are written after the
+   *         resources, raised to the number of resources seen, see {@link PagedByIndexSearchResult#getTotalResults(int, boolean, int, int,
+   *         boolean)}.
+   */
+  ListResponseWriter<T> withInexactTotalResults() {
+    return new ListResponseWriter<>(objectMapper, resources, totalResults, false, itemsPerPage, startIndex, startId, nextCursorEncoder,
+        projection);
+  }
+
+  @Override
+  public void write(final OutputStream output) throws IOException {
+    write(output, objectMapper);
+  }
+
+  @Override
+  public void write(final OutputStream output, final ObjectMapper objectMapper) throws IOException {
+    if (projection == null) {
+      writeListResponse(output, objectMapper);
+      return;
+    }
+
+    try {
+      writeListResponse(output, objectMapper);
+    } finally {
+      AttributeProjection.unbind();
+    }
+  }
+
+  private void writeListResponse(final OutputStream output, final ObjectMapper objectMapper) throws IOException {
+    ObjectWriter objectWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    try (Stream<T> resourcesToWrite = resources; JsonGenerator generator = objectWriter.createGenerator(output)) {
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+      generator.writeStartObject();
+      generator.writeArrayFieldStart("schemas");
+      generator.writeString(PagedByIndexSearchResult.SCHEMA);
+      generator.writeEndArray();
+      if (totalResultsExact) {
+        generator.writeNumberField("totalResults", totalResults);
+      }
+      generator.writeNumberField("itemsPerPage", itemsPerPage);
+      if (startIndex != null) {
+        generator.writeNumberField("startIndex", startIndex);
+      }
+      if (startId != null) {
+        generator.writeStringField("startId", startId);
+      }
+
+      Iterator<T> resourcesIterator = resourcesToWrite.iterator();
+      boolean hasNextResource = startId != null || nextCursorEncoder != null;
+      int writtenResources = 0;
+      while (resourcesIterator.hasNext() && (!hasNextResource || writtenResources < itemsPerPage)) {
+        if (writtenResources == 0) {
+          generator.writeArrayFieldStart("Resources");
+        }
+        T resource = resourcesIterator.next();
+        if (projection != null) {
+          AttributeProjection.bind(projection.apply(resource));
+        }
+        objectWriter.writeValue(generator, resource);
+        writtenResources++;
+      }
+      if (writtenResources > 0) {
+        generator.writeEndArray();
+      }
+
+      if (!totalResultsExact) {
+        boolean mayHaveNextPage = hasNextResource ? resourcesIterator.hasNext() : writtenResources > 0 && writtenResources >= itemsPerPage;
+        int precedingResources = startIndex == null ? 0 : startIndex - 1;
+        generator.writeNumberField("totalResults",
+            PagedByIndexSearchResult.getTotalResults(totalResults, false, precedingResources, writtenResources, mayHaveNextPage));
+      }
+
+      if (startId != null) {
+        generator.writeStringField("nextId", resourcesIterator.hasNext() ? resourcesIterator.next().getId() : PAGINATION_BY_ID_END_PARAM);
+      }
+      if (nextCursorEncoder != null && resourcesIterator.hasNext()) {
+        generator.writeStringField("nextCursor", nextCursorEncoder.apply(resourcesIterator.next()));
+      }
+      generator.writeEndObject();
+    }
+  }
+}
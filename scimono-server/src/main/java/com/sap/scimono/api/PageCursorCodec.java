@@ -0,0 +1,223 @@
+package com.sap.scimono.api;
+
+import static com.sap.scimono.exception.SCIMException.Type.EXPIRED_CURSOR;
+import static com.sap.scimono.exception.SCIMException.Type.INVALID_CURSOR;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Objects;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.ws.rs.core.Response;
+
+import com.sap.scimono.callback.config.SCIMConfigurationCallback;
+import com.sap.scimono.callback.schemas.SchemaRegistry;
+import com.sap.scimono.entity.Group;
+import com.sap.scimono.entity.Resource;
+import com.sap.scimono.entity.User;
+import com.sap.scimono.entity.paging.PageCursor;
+import com.sap.scimono.entity.paging.SortInfo;
+import com.sap.scimono.exception.SCIMException;
+import com.sap.scimono.filter.ResourceComparator;
+import com.sap.scimono.filter.expression.FilterExpression;
+
+/**
+ * Encodes and decodes the opaque tokens of the <b>cursor</b> parameter and the <b>nextCursor</b> attribute of list responses. A token holds
+ * the {@link PageCursor} of the next page, the version of the schemas and a SHA-256 digest of the resource type, the filter and the sort it
+ * was issued for, and is signed, so that tokens which are tampered with or replayed with another filter or sort are rejected. Tokens issued for other
+ * schemas are rejected as expired.
+ *
+ * @param <T> the resource type
+ */
+final class PageCursorCodec<T extends Resource<T>> {
+  private static final String SIGNATURE_ALGORITHM = "HmacSHA256";
+  private static final int SIGNATURE_LENGTH = 16;
+  private static final byte FORMAT_VERSION = 2;
+  private static final String CONTEXT_DIGEST_ALGORITHM = "SHA-256";
+  private static final int CONTEXT_DIGEST_LENGTH = 16;
+  private static final byte[] GENERATED_SIGNING_KEY = generateSigningKey();
+
+  private static final byte NULL_KEY = 0;
+  private static final byte STRING_KEY = 1;
+  private static final byte INSTANT_KEY = 2;
+  private static final byte DECIMAL_KEY = 3;
+  private static final byte BOOLEAN_KEY = 4;
+
+  private final SecretKeySpec signingKey;
+  private final long schemaVersion;
+  private final byte[] contextDigest;
+  private final ResourceComparator<T> comparator;
+
+  private PageCursorCodec(final byte[] signingKey, final long schemaVersion, final String context, final ResourceComparator<T> comparator) {
+    this.signingKey = new SecretKeySpec(signingKey == null ? GENERATED_SIGNING_KEY : signingKey, SIGNATURE_ALGORITHM);
+    this.schemaVersion = schemaVersion;
+    this.contextDigest = digest(context);
+    this.comparator = comparator;
+  }
+
+  /**
+   * @param filter the parsed filter or null
+   * @param sortInfo the requested sort or null
+   */
+  static PageCursorCodec<User> forUsers(final SCIMConfigurationCallback scimConfig, final SchemaRegistry schemaRegistry,
+      final FilterExpression filter, final SortInfo sortInfo) {
+    ResourceComparator<User> comparator = sortInfo == null ? null : ResourceComparator.forUsers(schemaRegistry, sortInfo);
+    return new PageCursorCodec<>(scimConfig.getCursorSigningKey(), schemaRegistry.getVersion(), getContext(User.SCHEMA, filter, sortInfo),
+        comparator);
+  }
+
+  /**
+   * @param filter the parsed filter or null
+   * @param sortInfo the requested sort or null
+   */
+  static PageCursorCodec<Group> forGroups(final SCIMConfigurationCallback scimConfig, final SchemaRegistry schemaRegistry,
+      final FilterExpression filter, final SortInfo sortInfo) {
+    ResourceComparator<Group> comparator = sortInfo == null ? null : ResourceComparator.forGroups(schemaRegistry, sortInfo);
+    return new PageCursorCodec<>(scimConfig.getCursorSigningKey(), schemaRegistry.getVersion(), getContext(Group.SCHEMA, filter, sortInfo),
+        comparator);
+  }
+
+  /**
+   * @param token the value of the <b>cursor</b> parameter, an empty value requests the first page
+   * @return the cursor
+   * @throws SCIMException if the token is invalid, was issued for another filter or sort, or for other schemas
+   */
+  PageCursor decode(final String token) {
+    if (token.trim().isEmpty()) {
+      return PageCursor.initial();
+    }
+
+    byte[] bytes;
+    try {
+      bytes = Base64.getUrlDecoder().decode(token.trim());
+    } catch (IllegalArgumentException e) {
+      throw invalidCursor("The cursor is not valid.");
+    }
+    int payloadLength = bytes.length - SIGNATURE_LENGTH;
+    if (payloadLength <= 0 || !MessageDigest.isEqual(sign(bytes, payloadLength), Arrays.copyOfRange(bytes, payloadLength, bytes.length))) {
+      throw invalidCursor("The cursor is not valid.");
+    }
+
+    try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes, 0, payloadLength))) {
+      if (input.readByte() != FORMAT_VERSION) {
+        throw invalidCursor("The cursor is not valid.");
+      }
+      if (input.readLong() != schemaVersion) {
+        throw new SCIMException(EXPIRED_CURSOR, "The cursor was issued for other schemas.", Response.Status.BAD_REQUEST);
+      }
+      byte[] tokenContextDigest = new byte[CONTEXT_DIGEST_LENGTH];
+      input.readFully(tokenContextDigest);
+      if (!MessageDigest.isEqual(tokenContextDigest, contextDigest)) {
+        throw invalidCursor("The cursor was issued for another filter or sort.");
+      }
+      return PageCursor.startingAt(input.readUTF(), readSortKey(input));
+    } catch (IOException e) {
+      throw invalidCursor("The cursor is not valid.");
+    }
+  }
+
+  /**
+   * @param nextResource the first resource of the next page
+   * @return the token of the next page
+   */
+  String encode(final T nextResource) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+    try (DataOutputStream output = new DataOutputStream(bytes)) {
+      output.writeByte(FORMAT_VERSION);
+      output.writeLong(schemaVersion);
+      output.write(contextDigest);
+      output.writeUTF(nextResource.getId());
+      writeSortKey(output, comparator == null ? null : comparator.getSortKey(nextResource));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    byte[] payload = bytes.toByteArray();
+    byte[] token = Arrays.copyOf(payload, payload.length + SIGNATURE_LENGTH);
+    System.arraycopy(sign(payload, payload.length), 0, token, payload.length, SIGNATURE_LENGTH);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(token);
+  }
+
+  private static void writeSortKey(final DataOutputStream output, final Object sortKey) throws IOException {
+    if (sortKey instanceof String) {
+      output.writeByte(STRING_KEY);
+      output.writeUTF((String) sortKey);
+    } else if (sortKey instanceof Instant) {
+      output.writeByte(INSTANT_KEY);
+      output.writeLong(((Instant) sortKey).getEpochSecond());
+      output.writeInt(((Instant) sortKey).getNano());
+    } else if (sortKey instanceof BigDecimal) {
+      output.writeByte(DECIMAL_KEY);
+      output.writeUTF(sortKey.toString());
+    } else if (sortKey instanceof Boolean) {
+      output.writeByte(BOOLEAN_KEY);
+      output.writeBoolean((Boolean) sortKey);
+    } else {
+      output.writeByte(NULL_KEY);
+    }
+  }
+
+  private static Object readSortKey(final DataInputStream input) throws IOException {
+    switch (input.readByte()) {
+      case STRING_KEY:
+        return input.readUTF();
+      case INSTANT_KEY:
+        return Instant.ofEpochSecond(input.readLong(), input.readInt());
+      case DECIMAL_KEY:
+        return new BigDecimal(input.readUTF());
+      case BOOLEAN_KEY:
+        return input.readBoolean();
+      case NULL_KEY:
+        return null;
+      default:
+        throw invalidCursor("The cursor is not valid.");
+    }
+  }
+
+  private byte[] sign(final byte[] bytes, final int length) {
+    try {
+      Mac mac = Mac.getInstance(SIGNATURE_ALGORITHM);
+      mac.init(signingKey);
+      mac.update(bytes, 0, length);
+      return Arrays.copyOf(mac.doFinal(), SIGNATURE_LENGTH);
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Cursors cannot be signed", e);
+    }
+  }
+
+  private static byte[] digest(final String context) {
+    try {
+      byte[] digest = MessageDigest.getInstance(CONTEXT_DIGEST_ALGORITHM).digest(context.getBytes(StandardCharsets.UTF_8));
+      return Arrays.copyOf(digest, CONTEXT_DIGEST_LENGTH);
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Cursors cannot be bound to their filter and sort", e);
+    }
+  }
+
+  private static String getContext(final String resourceSchemaId, final FilterExpression filter, final SortInfo sortInfo) {
+    return resourceSchemaId + "|" + Objects.toString(filter, "") + "|" + Objects.toString(sortInfo, "");
+  }
+
+  private static SCIMException invalidCursor(final String message) {
+    return new SCIMException(INVALID_CURSOR, message, Response.Status.BAD_REQUEST);
+  }
+
+  private static byte[] generateSigningKey() {
+    byte[] key = new byte[32];
+    new SecureRandom().nextBytes(key);
+    return key;
+  }
+}
@@ -1,7 +1,10 @@
 
 package com.sap.scimono.api;
 
+import com.sap.scimono.entity.paging.SortInfo;
+import com.sap.scimono.entity.paging.SortInfo.SortOrder;
 import com.sap.scimono.exception.InvalidInputException;
+import com.sap.scimono.helper.Strings;
 
 public class PagingParamsParser {
 
@@ -45,4 +48,22 @@ public class PagingParamsParser {
     }
     return startIndex;
   }
+
+  /**
+   * @return the requested sort or null if no <b>sortBy</b> parameter is provided, the <b>sortOrder</b> parameter is ignored then
+   */
+  public static SortInfo parseSortInfo(String sortByParam, String sortOrderParam) {
+    if (sortByParam == null || sortByParam.trim().isEmpty()) {
+      return null;
+    }
+
+    SortOrder sortOrder = null;
+    if (!Strings.isNullOrEmpty(sortOrderParam)) {
+      sortOrder = SortOrder.from(sortOrderParam.trim());
+      if (sortOrder == null) {
+        throw new InvalidInputException("SortOrder is neither ascending nor descending.");
+      }
+    }
+    return SortInfo.getInstance(sortByParam.trim(), sortOrder);
+  }
 }
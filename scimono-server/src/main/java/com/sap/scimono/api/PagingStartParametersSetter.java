@@ -0,0 +1,12 @@
+package com.sap.scimono.api;
+
+import java.util.function.Function;
+
+interface PagingStartParametersSetter<T> {
+  RequestedCountSetter withPagingStartParameters(String startId, int startIndex);
+
+  /**
+   * Pages by cursor, the resources contain one more resource than requested if there is a next page.
+   */
+  RequestedCountSetter withNextCursor(Function<T, String> nextCursorEncoder);
+}
@@ -0,0 +1,5 @@
+package com.sap.scimono.api;
+
+interface RequestedCountSetter {
+  TotalResultsCountSetter withRequestedCount(int count);
+}
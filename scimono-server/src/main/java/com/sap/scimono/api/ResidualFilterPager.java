@@ -0,0 +1,120 @@
+package com.sap.scimono.api;
+
+import static com.sap.scimono.exception.SCIMException.Type.TOO_MANY;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import javax.ws.rs.core.Response;
+
+import com.sap.scimono.entity.Resource;
+import com.sap.scimono.entity.paging.PageInfo;
+import com.sap.scimono.entity.paging.PagedResult;
+import com.sap.scimono.exception.SCIMException;
+
+/**
+ * Applies the residual part of a filter, see {@link com.sap.scimono.filter.FilterPlanner}, to the candidates returned by a callback for the
+ * pushed down part. Candidates are read page by page until all of them are tested, so that <b>totalResults</b> counts the matching resources
+ * and <b>startIndex</b> and <b>count</b>, or <b>startId</b>, refer to the matching resources only. Since the matching resources are counted
+ * here, the candidates are read without total resource count.
+ *
+ * @param <T> the resource type
+ */
+final class ResidualFilterPager<T extends Resource<T>> {
+  private final CandidatesReader<T> candidatesReader;
+  private final Predicate<T> residualFilter;
+  private final int pageSize;
+  private final int maxCandidates;
+
+  /**
+   * @param candidatesReader reads a page of the resources matching the pushed down filter
+   * @param residualFilter the residual filter
+   * @param pageSize the number of candidates read at once
+   * @param maxCandidates the maximum number of candidates tested or 0 if there is no limit
+   */
+  ResidualFilterPager(final CandidatesReader<T> candidatesReader, final Predicate<T> residualFilter, final int pageSize,
+      final int maxCandidates) {
+    this.candidatesReader = candidatesReader;
+    this.residualFilter = residualFilter;
+    this.pageSize = Math.max(pageSize, 1);
+    this.maxCandidates = maxCandidates;
+  }
+
+  /**
+   * @param pageInfo the requested page of matching resources
+   * @return the requested page and the number of all matching resources. Paging by id returns one more resource if there is a next page, the
+   *         same way callbacks do.
+   * @throws SCIMException if there are more candidates than the server is willing to test
+   */
+  PagedResult<T> getPage(final PageInfo pageInfo) {
+    return pageInfo.isStandardPaging() ? getPageByIndex(pageInfo) : getPageById(pageInfo);
+  }
+
+  private PagedResult<T> getPageByIndex(final PageInfo pageInfo) {
+    List<T> matchingResources = new ArrayList<>();
+    int matchingResourcesCount = 0;
+    int candidatesCount = 0;
+
+    while (true) {
+      PageInfo candidatesPageInfo = PageInfo.getInstance(pageSize, candidatesCount, null).withoutTotalResourceCount();
+      List<T> candidates = candidatesReader.read(candidatesPageInfo).getResources();
+      for (T candidate : candidates) {
+        if (!residualFilter.test(candidate)) {
+          continue;
+        }
+        if (matchingResourcesCount >= pageInfo.getStartIndex() && matchingResources.size() < pageInfo.getEntityCount()) {
+          matchingResources.add(candidate);
+        }
+        matchingResourcesCount++;
+      }
+
+      candidatesCount += candidates.size();
+      if (candidates.size() < pageSize) {
+        return new PagedResult<>(matchingResourcesCount, matchingResources);
+      }
+      checkCandidatesCount(candidatesCount, maxCandidates);
+    }
+  }
+
+  private PagedResult<T> getPageById(final PageInfo pageInfo) {
+    List<T> matchingResources = new ArrayList<>();
+    int matchingResourcesCount = 0;
+    int candidatesCount = 0;
+    String startId = pageInfo.getStartId();
+
+    while (true) {
+      PageInfo candidatesPageInfo = PageInfo.getInstance(pageSize, 0, startId).withoutTotalResourceCount();
+      List<T> candidates = candidatesReader.read(candidatesPageInfo).getResources();
+      int pageCandidatesCount = Math.min(candidates.size(), pageSize);
+      for (T candidate : candidates.subList(0, pageCandidatesCount)) {
+        if (!residualFilter.test(candidate)) {
+          continue;
+        }
+        if (matchingResources.size() <= pageInfo.getEntityCount()) {
+          matchingResources.add(candidate);
+        }
+        matchingResourcesCount++;
+      }
+
+      candidatesCount += pageCandidatesCount;
+      if (candidates.size() <= pageSize) {
+        return new PagedResult<>(matchingResourcesCount, matchingResources);
+      }
+      checkCandidatesCount(candidatesCount, maxCandidates);
+      startId = candidates.get(pageSize).getId();
+    }
+  }
+
+  static void checkCandidatesCount(final int candidatesCount, final int maxCandidates) {
+    if (maxCandidates > 0 && candidatesCount >= maxCandidates) {
+      throw new SCIMException(TOO_MANY, String.format("The filter requires to test more than %d resources, specify a more selective filter",
+          maxCandidates), Response.Status.BAD_REQUEST);
+    }
+  }
+
+  @FunctionalInterface
+  interface CandidatesReader<T> {
+    PagedResult<T> read(PageInfo pageInfo);
+  }
+}
@@ -0,0 +1,39 @@
+package com.sap.scimono.api;
+
+import java.io.IOException;
+import java.net.URI;
+
+import javax.ws.rs.core.Application;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+import com.sap.scimono.SCIMApplication;
+import com.sap.scimono.helper.ResourceLocations;
+
+/**
+ * Binds the {@link ResourceLocations} of the request to the thread while the response entity is written, so that the locations of users and
+ * groups are added during their serialization.
+ */
+@Provider
+public class ResourceLocationInterceptor implements WriterInterceptor {
+
+  @Context
+  Application appContext;
+
+  @Context
+  UriInfo uriInfo;
+
+  @Override
+  public void aroundWriteTo(final WriterInterceptorContext context) throws IOException {
+    URI redirectApiRoot = SCIMApplication.from(appContext).getConfigurationCallback().getRedirectApiRoot();
+    ResourceLocations.bind(new ResourceLocations(redirectApiRoot == null ? uriInfo.getBaseUri() : redirectApiRoot));
+    try {
+      context.proceed();
+    } finally {
+      ResourceLocations.unbind();
+    }
+  }
+}
@@ -0,0 +1,7 @@
+package com.sap.scimono.api;
+
+import javax.ws.rs.core.Response;
+
+interface ResponseBuilder {
+  Response build();
+}
@@ -52,7 +52,7 @@ public class Schemas {
   public Schemas(@Context Application appContext, @Context UriInfo uriInfo) {
     SCIMApplication scimApplication = SCIMApplication.from(appContext);
 
-    schemaAPI = scimApplication.getSchemasCallback();
+    schemaAPI = scimApplication.getCompiledSchemasCallback();
     scimConfig = scimApplication.getConfigurationCallback();
     resourceLocationService = new ResourceLocationService(uriInfo, scimApplication.getConfigurationCallback(), SCHEMAS);
   }
@@ -0,0 +1,170 @@
+package com.sap.scimono.api;
+
+import static com.sap.scimono.api.API.APPLICATION_CBOR_SCIM;
+import static com.sap.scimono.api.API.APPLICATION_CBOR_SCIM_NEGOTIABLE;
+import static com.sap.scimono.api.API.APPLICATION_JSON_SCIM;
+import static com.sap.scimono.api.API.APPLICATION_SMILE_SCIM;
+import static com.sap.scimono.api.API.APPLICATION_SMILE_SCIM_NEGOTIABLE;
+import static com.sap.scimono.api.API.SEARCH;
+import static com.sap.scimono.entity.paging.PagedByIndexSearchResult.DEFAULT_COUNT;
+import static com.sap.scimono.entity.paging.PagedByIndexSearchResult.DEFAULT_START_INDEX;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.validation.Valid;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Application;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sap.scimono.SCIMApplication;
+import com.sap.scimono.api.helper.ObjectMapperFactory;
+import com.sap.scimono.api.request.RequestedResourceAttributes;
+import com.sap.scimono.api.request.RequestedResourceAttributesParser;
+import com.sap.scimono.callback.config.SCIMConfigurationCallback;
+import com.sap.scimono.callback.schemas.SchemaRegistry;
+import com.sap.scimono.callback.schemas.SchemasCallback;
+import com.sap.scimono.entity.Group;
+import com.sap.scimono.entity.Resource;
+import com.sap.scimono.entity.User;
+import com.sap.scimono.entity.paging.PageInfo;
+import com.sap.scimono.entity.paging.PagedByIndexSearchResult;
+import com.sap.scimono.entity.paging.SearchRequest;
+import com.sap.scimono.entity.paging.StreamedPagedResult;
+import com.sap.scimono.exception.InvalidFilterException;
+import com.sap.scimono.exception.InvalidInputException;
+import com.sap.scimono.filter.FilterExpressionParser;
+import com.sap.scimono.filter.expression.FilterExpression;
+import com.sap.scimono.helper.Strings;
+
+/**
+ * Searches the users and the groups at the root of the service provider, see RFC 7644, section 3.4.3. The users are listed before the
+ * groups, each read the way {@link Users#getUsers} and {@link Groups#getGroups} read them. A resource type whose schemas do not define the
+ * attributes of the filter is not searched. Searches across resource types are paged by <b>startIndex</b> and are not sorted.
+ */
+@Path(SEARCH)
+@Produces({ APPLICATION_JSON_SCIM, APPLICATION_CBOR_SCIM_NEGOTIABLE, APPLICATION_SMILE_SCIM_NEGOTIABLE })
+@Consumes({ APPLICATION_JSON_SCIM, APPLICATION_CBOR_SCIM, APPLICATION_SMILE_SCIM })
+@ServletRequestProvider
+public class Search {
+  private static final Logger logger = LoggerFactory.getLogger(Search.class);
+
+  private final Users users;
+  private final Groups groups;
+  private final SchemasCallback schemaAPI;
+  private final SCIMConfigurationCallback scimConfig;
+  private final ObjectMapper objectMapper;
+
+  public Search(@Context final Application appContext, @Context final UriInfo uriInfo) {
+    SCIMApplication scimApplication = SCIMApplication.from(appContext);
+
+    users = new Users(appContext, uriInfo);
+    groups = new Groups(appContext, uriInfo);
+    schemaAPI = scimApplication.getCompiledSchemasCallback();
+    scimConfig = scimApplication.getConfigurationCallback();
+    objectMapper = ObjectMapperFactory.getObjectMapper(scimApplication.getSerializationProfile());
+  }
+
+  @POST
+  public Response search(@Valid final SearchRequest searchRequest) {
+    SearchRequest search = searchRequest == null ? new SearchRequest.Builder().build() : searchRequest;
+    if (search.getStartId() != null || search.getCursor() != null) {
+      throw new InvalidInputException("Searches across resource types are paged by startIndex only.");
+    }
+    if (!Strings.isNullOrEmpty(search.getSortBy())) {
+      throw new InvalidInputException("Searches across resource types cannot be sorted, search users or groups instead.");
+    }
+
+    int startIndex = PagingParamsParser.parseStartIndex(Objects.toString(search.getStartIndex(), DEFAULT_START_INDEX));
+    int count = PagingParamsParser.parseCount(Objects.toString(search.getCount(), DEFAULT_COUNT));
+    count = Math.min(count, scimConfig.getMaxResourcesPerPage());
+    logger.trace("Searching users and groups with paging parameters startIndex {} count {}", startIndex, count);
+
+    SchemaRegistry schemaRegistry = schemaAPI.getSchemaRegistry();
+    String filter = search.getFilter() == null || search.getFilter().trim().isEmpty() ? null : search.getFilter();
+    FilterExpression usersFilter = filter == null ? null : parseFilter(FilterExpressionParser.forUsers(), filter, schemaRegistry);
+    FilterExpression groupsFilter = filter == null ? null : parseFilter(FilterExpressionParser.forGroups(), filter, schemaRegistry);
+    if (filter != null && usersFilter == null && groupsFilter == null) {
+      // neither resource type can be searched, report why the filter does not apply to users
+      FilterExpressionParser.forUsers().parse(filter, schemaRegistry);
+    }
+
+    String attributes = RequestedResourceAttributesParser.join(search.getAttributes());
+    String excludedAttributes = RequestedResourceAttributesParser.join(search.getExcludedAttributes());
+    RequestedResourceAttributes userAttributes = RequestedResourceAttributesParser.parse(attributes, excludedAttributes, schemaRegistry,
+        User.SCHEMA);
+    RequestedResourceAttributes groupAttributes = RequestedResourceAttributesParser.parse(attributes, excludedAttributes, schemaRegistry,
+        Group.SCHEMA);
+
+    ResourceTypesPage page = new ResourceTypesPage(startIndex - 1, count);
+    if (filter == null || usersFilter != null) {
+      page.add(pageInfo -> users.readUsers(pageInfo, usersFilter, null, attributes, userAttributes));
+    }
+    if (filter == null || groupsFilter != null) {
+      page.add(pageInfo -> groups.readGroups(pageInfo, groupsFilter, null, attributes, groupAttributes));
+    }
+
+    // @formatter:off
+    ListResponseWriter<Resource<?>> listResponse = ListResponseWriter
+        .pagedByIndex(objectMapper, page.resources.stream(), page.getTotalResults(), count, startIndex)
+        .projectedBy(resource -> resource instanceof User ? userAttributes.getProjection() : groupAttributes.getProjection());
+    // @formatter:on
+    return Response.ok(page.totalResultsExact ? listResponse : listResponse.withInexactTotalResults()).build();
+  }
+
+  private static FilterExpression parseFilter(final FilterExpressionParser parser, final String filter,
+      final SchemaRegistry schemaRegistry) {
+    try {
+      return parser.parse(filter, schemaRegistry);
+    } catch (InvalidFilterException e) {
+      return null;
+    }
+  }
+
+  /**
+   * A page of the resources of several types, listed one type after the other. The page of a type starts after the resources of the
+   * previous types, so that the resources of a type are read only if the page reaches them, and only their count otherwise.
+   */
+  private static final class ResourceTypesPage {
+    private final List<Resource<?>> resources = new ArrayList<>();
+    private int startIndex;
+    private int remainingCount;
+    private long totalResults;
+    private boolean totalResultsExact = true;
+
+    private ResourceTypesPage(final int startIndex, final int count) {
+      this.startIndex = startIndex;
+      this.remainingCount = count;
+    }
+
+    private <T extends Resource<T>> void add(final Function<PageInfo, StreamedPagedResult<T>> pageReader) {
+      try (StreamedPagedResult<T> page = pageReader.apply(PageInfo.getInstance(remainingCount, startIndex, null))) {
+        List<T> pageResources = page.getResources().limit(remainingCount).collect(Collectors.toList());
+        int typeTotalResults = PagedByIndexSearchResult.getTotalResults(page.getTotalResourceCount(), page.isTotalResourceCountExact(),
+            startIndex, pageResources.size(), pageResources.size() >= remainingCount);
+
+        resources.addAll(pageResources);
+        remainingCount -= pageResources.size();
+        startIndex = Math.max(startIndex - typeTotalResults, 0);
+        totalResults += typeTotalResults;
+        totalResultsExact &= page.isTotalResourceCountExact();
+      }
+    }
+
+    private int getTotalResults() {
+      return (int) Math.min(totalResults, Integer.MAX_VALUE);
+    }
+  }
+}
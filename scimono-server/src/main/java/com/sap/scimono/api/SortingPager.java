@@ -0,0 +1,146 @@
+package com.sap.scimono.api;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+import com.sap.scimono.api.ResidualFilterPager.CandidatesReader;
+import com.sap.scimono.entity.Resource;
+import com.sap.scimono.entity.paging.PageCursor;
+import com.sap.scimono.entity.paging.PageInfo;
+import com.sap.scimono.entity.paging.PagedResult;
+import com.sap.scimono.exception.InvalidInputException;
+import com.sap.scimono.exception.SCIMException;
+import com.sap.scimono.filter.ResourceComparator;
+
+/**
+ * Sorts the resources returned by a callback which does not sort them itself. Candidates are read page by page and tested by the residual
+ * filter, if any, see {@link ResidualFilterPager}. Only the matching resources up to the end of the requested page are kept, in a heap
+ * whose top is the last of them, so that a page of <b>count</b> resources starting at <b>startIndex</b> is sorted in O(n log k) time and O(k)
+ * memory, where k is <b>startIndex</b> + <b>count</b>. Resources with equal sort values are sorted by id.
+ * <p>
+ * Pages requested by {@link PageCursor} keep the resources starting at the cursor only, so that the cost of a page does not grow with its
+ * position. Like pages requested by id, they contain one more resource if there is a next page.
+ *
+ * @param <T> the resource type
+ */
+final class SortingPager<T extends Resource<T>> {
+  private final CandidatesReader<T> candidatesReader;
+  private final Predicate<T> residualFilter;
+  private final ResourceComparator<T> comparator;
+  private final int pageSize;
+  private final int maxCandidates;
+
+  /**
+   * @param candidatesReader reads an unsorted page of the resources matching the pushed down filter
+   * @param residualFilter the residual filter, null if the callback applies the whole filter
+   * @param comparator the requested sort
+   * @param pageSize the number of candidates read at once
+   * @param maxCandidates the maximum number of candidates sorted or 0 if there is no limit
+   */
+  SortingPager(final CandidatesReader<T> candidatesReader, final Predicate<T> residualFilter, final ResourceComparator<T> comparator,
+      final int pageSize, final int maxCandidates) {
+    this.candidatesReader = candidatesReader;
+    this.residualFilter = residualFilter;
+    this.comparator = comparator;
+    this.pageSize = Math.max(pageSize, 1);
+    this.maxCandidates = maxCandidates;
+  }
+
+  /**
+   * @param pageInfo the requested page of sorted resources
+   * @return the requested page and the number of all matching resources. Paging by cursor returns one more resource if there is a next
+   *         page.
+   * @throws InvalidInputException if the page is requested by <b>startId</b>, which does not refer to a position in the sorted resources
+   * @throws SCIMException if there are more candidates than the server is willing to sort
+   */
+  PagedResult<T> getPage(final PageInfo pageInfo) {
+    PageCursor cursor = pageInfo.getCursor();
+    if (!pageInfo.isStandardPaging() && cursor == null) {
+      throw new InvalidInputException("Paging by startId cannot be combined with sortBy.");
+    }
+
+    RankedResource<T> start = null;
+    if (cursor != null && !cursor.isInitial()) {
+      start = new RankedResource<>(null, cursor.getStartId(), cursor.getStartSortKey());
+    }
+    int startIndex = cursor == null ? pageInfo.getStartIndex() : 0;
+    int keptCount = (int) Math.min((long) startIndex + pageInfo.getEntityCount() + (cursor == null ? 0 : 1), Integer.MAX_VALUE);
+    Comparator<RankedResource<T>> lastFirst = this::compareRanked;
+    PriorityQueue<RankedResource<T>> heap = new PriorityQueue<>(Math.max(Math.min(keptCount, pageSize), 1), lastFirst.reversed());
+    int matchingResourcesCount = 0;
+    int candidatesCount = 0;
+
+    while (true) {
+      PageInfo candidatesPageInfo = PageInfo.getInstance(pageSize, candidatesCount, null).withoutTotalResourceCount();
+      List<T> candidates = candidatesReader.read(candidatesPageInfo).getResources();
+      for (T candidate : candidates) {
+        if (residualFilter != null && !residualFilter.test(candidate)) {
+          continue;
+        }
+        keep(heap, keptCount, candidate, start);
+        matchingResourcesCount++;
+      }
+
+      candidatesCount += candidates.size();
+      if (candidates.size() < pageSize) {
+        return new PagedResult<>(matchingResourcesCount, getPageResources(heap, startIndex));
+      }
+      ResidualFilterPager.checkCandidatesCount(candidatesCount, maxCandidates);
+    }
+  }
+
+  private void keep(final PriorityQueue<RankedResource<T>> heap, final int keptCount, final T candidate, final RankedResource<T> start) {
+    if (keptCount == 0) {
+      return;
+    }
+
+    RankedResource<T> rankedCandidate = new RankedResource<>(candidate, candidate.getId(), comparator.getSortKey(candidate));
+    if (start != null && compareRanked(rankedCandidate, start) < 0) {
+      return;
+    }
+    if (heap.size() < keptCount) {
+      heap.add(rankedCandidate);
+    } else if (compareRanked(rankedCandidate, heap.peek()) < 0) {
+      heap.poll();
+      heap.add(rankedCandidate);
+    }
+  }
+
+  private List<T> getPageResources(final PriorityQueue<RankedResource<T>> heap, final int startIndex) {
+    List<RankedResource<T>> sortedResources = new ArrayList<>(heap);
+    sortedResources.sort(this::compareRanked);
+
+    if (startIndex >= sortedResources.size()) {
+      return Collections.emptyList();
+    }
+    List<T> pageResources = new ArrayList<>(sortedResources.size() - startIndex);
+    for (RankedResource<T> rankedResource : sortedResources.subList(startIndex, sortedResources.size())) {
+      pageResources.add(rankedResource.resource);
+    }
+    return pageResources;
+  }
+
+  private int compareRanked(final RankedResource<T> left, final RankedResource<T> right) {
+    int comparison = comparator.compareSortKeys(left.sortKey, right.sortKey);
+    if (comparison != 0 || left.id == null || right.id == null) {
+      return comparison;
+    }
+    return left.id.compareTo(right.id);
+  }
+
+  private static final class RankedResource<T> {
+    private final T resource;
+    private final String id;
+    private final Object sortKey;
+
+    private RankedResource(final T resource, final String id, final Object sortKey) {
+      this.resource = resource;
+      this.id = id;
+      this.sortKey = sortKey;
+    }
+  }
+}
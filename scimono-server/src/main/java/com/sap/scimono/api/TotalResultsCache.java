@@ -0,0 +1,102 @@
+package com.sap.scimono.api;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.sap.scimono.entity.paging.StreamedPagedResult;
+import com.sap.scimono.filter.expression.FilterExpression;
+
+/**
+ * Application-scoped cache of the exact total resource counts returned by callbacks, per resource type and filter. While a count is
+ * cached, callbacks are told that they need not count the resources matching the same filter, see
+ * {@link com.sap.scimono.entity.paging.PageInfo#isTotalResourceCountRequired()}, and pages without exact count get the cached count.
+ * <p>
+ * Counts are not invalidated when resources change, so they may be off by the changes made within their time to live, see
+ * {@link com.sap.scimono.callback.config.SCIMConfigurationCallback#getTotalResultsCacheTimeToLive()}.
+ */
+public class TotalResultsCache {
+  private static final int MAX_CACHED_COUNTS = 1024;
+
+  private final Map<String, CachedCount> counts = new ConcurrentHashMap<>();
+
+  /**
+   * @param timeToLive how long counts are reused, the cache is disabled if it is zero or negative
+   * @return the cached count of the resources matching the filter or null
+   */
+  Integer get(final String resourceType, final FilterExpression filter, final Duration timeToLive) {
+    if (!isEnabled(timeToLive)) {
+      return null;
+    }
+
+    String key = getKey(resourceType, filter);
+    CachedCount cachedCount = counts.get(key);
+    if (cachedCount == null) {
+      return null;
+    }
+    if (cachedCount.isExpired(System.nanoTime())) {
+      counts.remove(key, cachedCount);
+      return null;
+    }
+    return cachedCount.count;
+  }
+
+  /**
+   * Caches the count of the page if it is exact, or else completes the page with the cached count, if any.
+   *
+   * @param cachedCount the count returned by {@link #get(String, FilterExpression, Duration)} before the page was read
+   * @return the page with exact count if the count is known
+   */
+  <T> StreamedPagedResult<T> complete(final String resourceType, final FilterExpression filter, final Duration timeToLive,
+      final StreamedPagedResult<T> pagedResult, final Integer cachedCount) {
+    if (!pagedResult.isTotalResourceCountExact()) {
+      return cachedCount == null ? pagedResult : pagedResult.withTotalResourceCount(cachedCount);
+    }
+
+    if (isEnabled(timeToLive) && !Objects.equals(cachedCount, pagedResult.getTotalResourceCount())) {
+      put(getKey(resourceType, filter), new CachedCount(pagedResult.getTotalResourceCount(), System.nanoTime() + timeToLive.toNanos()));
+    }
+    return pagedResult;
+  }
+
+  /**
+   * Discards all cached counts, e.g. after many resources were imported.
+   */
+  public void invalidate() {
+    counts.clear();
+  }
+
+  private void put(final String key, final CachedCount cachedCount) {
+    if (counts.size() >= MAX_CACHED_COUNTS && !counts.containsKey(key)) {
+      long now = System.nanoTime();
+      counts.values().removeIf(count -> count.isExpired(now));
+      if (counts.size() >= MAX_CACHED_COUNTS) {
+        return;
+      }
+    }
+    counts.put(key, cachedCount);
+  }
+
+  private static boolean isEnabled(final Duration timeToLive) {
+    return timeToLive != null && !timeToLive.isZero() && !timeToLive.isNegative();
+  }
+
+  private static String getKey(final String resourceType, final FilterExpression filter) {
+    return resourceType + "|" + Objects.toString(filter, "");
+  }
+
+  private static final class CachedCount {
+    private final int count;
+    private final long expiresAt;
+
+    private CachedCount(final int count, final long expiresAt) {
+      this.count = count;
+      this.expiresAt = expiresAt;
+    }
+
+    private boolean isExpired(final long now) {
+      return now - expiresAt >= 0;
+    }
+  }
+}
@@ -0,0 +1,11 @@
+package com.sap.scimono.api;
+
+interface TotalResultsCountSetter {
+  ResponseBuilder withTotalResultsCount(int count);
+
+  /**
+   * @param exact false if the count is unknown or estimated, see
+   *          {@link com.sap.scimono.entity.paging.PagedResult#isTotalResourceCountExact()}
+   */
+  ResponseBuilder withTotalResultsCount(int count, boolean exact);
+}
@@ -1,11 +1,19 @@
 
 package com.sap.scimono.api;
 
+import static com.sap.scimono.api.API.APPLICATION_CBOR_SCIM;
+import static com.sap.scimono.api.API.APPLICATION_CBOR_SCIM_NEGOTIABLE;
 import static com.sap.scimono.api.API.APPLICATION_JSON_SCIM;
+import static com.sap.scimono.api.API.APPLICATION_SMILE_SCIM;
+import static com.sap.scimono.api.API.APPLICATION_SMILE_SCIM_NEGOTIABLE;
 import static com.sap.scimono.api.API.ATTRIBUTES_PARAM;
 import static com.sap.scimono.api.API.COUNT_PARAM;
+import static com.sap.scimono.api.API.CURSOR_PARAM;
 import static com.sap.scimono.api.API.EXCLUDED_ATTRIBUTES_PARAM;
 import static com.sap.scimono.api.API.FILTER_PARAM;
+import static com.sap.scimono.api.API.SEARCH;
+import static com.sap.scimono.api.API.SORT_BY_PARAM;
+import static com.sap.scimono.api.API.SORT_ORDER_PARAM;
 import static com.sap.scimono.api.API.START_ID_PARAM;
 import static com.sap.scimono.api.API.START_INDEX_PARAM;
 import static com.sap.scimono.api.API.USERS;
@@ -13,11 +21,14 @@ import static com.sap.scimono.entity.User.RESOURCE_TYPE_USER;
 import static com.sap.scimono.entity.paging.PagedByIndexSearchResult.DEFAULT_COUNT;
 import static com.sap.scimono.entity.paging.PagedByIndexSearchResult.DEFAULT_START_INDEX;
 
+import java.time.Duration;
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Predicate;
 
 import javax.validation.Valid;
 import javax.ws.rs.Consumes;
@@ -42,9 +53,12 @@ import javax.ws.rs.core.UriInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sap.scimono.SCIMApplication;
+import com.sap.scimono.api.helper.ObjectMapperFactory;
 import com.sap.scimono.api.patch.PATCH;
 import com.sap.scimono.api.preprocessor.ResourcePreProcessor;
+import com.sap.scimono.api.request.RequestedResourceAttributes;
 import com.sap.scimono.api.request.RequestedResourceAttributesParser;
 import com.sap.scimono.callback.config.SCIMConfigurationCallback;
 import com.sap.scimono.callback.resourcetype.ResourceTypesCallback;
@@ -53,17 +67,27 @@ import com.sap.scimono.callback.users.UsersCallback;
 import com.sap.scimono.entity.Meta;
 import com.sap.scimono.entity.User;
 import com.sap.scimono.entity.paging.PageInfo;
-import com.sap.scimono.entity.paging.PagedResult;
+import com.sap.scimono.entity.paging.SearchRequest;
+import com.sap.scimono.entity.paging.SortInfo;
+import com.sap.scimono.entity.paging.StreamedPagedResult;
 import com.sap.scimono.entity.patch.PatchBody;
+import com.sap.scimono.entity.schema.validation.CustomInputValidator;
+import com.sap.scimono.entity.schema.validation.StartIdValidator;
 import com.sap.scimono.entity.schema.validation.ValidStartId;
 import com.sap.scimono.entity.validation.patch.PatchValidationFramework;
 import com.sap.scimono.exception.InvalidInputException;
 import com.sap.scimono.exception.ResourceNotFoundException;
+import com.sap.scimono.filter.FilterExpressionParser;
+import com.sap.scimono.filter.FilterPlan;
+import com.sap.scimono.filter.FilterPlanner;
+import com.sap.scimono.filter.FilterPredicateCompiler;
+import com.sap.scimono.filter.ResourceComparator;
+import com.sap.scimono.filter.expression.FilterExpression;
 import com.sap.scimono.helper.ResourceLocationService;
 
 @Path(USERS)
-@Produces(APPLICATION_JSON_SCIM)
-@Consumes(APPLICATION_JSON_SCIM)
+@Produces({ APPLICATION_JSON_SCIM, APPLICATION_CBOR_SCIM_NEGOTIABLE, APPLICATION_SMILE_SCIM_NEGOTIABLE })
+@Consumes({ APPLICATION_JSON_SCIM, APPLICATION_CBOR_SCIM, APPLICATION_SMILE_SCIM })
 @ServletRequestProvider
 public class Users {
   private static final Logger logger = LoggerFactory.getLogger(Users.class);
@@ -73,8 +97,11 @@ public class Users {
   private final SchemasCallback schemaAPI;
   private final ResourceTypesCallback resourceTypesAPI;
   private final SCIMConfigurationCallback scimConfig;
+  private final ObjectMapper objectMapper;
   private final ResourceLocationService resourceLocationService;
   private final ResourcePreProcessor<User> userPreProcessor;
+  private final TotalResultsCache totalResultsCache;
+  private final Map<CustomInputValidator.Type, CustomInputValidator> customConstraintValidators;
 
   private static final String NOT_VALID_INPUTS = "One of the request inputs is not valid.";
 
@@ -83,9 +110,12 @@ public class Users {
     SCIMApplication scimApplication = SCIMApplication.from(appContext);
 
     usersAPI = scimApplication.getUsersCallback();
-    schemaAPI = scimApplication.getSchemasCallback();
+    schemaAPI = scimApplication.getCompiledSchemasCallback();
     resourceTypesAPI = scimApplication.getResourceTypesCallback();
     scimConfig = scimApplication.getConfigurationCallback();
+    totalResultsCache = scimApplication.getTotalResultsCache();
+    customConstraintValidators = scimApplication.getCustomConstraintValidators();
+    objectMapper = ObjectMapperFactory.getObjectMapper(scimApplication.getSerializationProfile());
     resourceLocationService = new ResourceLocationService(uriInfo, scimConfig, USERS);
     userPreProcessor = ResourcePreProcessor.forUsers(resourceLocationService, usersAPI, resourceTypesAPI, schemaAPI);
   }
@@ -109,9 +139,7 @@ public class Users {
     }
     location.path(userFromDb.getId());
 
-    User user = resourceLocationService.addLocation(userFromDb, location.build());
-    user = resourceLocationService.addRelationalEntitiesLocation(user);
-    return Response.ok(user).tag(user.getMeta().getVersion()).location(location.build()).build();
+    return Response.ok(userFromDb).tag(getVersion(userFromDb)).location(location.build()).build();
   }
 
   @GET
@@ -122,15 +150,15 @@ public class Users {
                           @QueryParam(EXCLUDED_ATTRIBUTES_PARAM) final String excludedAttributes) {
     // @formatter:on
     logger.trace("Reading user {}", userId);
-    User userFromDb = usersAPI.getUser(userId, RequestedResourceAttributesParser.parse(attributes, excludedAttributes));
+    RequestedResourceAttributes requestedAttributes = RequestedResourceAttributesParser.parse(attributes, excludedAttributes,
+        schemaAPI.getSchemaRegistry(), User.SCHEMA);
+    User userFromDb = usersAPI.getUser(userId, requestedAttributes);
 
     if (userFromDb == null) {
       throw new ResourceNotFoundException(RESOURCE_TYPE_USER, userId);
     }
 
-    User user = resourceLocationService.addLocation(userFromDb, userId);
-    user = resourceLocationService.addRelationalEntitiesLocation(user);
-    return Response.ok(user).tag(user.getMeta().getVersion()).location(resourceLocationService.getLocation(userId)).build();
+    return Response.ok(userFromDb).tag(getVersion(userFromDb)).location(resourceLocationService.getLocation(userId)).build();
   }
 
   @GET
@@ -140,12 +168,16 @@ public class Users {
                            @QueryParam(START_ID_PARAM) @ValidStartId final String startId,
                            @QueryParam(FILTER_PARAM) final String filter,
                            @QueryParam(ATTRIBUTES_PARAM) final String attributes,
-                           @QueryParam(EXCLUDED_ATTRIBUTES_PARAM) final String excludedAttributes) {
+                           @QueryParam(EXCLUDED_ATTRIBUTES_PARAM) final String excludedAttributes,
+                           @QueryParam(SORT_BY_PARAM) final String sortBy,
+                           @QueryParam(SORT_ORDER_PARAM) final String sortOrder,
+                           @QueryParam(CURSOR_PARAM) final String cursor) {
     // @formatter:on
     logger.trace("Reading users with paging parameters startIndex {} startId {} count {}", startIndexParam, startId, countParam);
 
     int startIndex = PagingParamsParser.parseStartIndex(startIndexParam);
     int count = PagingParamsParser.parseCount(countParam);
+    SortInfo sortInfo = scimConfig.getSortSupportedSetting() ? PagingParamsParser.parseSortInfo(sortBy, sortOrder) : null;
 
     int maxCount = scimConfig.getMaxResourcesPerPage();
     logger.trace("Configured max count of returned resources is {}", maxCount);
@@ -153,23 +185,80 @@ public class Users {
       count = maxCount;
     }
 
-    PageInfo pageInfo = PageInfo.getInstance(count, startIndex - 1, startId);
-    PagedResult<User> users = usersAPI.getUsers(pageInfo, filter, RequestedResourceAttributesParser.parse(attributes, excludedAttributes));
-
-    List<User> usersToReturn = new ArrayList<>();
-    for (User user : users.getResources()) {
-      user = resourceLocationService.addLocation(user, user.getId());
-      user = resourceLocationService.addRelationalEntitiesLocation(user);
-      usersToReturn.add(user);
+    FilterExpression filterExpression = parseFilter(filter);
+    PageCursorCodec<User> cursorCodec = null;
+    PageInfo pageInfo;
+    if (cursor == null) {
+      pageInfo = PageInfo.getInstance(count, startIndex - 1, startId);
+    } else {
+      if (startId != null) {
+        throw new InvalidInputException("Paging by cursor cannot be combined with startId.");
+      }
+      cursorCodec = PageCursorCodec.forUsers(scimConfig, schemaAPI.getSchemaRegistry(), filterExpression, sortInfo);
+      pageInfo = PageInfo.getInstance(count, cursorCodec.decode(cursor));
     }
 
-    return ListResponseBuilder.forUsers(usersToReturn)
-        .withPagingStartParameters(startId, startIndex)
+    RequestedResourceAttributes requestedAttributes = RequestedResourceAttributesParser.parse(attributes, excludedAttributes,
+        schemaAPI.getSchemaRegistry(), User.SCHEMA);
+    StreamedPagedResult<User> users = readUsers(pageInfo, filterExpression, sortInfo, attributes, requestedAttributes);
+
+    PagingStartParametersSetter<User> listResponse = ListResponseBuilder.forUsers(users.getResources(), objectMapper,
+        requestedAttributes.getProjection());
+    RequestedCountSetter pagedListResponse;
+    if (cursorCodec == null) {
+      pagedListResponse = listResponse.withPagingStartParameters(startId, startIndex);
+    } else {
+      pagedListResponse = listResponse.withNextCursor(cursorCodec::encode);
+    }
+    return pagedListResponse
         .withRequestedCount(count)
-        .withTotalResultsCount(users.getTotalResourceCount())
+        .withTotalResultsCount(users.getTotalResourceCount(), users.isTotalResourceCountExact())
         .build();
   }
 
+  /**
+   * Reads the requested page of users, see {@link #getUsers}, also for searches across resource types.
+   *
+   * @param attributes the <b>attributes</b> parameter, which the candidates of filters the callback does not support are read with
+   * @param requestedAttributes the attributes to be returned
+   */
+  StreamedPagedResult<User> readUsers(final PageInfo requestedPageInfo, final FilterExpression filterExpression, final SortInfo sortInfo,
+      final String attributes, final RequestedResourceAttributes requestedAttributes) {
+    int maxCount = scimConfig.getMaxResourcesPerPage();
+    PageInfo pageInfo = requestedPageInfo;
+    FilterPlan filterPlan = FilterPlanner.forUsers().plan(filterExpression, usersAPI.getFilterCapabilities());
+    // pages of residually filtered candidates would have to continue at the sort value of the first candidate of the next page
+    boolean isSortedByServer = !usersAPI.isSortingSupported() || pageInfo.getCursor() != null && filterPlan.hasResidualFilter();
+    Duration countTimeToLive = scimConfig.getTotalResultsCacheTimeToLive();
+    Integer cachedCount = totalResultsCache.get(RESOURCE_TYPE_USER, filterExpression, countTimeToLive);
+    if (cachedCount != null) {
+      pageInfo = pageInfo.withoutTotalResourceCount();
+    }
+
+    StreamedPagedResult<User> users;
+    if (sortInfo != null && isSortedByServer) {
+      RequestedResourceAttributes candidateAttributes = RequestedResourceAttributesParser.parse(attributes, null);
+      Predicate<User> residualFilter = null;
+      if (filterPlan.hasResidualFilter()) {
+        residualFilter = FilterPredicateCompiler.forUsers(schemaAPI).compile(filterPlan.getResidualFilter());
+      }
+      SortingPager<User> pager = new SortingPager<>(
+          candidatesPageInfo -> usersAPI.getUsers(candidatesPageInfo, filterPlan.getPushdownFilter(), candidateAttributes), residualFilter,
+          ResourceComparator.forUsers(schemaAPI.getSchemaRegistry(), sortInfo), maxCount, scimConfig.getMaxFilterCandidates());
+      users = StreamedPagedResult.of(pager.getPage(pageInfo));
+    } else if (filterPlan.hasResidualFilter()) {
+      RequestedResourceAttributes candidateAttributes = RequestedResourceAttributesParser.parse(attributes, null);
+      ResidualFilterPager<User> pager = new ResidualFilterPager<>(
+          candidatesPageInfo -> usersAPI.getUsers(candidatesPageInfo, filterPlan.getPushdownFilter(), sortInfo, candidateAttributes),
+          FilterPredicateCompiler.forUsers(schemaAPI).compile(filterPlan.getResidualFilter()), maxCount, scimConfig.getMaxFilterCandidates());
+      users = StreamedPagedResult.of(pager.getPage(pageInfo));
+    } else {
+      users = usersAPI.streamUsers(pageInfo, filterPlan.getPushdownFilter(), sortInfo, requestedAttributes);
+    }
+
+    return totalResultsCache.complete(RESOURCE_TYPE_USER, filterExpression, countTimeToLive, users, cachedCount);
+  }
+
   @POST
   public Response createUser(@Valid final User newUser) {
     if (newUser == null) {
@@ -179,9 +268,6 @@ public class Users {
     User preparedUser = userPreProcessor.prepareForCreate(newUser);
     User createdUser = usersAPI.createUser(preparedUser);
 
-    createdUser = resourceLocationService.addLocation(createdUser, createdUser.getId());
-    createdUser = resourceLocationService.addRelationalEntitiesLocation(createdUser);
-
     String version = preparedUser.getMeta().getVersion();
     logger.trace("Created user {} with version {}", createdUser.getId(), version);
     return Response.created(resourceLocationService.getLocation(createdUser.getId())).tag(version).entity(createdUser).build();
@@ -197,9 +283,6 @@ public class Users {
 
     User updatedUser = usersAPI.updateUser(preparedUser);
 
-    updatedUser = resourceLocationService.addLocation(updatedUser, updatedUser.getId());
-    updatedUser = resourceLocationService.addRelationalEntitiesLocation(updatedUser);
-
     String version = preparedUser.getMeta().getVersion();
 
     logger.trace("Updated user {}, new version is {}", userId, version);
@@ -232,9 +315,43 @@ public class Users {
     return Response.status(Status.NO_CONTENT).build();
   }
 
+  @POST
+  @Path(SEARCH)
+  public Response searchUsers(@Valid final SearchRequest searchRequest) {
+    SearchRequest search = searchRequest == null ? new SearchRequest.Builder().build() : searchRequest;
+    StartIdValidator.validateStartId(search.getStartId(), customConstraintValidators, USERS);
+    // @formatter:off
+    return getUsers(Objects.toString(search.getStartIndex(), DEFAULT_START_INDEX),
+                    Objects.toString(search.getCount(), DEFAULT_COUNT),
+                    search.getStartId(),
+                    search.getFilter(),
+                    RequestedResourceAttributesParser.join(search.getAttributes()),
+                    RequestedResourceAttributesParser.join(search.getExcludedAttributes()),
+                    search.getSortBy(),
+                    search.getSortOrder(),
+                    search.getCursor());
+    // @formatter:on
+  }
+
+  /**
+   * @deprecated use {@link #searchUsers(SearchRequest)}, which this endpoint delegates to. Without a request body only the total
+   *             count of the users is returned.
+   */
+  @Deprecated
   @POST
   @Path(".query")
-  public Response queryUsers() {
-    return getUsers("0", "0", null, null, null, null);
+  public Response queryUsers(@Valid final SearchRequest searchRequest) {
+    return searchUsers(searchRequest == null ? new SearchRequest.Builder().setCount(0).build() : searchRequest);
+  }
+
+  private FilterExpression parseFilter(final String filter) {
+    if (filter == null || filter.trim().isEmpty()) {
+      return null;
+    }
+    return FilterExpressionParser.forUsers().parse(filter, schemaAPI.getSchemaRegistry());
+  }
+
+  private static String getVersion(final User resource) {
+    return resource.getMeta() == null ? null : resource.getMeta().getVersion();
   }
 }
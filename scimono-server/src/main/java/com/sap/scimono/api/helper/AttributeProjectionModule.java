@@ -0,0 +1,116 @@
+package com.sap.scimono.api.helper;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.introspect.Annotated;
+import com.fasterxml.jackson.databind.introspect.AnnotatedClass;
+import com.fasterxml.jackson.databind.introspect.NopAnnotationIntrospector;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.databind.ser.std.MapProperty;
+import com.sap.scimono.api.request.AttributeProjection;
+import com.sap.scimono.entity.Manager;
+import com.sap.scimono.entity.Name;
+import com.sap.scimono.entity.Resource;
+import com.sap.scimono.entity.base.Extension;
+import com.sap.scimono.entity.base.MultiValuedAttribute;
+
+/**
+ * Prunes the attributes which are not returned by the {@link AttributeProjection} bound to the thread writing the response, while the
+ * resources are serialized and without copying them. The attributes of resources and extensions and the sub-attributes of complex
+ * attributes are filtered by a property filter assigned to their classes, the extensions of resources are filtered as a whole. Without a
+ * bound projection all attributes are written.
+ * <p>
+ * The sub-attributes of <b>groups</b> and <b>members</b> are filtered by their serializers.
+ */
+public class AttributeProjectionModule extends SimpleModule {
+  private static final long serialVersionUID = 1L;
+
+  private static final String FILTER_ID = AttributeProjection.class.getName();
+
+  public AttributeProjectionModule() {
+    super(AttributeProjectionModule.class.getSimpleName());
+  }
+
+  @Override
+  public void setupModule(final SetupContext context) {
+    super.setupModule(context);
+    context.insertAnnotationIntrospector(new ProjectedTypesIntrospector());
+
+    ObjectCodec owner = context.getOwner();
+    if (owner instanceof ObjectMapper) {
+      ((ObjectMapper) owner).setFilterProvider(new SimpleFilterProvider().addFilter(FILTER_ID, new ProjectionFilter()));
+    }
+  }
+
+  private static class ProjectedTypesIntrospector extends NopAnnotationIntrospector {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public Object findFilterId(final Annotated annotated) {
+      return annotated instanceof AnnotatedClass && isProjected(annotated.getRawType()) ? FILTER_ID : null;
+    }
+
+    private static boolean isProjected(final Class<?> type) {
+      // @formatter:off
+      return Resource.class.isAssignableFrom(type)
+          || Extension.class.isAssignableFrom(type)
+          || MultiValuedAttribute.class.isAssignableFrom(type)
+          || Name.class.equals(type)
+          || Manager.class.equals(type);
+      // @formatter:on
+    }
+  }
+
+  private static class ProjectionFilter extends SimpleBeanPropertyFilter {
+
+    @Override
+    public void serializeAsField(final Object pojo, final JsonGenerator gen, final SerializerProvider provider, final PropertyWriter writer)
+        throws Exception {
+      AttributeProjection projection = AttributeProjection.current();
+      if (projection == null || isReturned(projection, pojo, writer, gen)) {
+        writer.serializeAsField(pojo, gen, provider);
+      } else if (!gen.canOmitFields()) {
+        writer.serializeAsOmittedField(pojo, gen, provider);
+      }
+    }
+
+    private static boolean isReturned(final AttributeProjection projection, final Object pojo, final PropertyWriter writer,
+        final JsonGenerator gen) {
+      if (pojo instanceof Resource) {
+        if (writer instanceof MapProperty) {
+          return projection.isSchemaReturned(writer.getName());
+        }
+        return projection.isReturned(projection.getResourceSchemaId(), writer.getName());
+      }
+      if (pojo instanceof Extension) {
+        return projection.isReturned(((Extension) pojo).getUrn(), writer.getName());
+      }
+      if (!projection.hasPartiallyReturnedAttributes()) {
+        return true;
+      }
+
+      JsonStreamContext attributeContext = gen.getOutputContext().getParent();
+      if (attributeContext != null && attributeContext.inArray()) {
+        attributeContext = attributeContext.getParent();
+      }
+      String schemaId = attributeContext == null ? null : getSchemaId(projection, attributeContext.getCurrentValue());
+      return schemaId == null || projection.isReturned(schemaId, attributeContext.getCurrentName(), writer.getName());
+    }
+
+    private static String getSchemaId(final AttributeProjection projection, final Object attributeOwner) {
+      if (attributeOwner instanceof Resource) {
+        return projection.getResourceSchemaId();
+      }
+      if (attributeOwner instanceof Extension) {
+        return ((Extension) attributeOwner).getUrn();
+      }
+      return null;
+    }
+  }
+}
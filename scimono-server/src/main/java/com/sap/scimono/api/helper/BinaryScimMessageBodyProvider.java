@@ -0,0 +1,87 @@
+package com.sap.scimono.api.helper;
+
+import static com.sap.scimono.api.API.APPLICATION_CBOR_SCIM;
+import static com.sap.scimono.api.API.APPLICATION_SMILE_SCIM;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.ContextResolver;
+import javax.ws.rs.ext.MessageBodyReader;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Providers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Reads and writes entities of the binary SCIM media types <b>application/scim+cbor</b> and <b>application/scim+smile</b>. The object mapper
+ * of the media type is resolved by the {@link ScimObjectMapperResolver} registered for it, e.g. {@link JacksonResolver}, or is the shared one
+ * of {@link ObjectMapperFactory} otherwise.
+ * <p>
+ * The binary media types are meant for traffic between SCIM services, <b>application/scim+json</b> remains the default media type of all
+ * resources. They are optional, a media type is supported only if its Jackson data format, <b>jackson-dataformat-cbor</b> or
+ * <b>jackson-dataformat-smile</b>, is on the classpath.
+ */
+@Consumes({ APPLICATION_CBOR_SCIM, APPLICATION_SMILE_SCIM })
+@Produces({ APPLICATION_CBOR_SCIM, APPLICATION_SMILE_SCIM })
+public class BinaryScimMessageBodyProvider implements MessageBodyReader<Object>, MessageBodyWriter<Object> {
+  private final Providers providers;
+
+  public BinaryScimMessageBodyProvider(@Context final Providers providers) {
+    this.providers = providers;
+  }
+
+  @Override
+  public boolean isReadable(final Class<?> type, final Type genericType, final Annotation[] annotations, final MediaType mediaType) {
+    return ObjectMapperFactory.isBinaryMediaType(mediaType);
+  }
+
+  @Override
+  public Object readFrom(final Class<Object> type, final Type genericType, final Annotation[] annotations, final MediaType mediaType,
+      final MultivaluedMap<String, String> httpHeaders, final InputStream entityStream) throws IOException {
+    ObjectMapper objectMapper = getObjectMapper(type, mediaType);
+    try (JsonParser parser = objectMapper.getFactory().createParser(entityStream)) {
+      parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+      return objectMapper.readValue(parser, objectMapper.constructType(genericType));
+    }
+  }
+
+  @Override
+  public boolean isWriteable(final Class<?> type, final Type genericType, final Annotation[] annotations, final MediaType mediaType) {
+    return ObjectMapperFactory.isBinaryMediaType(mediaType);
+  }
+
+  @Override
+  public void writeTo(final Object entity, final Class<?> type, final Type genericType, final Annotation[] annotations, final MediaType mediaType,
+      final MultivaluedMap<String, Object> httpHeaders, final OutputStream entityStream) throws IOException {
+    ObjectMapper objectMapper = getObjectMapper(type, mediaType);
+    if (entity instanceof MapperStreamingOutput) {
+      ((MapperStreamingOutput) entity).write(entityStream, objectMapper);
+      return;
+    }
+
+    try (JsonGenerator generator = objectMapper.getFactory().createGenerator(entityStream)) {
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE).writeValue(generator, entity);
+    }
+  }
+
+  private ObjectMapper getObjectMapper(final Class<?> type, final MediaType mediaType) {
+    ContextResolver<ObjectMapper> resolver = providers == null ? null : providers.getContextResolver(ObjectMapper.class, mediaType);
+    if (resolver instanceof ScimObjectMapperResolver) {
+      return ((ScimObjectMapperResolver) resolver).getContext(type, mediaType);
+    }
+    return ObjectMapperFactory.getObjectMapper(mediaType, ObjectMapperFactory.Profile.COMPACT);
+  }
+}
@@ -10,13 +10,18 @@
 
 package com.sap.scimono.api.helper;
 
+import static com.sap.scimono.api.API.APPLICATION_CBOR_SCIM;
 import static com.sap.scimono.api.API.APPLICATION_JSON_SCIM;
+import static com.sap.scimono.api.API.APPLICATION_SMILE_SCIM;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.Produces;
-import javax.ws.rs.ext.ContextResolver;
+import javax.ws.rs.core.Application;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sap.scimono.SCIMApplication;
 
 /**
  * Due to the specifics of JAX-RS entity provider selection, Jackson's default object mapper is not automatically selected to handle object
@@ -26,17 +31,32 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  * <p>
  * This class forces the JAX-RS implementation to use Jackson's default object mapper by changing how the resolution process works for media type
  * application/scim+json.
+ * <p>
+ * The object mapper of the profile selected by {@link SCIMApplication#getSerializationProfile()} is shared by all requests. The object mappers
+ * of the binary media types application/scim+cbor and application/scim+smile are resolved for {@link BinaryScimMessageBodyProvider}.
  *
  * @author i061675
  *
  */
-@Consumes(APPLICATION_JSON_SCIM)
-@Produces(APPLICATION_JSON_SCIM)
-public class JacksonResolver implements ContextResolver<ObjectMapper> {
+@Consumes({ APPLICATION_JSON_SCIM, APPLICATION_CBOR_SCIM, APPLICATION_SMILE_SCIM })
+@Produces({ APPLICATION_JSON_SCIM, APPLICATION_CBOR_SCIM, APPLICATION_SMILE_SCIM })
+public class JacksonResolver implements ScimObjectMapperResolver {
+  private final ObjectMapperFactory.Profile profile;
+  private final ObjectMapper objectMapper;
+
+  public JacksonResolver(@Context final Application appContext) {
+    this.profile = SCIMApplication.from(appContext).getSerializationProfile();
+    this.objectMapper = ObjectMapperFactory.getObjectMapper(profile);
+  }
 
   @Override
   public ObjectMapper getContext(final Class<?> type) {
-    return ObjectMapperFactory.createObjectMapper();
+    return objectMapper;
+  }
+
+  @Override
+  public ObjectMapper getContext(final Class<?> type, final MediaType mediaType) {
+    return ObjectMapperFactory.getObjectMapper(mediaType, profile);
   }
 
 }
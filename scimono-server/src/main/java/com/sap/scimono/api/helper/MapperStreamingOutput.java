@@ -0,0 +1,21 @@
+package com.sap.scimono.api.helper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.ws.rs.core.StreamingOutput;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * A streaming entity written with an object mapper, which may be replaced by the one of the negotiated data format.
+ */
+public interface MapperStreamingOutput extends StreamingOutput {
+
+  /**
+   * @param output the entity stream
+   * @param objectMapper the object mapper of the negotiated data format
+   * @throws IOException if the entity could not be written
+   */
+  void write(OutputStream output, ObjectMapper objectMapper) throws IOException;
+}
@@ -1,29 +1,193 @@
-
 package com.sap.scimono.api.helper;
 
+import static com.sap.scimono.api.API.APPLICATION_CBOR_SCIM;
+import static com.sap.scimono.api.API.APPLICATION_SMILE_SCIM;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.ws.rs.NotSupportedException;
+import javax.ws.rs.core.MediaType;
+
 import com.fasterxml.jackson.annotation.JsonSetter;
 import com.fasterxml.jackson.annotation.Nulls;
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sap.scimono.entity.Group;
+import com.sap.scimono.entity.User;
+import com.sap.scimono.entity.paging.PagedByIndexSearchResult;
+import com.sap.scimono.entity.patch.PatchBody;
 
 public class ObjectMapperFactory {
 
+  /**
+   * Output profiles of the object mappers. Attribute names are read case-insensitively in both profiles, as required by SCIM.
+   */
+  public enum Profile {
+    /**
+     * Writes JSON without whitespace, recommended for production use.
+     */
+    COMPACT,
+    /**
+     * Writes indented JSON, the default of {@link com.sap.scimono.SCIMApplication#getSerializationProfile()}.
+     */
+    PRETTY
+  }
+
+  // @formatter:off
+  private static final List<Class<?>> PREPARED_TYPES = Arrays.asList(
+      User.class,
+      Group.class,
+      PatchBody.class,
+      PagedByIndexSearchResult.class);
+  // @formatter:on
+
+  private static final Map<Profile, ObjectMapper> SHARED_MAPPERS = new EnumMap<>(Profile.class);
+  private static final boolean CBOR_AVAILABLE = isClassAvailable("com.fasterxml.jackson.dataformat.cbor.CBORFactory");
+  private static final boolean SMILE_AVAILABLE = isClassAvailable("com.fasterxml.jackson.dataformat.smile.SmileFactory");
+
+  static {
+    for (Profile profile : Profile.values()) {
+      SHARED_MAPPERS.put(profile, prepare(createObjectMapper(profile)));
+    }
+  }
+
   private ObjectMapperFactory() {
   }
 
+  /**
+   * @return a new object mapper writing indented JSON
+   */
   public static ObjectMapper createObjectMapper() {
-    ObjectMapper mapper = new ObjectMapper();
+    return createObjectMapper(Profile.PRETTY);
+  }
+
+  /**
+   * @param profile the output profile
+   * @return a new object mapper, which may be configured further
+   */
+  public static ObjectMapper createObjectMapper(final Profile profile) {
+    return createObjectMapper(null, profile);
+  }
+
+  /**
+   * @param dataFormat the factory of the parsers and generators of the data format, e.g. a CBOR factory, or {@code null} for JSON
+   * @param profile the output profile, which has no effect on binary data formats
+   * @return a new object mapper, which may be configured further
+   */
+  public static ObjectMapper createObjectMapper(final JsonFactory dataFormat, final Profile profile) {
+    ObjectMapper mapper = new ObjectMapper(dataFormat);
     mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-    mapper.enable(SerializationFeature.INDENT_OUTPUT);
+    if (profile == Profile.PRETTY) {
+      mapper.enable(SerializationFeature.INDENT_OUTPUT);
+    }
     mapper.enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
     mapper.enable(JsonParser.Feature.STRICT_DUPLICATE_DETECTION);
     mapper.enable(MapperFeature.ACCEPT_CASE_INSENSITIVE_PROPERTIES);
     mapper.registerModule(new JavaTimeModule());
+    mapper.registerModule(new ResourceLocationModule());
+    mapper.registerModule(new AttributeProjectionModule());
     mapper.setDefaultSetterInfo(JsonSetter.Value.forContentNulls(Nulls.SKIP));
     return mapper;
   }
+
+  /**
+   * Returns the object mapper of the profile shared by the whole application. Its serializers and deserializers, including the case-insensitive
+   * property tables, are built once and reused by all requests. The serializers and deserializers of the core resources are built upfront.
+   * The returned mapper must not be configured further.
+   *
+   * @param profile the output profile
+   * @return the shared object mapper
+   */
+  public static ObjectMapper getObjectMapper(final Profile profile) {
+    return SHARED_MAPPERS.get(profile);
+  }
+
+  /**
+   * Returns the object mapper of the data format of the media type shared by the whole application, see {@link #getObjectMapper(Profile)}.
+   *
+   * @param mediaType the media type, e.g. {@link com.sap.scimono.api.API#APPLICATION_CBOR_SCIM}
+   * @param profile the output profile of JSON media types
+   * @return the shared object mapper
+   */
+  public static ObjectMapper getObjectMapper(final MediaType mediaType, final Profile profile) {
+    if (isMediaType(mediaType, APPLICATION_CBOR_SCIM)) {
+      requireDataFormat(CBOR_AVAILABLE, mediaType);
+      return CborMapperHolder.MAPPER;
+    }
+    if (isMediaType(mediaType, APPLICATION_SMILE_SCIM)) {
+      requireDataFormat(SMILE_AVAILABLE, mediaType);
+      return SmileMapperHolder.MAPPER;
+    }
+    return getObjectMapper(profile);
+  }
+
+  /**
+   * @param mediaType the media type, parameters are ignored
+   * @return whether the media type is one of the binary SCIM media types and its data format is on the classpath
+   */
+  public static boolean isBinaryMediaType(final MediaType mediaType) {
+    return (CBOR_AVAILABLE && isMediaType(mediaType, APPLICATION_CBOR_SCIM))
+        || (SMILE_AVAILABLE && isMediaType(mediaType, APPLICATION_SMILE_SCIM));
+  }
+
+  /**
+   * The binary media types are optional, they are supported only if <b>jackson-dataformat-cbor</b> or <b>jackson-dataformat-smile</b> is on
+   * the classpath.
+   *
+   * @return whether any of the binary SCIM media types is supported
+   */
+  public static boolean isBinaryMediaTypeSupported() {
+    return CBOR_AVAILABLE || SMILE_AVAILABLE;
+  }
+
+  /**
+   * @param mediaType the media type, parameters are ignored
+   * @param expectedType the expected media type without parameters, e.g. {@link com.sap.scimono.api.API#APPLICATION_CBOR_SCIM}
+   * @return whether the media type is the expected one
+   */
+  public static boolean isMediaType(final MediaType mediaType, final String expectedType) {
+    return mediaType != null && (mediaType.getType() + "/" + mediaType.getSubtype()).equalsIgnoreCase(expectedType);
+  }
+
+  private static void requireDataFormat(final boolean available, final MediaType mediaType) {
+    if (!available) {
+      throw new NotSupportedException("Media type " + mediaType + " is not supported");
+    }
+  }
+
+  private static boolean isClassAvailable(final String className) {
+    try {
+      Class.forName(className, false, ObjectMapperFactory.class.getClassLoader());
+      return true;
+    } catch (ClassNotFoundException | LinkageError e) {
+      return false;
+    }
+  }
+
+  private static ObjectMapper prepare(final ObjectMapper mapper) {
+    for (Class<?> type : PREPARED_TYPES) {
+      mapper.readerFor(type);
+      mapper.writerFor(type);
+    }
+    return mapper;
+  }
+
+  // the holders load the optional data formats on first use only, so that they need not be on the classpath otherwise
+  private static final class CborMapperHolder {
+    private static final ObjectMapper MAPPER = prepare(createObjectMapper(new CBORFactory(), Profile.COMPACT));
+  }
+
+  private static final class SmileMapperHolder {
+    private static final ObjectMapper MAPPER = prepare(createObjectMapper(new SmileFactory(), Profile.COMPACT));
+  }
 }
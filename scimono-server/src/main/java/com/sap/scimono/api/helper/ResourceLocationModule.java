@@ -0,0 +1,131 @@
+package com.sap.scimono.api.helper;
+
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.sap.scimono.entity.Group;
+import com.sap.scimono.entity.Manager;
+import com.sap.scimono.entity.Meta;
+import com.sap.scimono.entity.Resource;
+import com.sap.scimono.entity.User;
+import com.sap.scimono.helper.ResourceLocations;
+
+/**
+ * Writes <b>meta.location</b> of users and groups and <b>manager.$ref</b> from the {@link ResourceLocations} bound to the thread writing the
+ * response, <b>groups[].$ref</b> and <b>members[].$ref</b> are written by the serializers of the references. The resources returned by the
+ * callbacks are serialized as they are, without copying them to add the locations. Without bound locations the attributes are written
+ * unchanged.
+ */
+public class ResourceLocationModule extends SimpleModule {
+  private static final long serialVersionUID = -2946353862143127565L;
+
+  private static final String META_FIELD = "meta";
+  private static final String LOCATION_FIELD = "location";
+  private static final String REF_FIELD = "$ref";
+
+  public ResourceLocationModule() {
+    super(ResourceLocationModule.class.getSimpleName());
+    setSerializerModifier(new LocationSerializerModifier());
+  }
+
+  private static class LocationSerializerModifier extends BeanSerializerModifier {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public List<BeanPropertyWriter> changeProperties(final SerializationConfig config, final BeanDescription beanDesc,
+        final List<BeanPropertyWriter> beanProperties) {
+      Class<?> beanClass = beanDesc.getBeanClass();
+      if (User.class.equals(beanClass) || Group.class.equals(beanClass)) {
+        replace(beanProperties, META_FIELD, MetaWriter::new);
+      } else if (Meta.class.equals(beanClass)) {
+        replace(beanProperties, LOCATION_FIELD, writer -> new LocatedStringWriter(writer, ResourceLocationModule::getMetaLocation));
+      } else if (Manager.class.equals(beanClass)) {
+        replace(beanProperties, REF_FIELD, writer -> new LocatedStringWriter(writer, ResourceLocationModule::getManagerLocation));
+      }
+      return beanProperties;
+    }
+
+    private static void replace(final List<BeanPropertyWriter> beanProperties, final String name,
+        final UnaryOperator<BeanPropertyWriter> replacement) {
+      for (int i = 0; i < beanProperties.size(); i++) {
+        if (name.equals(beanProperties.get(i).getName())) {
+          beanProperties.set(i, replacement.apply(beanProperties.get(i)));
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes a missing <b>meta</b> of a resource, so that its location is written.
+   */
+  private static class MetaWriter extends BeanPropertyWriter {
+    private static final long serialVersionUID = 1L;
+
+    MetaWriter(final BeanPropertyWriter base) {
+      super(base);
+    }
+
+    @Override
+    public void serializeAsField(final Object bean, final JsonGenerator gen, final SerializerProvider prov) throws Exception {
+      Resource<?> resource = (Resource<?>) bean;
+      if (resource.getMeta() == null && resource.getId() != null && ResourceLocations.current() != null) {
+        prov.defaultSerializeField(_name.getValue(), new Meta.Builder(null).build(), gen);
+        return;
+      }
+      super.serializeAsField(bean, gen, prov);
+    }
+  }
+
+  private static class LocatedStringWriter extends BeanPropertyWriter {
+    private static final long serialVersionUID = 1L;
+
+    private final transient LocationResolver locationResolver;
+
+    LocatedStringWriter(final BeanPropertyWriter base, final LocationResolver locationResolver) {
+      super(base);
+      this.locationResolver = locationResolver;
+    }
+
+    @Override
+    public void serializeAsField(final Object bean, final JsonGenerator gen, final SerializerProvider prov) throws Exception {
+      ResourceLocations locations = ResourceLocations.current();
+      String location = locations == null ? null : locationResolver.resolve(bean, gen, locations);
+      if (location == null) {
+        super.serializeAsField(bean, gen, prov);
+        return;
+      }
+      gen.writeFieldName(_name);
+      gen.writeString(location);
+    }
+  }
+
+  @FunctionalInterface
+  private interface LocationResolver {
+    String resolve(Object bean, JsonGenerator gen, ResourceLocations locations);
+  }
+
+  private static String getMetaLocation(final Object meta, final JsonGenerator gen, final ResourceLocations locations) {
+    JsonStreamContext resourceContext = gen.getOutputContext().getParent();
+    Object resource = resourceContext == null ? null : resourceContext.getCurrentValue();
+    if (resource instanceof User && ((User) resource).getId() != null) {
+      return locations.getUserLocation(((User) resource).getId());
+    }
+    if (resource instanceof Group && ((Group) resource).getId() != null) {
+      return locations.getGroupLocation(((Group) resource).getId());
+    }
+    return null;
+  }
+
+  private static String getManagerLocation(final Object bean, final JsonGenerator gen, final ResourceLocations locations) {
+    Manager manager = (Manager) bean;
+    return manager.getValue() == null ? null : locations.getUserLocation(manager.getValue());
+  }
+}
@@ -0,0 +1,20 @@
+package com.sap.scimono.api.helper;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.ext.ContextResolver;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Resolves the object mapper of the data format of a SCIM media type, e.g. a CBOR mapper for <b>application/scim+cbor</b>. The object mapper
+ * resolved by {@link #getContext(Class)} is the one of <b>application/scim+json</b>.
+ */
+public interface ScimObjectMapperResolver extends ContextResolver<ObjectMapper> {
+
+  /**
+   * @param type the type of the entity to read or write
+   * @param mediaType the media type of the entity
+   * @return the object mapper of the data format of the media type
+   */
+  ObjectMapper getContext(Class<?> type, MediaType mediaType);
+}
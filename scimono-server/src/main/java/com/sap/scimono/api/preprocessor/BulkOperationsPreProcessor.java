@@ -0,0 +1,94 @@
+package com.sap.scimono.api.preprocessor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.UnaryOperator;
+
+import com.sap.scimono.api.helper.ScimErrorResponseParser;
+import com.sap.scimono.entity.bulk.RequestOperation;
+
+/**
+ * Preprocesses the operations of a bulk request concurrently, e.g. erases their unnecessary schemas and validates their custom attributes.
+ * At most <b>parallelism - 1</b> operations are preprocessed on the executor at once, further operations are preprocessed by the thread
+ * which submits them. A parallelism of 1 preprocesses all operations sequentially by the submitting thread.
+ * <p>
+ * The preprocessed operations keep the order of submission. An operation whose preprocessing fails carries the error as its data, see
+ * {@link RequestOperation#hasValidationError()}, without affecting the other operations. Not thread-safe, use one instance per bulk request.
+ */
+public class BulkOperationsPreProcessor {
+  private final UnaryOperator<RequestOperation> preProcessor;
+  private final Executor executor;
+  private final Semaphore workers;
+  private final List<CompletableFuture<RequestOperation>> operations = new ArrayList<>();
+
+  /**
+   * @param preProcessor preprocesses a single operation, must be thread-safe
+   * @param executor runs the preprocessing of the operations
+   * @param parallelism the maximum number of operations preprocessed at once, including the submitting thread
+   */
+  public BulkOperationsPreProcessor(final UnaryOperator<RequestOperation> preProcessor, final Executor executor, final int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+    }
+    this.preProcessor = preProcessor;
+    this.executor = executor;
+    this.workers = new Semaphore(parallelism - 1);
+  }
+
+  /**
+   * Starts the preprocessing of the operation, or preprocesses it by the calling thread if all workers are busy.
+   */
+  public void submit(final RequestOperation operation) {
+    if (!workers.tryAcquire()) {
+      operations.add(CompletableFuture.completedFuture(preProcess(operation)));
+      return;
+    }
+
+    CompletableFuture<RequestOperation> preProcessedOperation;
+    try {
+      preProcessedOperation = CompletableFuture.supplyAsync(() -> {
+        try {
+          return preProcess(operation);
+        } finally {
+          workers.release();
+        }
+      }, executor);
+    } catch (RejectedExecutionException e) {
+      workers.release();
+      preProcessedOperation = CompletableFuture.completedFuture(preProcess(operation));
+    }
+    operations.add(preProcessedOperation);
+  }
+
+  /**
+   * Waits for the preprocessing of all submitted operations.
+   *
+   * @return the preprocessed operations in the order of their submission
+   */
+  public List<RequestOperation> getPreProcessedOperations() {
+    List<RequestOperation> preProcessedOperations = new ArrayList<>(operations.size());
+    for (CompletableFuture<RequestOperation> operation : operations) {
+      preProcessedOperations.add(operation.join());
+    }
+    return preProcessedOperations;
+  }
+
+  /**
+   * Skips the preprocessing of the submitted operations which have not started yet, e.g. if the bulk request turns out to be invalid.
+   */
+  public void cancel() {
+    operations.forEach(operation -> operation.cancel(false));
+  }
+
+  private RequestOperation preProcess(final RequestOperation operation) {
+    try {
+      return preProcessor.apply(operation);
+    } catch (Throwable e) {
+      return operation.builder().setData(ScimErrorResponseParser.parseException(e)).build();
+    }
+  }
+}
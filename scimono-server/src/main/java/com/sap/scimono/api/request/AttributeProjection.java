@@ -0,0 +1,339 @@
+package com.sap.scimono.api.request;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.sap.scimono.callback.schemas.SchemaRegistry;
+import com.sap.scimono.entity.schema.Attribute;
+import com.sap.scimono.entity.schema.AttributePath;
+
+/**
+ * The attributes of a resource type returned in a response, compiled from the <b>attributes</b> and <b>excludedAttributes</b> parameters and
+ * the <b>returned</b> characteristic of the attributes in the schemas. The returned attributes are kept as a bitmap over the attribute
+ * ordinals of a {@link SchemaRegistry}, see <a href="https://tools.ietf.org/html/rfc7644#section-3.9">RFC 7644, section 3.9</a>:
+ * <ul>
+ * <li>attributes returned <b>always</b> are returned and attributes returned <b>never</b> are not</li>
+ * <li>attributes returned on <b>request</b> are returned only if they are requested explicitly</li>
+ * <li>if attributes are requested, the other attributes are not returned, except for the containing attributes of requested sub-attributes</li>
+ * <li>otherwise the attributes are returned, except for the excluded ones and their sub-attributes</li>
+ * </ul>
+ * The common attributes <b>id</b> and <b>schemas</b> are always returned, <b>meta</b> and other attributes not defined by the schemas are
+ * returned by default. Unknown attribute names in the parameters are ignored.
+ * <p>
+ * The callbacks may use the projection to fetch less, the attributes which are not returned are pruned while the resources are serialized
+ * with the projection bound to the writing thread, see {@link com.sap.scimono.api.helper.AttributeProjectionModule}.
+ */
+public final class AttributeProjection {
+  private static final ThreadLocal<AttributeProjection> CURRENT = new ThreadLocal<>();
+
+  private static final String ATTRIBUTES_DELIMITER = ",";
+  private static final String RETURNED_ALWAYS = "always";
+  private static final String RETURNED_NEVER = "never";
+  private static final String RETURNED_ON_REQUEST = "request";
+  private static final Set<String> ALWAYS_RETURNED_COMMON_ATTRIBUTES = new HashSet<>(Arrays.asList("id", "schemas"));
+
+  private static final int MAX_CACHED_PROJECTIONS = 10_000;
+  private static volatile CompiledProjections compiledProjections = new CompiledProjections(null);
+
+  private final SchemaRegistry registry;
+  private final String resourceSchemaId;
+  private final BitSet returnedAttributes;
+  private final BitSet partiallyReturnedAttributes;
+  private final Set<String> returnedSchemas;
+  private final boolean hasRequestedAttributes;
+  private final Set<String> requestedNames;
+  private final Set<String> excludedNames;
+
+  private AttributeProjection(final SchemaRegistry registry, final String resourceSchemaId, final Collection<String> attributes,
+      final Collection<String> excludedAttributes) {
+    this.registry = registry;
+    this.resourceSchemaId = resourceSchemaId;
+
+    Selection requested = new Selection(registry, resourceSchemaId, attributes);
+    Selection excluded = new Selection(registry, resourceSchemaId, excludedAttributes);
+    this.hasRequestedAttributes = !requested.isEmpty();
+    this.requestedNames = requested.unknownNames;
+    this.excludedNames = excluded.unknownNames;
+
+    int attributeCount = registry.getAttributeCount();
+    this.returnedAttributes = new BitSet(attributeCount);
+    this.partiallyReturnedAttributes = new BitSet(attributeCount);
+    this.returnedSchemas = new HashSet<>();
+    for (int ordinal = 0; ordinal < attributeCount; ordinal++) {
+      if (isReturned(ordinal, requested, excluded)) {
+        returnedAttributes.set(ordinal);
+        returnedSchemas.add(fold(registry.getSchemaIdOfAttribute(ordinal)));
+      }
+    }
+    for (int ordinal = 0; ordinal < attributeCount; ordinal++) {
+      int parentOrdinal = getParentOrdinal(ordinal);
+      if (parentOrdinal >= 0 && returnedAttributes.get(parentOrdinal) && !returnedAttributes.get(ordinal)) {
+        partiallyReturnedAttributes.set(parentOrdinal);
+      }
+    }
+  }
+
+  /**
+   * Compiles the projection of the parameters, compiled projections are reused as long as the same registry is passed.
+   *
+   * @param registry the schemas
+   * @param resourceSchemaId the core schema of the resource type, short attribute names are resolved against it
+   * @param attributes the comma separated <b>attributes</b> parameter, may be null
+   * @param excludedAttributes the comma separated <b>excludedAttributes</b> parameter, may be null
+   * @return the projection
+   */
+  public static AttributeProjection compile(final SchemaRegistry registry, final String resourceSchemaId, final String attributes,
+      final String excludedAttributes) {
+    CompiledProjections projections = compiledProjections;
+    if (projections.registry != registry) {
+      projections = new CompiledProjections(registry);
+      compiledProjections = projections;
+    }
+
+    ProjectionKey key = new ProjectionKey(resourceSchemaId, attributes, excludedAttributes);
+    AttributeProjection projection = projections.byKey.get(key);
+    if (projection == null) {
+      projection = new AttributeProjection(registry, resourceSchemaId, split(attributes), split(excludedAttributes));
+      if (projections.byKey.size() < MAX_CACHED_PROJECTIONS) {
+        projections.byKey.putIfAbsent(key, projection);
+      }
+    }
+    return projection;
+  }
+
+  /**
+   * @return the projection bound to the current thread or null if the current thread is not writing projected resources
+   */
+  public static AttributeProjection current() {
+    return CURRENT.get();
+  }
+
+  public static void bind(final AttributeProjection projection) {
+    CURRENT.set(projection);
+  }
+
+  public static void unbind() {
+    CURRENT.remove();
+  }
+
+  public String getResourceSchemaId() {
+    return resourceSchemaId;
+  }
+
+  /**
+   * @param attributeNotation short or full attribute notation, e.g. <b>groups</b>, <b>name.givenName</b> or
+   *          <b>urn:ietf:params:scim:schemas:extension:enterprise:2.0:User:manager</b>
+   * @return whether the attribute, or some of its sub-attributes, is returned
+   */
+  public boolean isReturned(final String attributeNotation) {
+    AttributePath path = registry.getAttributePath(attributeNotation.trim());
+    String schemaId = path.hasSchema() ? path.getSchemaId() : resourceSchemaId;
+    if (path.isSchemaOnly()) {
+      return isSchemaReturned(schemaId);
+    }
+    if (path.hasSubAttribute()) {
+      return isReturned(schemaId, path.getAttributeName(), path.getSubAttributeName());
+    }
+    return isReturned(schemaId, path.getAttributeName());
+  }
+
+  /**
+   * @param schemaId the schema URN
+   * @param attributeName the name of a top level attribute
+   * @return whether the attribute, or some of its sub-attributes, is returned
+   */
+  public boolean isReturned(final String schemaId, final String attributeName) {
+    int ordinal = registry.getAttributeOrdinal(schemaId, attributeName);
+    return ordinal < 0 ? isUndefinedAttributeReturned(attributeName) : returnedAttributes.get(ordinal);
+  }
+
+  /**
+   * @param schemaId the schema URN
+   * @param attributeName the name of a top level attribute
+   * @param subAttributeName the name of its sub-attribute
+   * @return whether the sub-attribute is returned
+   */
+  public boolean isReturned(final String schemaId, final String attributeName, final String subAttributeName) {
+    int ordinal = registry.getAttributeOrdinal(schemaId, attributeName);
+    if (ordinal < 0) {
+      return isUndefinedAttributeReturned(attributeName);
+    }
+    if (!partiallyReturnedAttributes.get(ordinal)) {
+      return returnedAttributes.get(ordinal);
+    }
+
+    int subAttributeOrdinal = registry.getSubAttributeOrdinal(ordinal, subAttributeName);
+    return subAttributeOrdinal < 0 ? !hasRequestedAttributes : returnedAttributes.get(subAttributeOrdinal);
+  }
+
+  /**
+   * @param schemaId the schema URN
+   * @param attributeName the name of a top level attribute
+   * @return whether the attribute is returned without some of its sub-attributes
+   */
+  public boolean isPartiallyReturned(final String schemaId, final String attributeName) {
+    int ordinal = registry.getAttributeOrdinal(schemaId, attributeName);
+    return ordinal >= 0 && partiallyReturnedAttributes.get(ordinal);
+  }
+
+  /**
+   * @return whether some returned attribute is returned without some of its sub-attributes
+   */
+  public boolean hasPartiallyReturnedAttributes() {
+    return !partiallyReturnedAttributes.isEmpty();
+  }
+
+  /**
+   * @param schemaId the schema URN, e.g. of an extension
+   * @return whether some attribute of the schema is returned
+   */
+  public boolean isSchemaReturned(final String schemaId) {
+    String foldedSchemaId = fold(schemaId);
+    if (returnedSchemas.contains(foldedSchemaId)) {
+      return true;
+    }
+    return registry.getSchema(schemaId) == null && isUndefinedAttributeReturned(schemaId);
+  }
+
+  private boolean isUndefinedAttributeReturned(final String attributeName) {
+    String name = fold(attributeName);
+    if (ALWAYS_RETURNED_COMMON_ATTRIBUTES.contains(name)) {
+      return true;
+    }
+    return hasRequestedAttributes ? requestedNames.contains(name) : !excludedNames.contains(name);
+  }
+
+  private boolean isReturned(final int ordinal, final Selection requested, final Selection excluded) {
+    List<Attribute> hierarchy = registry.getAttributeHierarchy(ordinal);
+    String returned = hierarchy.get(hierarchy.size() - 1).getReturned();
+    if (RETURNED_ALWAYS.equalsIgnoreCase(returned)) {
+      return true;
+    }
+    if (RETURNED_NEVER.equalsIgnoreCase(returned)) {
+      return false;
+    }
+    if (RETURNED_ON_REQUEST.equalsIgnoreCase(returned)) {
+      return requested.ordinals.get(ordinal);
+    }
+    if (hasRequestedAttributes) {
+      return requested.containsSelfOrAncestor(this, ordinal) || requested.ancestorOrdinals.get(ordinal);
+    }
+    return !excluded.containsSelfOrAncestor(this, ordinal);
+  }
+
+  private int getParentOrdinal(final int ordinal) {
+    List<Attribute> hierarchy = registry.getAttributeHierarchy(ordinal);
+    if (hierarchy.size() < 2) {
+      return -1;
+    }
+    return registry.getAttributeOrdinal(registry.getSchemaIdOfAttribute(ordinal), hierarchy.get(0).getName());
+  }
+
+  private static List<String> split(final String attributes) {
+    if (attributes == null || attributes.trim().isEmpty()) {
+      return Collections.emptyList();
+    }
+    return Arrays.asList(attributes.split(ATTRIBUTES_DELIMITER));
+  }
+
+  private static String fold(final String value) {
+    return value == null ? null : value.toLowerCase(Locale.ENGLISH);
+  }
+
+  /**
+   * The attributes named by one of the parameters: the attributes of the registry by ordinal, their containing attributes, the whole schemas
+   * and the names not defined by the schemas.
+   */
+  private static final class Selection {
+    private final BitSet ordinals = new BitSet();
+    private final BitSet ancestorOrdinals = new BitSet();
+    private final Set<String> schemas = new HashSet<>();
+    private final Set<String> unknownNames = new HashSet<>();
+
+    Selection(final SchemaRegistry registry, final String resourceSchemaId, final Collection<String> notations) {
+      for (String notation : notations) {
+        String trimmedNotation = notation.trim();
+        if (trimmedNotation.isEmpty()) {
+          continue;
+        }
+
+        AttributePath path = registry.getAttributePath(trimmedNotation);
+        if (path.isSchemaOnly()) {
+          schemas.add(fold(path.getSchemaId()));
+          continue;
+        }
+
+        int ordinal = registry.getAttributeOrdinal(path.getFullAttributeNotation(resourceSchemaId));
+        if (ordinal < 0) {
+          unknownNames.add(fold(path.getAttributeName() == null ? trimmedNotation : path.getAttributeName()));
+          continue;
+        }
+        ordinals.set(ordinal);
+        if (path.hasSubAttribute()) {
+          ancestorOrdinals.set(registry.getAttributeOrdinal(registry.getSchemaIdOfAttribute(ordinal), path.getAttributeName()));
+        }
+      }
+    }
+
+    boolean isEmpty() {
+      return ordinals.isEmpty() && schemas.isEmpty() && unknownNames.isEmpty();
+    }
+
+    boolean containsSelfOrAncestor(final AttributeProjection projection, final int ordinal) {
+      if (ordinals.get(ordinal) || schemas.contains(fold(projection.registry.getSchemaIdOfAttribute(ordinal)))) {
+        return true;
+      }
+      int parentOrdinal = projection.getParentOrdinal(ordinal);
+      return parentOrdinal >= 0 && ordinals.get(parentOrdinal);
+    }
+  }
+
+  private static final class CompiledProjections {
+    private final SchemaRegistry registry;
+    private final Map<ProjectionKey, AttributeProjection> byKey = new ConcurrentHashMap<>();
+
+    CompiledProjections(final SchemaRegistry registry) {
+      this.registry = registry;
+    }
+  }
+
+  private static final class ProjectionKey {
+    private final String resourceSchemaId;
+    private final String attributes;
+    private final String excludedAttributes;
+
+    ProjectionKey(final String resourceSchemaId, final String attributes, final String excludedAttributes) {
+      this.resourceSchemaId = resourceSchemaId;
+      this.attributes = attributes;
+      this.excludedAttributes = excludedAttributes;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+
+      ProjectionKey that = (ProjectionKey) o;
+      return Objects.equals(resourceSchemaId, that.resourceSchemaId) && Objects.equals(attributes, that.attributes)
+          && Objects.equals(excludedAttributes, that.excludedAttributes);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(resourceSchemaId, attributes, excludedAttributes);
+    }
+  }
+}
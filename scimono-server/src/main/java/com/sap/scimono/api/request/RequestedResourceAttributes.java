@@ -5,10 +5,16 @@ import java.util.List;
 public class RequestedResourceAttributes {
   private final List<String> attributesToBeReturned;
   private final List<String> attributesToBeExcluded;
+  private final AttributeProjection projection;
 
   RequestedResourceAttributes(List<String> attributesToBeReturned, List<String> attributesToBeExcluded) {
+    this(attributesToBeReturned, attributesToBeExcluded, null);
+  }
+
+  RequestedResourceAttributes(List<String> attributesToBeReturned, List<String> attributesToBeExcluded, AttributeProjection projection) {
     this.attributesToBeReturned = attributesToBeReturned;
     this.attributesToBeExcluded = attributesToBeExcluded;
+    this.projection = projection;
   }
 
   public List<String> getAttributesToBeReturned() {
@@ -18,4 +24,12 @@ public class RequestedResourceAttributes {
   public List<String> getAttributesToBeExcluded() {
     return attributesToBeExcluded;
   }
+
+  /**
+   * @return the attributes returned in the response, compiled with the schemas, or null if all attributes are needed, e.g. for filtering the
+   *         resources
+   */
+  public AttributeProjection getProjection() {
+    return projection;
+  }
 }
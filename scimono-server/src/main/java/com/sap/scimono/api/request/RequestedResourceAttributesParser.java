@@ -4,6 +4,8 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import com.sap.scimono.callback.schemas.SchemaRegistry;
+
 public class RequestedResourceAttributesParser {
   private static final String ATTRIBUTES_DELIMITER = ",";
   private RequestedResourceAttributesParser() {
@@ -14,6 +16,24 @@ public class RequestedResourceAttributesParser {
     return new RequestedResourceAttributes(parse(attributes), parse(excludedAttributes));
   }
 
+  public static RequestedResourceAttributes parse(String attributes, String excludedAttributes, SchemaRegistry schemaRegistry,
+      String resourceSchemaId) {
+    AttributeProjection projection = AttributeProjection.compile(schemaRegistry, resourceSchemaId, attributes, excludedAttributes);
+    return new RequestedResourceAttributes(parse(attributes), parse(excludedAttributes), projection);
+  }
+
+  /**
+   * @param attributes the attributes of a search request
+   * @return the comma separated parameter value of the attributes, null if there are none
+   */
+  public static String join(List<String> attributes) {
+    if (attributes == null || attributes.isEmpty()) {
+      return null;
+    }
+
+    return String.join(ATTRIBUTES_DELIMITER, attributes);
+  }
+
   private static List<String> parse(String queryValue) {
     if (queryValue == null) {
       return Collections.emptyList();
@@ -0,0 +1,73 @@
+package com.sap.scimono.callback.bulk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import com.sap.scimono.exception.InternalScimonoException;
+
+/**
+ * The result of one item of a batch callback method, e.g. {@link com.sap.scimono.callback.users.UsersCallback#createUsers(List)}: either
+ * the value returned for the item or the error which failed it. A failed item does not fail the other items of the batch.
+ *
+ * @param <T> the type of the value, {@link Void} if the item has no value
+ */
+public final class BatchItemResult<T> {
+  private final T value;
+  private final Throwable error;
+
+  private BatchItemResult(final T value, final Throwable error) {
+    this.value = value;
+    this.error = error;
+  }
+
+  public static <T> BatchItemResult<T> success(final T value) {
+    return new BatchItemResult<>(value, null);
+  }
+
+  public static <T> BatchItemResult<T> failure(final Throwable error) {
+    if (error == null) {
+      throw new IllegalArgumentException("The error of a failed batch item is required");
+    }
+    return new BatchItemResult<>(null, error);
+  }
+
+  /**
+   * Applies the single item method to each item, turning the exception of a failing item into its failure.
+   *
+   * @return the results in the order of the items
+   */
+  public static <I, T> List<BatchItemResult<T>> forEach(final List<I> items, final Function<I, T> singleItemMethod) {
+    List<BatchItemResult<T>> results = new ArrayList<>(items.size());
+    for (I item : items) {
+      try {
+        results.add(success(singleItemMethod.apply(item)));
+      } catch (RuntimeException e) {
+        results.add(failure(e));
+      }
+    }
+    return results;
+  }
+
+  public boolean isSuccessful() {
+    return error == null;
+  }
+
+  /**
+   * @return the value of a successful item, null for items without value
+   * @throws InternalScimonoException if the item failed
+   */
+  public T getValue() {
+    if (error != null) {
+      throw new InternalScimonoException("The batch item failed", error);
+    }
+    return value;
+  }
+
+  /**
+   * @return the error of a failed item or null if the item succeeded
+   */
+  public Throwable getError() {
+    return error;
+  }
+}
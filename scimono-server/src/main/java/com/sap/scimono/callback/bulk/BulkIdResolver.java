@@ -0,0 +1,254 @@
+package com.sap.scimono.callback.bulk;
+
+import static com.sap.scimono.exception.SCIMException.Type.INVALID_VALUE;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.ws.rs.core.Response;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.sap.scimono.entity.EnterpriseExtension;
+import com.sap.scimono.entity.Group;
+import com.sap.scimono.entity.GroupRef;
+import com.sap.scimono.entity.Manager;
+import com.sap.scimono.entity.MemberRef;
+import com.sap.scimono.entity.Meta;
+import com.sap.scimono.entity.Resource;
+import com.sap.scimono.entity.User;
+import com.sap.scimono.entity.bulk.RequestOperation;
+import com.sap.scimono.entity.patch.PatchBody;
+import com.sap.scimono.entity.patch.PatchOperation;
+import com.sap.scimono.exception.SCIMException;
+
+/**
+ * Resolves the <b>bulkId:</b> references of the operations of a bulk request to the ids of the resources created by the referred
+ * operations, see RFC 7644, section 3.7.2. References are resolved in the path of the operation, in the id of the resource, in the group
+ * members, the user groups, the enterprise manager and the values of patch operations.
+ * <p>
+ * An operation must be resolved after the operations it refers to have created their resources, see {@link BulkOperationGraph}, which also
+ * detects circular references.
+ */
+public class BulkIdResolver {
+  public static final String BULK_ID_REFERENCE_PREFIX = "bulkId:";
+
+  private static final String UNRESOLVED_REFERENCE_ERROR = "Operation with bulkId %s refers to bulkId %s, which did not create a resource.";
+
+  private final Map<String, String> resourceIds = new ConcurrentHashMap<>();
+
+  /**
+   * Registers the id of the resource created by the operation with the given bulkId.
+   */
+  public void register(final String bulkId, final String resourceId) {
+    if (bulkId != null && resourceId != null) {
+      resourceIds.put(bulkId, resourceId);
+    }
+  }
+
+  public Optional<String> getResourceId(final String bulkId) {
+    return Optional.ofNullable(resourceIds.get(bulkId));
+  }
+
+  /**
+   * @return the bulkIds referred to by the path and the data of the operation
+   */
+  public static Set<String> getReferencedBulkIds(final RequestOperation operation) {
+    Set<String> bulkIds = new LinkedHashSet<>();
+    if (operation.getPath() != null) {
+      for (String segment : operation.getPath().split("/")) {
+        addReferencedBulkId(segment, bulkIds);
+      }
+    }
+
+    Object data = operation.getData();
+    if (data instanceof User) {
+      User user = (User) data;
+      addReferencedBulkId(user.getId(), bulkIds);
+      user.getGroups().forEach(group -> addReferencedBulkId(group.getValue(), bulkIds));
+      Manager manager = getManager(user);
+      if (manager != null) {
+        addReferencedBulkId(manager.getValue(), bulkIds);
+      }
+    } else if (data instanceof Group) {
+      Group group = (Group) data;
+      addReferencedBulkId(group.getId(), bulkIds);
+      group.getMembers().forEach(member -> addReferencedBulkId(member.getValue(), bulkIds));
+    } else if (data instanceof PatchBody) {
+      ((PatchBody) data).getOperations().forEach(patchOperation -> addReferencedBulkIds(patchOperation.getValue(), bulkIds));
+    } else if (data instanceof JsonNode) {
+      addReferencedBulkIds((JsonNode) data, bulkIds);
+    }
+    return bulkIds;
+  }
+
+  /**
+   * @return the operation whose references are replaced by the ids of the referred resources, or the operation itself if it has no
+   *         references
+   * @throws SCIMException if a referred operation did not create a resource
+   */
+  public RequestOperation resolve(final RequestOperation operation) {
+    Set<String> referencedBulkIds = getReferencedBulkIds(operation);
+    if (referencedBulkIds.isEmpty()) {
+      return operation;
+    }
+    for (String bulkId : referencedBulkIds) {
+      if (!resourceIds.containsKey(bulkId)) {
+        throw new SCIMException(INVALID_VALUE, String.format(UNRESOLVED_REFERENCE_ERROR, operation.getBulkId(), bulkId),
+            Response.Status.CONFLICT);
+      }
+    }
+
+    RequestOperation.Builder builder = operation.builder().setPath(resolvePath(operation.getPath()));
+    Object data = operation.getData();
+    if (data instanceof User) {
+      builder.setData(resolveUser((User) data));
+    } else if (data instanceof Group) {
+      builder.setData(resolveGroup((Group) data));
+    } else if (data instanceof PatchBody) {
+      builder.setData(resolvePatch((PatchBody) data));
+    }
+    return builder.build();
+  }
+
+  private String resolvePath(final String path) {
+    if (path == null || !path.contains(BULK_ID_REFERENCE_PREFIX)) {
+      return path;
+    }
+
+    String[] segments = path.split("/", -1);
+    for (int i = 0; i < segments.length; i++) {
+      segments[i] = resolveValue(segments[i]);
+    }
+    return String.join("/", segments);
+  }
+
+  private User resolveUser(final User user) {
+    User.Builder builder = user.builder();
+    resolveId(user, builder);
+
+    List<GroupRef> groups = new ArrayList<>(user.getGroups().size());
+    for (GroupRef group : user.getGroups()) {
+      groups.add(isReference(group.getValue()) ? new GroupRef.Builder(group).setValue(resolveValue(group.getValue())).build() : group);
+    }
+    builder.setGroups(groups);
+
+    Manager manager = getManager(user);
+    if (manager != null && isReference(manager.getValue())) {
+      EnterpriseExtension enterpriseExtension = (EnterpriseExtension) user.getExtension(EnterpriseExtension.ENTERPRISE_URN);
+      Manager resolvedManager = new Manager.Builder(manager).setValue(resolveValue(manager.getValue())).build();
+      builder.removeExtension(EnterpriseExtension.ENTERPRISE_URN);
+      builder.addExtension(new EnterpriseExtension.Builder(enterpriseExtension).setManager(resolvedManager).build());
+    }
+    return builder.build();
+  }
+
+  private Group resolveGroup(final Group group) {
+    Group.Builder builder = group.builder();
+    resolveId(group, builder);
+
+    Set<MemberRef> members = new LinkedHashSet<>();
+    for (MemberRef member : group.getMembers()) {
+      members.add(isReference(member.getValue()) ? new MemberRef.Builder(member).setValue(resolveValue(member.getValue())).build() : member);
+    }
+    builder.setMembers(members);
+    return builder.build();
+  }
+
+  private PatchBody resolvePatch(final PatchBody patchBody) {
+    List<PatchOperation> operations = new ArrayList<>(patchBody.getOperations().size());
+    for (PatchOperation operation : patchBody.getOperations()) {
+      operations.add(operation.getValue() == null ? operation : new PatchOperation.Builder(operation).setValue(resolveJson(operation.getValue()))
+          .build());
+    }
+    return new PatchBody.Builder(patchBody).setOperations(operations).build();
+  }
+
+  private <T extends Resource<T>> void resolveId(final T resource, final Resource.Builder<T> builder) {
+    String id = resource.getId();
+    if (!isReference(id)) {
+      return;
+    }
+
+    String resolvedId = resolveValue(id);
+    builder.setId(resolvedId);
+    Meta meta = resource.getMeta();
+    if (meta != null && meta.getLocation() != null && meta.getLocation().endsWith(id)) {
+      String location = meta.getLocation();
+      builder.setMeta(new Meta.Builder(meta).setLocation(location.substring(0, location.length() - id.length()) + resolvedId).build());
+    }
+  }
+
+  private JsonNode resolveJson(final JsonNode value) {
+    if (value.isTextual()) {
+      return isReference(value.textValue()) ? TextNode.valueOf(resolveValue(value.textValue())) : value;
+    }
+    if (value.isArray()) {
+      ArrayNode array = JsonNodeFactory.instance.arrayNode(value.size());
+      value.forEach(element -> array.add(resolveJson(element)));
+      return array;
+    }
+    if (value.isObject()) {
+      ObjectNode object = JsonNodeFactory.instance.objectNode();
+      for (Iterator<Entry<String, JsonNode>> fields = value.fields(); fields.hasNext();) {
+        Entry<String, JsonNode> field = fields.next();
+        object.set(field.getKey(), resolveJson(field.getValue()));
+      }
+      return object;
+    }
+    return value;
+  }
+
+  private String resolveValue(final String value) {
+    if (!isReference(value)) {
+      return value;
+    }
+    return resourceIds.getOrDefault(value.substring(BULK_ID_REFERENCE_PREFIX.length()), value);
+  }
+
+  private static Manager getManager(final User user) {
+    if (!user.isExtensionPresent(EnterpriseExtension.ENTERPRISE_URN)) {
+      return null;
+    }
+    Object enterpriseExtension = user.getExtension(EnterpriseExtension.ENTERPRISE_URN);
+    return enterpriseExtension instanceof EnterpriseExtension ? ((EnterpriseExtension) enterpriseExtension).getManager() : null;
+  }
+
+  private static boolean isReference(final String value) {
+    return value != null && value.startsWith(BULK_ID_REFERENCE_PREFIX) && value.length() > BULK_ID_REFERENCE_PREFIX.length();
+  }
+
+  private static void addReferencedBulkId(final String value, final Set<String> bulkIds) {
+    if (isReference(value)) {
+      bulkIds.add(value.substring(BULK_ID_REFERENCE_PREFIX.length()));
+    }
+  }
+
+  private static void addReferencedBulkIds(final JsonNode value, final Set<String> bulkIds) {
+    Deque<JsonNode> nodes = new ArrayDeque<>();
+    if (value != null) {
+      nodes.push(value);
+    }
+    while (!nodes.isEmpty()) {
+      JsonNode node = nodes.pop();
+      if (node.isTextual()) {
+        addReferencedBulkId(node.textValue(), bulkIds);
+      }
+      for (Iterator<JsonNode> children = node.elements(); children.hasNext();) {
+        nodes.push(children.next());
+      }
+    }
+  }
+}
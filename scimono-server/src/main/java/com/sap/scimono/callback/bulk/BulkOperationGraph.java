@@ -0,0 +1,155 @@
+package com.sap.scimono.callback.bulk;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import com.sap.scimono.entity.bulk.RequestMethod;
+import com.sap.scimono.entity.bulk.RequestOperation;
+
+/**
+ * The dependencies between the operations of a bulk request, see RFC 7644, section 3.7.2. An operation depends on the operation whose
+ * <b>bulkId</b> it refers to by a <b>bulkId:</b> reference, see {@link BulkIdResolver#getReferencedBulkIds(RequestOperation)}. References
+ * to unknown bulkIds are not dependencies, they fail to resolve.
+ * <p>
+ * An operation on an existing resource also depends on the previous operation on the same resource, so that operations on one resource are
+ * executed in the order of the request. The resource is identified by the root and the id of the path, or by the bulkId of the operation
+ * creating it.
+ * <p>
+ * Operations on a reference cycle, or depending on one, can never be executed and are reported as {@link #isCyclic(int) cyclic}.
+ */
+final class BulkOperationGraph {
+  private final List<Set<Integer>> dependencies;
+  private final List<Set<Integer>> references;
+  private final List<List<Integer>> dependents;
+  private final boolean[] cyclic;
+
+  private BulkOperationGraph(final List<Set<Integer>> dependencies, final List<Set<Integer>> references) {
+    this.dependencies = dependencies;
+    this.references = references;
+    this.dependents = new ArrayList<>(dependencies.size());
+    for (int i = 0; i < dependencies.size(); i++) {
+      dependents.add(new ArrayList<>());
+    }
+    for (int i = 0; i < dependencies.size(); i++) {
+      for (int dependency : dependencies.get(i)) {
+        dependents.get(dependency).add(i);
+      }
+    }
+    this.cyclic = findCyclic();
+  }
+
+  static BulkOperationGraph of(final List<RequestOperation> operations) {
+    Map<String, Integer> operationIndexes = new HashMap<>();
+    for (int i = 0; i < operations.size(); i++) {
+      String bulkId = operations.get(i).getBulkId();
+      if (bulkId != null) {
+        operationIndexes.putIfAbsent(bulkId, i);
+      }
+    }
+
+    List<Set<Integer>> dependencies = new ArrayList<>(operations.size());
+    List<Set<Integer>> references = new ArrayList<>(operations.size());
+    Map<String, Integer> lastOperationIndexes = new HashMap<>();
+    for (int i = 0; i < operations.size(); i++) {
+      RequestOperation operation = operations.get(i);
+      Set<Integer> operationReferences = new LinkedHashSet<>();
+      for (String bulkId : BulkIdResolver.getReferencedBulkIds(operation)) {
+        Integer dependency = operationIndexes.get(bulkId);
+        if (dependency != null) {
+          operationReferences.add(dependency);
+        }
+      }
+
+      Set<Integer> operationDependencies = new LinkedHashSet<>(operationReferences);
+      String resource = getTargetResource(operation);
+      if (resource != null) {
+        Integer previousOperation = lastOperationIndexes.put(resource, i);
+        // operations referring to a later POST by its bulkId already depend on it
+        if (previousOperation != null && operation.getMethod() != RequestMethod.POST) {
+          operationDependencies.add(previousOperation);
+        }
+      }
+      dependencies.add(operationDependencies);
+      references.add(operationReferences);
+    }
+    return new BulkOperationGraph(dependencies, references);
+  }
+
+  /**
+   * @return the root and the id of the path, the root and the bulkId for a POST, e.g. <b>users/bulkId:qwerty</b>, or null if the operation
+   *         cannot be executed
+   */
+  private static String getTargetResource(final RequestOperation operation) {
+    if (operation.getPath() == null || operation.hasValidationError()) {
+      return null;
+    }
+
+    String root = RequestOperation.extractRootFromPath(operation.getPath()).toLowerCase(Locale.ROOT);
+    if (operation.getMethod() == RequestMethod.POST) {
+      return operation.getBulkId() == null ? null : root + "/" + BulkIdResolver.BULK_ID_REFERENCE_PREFIX + operation.getBulkId();
+    }
+    return operation.getResourceId().map(id -> root + "/" + id).orElse(null);
+  }
+
+  int size() {
+    return dependencies.size();
+  }
+
+  /**
+   * @return the indexes of the operations the operation refers to or has to be executed after
+   */
+  Set<Integer> getDependencies(final int index) {
+    return Collections.unmodifiableSet(dependencies.get(index));
+  }
+
+  /**
+   * @return whether the operation refers to the other operation by its bulkId, and so cannot be executed if the other operation failed
+   */
+  boolean refersTo(final int index, final int dependency) {
+    return references.get(index).contains(dependency);
+  }
+
+  /**
+   * @return the indexes of the operations depending on the operation
+   */
+  List<Integer> getDependents(final int index) {
+    return Collections.unmodifiableList(dependents.get(index));
+  }
+
+  boolean isCyclic(final int index) {
+    return cyclic[index];
+  }
+
+  private boolean[] findCyclic() {
+    int[] pendingDependencies = new int[dependencies.size()];
+    Deque<Integer> ordered = new ArrayDeque<>();
+    for (int i = 0; i < dependencies.size(); i++) {
+      pendingDependencies[i] = dependencies.get(i).size();
+      if (pendingDependencies[i] == 0) {
+        ordered.add(i);
+      }
+    }
+
+    boolean[] unordered = new boolean[dependencies.size()];
+    Arrays.fill(unordered, true);
+    while (!ordered.isEmpty()) {
+      int index = ordered.poll();
+      unordered[index] = false;
+      for (int dependent : dependents.get(index)) {
+        if (--pendingDependencies[dependent] == 0) {
+          ordered.add(dependent);
+        }
+      }
+    }
+    return unordered;
+  }
+}
@@ -0,0 +1,468 @@
+package com.sap.scimono.callback.bulk;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import javax.ws.rs.core.Response;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sap.scimono.api.helper.ScimErrorResponseParser;
+import com.sap.scimono.callback.groups.GroupsCallback;
+import com.sap.scimono.callback.users.UsersCallback;
+import com.sap.scimono.entity.ErrorResponse;
+import com.sap.scimono.entity.Group;
+import com.sap.scimono.entity.Meta;
+import com.sap.scimono.entity.Resource;
+import com.sap.scimono.entity.User;
+import com.sap.scimono.entity.bulk.BulkBody;
+import com.sap.scimono.entity.bulk.RequestMethod;
+import com.sap.scimono.entity.bulk.RequestOperation;
+import com.sap.scimono.entity.bulk.ResponseOperation;
+import com.sap.scimono.entity.patch.PatchBody;
+import com.sap.scimono.exception.InternalScimonoException;
+import com.sap.scimono.exception.SCIMException;
+import com.sap.scimono.helper.BulkExecutors;
+
+/**
+ * Executes the operations of a bulk request by the methods of {@link UsersCallback} and {@link GroupsCallback}. Operations which do not
+ * depend on each other are executed concurrently, an operation referring to the <b>bulkId</b> of another operation is executed after it,
+ * see {@link BulkOperationGraph}, with its references replaced by the id of the created resource, see {@link BulkIdResolver}.
+ * Operations referring to a failed operation fail without being executed. Operations on the same resource are executed in the order of the
+ * request.
+ * <p>
+ * With a maximum batch size above 1, contiguous operations of the same resource type and method which are ready to be executed together
+ * are handed to the batch methods of the callbacks, e.g. {@link UsersCallback#createUsers(List)}, so that the backend can write them in one
+ * round trip. Batching pays off only if the callbacks override the batch methods, by default they execute the operations one after the
+ * other.
+ * <p>
+ * Once <b>failOnErrors</b> operations have failed no more operations are started, the operations already started are completed and
+ * returned. The response lists the executed operations in the order of the request.
+ * <p>
+ * The callbacks are called from the threads of the executor, not from the request thread, so they must not depend on thread-local request
+ * state. Return an instance from {@link com.sap.scimono.SCIMApplication#getBulkRequestCallback()} to enable bulk requests.
+ */
+public class ParallelBulkRequestCallback implements BulkRequestCallback {
+  public static final int DEFAULT_PARALLELISM = 16;
+  public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
+  private static final Logger logger = LoggerFactory.getLogger(ParallelBulkRequestCallback.class);
+  private static final String DEPENDENCY_FAILED_ERROR = "Operation with bulkId %s refers to an operation which failed.";
+  private static final String CYCLIC_REFERENCE_ERROR = "Operation with bulkId %s is part of or depends on a circular bulkId reference.";
+
+  private final UsersCallback usersAPI;
+  private final GroupsCallback groupsAPI;
+  private final Executor executor;
+  private final int parallelism;
+  private final int maxBatchSize;
+
+  /**
+   * Executes the operations on the {@link #getDefaultExecutor() default executor}, at most {@value #DEFAULT_PARALLELISM} at once.
+   */
+  public ParallelBulkRequestCallback(final UsersCallback usersAPI, final GroupsCallback groupsAPI) {
+    this(usersAPI, groupsAPI, getDefaultExecutor(), DEFAULT_PARALLELISM);
+  }
+
+  /**
+   * Executes the operations one by one, without batches.
+   *
+   * @param executor runs the operations, e.g. a pool sized for the backend
+   * @param parallelism the maximum number of operations of a bulk request executed at once, 1 executes them one after the other
+   */
+  public ParallelBulkRequestCallback(final UsersCallback usersAPI, final GroupsCallback groupsAPI, final Executor executor,
+      final int parallelism) {
+    this(usersAPI, groupsAPI, executor, parallelism, 1);
+  }
+
+  /**
+   * @param executor runs the batches of operations, e.g. a pool sized for the backend
+   * @param parallelism the maximum number of batches of a bulk request executed at once, 1 executes them one after the other
+   * @param maxBatchSize the maximum number of operations handed to a batch method at once, e.g. {@value #DEFAULT_MAX_BATCH_SIZE}, 1
+   *          executes the operations by the single resource methods
+   */
+  public ParallelBulkRequestCallback(final UsersCallback usersAPI, final GroupsCallback groupsAPI, final Executor executor,
+      final int parallelism, final int maxBatchSize) {
+    this.usersAPI = usersAPI;
+    this.groupsAPI = groupsAPI;
+    this.executor = executor;
+    this.parallelism = Math.max(parallelism, 1);
+    this.maxBatchSize = Math.max(maxBatchSize, 1);
+  }
+
+  /**
+   * @return an executor starting a virtual thread per operation if the runtime supports virtual threads, or else a shared pool of daemon
+   *         threads
+   * @see BulkExecutors#getDefaultExecutor()
+   */
+  public static Executor getDefaultExecutor() {
+    return BulkExecutors.getDefaultExecutor();
+  }
+
+  @Override
+  public BulkBody<ResponseOperation> handleBulkRequest(final BulkBody<RequestOperation> bulkRequest) {
+    Integer failOnErrors = bulkRequest.getFailOnErrors();
+    int maxErrors = failOnErrors == null || failOnErrors <= 0 ? Integer.MAX_VALUE : failOnErrors;
+    return new Execution(bulkRequest.getOperations(), maxErrors).run();
+  }
+
+  private ResponseOperation execute(final RequestOperation operation) {
+    try {
+      if (User.RESOURCE_TYPE_USER.equalsIgnoreCase(operation.getResourceType())) {
+        return executeUserOperation(operation);
+      }
+      return executeGroupOperation(operation);
+    } catch (Throwable e) {
+      logger.debug("Bulk operation with bulkId {} failed", operation.getBulkId(), e);
+      return operation.errorResponse(ScimErrorResponseParser.parseException(e)).build();
+    }
+  }
+
+  private List<ResponseOperation> execute(final List<RequestOperation> batch) {
+    if (batch.size() == 1) {
+      return Collections.singletonList(execute(batch.get(0)));
+    }
+
+    RequestOperation firstOperation = batch.get(0);
+    try {
+      List<? extends BatchItemResult<?>> results;
+      if (User.RESOURCE_TYPE_USER.equalsIgnoreCase(firstOperation.getResourceType())) {
+        results = executeUserBatch(firstOperation.getMethod(), batch);
+      } else {
+        results = executeGroupBatch(firstOperation.getMethod(), batch);
+      }
+      if (results == null || results.size() != batch.size()) {
+        throw new InternalScimonoException("The batch of " + batch.size() + " bulk operations did not return a result per operation");
+      }
+
+      List<ResponseOperation> responses = new ArrayList<>(batch.size());
+      for (int i = 0; i < batch.size(); i++) {
+        responses.add(toResponse(batch.get(i), results.get(i)));
+      }
+      return responses;
+    } catch (Throwable e) {
+      return failBatch(batch, e);
+    }
+  }
+
+  private static ResponseOperation toResponse(final RequestOperation operation, final BatchItemResult<?> result) {
+    try {
+      if (result == null) {
+        throw new InternalScimonoException("No result returned for the bulk operation");
+      }
+      if (!result.isSuccessful()) {
+        throw result.getError();
+      }
+      return toSuccessfulResponse(operation, result.getValue());
+    } catch (Throwable e) {
+      logger.debug("Bulk operation with bulkId {} failed", operation.getBulkId(), e);
+      return operation.errorResponse(ScimErrorResponseParser.parseException(e)).build();
+    }
+  }
+
+  private static List<ResponseOperation> failBatch(final List<RequestOperation> batch, final Throwable e) {
+    logger.debug("Batch of {} bulk operations starting with bulkId {} failed", batch.size(), batch.get(0).getBulkId(), e);
+    ErrorResponse error = ScimErrorResponseParser.parseException(e);
+    List<ResponseOperation> responses = new ArrayList<>(batch.size());
+    batch.forEach(operation -> responses.add(operation.errorResponse(error).build()));
+    return responses;
+  }
+
+  private List<? extends BatchItemResult<?>> executeUserBatch(final RequestMethod method, final List<RequestOperation> batch) {
+    switch (method) {
+      case POST:
+        return usersAPI.createUsers(map(batch, RequestOperation::getDataAsUser));
+      case PUT:
+        return usersAPI.updateUsers(map(batch, RequestOperation::getDataAsUser));
+      case PATCH:
+        return usersAPI.patchUsers(map(batch, ParallelBulkRequestCallback::toResourcePatch));
+      case DELETE:
+        return usersAPI.deleteUsers(map(batch, ParallelBulkRequestCallback::requireResourceId));
+      default:
+        throw new InternalScimonoException("Unsupported bulk operation method: " + method);
+    }
+  }
+
+  private List<? extends BatchItemResult<?>> executeGroupBatch(final RequestMethod method, final List<RequestOperation> batch) {
+    switch (method) {
+      case POST:
+        return groupsAPI.createGroups(map(batch, RequestOperation::getDataAsGroup));
+      case PUT:
+        return groupsAPI.updateGroups(map(batch, RequestOperation::getDataAsGroup));
+      case PATCH:
+        return groupsAPI.patchGroups(map(batch, ParallelBulkRequestCallback::toResourcePatch));
+      case DELETE:
+        return groupsAPI.deleteGroups(map(batch, ParallelBulkRequestCallback::requireResourceId));
+      default:
+        throw new InternalScimonoException("Unsupported bulk operation method: " + method);
+    }
+  }
+
+  private static ResponseOperation toSuccessfulResponse(final RequestOperation operation, final Object value) {
+    switch (operation.getMethod()) {
+      case POST:
+        String resourceId = ((Resource<?>) value).getId();
+        return operation.successfulResponse().withResourceId(resourceId).withVersion(getVersion((Resource<?>) operation.getData())).build();
+      case PUT:
+        return operation.successfulResponse().withVersion(getVersion((Resource<?>) operation.getData())).build();
+      case PATCH:
+        return operation.successfulResponse().withVersion(getVersion(operation.getDataAsPatch().getMeta())).build();
+      default:
+        return operation.successfulResponse().build();
+    }
+  }
+
+  private static ResourcePatch toResourcePatch(final RequestOperation operation) {
+    PatchBody patchBody = operation.getDataAsPatch();
+    return new ResourcePatch(requireResourceId(operation), patchBody, patchBody.getMeta());
+  }
+
+  private static <T> List<T> map(final List<RequestOperation> batch, final Function<RequestOperation, T> mapper) {
+    List<T> items = new ArrayList<>(batch.size());
+    batch.forEach(operation -> items.add(mapper.apply(operation)));
+    return items;
+  }
+
+  private ResponseOperation executeUserOperation(final RequestOperation operation) {
+    switch (operation.getMethod()) {
+      case POST:
+        User createdUser = usersAPI.createUser(operation.getDataAsUser());
+        return operation.successfulResponse().withResourceId(createdUser.getId()).withVersion(getVersion(operation.getDataAsUser())).build();
+      case PUT:
+        usersAPI.updateUser(operation.getDataAsUser());
+        return operation.successfulResponse().withVersion(getVersion(operation.getDataAsUser())).build();
+      case PATCH:
+        PatchBody patchBody = operation.getDataAsPatch();
+        usersAPI.patchUser(requireResourceId(operation), patchBody, patchBody.getMeta());
+        return operation.successfulResponse().withVersion(getVersion(patchBody.getMeta())).build();
+      case DELETE:
+        usersAPI.deleteUser(requireResourceId(operation));
+        return operation.successfulResponse().build();
+      default:
+        throw new InternalScimonoException("Unsupported bulk operation method: " + operation.getMethod());
+    }
+  }
+
+  private ResponseOperation executeGroupOperation(final RequestOperation operation) {
+    switch (operation.getMethod()) {
+      case POST:
+        Group createdGroup = groupsAPI.createGroup(operation.getDataAsGroup());
+        return operation.successfulResponse().withResourceId(createdGroup.getId()).withVersion(getVersion(operation.getDataAsGroup()))
+            .build();
+      case PUT:
+        groupsAPI.updateGroup(operation.getDataAsGroup());
+        return operation.successfulResponse().withVersion(getVersion(operation.getDataAsGroup())).build();
+      case PATCH:
+        PatchBody patchBody = operation.getDataAsPatch();
+        groupsAPI.patchGroup(requireResourceId(operation), patchBody, patchBody.getMeta());
+        return operation.successfulResponse().withVersion(getVersion(patchBody.getMeta())).build();
+      case DELETE:
+        groupsAPI.deleteGroup(requireResourceId(operation));
+        return operation.successfulResponse().build();
+      default:
+        throw new InternalScimonoException("Unsupported bulk operation method: " + operation.getMethod());
+    }
+  }
+
+  private static String requireResourceId(final RequestOperation operation) {
+    return operation.getResourceId().orElseThrow(() -> new InternalScimonoException("resource id is required for this bulk operation..."));
+  }
+
+  private static String getVersion(final Resource<?> resource) {
+    return getVersion(resource.getMeta());
+  }
+
+  private static String getVersion(final Meta meta) {
+    return meta == null ? null : meta.getVersion();
+  }
+
+  private static ResponseOperation errorResponse(final RequestOperation operation, final String errorMessage) {
+    ErrorResponse error = new ErrorResponse(Response.Status.CONFLICT.getStatusCode(), SCIMException.Type.INVALID_VALUE.toJson(),
+        String.format(errorMessage, operation.getBulkId()));
+    return operation.errorResponse(error).build();
+  }
+
+  /**
+   * The state of the execution of one bulk request. It is accessed by the request thread only, the executor threads hand the responses of
+   * the operations back through the completions queue.
+   */
+  private final class Execution {
+    private final List<RequestOperation> operations;
+    private final BulkOperationGraph graph;
+    private final int maxErrors;
+    private final ResponseOperation[] responses;
+    private final int[] pendingDependencies;
+    private final PriorityQueue<Integer> readyOperations = new PriorityQueue<>();
+    private final BlockingQueue<Completion> completions = new LinkedBlockingQueue<>();
+    private final BulkIdResolver bulkIdResolver = new BulkIdResolver();
+    private int runningBatches;
+    private int errors;
+    private boolean stopped;
+
+    private Execution(final List<RequestOperation> operations, final int maxErrors) {
+      this.operations = operations;
+      this.graph = BulkOperationGraph.of(operations);
+      this.maxErrors = maxErrors;
+      this.responses = new ResponseOperation[operations.size()];
+      this.pendingDependencies = new int[operations.size()];
+    }
+
+    private BulkBody<ResponseOperation> run() {
+      for (int i = 0; i < operations.size(); i++) {
+        pendingDependencies[i] = graph.getDependencies(i).size();
+        if (pendingDependencies[i] == 0) {
+          readyOperations.add(i);
+        }
+      }
+      for (int i = 0; i < operations.size() && !stopped; i++) {
+        if (graph.isCyclic(i) && responses[i] == null) {
+          complete(i, errorResponse(operations.get(i), CYCLIC_REFERENCE_ERROR));
+        }
+      }
+
+      while ((!stopped && !readyOperations.isEmpty()) || runningBatches > 0) {
+        while (!stopped && !readyOperations.isEmpty() && runningBatches < parallelism) {
+          startBatch();
+        }
+        if (runningBatches > 0) {
+          Completion completion = takeCompletion();
+          runningBatches--;
+          for (int i = 0; i < completion.indexes.size(); i++) {
+            complete(completion.indexes.get(i), completion.responses.get(i));
+          }
+        }
+      }
+
+      List<ResponseOperation> executedOperations = new ArrayList<>(operations.size());
+      for (ResponseOperation response : responses) {
+        if (response != null) {
+          executedOperations.add(response);
+        }
+      }
+      return BulkBody.forResponse(executedOperations);
+    }
+
+    /**
+     * Starts the first ready operation, together with the following ready operations of the same resource type and method, up to the
+     * maximum batch size. Ready operations do not depend on each other, so they can be executed in one batch.
+     */
+    private void startBatch() {
+      int firstIndex = readyOperations.poll();
+      List<Integer> indexes = new ArrayList<>();
+      List<RequestOperation> batch = new ArrayList<>();
+      addToBatch(firstIndex, indexes, batch);
+
+      RequestOperation firstOperation = operations.get(firstIndex);
+      for (int index = firstIndex + 1; batch.size() < maxBatchSize && !stopped && isReady(index)
+          && isSameBatch(firstOperation, operations.get(index)); index++) {
+        readyOperations.poll();
+        addToBatch(index, indexes, batch);
+      }
+      if (batch.isEmpty()) {
+        return;
+      }
+
+      try {
+        executor.execute(() -> completions.add(new Completion(indexes, execute(batch))));
+        runningBatches++;
+      } catch (RejectedExecutionException e) {
+        ErrorResponse error = ScimErrorResponseParser.parseException(e);
+        for (int i = 0; i < indexes.size(); i++) {
+          complete(indexes.get(i), batch.get(i).errorResponse(error).build());
+        }
+      }
+    }
+
+    /**
+     * Adds the operation with its references resolved to the batch, or completes it if it cannot be executed.
+     */
+    private void addToBatch(final int index, final List<Integer> indexes, final List<RequestOperation> batch) {
+      RequestOperation operation = operations.get(index);
+      if (responses[index] != null) {
+        return;
+      }
+      if (operation.hasValidationError()) {
+        complete(index, operation.errorResponseFromExistingValidationError().build());
+        return;
+      }
+
+      try {
+        batch.add(bulkIdResolver.resolve(operation));
+        indexes.add(index);
+      } catch (SCIMException e) {
+        complete(index, operation.errorResponse(e).build());
+      }
+    }
+
+    private boolean isReady(final int index) {
+      Integer nextReadyIndex = readyOperations.peek();
+      return nextReadyIndex != null && nextReadyIndex == index;
+    }
+
+    private boolean isSameBatch(final RequestOperation firstOperation, final RequestOperation operation) {
+      return firstOperation.getMethod() == operation.getMethod() && firstOperation.getResourceType() != null
+          && firstOperation.getResourceType().equalsIgnoreCase(operation.getResourceType());
+    }
+
+    private Completion takeCompletion() {
+      try {
+        return completions.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InternalScimonoException("Interrupted while executing bulk operations", e);
+      }
+    }
+
+    /**
+     * Records the response of an operation and releases its dependents, or fails the ones referring to it if the operation failed.
+     */
+    private void complete(final int index, final ResponseOperation response) {
+      Deque<Integer> failedOperations = new ArrayDeque<>();
+      record(index, response, failedOperations);
+      while (!stopped && !failedOperations.isEmpty()) {
+        int failedIndex = failedOperations.poll();
+        if (responses[failedIndex] == null) {
+          record(failedIndex, errorResponse(operations.get(failedIndex), DEPENDENCY_FAILED_ERROR), failedOperations);
+        }
+      }
+    }
+
+    private void record(final int index, final ResponseOperation response, final Deque<Integer> failedOperations) {
+      responses[index] = response;
+      if (response.isSuccessful() && response.getMethod() == RequestMethod.POST) {
+        bulkIdResolver.register(response.getBulkId(), response.getResourceId());
+      }
+      if (!response.isSuccessful() && ++errors >= maxErrors) {
+        stopped = true;
+      }
+
+      for (int dependent : graph.getDependents(index)) {
+        if (!response.isSuccessful() && graph.refersTo(dependent, index)) {
+          failedOperations.add(dependent);
+        } else if (--pendingDependencies[dependent] == 0 && responses[dependent] == null) {
+          readyOperations.add(dependent);
+        }
+      }
+    }
+  }
+
+  private static final class Completion {
+    private final List<Integer> indexes;
+    private final List<ResponseOperation> responses;
+
+    private Completion(final List<Integer> indexes, final List<ResponseOperation> responses) {
+      this.indexes = indexes;
+      this.responses = responses;
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package com.sap.scimono.callback.bulk;
+
+import com.sap.scimono.entity.Meta;
+import com.sap.scimono.entity.patch.PatchBody;
+
+/**
+ * One item of a batch patch, e.g. {@link com.sap.scimono.callback.users.UsersCallback#patchUsers(java.util.List)}, with the arguments of
+ * the single resource patch.
+ */
+public final class ResourcePatch {
+  private final String resourceId;
+  private final PatchBody patchBody;
+  private final Meta meta;
+
+  public ResourcePatch(final String resourceId, final PatchBody patchBody, final Meta meta) {
+    this.resourceId = resourceId;
+    this.patchBody = patchBody;
+    this.meta = meta;
+  }
+
+  public String getResourceId() {
+    return resourceId;
+  }
+
+  public PatchBody getPatchBody() {
+    return patchBody;
+  }
+
+  public Meta getMeta() {
+    return meta;
+  }
+}
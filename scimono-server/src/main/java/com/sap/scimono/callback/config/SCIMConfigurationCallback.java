@@ -7,6 +7,7 @@ import com.sap.scimono.entity.config.FilterSetting;
 import com.sap.scimono.entity.config.PagingSetting;
 
 import java.net.URI;
+import java.time.Duration;
 
 public interface SCIMConfigurationCallback {
 
@@ -29,6 +30,13 @@ public interface SCIMConfigurationCallback {
 
   boolean getPatchSupportedSetting();
 
+  /**
+   * Determines whether the <b>sortBy</b> and <b>sortOrder</b> parameters are supported, otherwise they are ignored. Callbacks which do not
+   * {@link com.sap.scimono.callback.users.UsersCallback#isSortingSupported() sort} themselves are sorted by the server, which reads up to
+   * {@link #getMaxFilterCandidates()} resources per request and does not support paging by <b>startId</b> then.
+   *
+   * @return whether sorting is supported
+   */
   boolean getSortSupportedSetting();
 
   boolean getETagSupportedSetting();
@@ -38,4 +46,35 @@ public interface SCIMConfigurationCallback {
   default URI getRedirectApiRoot() {
     return null;
   }
+
+  /**
+   * Determines the maximum amount of resources the server reads from a callback to apply the parts of a filter the callback does not
+   * support, see {@link com.sap.scimono.filter.FilterCapabilities}. Filters requiring to read more resources are rejected.
+   *
+   * @return resource limit or 0 if there is no limit
+   */
+  default int getMaxFilterCandidates() {
+    return 10000;
+  }
+
+  /**
+   * Determines the key the <b>cursor</b> paging tokens are signed with, so that tampered tokens are rejected. Servers running several
+   * instances must return the same key on every instance, otherwise tokens are accepted only by the instance which issued them.
+   *
+   * @return the key or null to sign tokens with a key generated once per server start
+   */
+  default byte[] getCursorSigningKey() {
+    return null;
+  }
+
+  /**
+   * Determines how long the exact total count of the resources matching a filter is reused for list requests with the same filter, so that
+   * callbacks need not count them again, see {@link com.sap.scimono.entity.paging.PageInfo#isTotalResourceCountRequired()}. Cached counts
+   * are not updated when resources change.
+   *
+   * @return the time to live of cached counts or {@link Duration#ZERO} to disable caching
+   */
+  default Duration getTotalResultsCacheTimeToLive() {
+    return Duration.ZERO;
+  }
 }
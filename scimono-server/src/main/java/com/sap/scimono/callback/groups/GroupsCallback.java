@@ -3,16 +3,23 @@ package com.sap.scimono.callback.groups;
 
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 import com.sap.scimono.api.request.RequestedResourceAttributes;
+import com.sap.scimono.callback.bulk.BatchItemResult;
+import com.sap.scimono.callback.bulk.ResourcePatch;
 import com.sap.scimono.callback.config.SCIMConfigurationCallback;
 import com.sap.scimono.entity.Group;
 import com.sap.scimono.entity.Meta;
 import com.sap.scimono.entity.paging.PageInfo;
 import com.sap.scimono.entity.paging.PagedResult;
+import com.sap.scimono.entity.paging.SortInfo;
+import com.sap.scimono.entity.paging.StreamedPagedResult;
 import com.sap.scimono.entity.patch.PatchBody;
+import com.sap.scimono.filter.FilterCapabilities;
+import com.sap.scimono.filter.expression.FilterExpression;
 
 public interface GroupsCallback {
   /**
@@ -28,6 +35,11 @@ public interface GroupsCallback {
   /**
    * Returns a page of groups (limited by {@link SCIMConfigurationCallback#getMaxResourcesPerPage()}),
    * taking into account the specified filter and paging parameters.
+   * <p>
+   * Counting the groups matching the filter may be as expensive as reading the page. If counting is not
+   * {@link PageInfo#isTotalResourceCountRequired() required}, or too expensive, return a page
+   * {@link PagedResult#withUnknownTotal(java.util.List) without total count} or {@link PagedResult#withEstimatedTotal(int, java.util.List)
+   * with an estimated total count} instead.
    *
    * @param pageInfo parsed paging parameters from the API request
    * @param filter   unparsed filter string from the $filter query parameter
@@ -45,6 +57,96 @@ public interface GroupsCallback {
     return getGroups(pageInfo, filter);
   }
 
+  /**
+   * Returns a page of groups (more info in {@link GroupsCallback#getGroups(PageInfo, String, RequestedResourceAttributes)}), taking into account the
+   * parsed filter. The filter is validated against the schemas: its attributes exist and its literals have the type of the compared attribute.
+   * <p>
+   * Override this method to translate the filter without parsing it again. By default the filter is rendered back to SCIM filter syntax and
+   * handed to {@link GroupsCallback#getGroups(PageInfo, String, RequestedResourceAttributes)}.
+   *
+   * @param filter the parsed filter from the $filter query parameter or null if there is no filter
+   * @param additionalAttributes additional attributes to be returned of excluded from the response
+   * @return a page of groups or empty page if no groups match the filter/paging criteria
+   */
+  default PagedResult<Group> getGroups(final PageInfo pageInfo, final FilterExpression filter, RequestedResourceAttributes additionalAttributes) {
+    return getGroups(pageInfo, filter == null ? null : filter.toString(), additionalAttributes);
+  }
+
+  /**
+   * Returns a page of groups (more info in {@link GroupsCallback#getGroups(PageInfo, FilterExpression, RequestedResourceAttributes)}), whose
+   * groups are read while the list response is written.
+   * <p>
+   * Override this method to stream large pages, e.g. from a database cursor, instead of collecting them in a list. The stream is closed after
+   * the response is written. By default the page returned by {@link GroupsCallback#getGroups(PageInfo, FilterExpression, RequestedResourceAttributes)}
+   * is streamed.
+   * <p>
+   * The {@link RequestedResourceAttributes#getProjection() projection} of the additional attributes tells which attributes are returned, the
+   * other attributes need not be fetched, they are not written anyway.
+   *
+   * @param filter the parsed filter from the $filter query parameter or null if there is no filter
+   * @param additionalAttributes additional attributes to be returned of excluded from the response
+   * @return a page of groups or empty page if no groups match the filter/paging criteria
+   */
+  default StreamedPagedResult<Group> streamGroups(final PageInfo pageInfo, final FilterExpression filter, RequestedResourceAttributes additionalAttributes) {
+    return StreamedPagedResult.of(getGroups(pageInfo, filter, additionalAttributes));
+  }
+
+  /**
+   * Returns a page of groups (more info in {@link GroupsCallback#getGroups(PageInfo, FilterExpression, RequestedResourceAttributes)}), sorted by the
+   * <b>sortBy</b> and <b>sortOrder</b> parameters. Called only if the callback {@link GroupsCallback#isSortingSupported() supports sorting}, or
+   * without sort otherwise.
+   * <p>
+   * Override this method to sort natively, e.g. in the database query. By default the sort is ignored.
+   * <p>
+   * If the page is requested by {@link PageInfo#getCursor() cursor}, return the groups starting at the cursor's sort value and id, in the
+   * order of their sort value and id, plus one more if there is a next page, like when paging by id.
+   *
+   * @param sortInfo the requested sort or null if no sort is requested
+   * @return a sorted page of groups or empty page if no groups match the filter/paging criteria
+   */
+  default PagedResult<Group> getGroups(final PageInfo pageInfo, final FilterExpression filter, final SortInfo sortInfo,
+      RequestedResourceAttributes additionalAttributes) {
+    return getGroups(pageInfo, filter, additionalAttributes);
+  }
+
+  /**
+   * Returns a sorted page of groups (more info in {@link GroupsCallback#getGroups(PageInfo, FilterExpression, SortInfo, RequestedResourceAttributes)}),
+   * whose groups are read while the list response is written. By default the page returned by
+   * {@link GroupsCallback#streamGroups(PageInfo, FilterExpression, RequestedResourceAttributes)} is streamed if no sort is requested, the page returned
+   * by {@link GroupsCallback#getGroups(PageInfo, FilterExpression, SortInfo, RequestedResourceAttributes)} otherwise.
+   *
+   * @param sortInfo the requested sort or null if no sort is requested
+   * @return a sorted page of groups or empty page if no groups match the filter/paging criteria
+   */
+  default StreamedPagedResult<Group> streamGroups(final PageInfo pageInfo, final FilterExpression filter, final SortInfo sortInfo,
+      RequestedResourceAttributes additionalAttributes) {
+    if (sortInfo == null) {
+      return streamGroups(pageInfo, filter, additionalAttributes);
+    }
+    return StreamedPagedResult.of(getGroups(pageInfo, filter, sortInfo, additionalAttributes));
+  }
+
+  /**
+   * Declares whether the groups are sorted by the callback. Otherwise the server sorts the groups returned for the filter, reading them page by page
+   * and keeping only the groups up to the end of the requested page.
+   *
+   * @return whether {@link GroupsCallback#getGroups(PageInfo, FilterExpression, SortInfo, RequestedResourceAttributes)} sorts the groups, by default
+   *         false
+   */
+  default boolean isSortingSupported() {
+    return false;
+  }
+
+  /**
+   * Declares the parts of filters handed to {@link GroupsCallback#getGroups(PageInfo, FilterExpression, RequestedResourceAttributes)}, which are evaluated
+   * by the callback. The other parts are applied by the server to the groups returned for the supported parts, reading them page by page.
+   *
+   * @return the supported filters, by default all filters
+   */
+  default FilterCapabilities getFilterCapabilities() {
+    return FilterCapabilities.all();
+  }
+
 
   /**
    * Creates a group with the provided attributes. The group object must have all mandatory attributes available,
@@ -79,6 +181,51 @@ public interface GroupsCallback {
    */
   void deleteGroup(final String groupId);
 
+  /**
+   * Creates the groups of a bulk request at once, e.g. by a multi-row insert. Override this method to write the groups in one round trip, by
+   * default each group is created by {@link GroupsCallback#createGroup(Group)}.
+   *
+   * @param groups the groups to create, see {@link GroupsCallback#createGroup(Group)}
+   * @return the created groups or the errors which failed them, in the order of the groups
+   */
+  default List<BatchItemResult<Group>> createGroups(final List<Group> groups) {
+    return BatchItemResult.forEach(groups, this::createGroup);
+  }
+
+  /**
+   * Updates the groups of a bulk request at once. By default each group is updated by {@link GroupsCallback#updateGroup(Group)}.
+   *
+   * @return the updated groups or the errors which failed them, in the order of the groups
+   */
+  default List<BatchItemResult<Group>> updateGroups(final List<Group> groups) {
+    return BatchItemResult.forEach(groups, this::updateGroup);
+  }
+
+  /**
+   * Patches the groups of a bulk request at once. By default each group is patched by
+   * {@link GroupsCallback#patchGroup(String, PatchBody, Meta)}.
+   *
+   * @return the results of the patches, in the order of the patches
+   */
+  default List<BatchItemResult<Void>> patchGroups(final List<ResourcePatch> patches) {
+    return BatchItemResult.forEach(patches, patch -> {
+      patchGroup(patch.getResourceId(), patch.getPatchBody(), patch.getMeta());
+      return null;
+    });
+  }
+
+  /**
+   * Deletes the groups of a bulk request at once. By default each group is deleted by {@link GroupsCallback#deleteGroup(String)}.
+   *
+   * @return the results of the deletions, in the order of the group ids
+   */
+  default List<BatchItemResult<Void>> deleteGroups(final List<String> groupIds) {
+    return BatchItemResult.forEach(groupIds, groupId -> {
+      deleteGroup(groupId);
+      return null;
+    });
+  }
+
   /**
    * Generates a group id for a new group
    *
@@ -0,0 +1,94 @@
+package com.sap.scimono.callback.schemas;
+
+import java.util.List;
+
+import com.sap.scimono.entity.schema.Attribute;
+import com.sap.scimono.entity.schema.AttributePath;
+import com.sap.scimono.entity.schema.Schema;
+
+/**
+ * Decorates an application provided {@link SchemasCallback} so that schema and attribute lookups are served by the application-scoped
+ * {@link SchemaRegistry} of its {@link SchemasCallback#getSchemaRegistryKey() key} instead of reading the schemas on every call. Schema
+ * changes made through this callback invalidate the registry of its key.
+ */
+public class CompiledSchemasCallback implements SchemasCallback {
+  private final SchemasCallback schemasCallback;
+  private final SchemaRegistryProvider registryProvider;
+
+  public CompiledSchemasCallback(final SchemasCallback schemasCallback, final SchemaRegistryProvider registryProvider) {
+    this.schemasCallback = schemasCallback;
+    this.registryProvider = registryProvider;
+  }
+
+  @Override
+  public Schema getCustomSchema(final String schemaId) {
+    return schemasCallback.getCustomSchema(schemaId);
+  }
+
+  @Override
+  public void createCustomSchema(final Schema schema) {
+    schemasCallback.createCustomSchema(schema);
+    registryProvider.invalidate(schemasCallback.getSchemaRegistryKey());
+  }
+
+  @Override
+  public List<Schema> getCustomSchemas() {
+    return schemasCallback.getCustomSchemas();
+  }
+
+  @Override
+  public List<Schema> getSchemas() {
+    return schemasCallback.getSchemas();
+  }
+
+  @Override
+  public void deleteCustomSchema(final String schemaId) {
+    schemasCallback.deleteCustomSchema(schemaId);
+    registryProvider.invalidate(schemasCallback.getSchemaRegistryKey());
+  }
+
+  @Override
+  public boolean isValidSchemaName(final String schemaName) {
+    return schemasCallback.isValidSchemaName(schemaName);
+  }
+
+  @Override
+  public String getSchemaRegistryKey() {
+    return schemasCallback.getSchemaRegistryKey();
+  }
+
+  @Override
+  public SchemaRegistry getSchemaRegistry() {
+    return registryProvider.get(schemasCallback);
+  }
+
+  @Override
+  public Schema getSchema(final String schemaId) {
+    return getSchemaRegistry().getSchema(schemaId);
+  }
+
+  @Override
+  public Attribute getAttribute(final String path) {
+    return getSchemaRegistry().getAttribute(path);
+  }
+
+  @Override
+  public String getSchemaIdFromAttributeNotation(final String attrNotation) {
+    return getSchemaRegistry().getSchemaIdFromAttributeNotation(attrNotation);
+  }
+
+  @Override
+  public AttributePath getAttributePath(final String attrNotation) {
+    return getSchemaRegistry().getAttributePath(attrNotation);
+  }
+
+  @Override
+  public List<Attribute> getComplexAttributePath(final String fullAttrNotation) {
+    return getSchemaRegistry().getComplexAttributePath(fullAttrNotation);
+  }
+
+  @Override
+  public String appendSubAttributeToPath(final String fullAttributePath, final String subAttribute) {
+    return getSchemaRegistry().appendSubAttributeToPath(fullAttributePath, subAttribute);
+  }
+}
@@ -0,0 +1,90 @@
+package com.sap.scimono.callback.schemas;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.sap.scimono.entity.schema.Attribute;
+import com.sap.scimono.entity.schema.AttributePath;
+import com.sap.scimono.entity.schema.Schema;
+
+/**
+ * Read-only {@link SchemasCallback} serving all lookups from a single {@link SchemaRegistry} version. Unlike the request-scoped callbacks it
+ * does not reach the schemas backend, so it can be kept by objects shared between requests, e.g. by the patch validators. Schemas cannot be
+ * created or deleted through it.
+ */
+public final class RegistrySchemasCallback implements SchemasCallback {
+  private final SchemaRegistry schemaRegistry;
+
+  public RegistrySchemasCallback(final SchemaRegistry schemaRegistry) {
+    this.schemaRegistry = schemaRegistry;
+  }
+
+  @Override
+  public Schema getCustomSchema(final String schemaId) {
+    return SchemasCallback.isCustomSchema(schemaId) ? schemaRegistry.getSchema(schemaId) : null;
+  }
+
+  @Override
+  public void createCustomSchema(final Schema schema) {
+    throw new UnsupportedOperationException("Schemas cannot be created through a schema registry");
+  }
+
+  @Override
+  public List<Schema> getCustomSchemas() {
+    // @formatter:off
+    return schemaRegistry.getSchemas().stream()
+        .filter(schema -> SchemasCallback.isCustomSchema(schema.getId()))
+        .collect(Collectors.toList());
+    // @formatter:on
+  }
+
+  @Override
+  public List<Schema> getSchemas() {
+    return schemaRegistry.getSchemas();
+  }
+
+  @Override
+  public void deleteCustomSchema(final String schemaId) {
+    throw new UnsupportedOperationException("Schemas cannot be deleted through a schema registry");
+  }
+
+  @Override
+  public boolean isValidSchemaName(final String schemaName) {
+    throw new UnsupportedOperationException("Schema names cannot be validated through a schema registry");
+  }
+
+  @Override
+  public SchemaRegistry getSchemaRegistry() {
+    return schemaRegistry;
+  }
+
+  @Override
+  public Schema getSchema(final String schemaId) {
+    return schemaRegistry.getSchema(schemaId);
+  }
+
+  @Override
+  public Attribute getAttribute(final String path) {
+    return schemaRegistry.getAttribute(path);
+  }
+
+  @Override
+  public String getSchemaIdFromAttributeNotation(final String attrNotation) {
+    return schemaRegistry.getSchemaIdFromAttributeNotation(attrNotation);
+  }
+
+  @Override
+  public AttributePath getAttributePath(final String attrNotation) {
+    return schemaRegistry.getAttributePath(attrNotation);
+  }
+
+  @Override
+  public List<Attribute> getComplexAttributePath(final String fullAttrNotation) {
+    return schemaRegistry.getComplexAttributePath(fullAttrNotation);
+  }
+
+  @Override
+  public String appendSubAttributeToPath(final String fullAttributePath, final String subAttribute) {
+    return schemaRegistry.appendSubAttributeToPath(fullAttributePath, subAttribute);
+  }
+}
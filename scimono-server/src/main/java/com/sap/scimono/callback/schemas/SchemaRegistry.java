@@ -0,0 +1,252 @@
+package com.sap.scimono.callback.schemas;
+
+import static com.sap.scimono.callback.schemas.SchemasCallback.COMPLEX_ATTRIBUTE_DELIMETER;
+import static com.sap.scimono.callback.schemas.SchemasCallback.SCHEMA_URN_DELIMETER;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.sap.scimono.entity.schema.Attribute;
+import com.sap.scimono.entity.schema.AttributePath;
+import com.sap.scimono.entity.schema.Schema;
+
+/**
+ * Immutable, compiled view over all schemas known to the application. Schema ids are indexed in a URN prefix trie and every attribute path
+ * (e.g. <b>urn:ietf:params:scim:schemas:core:2.0:User:name.givenName</b>) is mapped, case-insensitively, to its attribute hierarchy, so that lookups
+ * cost a single pass over the path and never reach the schemas backend.
+ * <p>
+ * Every attribute and sub-attribute is numbered with an ordinal, in the order of the schemas and their attributes, so that sets of attributes
+ * can be kept as bitmaps, see {@link com.sap.scimono.api.request.AttributeProjection}.
+ */
+public final class SchemaRegistry {
+  private static final int MAX_INTERNED_PATHS = 10_000;
+
+  private final long version;
+  private final List<Schema> schemas;
+  private final Map<String, Schema> schemasById = new HashMap<>();
+  private final Map<String, List<Attribute>> attributeHierarchies = new HashMap<>();
+  private final SchemaUrnTrie schemaIds = new SchemaUrnTrie();
+  private final Map<String, AttributePath> attributePaths = new ConcurrentHashMap<>();
+  private final List<List<Attribute>> hierarchiesByOrdinal = new ArrayList<>();
+  private final List<String> schemaIdsByOrdinal = new ArrayList<>();
+  private final Map<String, Map<String, Integer>> ordinalsBySchema = new HashMap<>();
+  private final List<Map<String, Integer>> subAttributeOrdinals = new ArrayList<>();
+
+  private SchemaRegistry(final Collection<Schema> schemas, final long version) {
+    this.version = version;
+    this.schemas = Collections.unmodifiableList(new ArrayList<>(schemas));
+
+    for (Schema schema : this.schemas) {
+      String schemaId = schema.getId();
+      schemaIds.add(schemaId);
+      schemasById.putIfAbsent(fold(schemaId), schema);
+      Map<String, Integer> schemaOrdinals = ordinalsBySchema.computeIfAbsent(fold(schemaId), id -> new HashMap<>());
+      ordinalsBySchema.putIfAbsent(schemaId, schemaOrdinals);
+      indexAttributes(schemaId, schemaId + SCHEMA_URN_DELIMETER, schema.getAttributes(), Collections.emptyList(), schemaOrdinals);
+    }
+  }
+
+  public static SchemaRegistry compile(final Collection<Schema> schemas) {
+    return compile(schemas, 0);
+  }
+
+  public static SchemaRegistry compile(final Collection<Schema> schemas, final long version) {
+    return new SchemaRegistry(schemas, version);
+  }
+
+  private void indexAttributes(final String schemaId, final String pathPrefix, final List<Attribute> attributes,
+      final List<Attribute> parentHierarchy, final Map<String, Integer> siblingOrdinals) {
+    for (Attribute attribute : attributes) {
+      String path = pathPrefix + attribute.getName();
+
+      List<Attribute> hierarchy = new ArrayList<>(parentHierarchy.size() + 1);
+      hierarchy.addAll(parentHierarchy);
+      hierarchy.add(attribute);
+      hierarchy = Collections.unmodifiableList(hierarchy);
+
+      if (attributeHierarchies.putIfAbsent(fold(path), hierarchy) == null) {
+        int ordinal = hierarchiesByOrdinal.size();
+        hierarchiesByOrdinal.add(hierarchy);
+        schemaIdsByOrdinal.add(schemaId);
+        siblingOrdinals.putIfAbsent(fold(attribute.getName()), ordinal);
+        siblingOrdinals.putIfAbsent(attribute.getName(), ordinal);
+
+        Map<String, Integer> childOrdinals = attribute.getSubAttributes().isEmpty() ? Collections.emptyMap() : new HashMap<>();
+        subAttributeOrdinals.add(childOrdinals);
+        indexAttributes(schemaId, path + COMPLEX_ATTRIBUTE_DELIMETER, attribute.getSubAttributes(), hierarchy, childOrdinals);
+      }
+    }
+  }
+
+  /**
+   * @return the version of the schema set this registry was compiled from. A new version is assigned on every rebuild.
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  public List<Schema> getSchemas() {
+    return schemas;
+  }
+
+  /**
+   * @param schemaId schema URN, matched case-insensitively
+   * @return the schema or null if no such schema exists
+   */
+  public Schema getSchema(final String schemaId) {
+    if (schemaId == null) {
+      return null;
+    }
+    return schemasById.get(fold(schemaId));
+  }
+
+  /**
+   * @param attrNotation full attribute notation starting with a schema URN
+   * @return the id of the schema the notation starts with or null if it does not start with a known schema
+   */
+  public String getSchemaIdFromAttributeNotation(final String attrNotation) {
+    if (attrNotation == null) {
+      return null;
+    }
+    return schemaIds.findSchemaId(attrNotation);
+  }
+
+  /**
+   * Parses the attribute notation, resolving its schema with the URN trie. Parsed paths are interned for the lifetime of this registry.
+   *
+   * @param attrNotation short or full attribute notation, optionally with a value filter
+   * @return the parsed path
+   */
+  public AttributePath getAttributePath(final String attrNotation) {
+    AttributePath attributePath = attributePaths.get(attrNotation);
+    if (attributePath != null) {
+      return attributePath;
+    }
+
+    attributePath = AttributePath.parse(attrNotation, getSchemaIdFromAttributeNotation(attrNotation));
+    if (attributePaths.size() < MAX_INTERNED_PATHS) {
+      attributePaths.putIfAbsent(attrNotation, attributePath);
+    }
+    return attributePath;
+  }
+
+  /**
+   * @param attributePath parsed attribute path, its value filter is ignored
+   * @param defaultSchemaId schema to resolve the path against if it does not contain one
+   * @return the attribute definitions from the top level attribute down to the addressed one, or empty list if the path does not exist
+   */
+  public List<Attribute> getComplexAttributePath(final AttributePath attributePath, final String defaultSchemaId) {
+    return getComplexAttributePath(attributePath.getFullAttributeNotation(defaultSchemaId));
+  }
+
+  /**
+   * @param fullAttrNotation full attribute notation starting with a schema URN (e.g. urn:ietf:params:scim:schemas:core:2.0:User:name.givenName)
+   * @return the attribute definitions from the top level attribute down to the addressed one, or empty list if the path does not exist
+   */
+  public List<Attribute> getComplexAttributePath(final String fullAttrNotation) {
+    if (fullAttrNotation == null) {
+      return Collections.emptyList();
+    }
+    return attributeHierarchies.getOrDefault(fold(fullAttrNotation), Collections.emptyList());
+  }
+
+  /**
+   * @param fullAttrNotation full attribute notation starting with a schema URN
+   * @return the attribute definition or null if the path does not exist
+   */
+  public Attribute getAttribute(final String fullAttrNotation) {
+    List<Attribute> hierarchy = getComplexAttributePath(fullAttrNotation);
+    if (hierarchy.isEmpty()) {
+      return null;
+    }
+    return hierarchy.get(hierarchy.size() - 1);
+  }
+
+  /**
+   * @return the number of attributes and sub-attributes of all schemas, the ordinals range from 0 to this number exclusive
+   */
+  public int getAttributeCount() {
+    return hierarchiesByOrdinal.size();
+  }
+
+  /**
+   * @param fullAttrNotation full attribute notation starting with a schema URN
+   * @return the ordinal of the attribute or -1 if the path does not exist
+   */
+  public int getAttributeOrdinal(final String fullAttrNotation) {
+    List<Attribute> hierarchy = getComplexAttributePath(fullAttrNotation);
+    if (hierarchy.isEmpty()) {
+      return -1;
+    }
+
+    String schemaId = getSchemaIdFromAttributeNotation(fullAttrNotation);
+    int ordinal = getAttributeOrdinal(schemaId, hierarchy.get(0).getName());
+    return hierarchy.size() == 1 || ordinal < 0 ? ordinal : getSubAttributeOrdinal(ordinal, hierarchy.get(1).getName());
+  }
+
+  /**
+   * Looks up a top level attribute without building its path, matching the names exactly first and case-insensitively then.
+   *
+   * @param schemaId the schema URN
+   * @param attributeName the name of the top level attribute
+   * @return the ordinal of the attribute or -1 if the schema has no such attribute
+   */
+  public int getAttributeOrdinal(final String schemaId, final String attributeName) {
+    Map<String, Integer> schemaOrdinals = ordinalsBySchema.get(schemaId);
+    if (schemaOrdinals == null && schemaId != null) {
+      schemaOrdinals = ordinalsBySchema.get(fold(schemaId));
+    }
+    return schemaOrdinals == null ? -1 : lookUp(schemaOrdinals, attributeName);
+  }
+
+  /**
+   * @param ordinal the ordinal of a complex attribute
+   * @param subAttributeName the name of the sub-attribute
+   * @return the ordinal of the sub-attribute or -1 if the attribute has no such sub-attribute
+   */
+  public int getSubAttributeOrdinal(final int ordinal, final String subAttributeName) {
+    return lookUp(subAttributeOrdinals.get(ordinal), subAttributeName);
+  }
+
+  /**
+   * @param ordinal the ordinal of an attribute
+   * @return the attribute definitions from the top level attribute down to the numbered one
+   */
+  public List<Attribute> getAttributeHierarchy(final int ordinal) {
+    return hierarchiesByOrdinal.get(ordinal);
+  }
+
+  /**
+   * @param ordinal the ordinal of an attribute
+   * @return the id of the schema defining the attribute
+   */
+  public String getSchemaIdOfAttribute(final int ordinal) {
+    return schemaIdsByOrdinal.get(ordinal);
+  }
+
+  public String appendSubAttributeToPath(final String fullAttributePath, final String subAttribute) {
+    String delimiter = getSchema(fullAttributePath) == null ? COMPLEX_ATTRIBUTE_DELIMETER : SCHEMA_URN_DELIMETER;
+    return String.join(delimiter, fullAttributePath, subAttribute);
+  }
+
+  private static int lookUp(final Map<String, Integer> ordinals, final String name) {
+    if (name == null || ordinals.isEmpty()) {
+      return -1;
+    }
+    Integer ordinal = ordinals.get(name);
+    if (ordinal == null) {
+      ordinal = ordinals.get(fold(name));
+    }
+    return ordinal == null ? -1 : ordinal;
+  }
+
+  private static String fold(final String value) {
+    return value.toLowerCase(Locale.ENGLISH);
+  }
+}
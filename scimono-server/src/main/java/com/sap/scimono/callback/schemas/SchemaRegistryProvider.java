@@ -0,0 +1,46 @@
+package com.sap.scimono.callback.schemas;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Application-scoped holder of the compiled {@link SchemaRegistry} of each set of schemas, identified by
+ * {@link SchemasCallback#getSchemaRegistryKey()}, e.g. one per tenant. A registry is compiled lazily on first use of its key and is kept
+ * until it is {@link #invalidate(String) invalidated}, after which the next lookup compiles a new version.
+ */
+public class SchemaRegistryProvider {
+  private static final Logger logger = LoggerFactory.getLogger(SchemaRegistryProvider.class);
+
+  private final AtomicLong versionSequence = new AtomicLong();
+  private final ConcurrentMap<String, SchemaRegistry> registries = new ConcurrentHashMap<>();
+
+  /**
+   * @param schemasCallback the callback used to read all schemas if the registry of its key has to be (re)compiled
+   * @return the current compiled registry of the schemas of the callback
+   */
+  public SchemaRegistry get(final SchemasCallback schemasCallback) {
+    return registries.computeIfAbsent(schemasCallback.getSchemaRegistryKey(), key -> {
+      SchemaRegistry registry = SchemaRegistry.compile(schemasCallback.getSchemas(), versionSequence.incrementAndGet());
+      logger.debug("Compiled schema registry version {} for key '{}'", registry.getVersion(), key);
+      return registry;
+    });
+  }
+
+  /**
+   * Discards the compiled registry of the key. Must be called whenever schemas of the key are created, modified or deleted.
+   */
+  public void invalidate(final String key) {
+    registries.remove(key);
+  }
+
+  /**
+   * Discards the compiled registries of all keys.
+   */
+  public void invalidate() {
+    registries.clear();
+  }
+}
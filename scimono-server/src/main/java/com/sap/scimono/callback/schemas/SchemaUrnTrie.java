@@ -0,0 +1,54 @@
+package com.sap.scimono.callback.schemas;
+
+import static com.sap.scimono.callback.schemas.SchemasCallback.SCHEMA_URN_DELIMETER;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Case-insensitive prefix tree over schema URNs. Resolves the schema of an attribute notation with a single walk over its characters.
+ */
+class SchemaUrnTrie {
+  private static final char URN_DELIMITER = SCHEMA_URN_DELIMETER.charAt(0);
+
+  private final Node root = new Node();
+
+  void add(final String schemaId) {
+    Node current = root;
+    for (int i = 0; i < schemaId.length(); i++) {
+      current = current.children.computeIfAbsent(Character.toLowerCase(schemaId.charAt(i)), c -> new Node());
+    }
+    current.schemaId = schemaId;
+  }
+
+  /**
+   * Returns the longest schema id which is a prefix of the provided attribute notation and is followed either by the end of the notation or by
+   * the URN delimiter.
+   *
+   * @param attrNotation full attribute notation, e.g. urn:ietf:params:scim:schemas:core:2.0:User:name.givenName
+   * @return the matching schema id or null if the notation does not start with a known schema
+   */
+  String findSchemaId(final String attrNotation) {
+    String match = null;
+    Node current = root;
+    int length = attrNotation.length();
+
+    for (int i = 0; i < length; i++) {
+      current = current.children.get(Character.toLowerCase(attrNotation.charAt(i)));
+      if (current == null) {
+        return match;
+      }
+
+      if (current.schemaId != null && (i + 1 == length || attrNotation.charAt(i + 1) == URN_DELIMITER)) {
+        match = current.schemaId;
+      }
+    }
+
+    return match;
+  }
+
+  private static class Node {
+    private final Map<Character, Node> children = new HashMap<>();
+    private String schemaId;
+  }
+}
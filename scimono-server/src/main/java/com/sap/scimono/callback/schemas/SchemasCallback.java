@@ -13,6 +13,7 @@ import java.util.regex.Pattern;
 
 import com.sap.scimono.entity.Resource;
 import com.sap.scimono.entity.schema.Attribute;
+import com.sap.scimono.entity.schema.AttributePath;
 import com.sap.scimono.entity.schema.Schema;
 import com.sap.scimono.entity.schema.resources.SchemaCSVReader;
 import com.sap.scimono.helper.Strings;
@@ -89,6 +90,28 @@ public interface SchemasCallback {
    */
   boolean isValidSchemaName(final String schemaName);
 
+  /**
+   * Returns a compiled, indexed view over all schemas returned by {@link #getSchemas()}. The default implementation compiles a new registry on
+   * every call. Callbacks obtained through {@link com.sap.scimono.SCIMApplication#getCompiledSchemasCallback()} share an application-scoped
+   * registry per {@link #getSchemaRegistryKey() key} which is rebuilt only when schemas change.
+   *
+   * @return compiled schema registry
+   */
+  default SchemaRegistry getSchemaRegistry() {
+    return SchemaRegistry.compile(getSchemas());
+  }
+
+  /**
+   * Identifies the schemas returned by {@link #getSchemas()}, so that the application-scoped registry compiled from them is shared only by
+   * callbacks returning the same schemas. Callbacks whose schemas depend on the request, e.g. on its tenant, must return a key per set of
+   * schemas, e.g. the tenant id. The default key shares one registry between all requests.
+   *
+   * @return the key of the schemas, not null
+   */
+  default String getSchemaRegistryKey() {
+    return "";
+  }
+
   /**
    * Returns SCIM attribute definition
    *
@@ -103,8 +126,7 @@ public interface SchemasCallback {
     return attrHierarchy.get(attrHierarchy.size() - 1);
   }
 
-  // TODO this could probably be optimized (e.g. it reads all schemas then returns only an id, which is used to read the schema again in
-  // getComplexAttributePath)
+  // reads all schemas on every call, CompiledSchemasCallback resolves it from the SchemaRegistry instead
   default String getSchemaIdFromAttributeNotation(final String attrNotation) {
     if (isAttributeNotationContainsSchema(attrNotation)) {
       // @formatter:off
@@ -118,6 +140,20 @@ public interface SchemasCallback {
     return null;
   }
 
+  /**
+   * Parses the attribute notation, resolving its schema against the known schemas. Unlike {@link AttributePath#parse(String)} this also
+   * recognizes notations addressing a whole schema.
+   *
+   * @param attrNotation short or full attribute notation, optionally with a value filter
+   * @return the parsed path
+   */
+  default AttributePath getAttributePath(final String attrNotation) {
+    if (AttributePath.startsWithUrn(attrNotation) && !isAttributeNotationContainsValueFilter(attrNotation) && getSchema(attrNotation) != null) {
+      return AttributePath.parse(attrNotation, attrNotation);
+    }
+    return AttributePath.parse(attrNotation);
+  }
+
   // TODO needs javadoc
   default String removeSchemaFromAttributeNotation(final String attrNotation, final String schemaId) {
     String attrName = attrNotation.substring(attrNotation.indexOf(schemaId) + schemaId.length());
@@ -158,14 +194,14 @@ public interface SchemasCallback {
   }
 
   static String addSchemaToPathIfNotExist(final String path, final String defaultSchema) {
-    if (Strings.isNullOrEmpty(path) || path.matches(SCHEMA_PATTERN.toString())) {
+    if (Strings.isNullOrEmpty(path) || SCHEMA_PATTERN.matcher(path).matches()) {
       return path;
     }
     return String.join(SCHEMA_URN_DELIMETER, defaultSchema, path);
   }
 
   static boolean isAttributeNotationContainsSchema(final String fullAttrNotation) {
-    return fullAttrNotation.matches(SCHEMA_PATTERN.toString());
+    return SCHEMA_PATTERN.matcher(fullAttrNotation).matches();
   }
 
   default String appendSubAttributeToPath(final String fullAttributePath, final String subAttribute) {
@@ -185,14 +221,14 @@ public interface SchemasCallback {
 
   default String removeValueFilterFromAttributeNotation(final String fullAttributeNotation) {
     if (isAttributeNotationContainsValueFilter(fullAttributeNotation)) {
-      return fullAttributeNotation.replaceAll("\\[.*\\]", "");
+      return AttributePath.parse(fullAttributeNotation).getNotationWithoutValueFilter();
     }
 
     return fullAttributeNotation;
   }
 
   static boolean isCustomSchema(final String schemaId) {
-    return schemaId.matches(SCHEMA_PATTERN.toString());
+    return SCHEMA_PATTERN.matcher(schemaId).matches();
   }
 
   static boolean isCoreSchema(final String schemaId) {
@@ -3,17 +3,24 @@ package com.sap.scimono.callback.users;
 
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 import com.sap.scimono.api.request.RequestedResourceAttributes;
+import com.sap.scimono.callback.bulk.BatchItemResult;
+import com.sap.scimono.callback.bulk.ResourcePatch;
 import com.sap.scimono.callback.config.SCIMConfigurationCallback;
 import com.sap.scimono.entity.EnterpriseExtension;
 import com.sap.scimono.entity.Meta;
 import com.sap.scimono.entity.User;
 import com.sap.scimono.entity.paging.PageInfo;
 import com.sap.scimono.entity.paging.PagedResult;
+import com.sap.scimono.entity.paging.SortInfo;
+import com.sap.scimono.entity.paging.StreamedPagedResult;
 import com.sap.scimono.entity.patch.PatchBody;
+import com.sap.scimono.filter.FilterCapabilities;
+import com.sap.scimono.filter.expression.FilterExpression;
 
 public interface UsersCallback {
   /**
@@ -29,7 +36,8 @@ public interface UsersCallback {
   User getUser(final String userId);
 
   /**
-   * @param additionalAttributes additional attributes to be returned of excluded from the response
+   * @param additionalAttributes additional attributes to be returned of excluded from the response, see
+   *          {@link RequestedResourceAttributes#getProjection()}
    * @return the user with the specified userId or null if no such user exists
    */
   default User getUser(String userId, RequestedResourceAttributes additionalAttributes) {
@@ -39,6 +47,11 @@ public interface UsersCallback {
   /**
    * Returns a page of users (limited by {@link SCIMConfigurationCallback#getMaxResourcesPerPage()}),
    * taking into account the specified filter and paging parameters.
+   * <p>
+   * Counting the users matching the filter may be as expensive as reading the page. If counting is not
+   * {@link PageInfo#isTotalResourceCountRequired() required}, or too expensive, return a page
+   * {@link PagedResult#withUnknownTotal(java.util.List) without total count} or {@link PagedResult#withEstimatedTotal(int, java.util.List)
+   * with an estimated total count} instead.
    *
    * @param pageInfo parsed paging parameters from the API request
    * @param filter   unparsed filter string from the $filter query parameter
@@ -56,6 +69,96 @@ public interface UsersCallback {
     return getUsers(pageInfo, filter);
   }
 
+  /**
+   * Returns a page of users (more info in {@link UsersCallback#getUsers(PageInfo, String, RequestedResourceAttributes)}), taking into account the
+   * parsed filter. The filter is validated against the schemas: its attributes exist and its literals have the type of the compared attribute.
+   * <p>
+   * Override this method to translate the filter without parsing it again. By default the filter is rendered back to SCIM filter syntax and
+   * handed to {@link UsersCallback#getUsers(PageInfo, String, RequestedResourceAttributes)}.
+   *
+   * @param filter the parsed filter from the $filter query parameter or null if there is no filter
+   * @param additionalAttributes additional attributes to be returned of excluded from the response
+   * @return a page of users or empty page if no users match the filter/paging criteria
+   */
+  default PagedResult<User> getUsers(final PageInfo pageInfo, final FilterExpression filter, RequestedResourceAttributes additionalAttributes) {
+    return getUsers(pageInfo, filter == null ? null : filter.toString(), additionalAttributes);
+  }
+
+  /**
+   * Returns a page of users (more info in {@link UsersCallback#getUsers(PageInfo, FilterExpression, RequestedResourceAttributes)}), whose
+   * users are read while the list response is written.
+   * <p>
+   * Override this method to stream large pages, e.g. from a database cursor, instead of collecting them in a list. The stream is closed after
+   * the response is written. By default the page returned by {@link UsersCallback#getUsers(PageInfo, FilterExpression, RequestedResourceAttributes)}
+   * is streamed.
+   * <p>
+   * The {@link RequestedResourceAttributes#getProjection() projection} of the additional attributes tells which attributes are returned, the
+   * other attributes need not be fetched, they are not written anyway.
+   *
+   * @param filter the parsed filter from the $filter query parameter or null if there is no filter
+   * @param additionalAttributes additional attributes to be returned of excluded from the response
+   * @return a page of users or empty page if no users match the filter/paging criteria
+   */
+  default StreamedPagedResult<User> streamUsers(final PageInfo pageInfo, final FilterExpression filter, RequestedResourceAttributes additionalAttributes) {
+    return StreamedPagedResult.of(getUsers(pageInfo, filter, additionalAttributes));
+  }
+
+  /**
+   * Returns a page of users (more info in {@link UsersCallback#getUsers(PageInfo, FilterExpression, RequestedResourceAttributes)}), sorted by the
+   * <b>sortBy</b> and <b>sortOrder</b> parameters. Called only if the callback {@link UsersCallback#isSortingSupported() supports sorting}, or
+   * without sort otherwise.
+   * <p>
+   * Override this method to sort natively, e.g. in the database query. By default the sort is ignored.
+   * <p>
+   * If the page is requested by {@link PageInfo#getCursor() cursor}, return the users starting at the cursor's sort value and id, in the
+   * order of their sort value and id, plus one more if there is a next page, like when paging by id.
+   *
+   * @param sortInfo the requested sort or null if no sort is requested
+   * @return a sorted page of users or empty page if no users match the filter/paging criteria
+   */
+  default PagedResult<User> getUsers(final PageInfo pageInfo, final FilterExpression filter, final SortInfo sortInfo,
+      RequestedResourceAttributes additionalAttributes) {
+    return getUsers(pageInfo, filter, additionalAttributes);
+  }
+
+  /**
+   * Returns a sorted page of users (more info in {@link UsersCallback#getUsers(PageInfo, FilterExpression, SortInfo, RequestedResourceAttributes)}),
+   * whose users are read while the list response is written. By default the page returned by
+   * {@link UsersCallback#streamUsers(PageInfo, FilterExpression, RequestedResourceAttributes)} is streamed if no sort is requested, the page returned
+   * by {@link UsersCallback#getUsers(PageInfo, FilterExpression, SortInfo, RequestedResourceAttributes)} otherwise.
+   *
+   * @param sortInfo the requested sort or null if no sort is requested
+   * @return a sorted page of users or empty page if no users match the filter/paging criteria
+   */
+  default StreamedPagedResult<User> streamUsers(final PageInfo pageInfo, final FilterExpression filter, final SortInfo sortInfo,
+      RequestedResourceAttributes additionalAttributes) {
+    if (sortInfo == null) {
+      return streamUsers(pageInfo, filter, additionalAttributes);
+    }
+    return StreamedPagedResult.of(getUsers(pageInfo, filter, sortInfo, additionalAttributes));
+  }
+
+  /**
+   * Declares whether the users are sorted by the callback. Otherwise the server sorts the users returned for the filter, reading them page by page
+   * and keeping only the users up to the end of the requested page.
+   *
+   * @return whether {@link UsersCallback#getUsers(PageInfo, FilterExpression, SortInfo, RequestedResourceAttributes)} sorts the users, by default
+   *         false
+   */
+  default boolean isSortingSupported() {
+    return false;
+  }
+
+  /**
+   * Declares the parts of filters handed to {@link UsersCallback#getUsers(PageInfo, FilterExpression, RequestedResourceAttributes)}, which are evaluated
+   * by the callback. The other parts are applied by the server to the users returned for the supported parts, reading them page by page.
+   *
+   * @return the supported filters, by default all filters
+   */
+  default FilterCapabilities getFilterCapabilities() {
+    return FilterCapabilities.all();
+  }
+
   /**
    * Creates a user with the provided attributes. The user object must have all mandatory attributes available,
    * including metadata (version, etc.). The returned user must have its id set.
@@ -90,6 +193,51 @@ public interface UsersCallback {
    */
   void deleteUser(final String userId);
 
+  /**
+   * Creates the users of a bulk request at once, e.g. by a multi-row insert. Override this method to write the users in one round trip, by
+   * default each user is created by {@link UsersCallback#createUser(User)}.
+   *
+   * @param users the users to create, see {@link UsersCallback#createUser(User)}
+   * @return the created users or the errors which failed them, in the order of the users
+   */
+  default List<BatchItemResult<User>> createUsers(final List<User> users) {
+    return BatchItemResult.forEach(users, this::createUser);
+  }
+
+  /**
+   * Updates the users of a bulk request at once. By default each user is updated by {@link UsersCallback#updateUser(User)}.
+   *
+   * @return the updated users or the errors which failed them, in the order of the users
+   */
+  default List<BatchItemResult<User>> updateUsers(final List<User> users) {
+    return BatchItemResult.forEach(users, this::updateUser);
+  }
+
+  /**
+   * Patches the users of a bulk request at once. By default each user is patched by
+   * {@link UsersCallback#patchUser(String, PatchBody, Meta)}.
+   *
+   * @return the results of the patches, in the order of the patches
+   */
+  default List<BatchItemResult<Void>> patchUsers(final List<ResourcePatch> patches) {
+    return BatchItemResult.forEach(patches, patch -> {
+      patchUser(patch.getResourceId(), patch.getPatchBody(), patch.getMeta());
+      return null;
+    });
+  }
+
+  /**
+   * Deletes the users of a bulk request at once. By default each user is deleted by {@link UsersCallback#deleteUser(String)}.
+   *
+   * @return the results of the deletions, in the order of the user ids
+   */
+  default List<BatchItemResult<Void>> deleteUsers(final List<String> userIds) {
+    return BatchItemResult.forEach(userIds, userId -> {
+      deleteUser(userId);
+      return null;
+    });
+  }
+
   /**
    * Generates a user id for a new user
    *
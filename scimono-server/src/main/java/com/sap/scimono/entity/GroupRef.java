@@ -33,6 +33,8 @@ import java.util.Objects;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.sap.scimono.entity.base.MultiValuedAttribute;
 import com.sap.scimono.entity.base.MultiValuedAttributeType;
 import com.sap.scimono.helper.Strings;
@@ -44,6 +46,8 @@ import com.sap.scimono.helper.Strings;
  * 2.0, section 3.2</a>
  * </p>
  */
+@JsonSerialize(using = ReferenceAttributeJson.GroupRefSerializer.class)
+@JsonDeserialize(using = ReferenceAttributeJson.GroupRefDeserializer.class)
 public final class GroupRef extends MultiValuedAttribute implements Serializable {
 
   private static final long serialVersionUID = -3765452569557089013L;
@@ -51,7 +55,7 @@ public final class GroupRef extends MultiValuedAttribute implements Serializable
   private final Type type;
 
   @JsonCreator
-  private GroupRef(@JsonProperty(OPERATION_FIELD) final String operation, @JsonProperty(value = VALUE_FIELD, required = true) final String value,
+  GroupRef(@JsonProperty(OPERATION_FIELD) final String operation, @JsonProperty(value = VALUE_FIELD, required = true) final String value,
       @JsonProperty(DISPLAY_FIELD) final String display, @JsonProperty(PRIMARY_FIELD) final boolean primary, @JsonProperty(REF_FIELD) final String reference,
       @JsonProperty(TYPE_FIELD) final Type type) {
     super(operation, value, display, primary, reference);
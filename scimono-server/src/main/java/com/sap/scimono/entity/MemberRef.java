@@ -35,6 +35,8 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.sap.scimono.entity.base.MultiValuedAttribute;
 import com.sap.scimono.entity.base.MultiValuedAttributeType;
 import com.sap.scimono.helper.Strings;
@@ -46,6 +48,8 @@ import com.sap.scimono.helper.Strings;
  * 2.0, sections 8</a>
  * </p>
  */
+@JsonSerialize(using = ReferenceAttributeJson.MemberRefSerializer.class)
+@JsonDeserialize(using = ReferenceAttributeJson.MemberRefDeserializer.class)
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
 public final class MemberRef extends MultiValuedAttribute implements Serializable {
 
@@ -57,7 +61,7 @@ public final class MemberRef extends MultiValuedAttribute implements Serializabl
    * Constructor for deserialization, it is not intended for general use.
    */
   @JsonCreator
-  private MemberRef(@JsonProperty(OPERATION_FIELD) final String operation, @JsonProperty(value = VALUE_FIELD, required = true) final String value,
+  MemberRef(@JsonProperty(OPERATION_FIELD) final String operation, @JsonProperty(value = VALUE_FIELD, required = true) final String value,
       @JsonProperty(DISPLAY_FIELD) final String display, @JsonProperty(PRIMARY_FIELD) final Boolean primary, @JsonProperty(REF_FIELD) final String reference,
       @JsonProperty(TYPE_FIELD) final Type type) {
     super(operation, value, display, primary, reference);
@@ -0,0 +1,277 @@
+package com.sap.scimono.entity;
+
+import static com.sap.scimono.entity.definition.CoreGroupAttributes.Constants.MEMBERS_FIELD;
+import static com.sap.scimono.entity.definition.CoreUserAttributes.Constants.GROUPS_FIELD;
+import static com.sap.scimono.entity.definition.ResourceConstants.MultivaluedAttributeConstants.DISPLAY_FIELD;
+import static com.sap.scimono.entity.definition.ResourceConstants.MultivaluedAttributeConstants.OPERATION_FIELD;
+import static com.sap.scimono.entity.definition.ResourceConstants.MultivaluedAttributeConstants.PRIMARY_FIELD;
+import static com.sap.scimono.entity.definition.ResourceConstants.MultivaluedAttributeConstants.REF_FIELD;
+import static com.sap.scimono.entity.definition.ResourceConstants.MultivaluedAttributeConstants.TYPE_FIELD;
+import static com.sap.scimono.entity.definition.ResourceConstants.MultivaluedAttributeConstants.VALUE_FIELD;
+import static com.sap.scimono.helper.Strings.isNullOrEmpty;
+
+import java.io.IOException;
+import java.util.Locale;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.ResolvableDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StringDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.sap.scimono.api.request.AttributeProjection;
+import com.sap.scimono.entity.base.MultiValuedAttribute;
+import com.sap.scimono.entity.base.MultiValuedAttributeType;
+import com.sap.scimono.helper.ResourceLocations;
+
+/**
+ * Streaming serializers and deserializers of {@link MemberRef} and {@link GroupRef}, the attributes whose count grows with the size of the
+ * groups, e.g. the members of a group or the groups of a user. The tokens are read into the constructor arguments and written from the
+ * getters directly, without bean introspection and creator property buffering. The JSON is the one of the annotation-driven mapping of the
+ * attributes: empty attributes are not written and the primary flag of members is read but not written.
+ * <p>
+ * The <b>$ref</b> attribute is written from the {@link ResourceLocations} bound to the thread writing the response, if any. The sub-attributes
+ * which are not returned by the {@link AttributeProjection} bound to the thread, if any, are not written.
+ */
+final class ReferenceAttributeJson {
+
+  private ReferenceAttributeJson() {
+  }
+
+  static final class MemberRefSerializer extends ReferenceSerializer<MemberRef> {
+    private static final long serialVersionUID = 1L;
+
+    MemberRefSerializer() {
+      super(MemberRef.class, false, Group.SCHEMA, MEMBERS_FIELD);
+    }
+
+    @Override
+    String getLocation(final MemberRef memberRef, final ResourceLocations locations) {
+      if (MemberRef.Type.USER.equals(memberRef.getType())) {
+        return locations.getUserLocation(memberRef.getValue());
+      }
+      if (MemberRef.Type.GROUP.equals(memberRef.getType())) {
+        return locations.getGroupLocation(memberRef.getValue());
+      }
+      return null;
+    }
+
+    @Override
+    MultiValuedAttributeType getType(final MemberRef memberRef) {
+      return memberRef.getType();
+    }
+  }
+
+  static final class GroupRefSerializer extends ReferenceSerializer<GroupRef> {
+    private static final long serialVersionUID = 1L;
+
+    GroupRefSerializer() {
+      super(GroupRef.class, true, User.SCHEMA, GROUPS_FIELD);
+    }
+
+    @Override
+    String getLocation(final GroupRef groupRef, final ResourceLocations locations) {
+      return locations.getGroupLocation(groupRef.getValue());
+    }
+
+    @Override
+    MultiValuedAttributeType getType(final GroupRef groupRef) {
+      return groupRef.getType();
+    }
+  }
+
+  static final class MemberRefDeserializer extends ReferenceDeserializer<MemberRef, MemberRef.Type> {
+    private static final long serialVersionUID = 1L;
+
+    MemberRefDeserializer() {
+      super(MemberRef.class, MemberRef.Type.class);
+    }
+
+    @Override
+    Boolean readPrimary(final JsonParser p, final DeserializationContext ctxt) throws IOException {
+      return p.hasToken(JsonToken.VALUE_NULL) ? null : _parseBoolean(p, ctxt, Boolean.class);
+    }
+
+    @Override
+    MemberRef create(final String operation, final String value, final String display, final Boolean primary, final String reference,
+        final MemberRef.Type type) {
+      return new MemberRef(operation, value, display, primary, reference, type);
+    }
+  }
+
+  static final class GroupRefDeserializer extends ReferenceDeserializer<GroupRef, GroupRef.Type> {
+    private static final long serialVersionUID = 1L;
+
+    GroupRefDeserializer() {
+      super(GroupRef.class, GroupRef.Type.class);
+    }
+
+    @Override
+    Boolean readPrimary(final JsonParser p, final DeserializationContext ctxt) throws IOException {
+      return _parseBooleanPrimitive(p, ctxt);
+    }
+
+    @Override
+    GroupRef create(final String operation, final String value, final String display, final Boolean primary, final String reference,
+        final GroupRef.Type type) {
+      return new GroupRef(operation, value, display, primary != null && primary, reference, type);
+    }
+  }
+
+  private abstract static class ReferenceSerializer<T extends MultiValuedAttribute> extends StdSerializer<T> {
+    private static final long serialVersionUID = 1L;
+
+    private static final SerializableString OPERATION = new SerializedString(OPERATION_FIELD);
+    private static final SerializableString VALUE = new SerializedString(VALUE_FIELD);
+    private static final SerializableString DISPLAY = new SerializedString(DISPLAY_FIELD);
+    private static final SerializableString PRIMARY = new SerializedString(PRIMARY_FIELD);
+    private static final SerializableString REF = new SerializedString(REF_FIELD);
+    private static final SerializableString TYPE = new SerializedString(TYPE_FIELD);
+
+    private final boolean writesPrimary;
+    private final String schemaId;
+    private final String attributeName;
+
+    ReferenceSerializer(final Class<T> attributeClass, final boolean writesPrimary, final String schemaId, final String attributeName) {
+      super(attributeClass);
+      this.writesPrimary = writesPrimary;
+      this.schemaId = schemaId;
+      this.attributeName = attributeName;
+    }
+
+    abstract String getLocation(T attribute, ResourceLocations locations);
+
+    abstract MultiValuedAttributeType getType(T attribute);
+
+    @Override
+    public void serialize(final T attribute, final JsonGenerator gen, final SerializerProvider provider) throws IOException {
+      AttributeProjection projection = AttributeProjection.current();
+      if (projection != null && !projection.isPartiallyReturned(schemaId, attributeName)) {
+        projection = null;
+      }
+
+      gen.writeStartObject(attribute);
+      writeNonEmpty(gen, projection, OPERATION, attribute.getOperation());
+      writeNonEmpty(gen, projection, VALUE, attribute.getValue());
+      writeNonEmpty(gen, projection, DISPLAY, attribute.getDisplay());
+      if (writesPrimary && attribute.isPrimary() != null && isReturned(projection, PRIMARY)) {
+        gen.writeFieldName(PRIMARY);
+        gen.writeBoolean(attribute.isPrimary());
+      }
+
+      ResourceLocations locations = ResourceLocations.current();
+      String location = locations == null || attribute.getValue() == null ? null : getLocation(attribute, locations);
+      writeNonEmpty(gen, projection, REF, location == null ? attribute.getReference() : location);
+
+      MultiValuedAttributeType type = getType(attribute);
+      writeNonEmpty(gen, projection, TYPE, type == null ? null : type.getValue());
+      gen.writeEndObject();
+    }
+
+    private void writeNonEmpty(final JsonGenerator gen, final AttributeProjection projection, final SerializableString fieldName,
+        final String value) throws IOException {
+      if (!isNullOrEmpty(value) && isReturned(projection, fieldName)) {
+        gen.writeFieldName(fieldName);
+        gen.writeString(value);
+      }
+    }
+
+    private boolean isReturned(final AttributeProjection projection, final SerializableString fieldName) {
+      return projection == null || projection.isReturned(schemaId, attributeName, fieldName.getValue());
+    }
+  }
+
+  private abstract static class ReferenceDeserializer<T extends MultiValuedAttribute, Y extends MultiValuedAttributeType>
+      extends StdDeserializer<T> implements ResolvableDeserializer {
+    private static final long serialVersionUID = 1L;
+
+    private final Class<Y> typeClass;
+    private transient JsonDeserializer<Object> typeDeserializer;
+
+    ReferenceDeserializer(final Class<T> attributeClass, final Class<Y> typeClass) {
+      super(attributeClass);
+      this.typeClass = typeClass;
+    }
+
+    @Override
+    public void resolve(final DeserializationContext ctxt) throws JsonMappingException {
+      typeDeserializer = ctxt.findRootValueDeserializer(ctxt.constructType(typeClass));
+    }
+
+    abstract Boolean readPrimary(JsonParser p, DeserializationContext ctxt) throws IOException;
+
+    abstract T create(String operation, String value, String display, Boolean primary, String reference, Y type);
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T deserialize(final JsonParser p, final DeserializationContext ctxt) throws IOException {
+      String fieldName;
+      if (p.isExpectedStartObjectToken()) {
+        fieldName = p.nextFieldName();
+      } else if (p.hasToken(JsonToken.FIELD_NAME)) {
+        fieldName = p.currentName();
+      } else {
+        return (T) ctxt.handleUnexpectedToken(handledType(), p);
+      }
+
+      boolean caseInsensitive = ctxt.isEnabled(MapperFeature.ACCEPT_CASE_INSENSITIVE_PROPERTIES);
+      String operation = null;
+      String value = null;
+      String display = null;
+      Boolean primary = null;
+      String reference = null;
+      Y type = null;
+      boolean hasValue = false;
+
+      for (; fieldName != null; fieldName = p.nextFieldName()) {
+        p.nextToken();
+        switch (caseInsensitive ? fieldName.toLowerCase(Locale.ENGLISH) : fieldName) {
+          case OPERATION_FIELD:
+            operation = readString(p, ctxt);
+            break;
+          case VALUE_FIELD:
+            value = readString(p, ctxt);
+            hasValue = true;
+            break;
+          case DISPLAY_FIELD:
+            display = readString(p, ctxt);
+            break;
+          case PRIMARY_FIELD:
+            primary = readPrimary(p, ctxt);
+            break;
+          case REF_FIELD:
+            reference = readString(p, ctxt);
+            break;
+          case TYPE_FIELD:
+            type = p.hasToken(JsonToken.VALUE_NULL) ? null : typeClass.cast(typeDeserializer.deserialize(p, ctxt));
+            break;
+          default:
+            ctxt.handleUnknownProperty(p, this, handledType(), fieldName);
+        }
+      }
+
+      if (!hasValue) {
+        return (T) ctxt.reportInputMismatch(this, "Missing required property '%s' of %s", VALUE_FIELD, handledType().getName());
+      }
+      return create(operation, value, display, primary, reference, type);
+    }
+
+    private static String readString(final JsonParser p, final DeserializationContext ctxt) throws IOException {
+      if (p.hasToken(JsonToken.VALUE_STRING)) {
+        return p.getText();
+      }
+      if (p.hasToken(JsonToken.VALUE_NULL)) {
+        return null;
+      }
+      return StringDeserializer.instance.deserialize(p, ctxt);
+    }
+  }
+}
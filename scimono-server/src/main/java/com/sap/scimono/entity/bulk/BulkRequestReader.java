@@ -0,0 +1,280 @@
+package com.sap.scimono.entity.bulk;
+
+import static com.sap.scimono.exception.SCIMException.Type.TOO_MANY;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+import javax.ws.rs.core.Response;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.sap.scimono.api.API;
+import com.sap.scimono.api.helper.ScimErrorResponseParser;
+import com.sap.scimono.entity.ErrorResponse;
+import com.sap.scimono.entity.Group;
+import com.sap.scimono.entity.User;
+import com.sap.scimono.entity.config.BulkSetting;
+import com.sap.scimono.entity.patch.PatchBody;
+import com.sap.scimono.exception.InvalidInputException;
+import com.sap.scimono.exception.SCIMException;
+
+/**
+ * Reads a bulk request token by token, see RFC 7644, section 3.7. The size of the payload and the number of operations are counted while
+ * they are read, so that requests over the limits of the {@link BulkSetting} are rejected as soon as a limit is exceeded, without reading
+ * the rest of the payload.
+ * <p>
+ * The data of each operation is decoded straight into a {@link User}, {@link Group} or {@link PatchBody}, depending on its method and path.
+ * It is buffered only if it precedes them. Data which cannot be decoded and a missing path fail their operation only, see
+ * {@link RequestOperation#hasValidationError()}. Each operation is handed to the operation preparer as soon as it is read.
+ */
+public class BulkRequestReader {
+  private static final String SCHEMAS_FIELD = "schemas";
+  private static final String FAIL_ON_ERRORS_FIELD = "failOnErrors";
+  private static final String OPERATIONS_FIELD = "Operations";
+  private static final String METHOD_FIELD = "method";
+  private static final String BULK_ID_FIELD = "bulkId";
+  private static final String VERSION_FIELD = "version";
+  private static final String PATH_FIELD = "path";
+  private static final String DATA_FIELD = "data";
+
+  private final ObjectMapper objectMapper;
+  private final int maxOperations;
+  private final long maxPayloadSize;
+
+  /**
+   * @param objectMapper the object mapper of the media type of the request
+   * @param bulkSetting the limits of bulk requests, a non-positive maximum payload size does not limit the payload
+   */
+  public BulkRequestReader(final ObjectMapper objectMapper, final BulkSetting bulkSetting) {
+    this.objectMapper = objectMapper;
+    this.maxOperations = bulkSetting.getMaxOperations();
+    this.maxPayloadSize = bulkSetting.getMaxPayloadSize() > 0 ? bulkSetting.getMaxPayloadSize() : Long.MAX_VALUE;
+  }
+
+  /**
+   * @param entityStream the payload of the bulk request, which is not closed
+   * @param operationPreparer prepares each operation as soon as it is read, e.g. validates it
+   * @return the bulk request of the prepared operations
+   * @throws SCIMException if the payload or the number of operations exceed the limits
+   * @throws InvalidInputException if the bulk request is not valid
+   */
+  public BulkBody<RequestOperation> read(final InputStream entityStream, final UnaryOperator<RequestOperation> operationPreparer)
+      throws IOException {
+    try (JsonParser parser = objectMapper.getFactory().createParser(new LimitedInputStream(entityStream, maxPayloadSize))) {
+      parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new InvalidInputException("The bulk request must be an object!");
+      }
+
+      Set<String> schemas = null;
+      Integer failOnErrors = null;
+      List<RequestOperation> operations = null;
+      for (String fieldName = parser.nextFieldName(); fieldName != null; fieldName = parser.nextFieldName()) {
+        JsonToken token = parser.nextToken();
+        if (SCHEMAS_FIELD.equalsIgnoreCase(fieldName)) {
+          schemas = readSchemas(parser);
+        } else if (FAIL_ON_ERRORS_FIELD.equalsIgnoreCase(fieldName)) {
+          failOnErrors = token == JsonToken.VALUE_NULL ? null : parser.getValueAsInt();
+        } else if (OPERATIONS_FIELD.equalsIgnoreCase(fieldName)) {
+          operations = readOperations(parser, operationPreparer);
+        } else {
+          parser.skipChildren();
+        }
+      }
+
+      if (schemas == null || !schemas.contains(BulkBody.BULK_REQUEST_SCHEMA)) {
+        throw new InvalidInputException("The schema " + BulkBody.BULK_REQUEST_SCHEMA + " is required!");
+      }
+      if (failOnErrors != null && failOnErrors <= 0) {
+        throw new InvalidInputException("The attribute failOnErrors must be greater or equal to 1!");
+      }
+      if (operations == null) {
+        throw new InvalidInputException("The attribute " + OPERATIONS_FIELD + " is required!");
+      }
+      return BulkBody.forRequest(failOnErrors, operations);
+    }
+  }
+
+  private static Set<String> readSchemas(final JsonParser parser) throws IOException {
+    if (parser.currentToken() != JsonToken.START_ARRAY) {
+      throw new InvalidInputException("The attribute " + SCHEMAS_FIELD + " must be an array!");
+    }
+
+    Set<String> schemas = new HashSet<>();
+    while (parser.nextToken() != JsonToken.END_ARRAY) {
+      schemas.add(parser.getValueAsString());
+    }
+    return schemas;
+  }
+
+  private List<RequestOperation> readOperations(final JsonParser parser, final UnaryOperator<RequestOperation> operationPreparer)
+      throws IOException {
+    if (parser.currentToken() != JsonToken.START_ARRAY) {
+      throw new InvalidInputException("The attribute " + OPERATIONS_FIELD + " must be an array!");
+    }
+
+    List<RequestOperation> operations = new ArrayList<>();
+    Set<String> bulkIds = new HashSet<>();
+    while (parser.nextToken() != JsonToken.END_ARRAY) {
+      if (operations.size() >= maxOperations) {
+        throw new SCIMException(TOO_MANY, "Bulk operations count exceeded the maximum value supported.",
+            Response.Status.REQUEST_ENTITY_TOO_LARGE);
+      }
+
+      RequestOperation operation = readOperation(parser);
+      if (operation.getBulkId() != null && !bulkIds.add(operation.getBulkId())) {
+        throw new InvalidInputException(
+            "Invalid operation with bulkId: " + operation.getBulkId() + ". Reason: BulkId should be unique within a bulk request!");
+      }
+      operations.add(operationPreparer.apply(operation));
+    }
+    return operations;
+  }
+
+  private RequestOperation readOperation(final JsonParser parser) throws IOException {
+    if (parser.currentToken() != JsonToken.START_OBJECT) {
+      throw new InvalidInputException("The bulk operations must be objects!");
+    }
+
+    RequestOperation.Builder builder = new RequestOperation.Builder();
+    String method = null;
+    String bulkId = null;
+    String path = null;
+    TokenBuffer bufferedData = null;
+    for (String fieldName = parser.nextFieldName(); fieldName != null; fieldName = parser.nextFieldName()) {
+      JsonToken token = parser.nextToken();
+      if (METHOD_FIELD.equalsIgnoreCase(fieldName)) {
+        method = parser.getValueAsString();
+      } else if (BULK_ID_FIELD.equalsIgnoreCase(fieldName)) {
+        bulkId = parser.getValueAsString();
+      } else if (VERSION_FIELD.equalsIgnoreCase(fieldName)) {
+        builder.setVersion(parser.getValueAsString());
+      } else if (PATH_FIELD.equalsIgnoreCase(fieldName)) {
+        path = parser.getValueAsString();
+      } else if (DATA_FIELD.equalsIgnoreCase(fieldName) && token != JsonToken.VALUE_NULL) {
+        if (method != null && path != null) {
+          builder.setData(readData(parser, method, path));
+        } else {
+          bufferedData = parser.readValueAs(TokenBuffer.class);
+        }
+      } else {
+        parser.skipChildren();
+      }
+    }
+
+    if (path == null) {
+      String message = "Invalid operation with bulkId: " + bulkId + ". Reason: The attribute " + PATH_FIELD
+          + " is required for all bulk operations!";
+      builder.setData(new ErrorResponse(Response.Status.BAD_REQUEST.getStatusCode(), SCIMException.Type.INVALID_VALUE.toJson(), message));
+    } else if (bufferedData != null) {
+      try (JsonParser dataParser = bufferedData.asParser(parser.getCodec())) {
+        dataParser.nextToken();
+        builder.setData(readData(dataParser, method, path));
+      }
+    }
+    builder.setMethod(RequestMethod.from(method)).setBulkId(bulkId).setPath(path);
+    return builder.build();
+  }
+
+  /**
+   * Decodes the data value at the current token. If it cannot be decoded, the rest of the value is skipped and the error is returned as the
+   * data of the operation.
+   */
+  private Object readData(final JsonParser parser, final String method, final String path) throws IOException {
+    Class<?> dataType = getDataType(RequestMethod.from(method), path);
+    if (dataType == null) {
+      return parser.readValueAsTree();
+    }
+
+    JsonStreamContext operationContext = parser.getParsingContext().getParent();
+    if (parser.currentToken() != JsonToken.START_OBJECT && parser.currentToken() != JsonToken.START_ARRAY) {
+      operationContext = parser.getParsingContext();
+    }
+    try {
+      return objectMapper.readValue(parser, dataType);
+    } catch (JsonMappingException e) {
+      while (parser.getParsingContext() != operationContext) {
+        if (parser.nextToken() == null) {
+          throw e;
+        }
+      }
+      return ScimErrorResponseParser.parseException(e);
+    }
+  }
+
+  private static Class<?> getDataType(final RequestMethod method, final String path) {
+    if (method == null || method == RequestMethod.DELETE) {
+      return null;
+    }
+
+    String resourceEndpoint = RequestOperation.extractRootFromPath(path);
+    if (API.USERS.equalsIgnoreCase(resourceEndpoint)) {
+      return method == RequestMethod.PATCH ? PatchBody.class : User.class;
+    }
+    if (API.GROUPS.equalsIgnoreCase(resourceEndpoint)) {
+      return method == RequestMethod.PATCH ? PatchBody.class : Group.class;
+    }
+    return null;
+  }
+
+  /**
+   * Counts the bytes read from the payload and fails as soon as they exceed the maximum payload size.
+   */
+  private static final class LimitedInputStream extends FilterInputStream {
+    private final long maxSize;
+    private long size;
+
+    private LimitedInputStream(final InputStream in, final long maxSize) {
+      super(in);
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int value = super.read();
+      if (value != -1) {
+        count(1);
+      }
+      return value;
+    }
+
+    @Override
+    public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+      int readCount = super.read(buffer, offset, length);
+      if (readCount > 0) {
+        count(readCount);
+      }
+      return readCount;
+    }
+
+    @Override
+    public long skip(final long length) throws IOException {
+      long skipped = super.skip(length);
+      count(skipped);
+      return skipped;
+    }
+
+    private void count(final long bytes) {
+      size += bytes;
+      if (size > maxSize) {
+        throw new SCIMException(TOO_MANY, "Bulk request payload exceeded the maximum size supported.", Response.Status.REQUEST_ENTITY_TOO_LARGE);
+      }
+    }
+  }
+}
@@ -196,6 +196,10 @@ public class RequestOperation extends BulkOperation {
     return ResponseOperation.error(this, scimException);
   }
 
+  public ResponseOperation.Builder errorResponse(ErrorResponse scimError) {
+    return ResponseOperation.error(this, scimError);
+  }
+
   public ResponseOperation.Builder successfulResponse() {
     return ResponseOperation.success(this);
   }
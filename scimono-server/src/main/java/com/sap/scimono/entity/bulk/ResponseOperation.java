@@ -221,6 +221,11 @@ public class ResponseOperation extends BulkOperation {
       return this;
     }
 
+    public Builder withResourceId(String resourceId) {
+      this.resourceId = resourceId;
+      return this;
+    }
+
     @Override
     public ResponseOperation build() {
       return new ResponseOperation(this);
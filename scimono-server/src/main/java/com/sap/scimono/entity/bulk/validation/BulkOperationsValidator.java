@@ -5,12 +5,9 @@ import static com.sap.scimono.entity.bulk.RequestMethod.DELETE;
 import static com.sap.scimono.entity.bulk.RequestMethod.PATCH;
 import static com.sap.scimono.entity.bulk.RequestMethod.POST;
 import static com.sap.scimono.entity.bulk.RequestMethod.PUT;
-import static com.sap.scimono.exception.SCIMException.Type.TOO_MANY;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.function.Function;
 import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
@@ -25,7 +22,6 @@ import com.sap.scimono.entity.User;
 import com.sap.scimono.entity.bulk.BulkBody;
 import com.sap.scimono.entity.bulk.RequestMethod;
 import com.sap.scimono.entity.bulk.RequestOperation;
-import com.sap.scimono.entity.bulk.RequestOperation.Builder;
 import com.sap.scimono.entity.bulk.ResponseOperation;
 import com.sap.scimono.entity.config.BulkSetting;
 import com.sap.scimono.exception.InternalScimonoException;
@@ -46,66 +42,76 @@ public class BulkOperationsValidator {
     this.groupsLocationService = groupsLocationService;
   }
 
-  public List<RequestOperation> getValidBulkOperations(BulkBody<RequestOperation> bulkRequest) {
-    validateByBulkSettings(bulkRequest, scimConfigurationCallback);
-    List<RequestOperation> requestOperations = bulkRequest.getOperations();
-    List<RequestOperation> result = requestOperations.stream().map(operation -> {
-      Builder operationBuilder = operation.builder();
-      RequestMethod method = operation.getMethod();
-      if (method == null) {
-        operationBuilder.setData(
-            buildValidationErrorResponse(operation.getBulkId(), "Invalid method name!, Valid methods: " + Arrays.toString(RequestMethod.values())));
-      }
-
-      String bulkId = operation.getBulkId();
-      if (POST == method && bulkId == null) {
-        operationBuilder.setData(buildValidationErrorResponse(operation.getBulkId(), "bulkId is required for method: " + POST));
-      }
-
-      String resourceEndpoint = null;
-      try {
-        resourceEndpoint = RequestOperation.extractRootFromPath(operation.getPath());
-      } catch (InternalScimonoException e) {
-        operationBuilder.setData(buildValidationErrorResponse(operation.getBulkId(),
-            String.format(INVALID_PATH_ENDPOINT_ERROR_PLACEHOLDER, operation.getBulkId(), API.USERS, API.GROUPS)));
-      }
-
-      if (!API.USERS.equalsIgnoreCase(resourceEndpoint) && !API.GROUPS.equalsIgnoreCase(resourceEndpoint)) {
-        operationBuilder.setData(buildValidationErrorResponse(operation.getBulkId(),
-            String.format(INVALID_PATH_ENDPOINT_ERROR_PLACEHOLDER, operation.getBulkId(), API.USERS, API.GROUPS)));
-      }
-
-      if ((PUT == method || PATCH == method) && !operation.getResourceId().isPresent()) {
-        operationBuilder.setData(buildValidationErrorResponse(operation.getBulkId(), "Path should point to resource id for PUT and POST methods"));
-      }
-
-      if (method != DELETE && !operation.isDataAvailable()) {
-        operationBuilder.setData(buildValidationErrorResponse(operation.getBulkId(), "The attribute data is required for POST, PUT or PATCH!"));
-      }
-      return operationBuilder.build();
-    }).collect(Collectors.toList());
-
-    return result;
+  /**
+   * @return the bulk settings of the service provider
+   * @throws WebApplicationException if the service provider does not support bulk operations
+   */
+  public BulkSetting getSupportedBulkSetting() {
+    BulkSetting bulkSetting = scimConfigurationCallback.getBulkSetting();
+    if (bulkSetting == null || !bulkSetting.isSupported()) {
+      String msg = "Service provider does not support bulk operations. Please check the bulk settings.";
+      throw new WebApplicationException(msg, Response.Status.NOT_IMPLEMENTED);
+    }
+    return bulkSetting;
   }
 
-  public BulkBody<ResponseOperation> getValidResponseData(BulkBody<RequestOperation> bulkRequest, BulkBody<ResponseOperation> bulkResponse) {
-    Map<String, RequestOperation> requestOperations = bulkRequest.getOperations().stream()
-        .collect(Collectors.toMap(RequestOperation::getBulkId, Function.identity()));
+  /**
+   * @return the operation, or a copy whose data is the validation error if the operation is not valid. Operations which already carry an
+   *         error, e.g. because their data could not be read, are returned as they are.
+   */
+  public RequestOperation getValidBulkOperation(RequestOperation operation) {
+    if (operation.hasValidationError()) {
+      return operation;
+    }
+
+    ErrorResponse validationError = null;
+    RequestMethod method = operation.getMethod();
+    if (method == null) {
+      validationError =
+          buildValidationErrorResponse(operation.getBulkId(), "Invalid method name!, Valid methods: " + Arrays.toString(RequestMethod.values()));
+    }
+
+    String bulkId = operation.getBulkId();
+    if (POST == method && bulkId == null) {
+      validationError = buildValidationErrorResponse(operation.getBulkId(), "bulkId is required for method: " + POST);
+    }
+
+    String resourceEndpoint = null;
+    try {
+      resourceEndpoint = RequestOperation.extractRootFromPath(operation.getPath());
+    } catch (InternalScimonoException e) {
+      validationError = buildValidationErrorResponse(operation.getBulkId(),
+          String.format(INVALID_PATH_ENDPOINT_ERROR_PLACEHOLDER, operation.getBulkId(), API.USERS, API.GROUPS));
+    }
+
+    if (!API.USERS.equalsIgnoreCase(resourceEndpoint) && !API.GROUPS.equalsIgnoreCase(resourceEndpoint)) {
+      validationError = buildValidationErrorResponse(operation.getBulkId(),
+          String.format(INVALID_PATH_ENDPOINT_ERROR_PLACEHOLDER, operation.getBulkId(), API.USERS, API.GROUPS));
+    }
 
+    if ((PUT == method || PATCH == method) && !operation.getResourceId().isPresent()) {
+      validationError = buildValidationErrorResponse(operation.getBulkId(), "Path should point to resource id for PUT and POST methods");
+    }
+
+    if (method != DELETE && !operation.isDataAvailable()) {
+      validationError = buildValidationErrorResponse(operation.getBulkId(), "The attribute data is required for POST, PUT or PATCH!");
+    }
+    return validationError == null ? operation : operation.builder().setData(validationError).build();
+  }
+
+  public BulkBody<ResponseOperation> getValidResponseData(BulkBody<ResponseOperation> bulkResponse) {
     List<ResponseOperation> responseOperations = bulkResponse.getOperations().stream().map(respOperation -> {
       ResponseOperation.Builder builder = respOperation.builder();
-      RequestOperation reqOperation = requestOperations.get(respOperation.getBulkId());
-
-      builder.withLocation(getValidResponseLocation(reqOperation, respOperation, usersLocationService, groupsLocationService));
+      builder.withLocation(getValidResponseLocation(respOperation, usersLocationService, groupsLocationService));
       return builder.build();
     }).collect(Collectors.toList());
 
     return BulkBody.forResponse(responseOperations);
   }
 
-  private String getValidResponseLocation(RequestOperation reqOperation, ResponseOperation respOperation,
-      ResourceLocationService usersLocationService, ResourceLocationService groupsLocationService) {
-    if (reqOperation.getMethod() == RequestMethod.POST && !respOperation.isSuccessful()) {
+  private String getValidResponseLocation(ResponseOperation respOperation, ResourceLocationService usersLocationService,
+      ResourceLocationService groupsLocationService) {
+    if (respOperation.getMethod() == RequestMethod.POST && !respOperation.isSuccessful()) {
       return null;
     }
 
@@ -123,19 +129,6 @@ public class BulkOperationsValidator {
     return location;
   }
 
-  private void validateByBulkSettings(BulkBody<RequestOperation> bulkRequest, SCIMConfigurationCallback scimConfigurationCallback) {
-    BulkSetting bulkSetting = scimConfigurationCallback.getBulkSetting();
-    if (bulkSetting == null || !bulkSetting.isSupported()) {
-      String msg = "Service provider does not support bulk operations. Please check the bulk settings.";
-      throw new WebApplicationException(msg, Response.Status.NOT_IMPLEMENTED);
-    }
-
-    if (bulkRequest.getOperations().size() > bulkSetting.getMaxOperations()) {
-      String msg = "Bulk operations count exceeded the maximum value supported.";
-      throw new SCIMException(TOO_MANY, msg, Response.Status.REQUEST_ENTITY_TOO_LARGE);
-    }
-  }
-
   private ErrorResponse buildValidationErrorResponse(String bulkId, String errMsg) {
     return new ErrorResponse(Response.Status.BAD_REQUEST.getStatusCode(), SCIMException.Type.INVALID_VALUE.toJson(),
         buildErrorMessage(bulkId, errMsg));
@@ -2,15 +2,21 @@
 package com.sap.scimono.entity.definition;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Supplier;
 
 import com.sap.scimono.callback.schemas.SchemasCallback;
+import com.sap.scimono.entity.schema.AttributePath;
 
 public class ScimAttributesFactory<T extends ScimAttribute<T>> {
   private List<T> scimAttributes;
   private String schemaId;
+  private final Map<String, T> topLevelAttributesByName = new HashMap<>();
+  private final Map<String, T> attributesByFullPath = new HashMap<>();
 
   public ScimAttributesFactory(Supplier<T[]> enumValues) {
     this.scimAttributes = Arrays.asList(enumValues.get());
@@ -18,6 +24,13 @@ public class ScimAttributesFactory<T extends ScimAttribute<T>> {
     if (!scimAttributes.isEmpty()) {
       this.schemaId = scimAttributes.get(0).getSchemaId();
     }
+
+    for (T attribute : scimAttributes) {
+      if (attribute.isTopLevelAttribute()) {
+        topLevelAttributesByName.putIfAbsent(fold(attribute.scimName()), attribute);
+      }
+      attributesByFullPath.putIfAbsent(fold(attribute.fullAttributePath()), attribute);
+    }
   }
 
   /**
@@ -29,23 +42,25 @@ public class ScimAttributesFactory<T extends ScimAttribute<T>> {
    * @return
    */
   public T from(String attributeName) {
-    // @formatter:off
-    return scimAttributes.stream()
-        .filter(attribute -> attribute.isTopLevelAttribute() && attributeName.equalsIgnoreCase(attribute.scimName()))
-        .findFirst()
-        .orElseGet(() ->
-            fromFullAttributePath(attributeName)
-                .orElseThrow(() -> new NotExistingScimAttributeException(attributeName)));
-    // @formatter:on
+    T topLevelAttribute = topLevelAttributesByName.get(fold(attributeName));
+    if (topLevelAttribute != null) {
+      return topLevelAttribute;
+    }
+
+    return fromFullAttributePath(attributeName).orElseThrow(() -> new NotExistingScimAttributeException(attributeName));
   }
 
   private Optional<T> fromFullAttributePath(String attributeName) {
-    String fullAttributePath = SchemasCallback.addSchemaToPathIfNotExist(attributeName, schemaId);
+    AttributePath attributePath = AttributePath.parse(attributeName);
+    if (attributePath.hasValueFilter()) {
+      return Optional.empty();
+    }
+
+    String fullAttributePath = attributePath.hasSchema() ? attributeName : String.join(SchemasCallback.SCHEMA_URN_DELIMETER, schemaId, attributeName);
+    return Optional.ofNullable(attributesByFullPath.get(fold(fullAttributePath)));
+  }
 
-    // @formatter:off
-    return scimAttributes.stream()
-        .filter(attribute -> fullAttributePath.equalsIgnoreCase(attribute.fullAttributePath()))
-        .findFirst();
-    // @formatter:on
+  private static String fold(String value) {
+    return value.toLowerCase(Locale.ENGLISH);
   }
 }
@@ -0,0 +1,55 @@
+package com.sap.scimono.entity.paging;
+
+import static com.sap.scimono.entity.paging.PagedByIdentitySearchResult.PAGINATION_BY_ID_START_PARAM;
+
+/**
+ * The position a page requested by the <b>cursor</b> parameter starts at: the first resource of the page, identified by its id and, if the
+ * resources are sorted, by the value it is sorted by. Pages requested by cursor are read like pages requested by <b>startId</b>, i.e. the
+ * resources starting at the cursor plus one more resource if there is a next page, in the order of their sort value and id.
+ */
+public final class PageCursor {
+  private static final PageCursor INITIAL = new PageCursor(PAGINATION_BY_ID_START_PARAM, null);
+
+  private final String startId;
+  private final Object startSortKey;
+
+  private PageCursor(final String startId, final Object startSortKey) {
+    this.startId = startId;
+    this.startSortKey = startSortKey;
+  }
+
+  /**
+   * @return the cursor of the first page
+   */
+  public static PageCursor initial() {
+    return INITIAL;
+  }
+
+  /**
+   * @param startId the id of the first resource of the page
+   * @param startSortKey the value the first resource of the page is sorted by, converted to the attribute type, see
+   *          {@link com.sap.scimono.filter.ResourceComparator#getSortKey(com.sap.scimono.entity.Resource)}, or null
+   */
+  public static PageCursor startingAt(final String startId, final Object startSortKey) {
+    return new PageCursor(startId, startSortKey);
+  }
+
+  public boolean isInitial() {
+    return this == INITIAL;
+  }
+
+  /**
+   * @return the id of the first resource of the page or {@link PagedByIdentitySearchResult#PAGINATION_BY_ID_START_PARAM} for the first page
+   */
+  public String getStartId() {
+    return startId;
+  }
+
+  /**
+   * @return the value the first resource of the page is sorted by, a {@link String}, {@link java.time.Instant},
+   *         {@link java.math.BigDecimal} or {@link Boolean}, or null if the resources are not sorted or the resource has no such value
+   */
+  public Object getStartSortKey() {
+    return startSortKey;
+  }
+}
@@ -8,17 +8,24 @@ public class PageInfo {
   private final int entityCount;
   private final String startId;
   private final int startIndex;
+  private final PageCursor cursor;
+  private final boolean totalResourceCountRequired;
 
   private PageInfo(final int entityCount, final int startIndex) {
-    this.entityCount = entityCount;
-    this.startIndex = startIndex;
-    this.startId = null;
+    this(entityCount, startIndex, null, null, true);
+  }
+
+  private PageInfo(final int entityCount, final String startId, final PageCursor cursor) {
+    this(entityCount, 0, startId, cursor, true);
   }
 
-  private PageInfo(final int entityCount, final String startId) {
+  private PageInfo(final int entityCount, final int startIndex, final String startId, final PageCursor cursor,
+      final boolean totalResourceCountRequired) {
     this.entityCount = entityCount;
+    this.startIndex = startIndex;
     this.startId = startId;
-    this.startIndex = 0;
+    this.cursor = cursor;
+    this.totalResourceCountRequired = totalResourceCountRequired;
   }
 
   public int getEntityCount() {
@@ -33,14 +40,40 @@ public class PageInfo {
     return startIndex;
   }
 
+  /**
+   * @return the cursor the page is requested by or null. Pages requested by cursor are paged by id, starting at the id of the cursor.
+   */
+  public PageCursor getCursor() {
+    return cursor;
+  }
+
+  /**
+   * @return whether the resources matching the filter need to be counted. If not, e.g. because the server already knows their number,
+   *         callbacks may skip counting and return a page {@link PagedResult#withUnknownTotal(java.util.List) without total count}.
+   */
+  public boolean isTotalResourceCountRequired() {
+    return totalResourceCountRequired;
+  }
+
+  /**
+   * @return the same page, whose resources need not be counted
+   */
+  public PageInfo withoutTotalResourceCount() {
+    return new PageInfo(entityCount, startIndex, startId, cursor, false);
+  }
+
   public static PageInfo getInstance(int count, int startIndex, String startId) {
     if (!Strings.isNullOrEmpty(startId)) {
-      return new PageInfo(count, startId);
+      return new PageInfo(count, startId, null);
     }
 
     return new PageInfo(count, startIndex);
   }
 
+  public static PageInfo getInstance(int count, PageCursor cursor) {
+    return new PageInfo(count, cursor.getStartId(), cursor);
+  }
+
   public boolean isStandardPaging() {
     return Strings.isNullOrEmpty(startId);
   }
@@ -41,7 +41,7 @@ import java.util.Set;
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
 public class PagedByIndexSearchResult<T extends Resource<T>> {
 
-  private static final String SCHEMA = "urn:ietf:params:scim:api:messages:2.0:ListResponse";
+  public static final String SCHEMA = "urn:ietf:params:scim:api:messages:2.0:ListResponse";
   public static final String DEFAULT_START_INDEX = "1";
   public static final String DEFAULT_COUNT = "100";
   private final int totalResults;
@@ -60,8 +60,39 @@ public class PagedByIndexSearchResult<T extends Resource<T>> {
     this.startIndex = startIndex;
   }
 
+  /**
+   * Pages whose total resource count is not exact may have a next page unless they are empty, see
+   * {@link #getTotalResults(int, boolean, int, int, boolean)}.
+   */
   public PagedByIndexSearchResult(PagedResult<T> resources, final Integer startIndex) {
-    this(resources.getResources(), resources.getTotalResourceCount(), resources.getResourcesCount(), startIndex);
+    this(resources.getResources(), getTotalResults(resources, startIndex), resources.getResourcesCount(), startIndex);
+  }
+
+  private static int getTotalResults(final PagedResult<?> resources, final Integer startIndex) {
+    int precedingResourcesCount = startIndex == null ? 0 : startIndex - 1;
+    return getTotalResults(resources.getTotalResourceCount(), resources.isTotalResourceCountExact(), precedingResourcesCount,
+        resources.getResourcesCount(), resources.getResourcesCount() > 0);
+  }
+
+  /**
+   * Determines the <b>totalResults</b> of a page, which are required even if the resources were not counted exactly. Unknown counts are
+   * replaced by the number of resources up to the end of the page, plus one if there may be a next page, and estimates are raised to that
+   * number, so that clients keep paging while there are resources and stop at the first page which is not full.
+   *
+   * @param totalResourceCount the count of the callback or {@link PagedResult#UNKNOWN_TOTAL_RESOURCE_COUNT}
+   * @param exact whether the count is neither unknown nor estimated
+   * @param precedingResourcesCount the number of resources on the previous pages, if known
+   * @param resourcesCount the number of resources on the page
+   * @param mayHaveNextPage whether there may be more resources after the page
+   * @return the total results of the list response
+   */
+  public static int getTotalResults(final int totalResourceCount, final boolean exact, final int precedingResourcesCount,
+      final int resourcesCount, final boolean mayHaveNextPage) {
+    if (exact) {
+      return totalResourceCount;
+    }
+    long seenResourcesCount = (long) precedingResourcesCount + resourcesCount + (mayHaveNextPage ? 1 : 0);
+    return (int) Math.min(Math.max(seenResourcesCount, totalResourceCount), Integer.MAX_VALUE);
   }
 
   /**
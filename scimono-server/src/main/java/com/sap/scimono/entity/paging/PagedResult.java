@@ -1,12 +1,17 @@
-
 package com.sap.scimono.entity.paging;
 
 import java.util.List;
 
 public class PagedResult<T> {
 
+  /**
+   * The total resource count of pages whose resources were not counted, see {@link PageInfo#isTotalResourceCountRequired()}.
+   */
+  public static final int UNKNOWN_TOTAL_RESOURCE_COUNT = -1;
+
   private int count;
   private int totalResourcesCount;
+  private boolean totalResourceCountEstimated;
   private List<T> pageContents;
 
   public PagedResult(final int entityCountInDB, final List<T> entities) {
@@ -19,10 +24,43 @@ public class PagedResult<T> {
     this.count = count;
   }
 
+  /**
+   * @param entities the resources of the page, which were not counted
+   * @return a page without total resource count
+   */
+  public static <T> PagedResult<T> withUnknownTotal(final List<T> entities) {
+    return new PagedResult<>(UNKNOWN_TOTAL_RESOURCE_COUNT, entities);
+  }
+
+  /**
+   * @param estimatedCount the estimated number of all resources matching the filter, e.g. taken from the statistics of the database
+   * @param entities the resources of the page
+   * @return a page with an estimated total resource count
+   */
+  public static <T> PagedResult<T> withEstimatedTotal(final int estimatedCount, final List<T> entities) {
+    PagedResult<T> pagedResult = new PagedResult<>(estimatedCount, entities);
+    pagedResult.totalResourceCountEstimated = true;
+    return pagedResult;
+  }
+
+  /**
+   * @return the number of all resources matching the filter, {@link #UNKNOWN_TOTAL_RESOURCE_COUNT} if they were not counted
+   */
   public int getTotalResourceCount() {
     return totalResourcesCount;
   }
 
+  /**
+   * @return whether the total resource count is neither unknown nor estimated
+   */
+  public boolean isTotalResourceCountExact() {
+    return totalResourcesCount != UNKNOWN_TOTAL_RESOURCE_COUNT && !totalResourceCountEstimated;
+  }
+
+  public boolean isTotalResourceCountEstimated() {
+    return totalResourceCountEstimated;
+  }
+
   public List<T> getResources() {
     return pageContents;
   }
@@ -0,0 +1,277 @@
+package com.sap.scimono.entity.paging;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.sap.scimono.entity.schema.validation.ValidStartId;
+
+/**
+ * The body of a query by HTTP POST to a <b>.search</b> endpoint, see RFC 7644, section 3.4.3. It carries the parameters of a query by
+ * HTTP GET, so that filters longer than the URL length limits, e.g. of thousands of <b>id eq</b> terms, are queried in one round trip.
+ * Besides the parameters of the RFC, it carries the <b>startId</b> and <b>cursor</b> paging parameters.
+ * <p>
+ * The body is read token by token, its attribute names are case insensitive. The attributes to be returned or excluded are read as an array
+ * of attribute names or as a comma separated string, like the query parameters.
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+@JsonDeserialize(using = SearchRequest.Deserializer.class)
+public final class SearchRequest {
+  public static final String SCHEMA = "urn:ietf:params:scim:api:messages:2.0:SearchRequest";
+
+  private final List<String> attributes;
+  private final List<String> excludedAttributes;
+  private final String filter;
+  private final String sortBy;
+  private final String sortOrder;
+  private final Integer startIndex;
+  private final Integer count;
+  private final String startId;
+  private final String cursor;
+
+  private SearchRequest(final Builder builder) {
+    this.attributes = Collections.unmodifiableList(new ArrayList<>(builder.attributes));
+    this.excludedAttributes = Collections.unmodifiableList(new ArrayList<>(builder.excludedAttributes));
+    this.filter = builder.filter;
+    this.sortBy = builder.sortBy;
+    this.sortOrder = builder.sortOrder;
+    this.startIndex = builder.startIndex;
+    this.count = builder.count;
+    this.startId = builder.startId;
+    this.cursor = builder.cursor;
+  }
+
+  public Set<String> getSchemas() {
+    return Collections.singleton(SCHEMA);
+  }
+
+  public List<String> getAttributes() {
+    return attributes;
+  }
+
+  public List<String> getExcludedAttributes() {
+    return excludedAttributes;
+  }
+
+  public String getFilter() {
+    return filter;
+  }
+
+  public String getSortBy() {
+    return sortBy;
+  }
+
+  public String getSortOrder() {
+    return sortOrder;
+  }
+
+  /**
+   * @return the 1-based index of the first result or null if the default applies
+   */
+  public Integer getStartIndex() {
+    return startIndex;
+  }
+
+  /**
+   * @return the maximum number of results per page or null if the default applies
+   */
+  public Integer getCount() {
+    return count;
+  }
+
+  @ValidStartId
+  public String getStartId() {
+    return startId;
+  }
+
+  public String getCursor() {
+    return cursor;
+  }
+
+  public static class Builder {
+    private final List<String> attributes = new ArrayList<>();
+    private final List<String> excludedAttributes = new ArrayList<>();
+    private String filter;
+    private String sortBy;
+    private String sortOrder;
+    private Integer startIndex;
+    private Integer count;
+    private String startId;
+    private String cursor;
+
+    public Builder addAttribute(final String attribute) {
+      attributes.add(attribute);
+      return this;
+    }
+
+    public Builder addExcludedAttribute(final String excludedAttribute) {
+      excludedAttributes.add(excludedAttribute);
+      return this;
+    }
+
+    public Builder setFilter(final String filter) {
+      this.filter = filter;
+      return this;
+    }
+
+    public Builder setSortBy(final String sortBy) {
+      this.sortBy = sortBy;
+      return this;
+    }
+
+    public Builder setSortOrder(final String sortOrder) {
+      this.sortOrder = sortOrder;
+      return this;
+    }
+
+    public Builder setStartIndex(final Integer startIndex) {
+      this.startIndex = startIndex;
+      return this;
+    }
+
+    public Builder setCount(final Integer count) {
+      this.count = count;
+      return this;
+    }
+
+    public Builder setStartId(final String startId) {
+      this.startId = startId;
+      return this;
+    }
+
+    public Builder setCursor(final String cursor) {
+      this.cursor = cursor;
+      return this;
+    }
+
+    public SearchRequest build() {
+      return new SearchRequest(this);
+    }
+  }
+
+  static final class Deserializer extends StdDeserializer<SearchRequest> {
+    private static final long serialVersionUID = 1L;
+
+    private static final String SCHEMAS_FIELD = "schemas";
+    private static final String ATTRIBUTES_FIELD = "attributes";
+    private static final String EXCLUDED_ATTRIBUTES_FIELD = "excludedattributes";
+    private static final String FILTER_FIELD = "filter";
+    private static final String SORT_BY_FIELD = "sortby";
+    private static final String SORT_ORDER_FIELD = "sortorder";
+    private static final String START_INDEX_FIELD = "startindex";
+    private static final String COUNT_FIELD = "count";
+    private static final String START_ID_FIELD = "startid";
+    private static final String CURSOR_FIELD = "cursor";
+    private static final String ATTRIBUTES_DELIMITER = ",";
+
+    Deserializer() {
+      super(SearchRequest.class);
+    }
+
+    @Override
+    public SearchRequest deserialize(final JsonParser p, final DeserializationContext ctxt) throws IOException {
+      String fieldName;
+      if (p.isExpectedStartObjectToken()) {
+        fieldName = p.nextFieldName();
+      } else if (p.hasToken(JsonToken.FIELD_NAME)) {
+        fieldName = p.currentName();
+      } else {
+        return (SearchRequest) ctxt.handleUnexpectedToken(handledType(), p);
+      }
+
+      Builder builder = new Builder();
+      for (; fieldName != null; fieldName = p.nextFieldName()) {
+        p.nextToken();
+        switch (fieldName.toLowerCase(Locale.ENGLISH)) {
+          case SCHEMAS_FIELD:
+            readSchemas(p, ctxt);
+            break;
+          case ATTRIBUTES_FIELD:
+            readAttributes(p, ctxt, builder.attributes);
+            break;
+          case EXCLUDED_ATTRIBUTES_FIELD:
+            readAttributes(p, ctxt, builder.excludedAttributes);
+            break;
+          case FILTER_FIELD:
+            builder.setFilter(_parseString(p, ctxt));
+            break;
+          case SORT_BY_FIELD:
+            builder.setSortBy(_parseString(p, ctxt));
+            break;
+          case SORT_ORDER_FIELD:
+            builder.setSortOrder(_parseString(p, ctxt));
+            break;
+          case START_INDEX_FIELD:
+            builder.setStartIndex(readInteger(p, ctxt));
+            break;
+          case COUNT_FIELD:
+            builder.setCount(readInteger(p, ctxt));
+            break;
+          case START_ID_FIELD:
+            builder.setStartId(_parseString(p, ctxt));
+            break;
+          case CURSOR_FIELD:
+            builder.setCursor(_parseString(p, ctxt));
+            break;
+          default:
+            ctxt.handleUnknownProperty(p, this, handledType(), fieldName);
+        }
+      }
+      return builder.build();
+    }
+
+    private void readSchemas(final JsonParser p, final DeserializationContext ctxt) throws IOException {
+      if (p.hasToken(JsonToken.VALUE_NULL)) {
+        return;
+      }
+      if (!p.isExpectedStartArrayToken()) {
+        ctxt.handleUnexpectedToken(List.class, p);
+      }
+
+      boolean hasSchema = false;
+      for (JsonToken token = p.nextToken(); token != JsonToken.END_ARRAY; token = p.nextToken()) {
+        hasSchema |= SCHEMA.equals(_parseString(p, ctxt));
+      }
+      if (!hasSchema) {
+        ctxt.reportInputMismatch(this, "The schemas of a search request must contain %s", SCHEMA);
+      }
+    }
+
+    private void readAttributes(final JsonParser p, final DeserializationContext ctxt, final List<String> attributes) throws IOException {
+      if (p.hasToken(JsonToken.VALUE_NULL)) {
+        return;
+      }
+      if (!p.isExpectedStartArrayToken()) {
+        addAttributes(_parseString(p, ctxt), attributes);
+        return;
+      }
+      for (JsonToken token = p.nextToken(); token != JsonToken.END_ARRAY; token = p.nextToken()) {
+        addAttributes(_parseString(p, ctxt), attributes);
+      }
+    }
+
+    private static void addAttributes(final String value, final List<String> attributes) {
+      if (value == null) {
+        return;
+      }
+      for (String attribute : value.split(ATTRIBUTES_DELIMITER)) {
+        if (!attribute.trim().isEmpty()) {
+          attributes.add(attribute.trim());
+        }
+      }
+    }
+
+    private Integer readInteger(final JsonParser p, final DeserializationContext ctxt) throws IOException {
+      return p.hasToken(JsonToken.VALUE_NULL) ? null : _parseIntPrimitive(p, ctxt);
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package com.sap.scimono.entity.paging;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * The sort requested by the <b>sortBy</b> and <b>sortOrder</b> parameters, see RFC 7644, section 3.4.2.3.
+ */
+public class SortInfo {
+
+  private final String sortBy;
+  private final SortOrder sortOrder;
+
+  private SortInfo(final String sortBy, final SortOrder sortOrder) {
+    this.sortBy = sortBy;
+    this.sortOrder = sortOrder;
+  }
+
+  /**
+   * @return the short or full notation of the attribute the resources are sorted by, e.g. <b>name.familyName</b>
+   */
+  public String getSortBy() {
+    return sortBy;
+  }
+
+  public SortOrder getSortOrder() {
+    return sortOrder;
+  }
+
+  public boolean isDescending() {
+    return sortOrder == SortOrder.DESCENDING;
+  }
+
+  /**
+   * @param sortBy the attribute the resources are sorted by
+   * @param sortOrder the sort order, null sorts in ascending order
+   */
+  public static SortInfo getInstance(final String sortBy, final SortOrder sortOrder) {
+    return new SortInfo(sortBy, sortOrder == null ? SortOrder.ASCENDING : sortOrder);
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    SortInfo other = (SortInfo) o;
+    return sortBy.equals(other.sortBy) && sortOrder == other.sortOrder;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(sortBy, sortOrder);
+  }
+
+  @Override
+  public String toString() {
+    return sortBy + " " + sortOrder.getValue();
+  }
+
+  public enum SortOrder {
+    ASCENDING("ascending"), DESCENDING("descending");
+
+    private final String value;
+
+    SortOrder(final String value) {
+      this.value = value;
+    }
+
+    public String getValue() {
+      return value;
+    }
+
+    /**
+     * @param value the value of the <b>sortOrder</b> parameter, case insensitive
+     * @return the sort order or null if there is no such sort order
+     */
+    public static SortOrder from(final String value) {
+      String foldedValue = value.toLowerCase(Locale.ENGLISH);
+      for (SortOrder sortOrder : values()) {
+        if (sortOrder.value.equals(foldedValue)) {
+          return sortOrder;
+        }
+      }
+      return null;
+    }
+  }
+}
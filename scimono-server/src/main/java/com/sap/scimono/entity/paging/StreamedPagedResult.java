@@ -0,0 +1,108 @@
+package com.sap.scimono.entity.paging;
+
+import static com.sap.scimono.entity.paging.PagedResult.UNKNOWN_TOTAL_RESOURCE_COUNT;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A page of resources which are read while the list response is written, so that the page does not have to be held in memory. The stream is
+ * consumed once and closed after the response is written, close it to release e.g. the cursor of a database query.
+ *
+ * @param <T> the resource type
+ */
+public class StreamedPagedResult<T> implements AutoCloseable {
+
+  private final int totalResourcesCount;
+  private final Stream<T> resources;
+  private final int count;
+  private final boolean totalResourceCountEstimated;
+
+  public StreamedPagedResult(final int entityCountInDB, final Stream<T> entities) {
+    this(entityCountInDB, entities, 0);
+  }
+
+  public StreamedPagedResult(final int entityCountInDB, final Stream<T> entities, final int count) {
+    this(entityCountInDB, false, entities, count);
+  }
+
+  private StreamedPagedResult(final int entityCountInDB, final boolean totalResourceCountEstimated, final Stream<T> entities,
+      final int count) {
+    this.totalResourcesCount = entityCountInDB;
+    this.totalResourceCountEstimated = totalResourceCountEstimated;
+    this.resources = entities;
+    this.count = count;
+  }
+
+  public StreamedPagedResult(final int entityCountInDB, final Iterator<T> entities) {
+    this(entityCountInDB, StreamSupport.stream(Spliterators.spliteratorUnknownSize(entities, Spliterator.ORDERED), false));
+  }
+
+  /**
+   * @param pagedResult a page held in memory
+   * @return the page streaming the resources of the given page
+   */
+  public static <T> StreamedPagedResult<T> of(final PagedResult<T> pagedResult) {
+    return new StreamedPagedResult<>(pagedResult.getTotalResourceCount(), pagedResult.isTotalResourceCountEstimated(),
+        pagedResult.getResources().stream(), pagedResult.getCount());
+  }
+
+  /**
+   * @param entities the resources of the page, which were not counted
+   * @return a page without total resource count, see {@link PagedResult#withUnknownTotal(java.util.List)}
+   */
+  public static <T> StreamedPagedResult<T> withUnknownTotal(final Stream<T> entities) {
+    return new StreamedPagedResult<>(UNKNOWN_TOTAL_RESOURCE_COUNT, entities);
+  }
+
+  /**
+   * @param estimatedCount the estimated number of all resources matching the filter
+   * @param entities the resources of the page
+   * @return a page with an estimated total resource count, see {@link PagedResult#withEstimatedTotal(int, java.util.List)}
+   */
+  public static <T> StreamedPagedResult<T> withEstimatedTotal(final int estimatedCount, final Stream<T> entities) {
+    return new StreamedPagedResult<>(estimatedCount, true, entities, 0);
+  }
+
+  /**
+   * @param totalResourceCount the exact number of all resources matching the filter
+   * @return the same page with the given total resource count
+   */
+  public StreamedPagedResult<T> withTotalResourceCount(final int totalResourceCount) {
+    return new StreamedPagedResult<>(totalResourceCount, false, resources, count);
+  }
+
+  /**
+   * @return the number of all resources matching the filter, {@link PagedResult#UNKNOWN_TOTAL_RESOURCE_COUNT} if they were not counted
+   */
+  public int getTotalResourceCount() {
+    return totalResourcesCount;
+  }
+
+  /**
+   * @return whether the total resource count is neither unknown nor estimated
+   */
+  public boolean isTotalResourceCountExact() {
+    return totalResourcesCount != UNKNOWN_TOTAL_RESOURCE_COUNT && !totalResourceCountEstimated;
+  }
+
+  public boolean isTotalResourceCountEstimated() {
+    return totalResourceCountEstimated;
+  }
+
+  public Stream<T> getResources() {
+    return resources;
+  }
+
+  public int getCount() {
+    return count;
+  }
+
+  @Override
+  public void close() {
+    resources.close();
+  }
+}
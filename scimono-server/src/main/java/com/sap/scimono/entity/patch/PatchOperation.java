@@ -3,17 +3,23 @@ package com.sap.scimono.entity.patch;
 
 import static com.sap.scimono.helper.Strings.isNullOrEmpty;
 
+import java.util.Objects;
+
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.NullNode;
+import com.sap.scimono.SCIMFilterParser;
 import com.sap.scimono.entity.base.MultiValuedAttributeType;
+import com.sap.scimono.filter.QueryFilterParser;
 
 public class PatchOperation {
 
   private final Type op;
   private final String path;
   private final JsonNode value;
+  private volatile SCIMFilterParser.ParseContext valuePath;
 
   /**
    * Constructor for deserialization, it is not intended for general use.
@@ -30,6 +36,7 @@ public class PatchOperation {
     op = builder.op;
     path = builder.path;
     value = builder.value;
+    valuePath = builder.valuePath;
   }
 
   public String getPath() {
@@ -44,6 +51,20 @@ public class PatchOperation {
     return value;
   }
 
+  /**
+   * Returns the expression tree of a path with a value filter, e.g. <b>members[value eq "2819c223"]</b>. The path is parsed once, the tree
+   * is shared by the patch validators and the callback.
+   *
+   * @return the expression tree of the path or null if the operation has no path
+   */
+  @JsonIgnore
+  public SCIMFilterParser.ParseContext getValuePath() {
+    if (valuePath == null && !isNullOrEmpty(path)) {
+      valuePath = QueryFilterParser.parseTree(path);
+    }
+    return valuePath;
+  }
+
   /**
    * Builder class that is used to build {@link PatchOperation} instances
    */
@@ -52,6 +73,7 @@ public class PatchOperation {
     private Type op;
     private String path;
     private JsonNode value;
+    private SCIMFilterParser.ParseContext valuePath;
 
     public Builder() {
     }
@@ -65,6 +87,7 @@ public class PatchOperation {
       op = operation.op;
       path = operation.path;
       value = operation.value;
+      valuePath = operation.valuePath;
     }
 
     /**
@@ -85,6 +108,9 @@ public class PatchOperation {
      * @return the builder itself
      */
     public Builder setPath(final String path) {
+      if (!Objects.equals(this.path, path)) {
+        valuePath = null;
+      }
       this.path = path;
       return this;
     }
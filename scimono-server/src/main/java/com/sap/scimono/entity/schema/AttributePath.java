@@ -0,0 +1,239 @@
+package com.sap.scimono.entity.schema;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable, parsed representation of a SCIM attribute notation, e.g.
+ * <b>urn:ietf:params:scim:schemas:core:2.0:User:emails[type eq "work"].value</b>. The notation is split once into schema URN, attribute,
+ * sub-attribute and value filter, so that callers do not need to match or cut the raw string over and over again.
+ * <p>
+ * Instances returned by {@link #parse(String)} are interned, so parsing the same notation repeatedly is a map lookup.
+ */
+public final class AttributePath {
+  private static final String URN_PREFIX = "urn:";
+  private static final char SCHEMA_URN_DELIMITER = ':';
+  private static final char COMPLEX_ATTRIBUTE_DELIMITER = '.';
+  private static final char VALUE_FILTER_OPENING = '[';
+  private static final char VALUE_FILTER_CLOSING = ']';
+
+  private static final int MAX_INTERNED_PATHS = 10_000;
+  private static final Map<String, AttributePath> INTERNED_PATHS = new ConcurrentHashMap<>();
+
+  private final String notation;
+  private final String schemaId;
+  private final String attributeName;
+  private final String subAttributeName;
+  private final String valueFilter;
+
+  private AttributePath(final String notation, final String schemaId, final String attributeName, final String subAttributeName,
+      final String valueFilter) {
+    this.notation = notation;
+    this.schemaId = schemaId;
+    this.attributeName = attributeName;
+    this.subAttributeName = subAttributeName;
+    this.valueFilter = valueFilter;
+  }
+
+  /**
+   * Parses the attribute notation. If the notation starts with a schema URN, everything up to the last URN delimiter before the attribute is
+   * considered to be the schema id. Notations addressing a whole schema (e.g. <b>urn:ietf:params:scim:schemas:core:2.0:User</b>) cannot be told
+   * apart from attribute notations without knowing the schemas, use {@link #parse(String, String)} for them.
+   *
+   * @param notation short or full attribute notation
+   * @return the interned parsed path
+   */
+  public static AttributePath parse(final String notation) {
+    Objects.requireNonNull(notation, "Attribute notation must not be null");
+
+    AttributePath path = INTERNED_PATHS.get(notation);
+    if (path != null) {
+      return path;
+    }
+
+    path = parse(notation, null);
+    if (INTERNED_PATHS.size() < MAX_INTERNED_PATHS) {
+      INTERNED_PATHS.putIfAbsent(notation, path);
+    }
+    return path;
+  }
+
+  /**
+   * Parses the attribute notation using an already resolved schema id.
+   *
+   * @param notation short or full attribute notation
+   * @param schemaId the schema id the notation starts with or null if it is not known, in which case the notation is split as in
+   *          {@link #parse(String)}
+   * @return the parsed path
+   */
+  public static AttributePath parse(final String notation, final String schemaId) {
+    Objects.requireNonNull(notation, "Attribute notation must not be null");
+
+    int filterStart = notation.indexOf(VALUE_FILTER_OPENING);
+    String head = filterStart < 0 ? notation : notation.substring(0, filterStart).trim();
+
+    String valueFilter = null;
+    String subAttributeName = null;
+    if (filterStart >= 0) {
+      int filterEnd = notation.lastIndexOf(VALUE_FILTER_CLOSING);
+      if (filterEnd < filterStart) {
+        valueFilter = notation.substring(filterStart + 1);
+      } else {
+        valueFilter = notation.substring(filterStart + 1, filterEnd);
+        if (filterEnd + 1 < notation.length() && notation.charAt(filterEnd + 1) == COMPLEX_ATTRIBUTE_DELIMITER) {
+          subAttributeName = notation.substring(filterEnd + 2);
+        }
+      }
+    }
+
+    String resolvedSchemaId = null;
+    int attributeStart = 0;
+    if (schemaId != null && head.regionMatches(true, 0, schemaId, 0, schemaId.length())) {
+      resolvedSchemaId = head.substring(0, schemaId.length());
+      attributeStart = Math.min(schemaId.length() + 1, head.length());
+    } else if (startsWithUrn(head)) {
+      int schemaEnd = head.lastIndexOf(SCHEMA_URN_DELIMITER);
+      resolvedSchemaId = head.substring(0, schemaEnd);
+      attributeStart = schemaEnd + 1;
+    }
+
+    String attributeName = null;
+    if (attributeStart < head.length()) {
+      int subAttributeStart = head.indexOf(COMPLEX_ATTRIBUTE_DELIMITER, attributeStart);
+      if (subAttributeStart < 0) {
+        attributeName = head.substring(attributeStart);
+      } else {
+        attributeName = head.substring(attributeStart, subAttributeStart);
+        subAttributeName = head.substring(subAttributeStart + 1);
+      }
+    }
+
+    return new AttributePath(notation, resolvedSchemaId, attributeName, subAttributeName, valueFilter);
+  }
+
+  /**
+   * Cheap check if the notation starts with a schema URN, without parsing it.
+   *
+   * @param notation attribute notation
+   * @return true if the notation starts with <b>urn:</b>, ignoring case
+   */
+  public static boolean startsWithUrn(final String notation) {
+    return notation != null && notation.regionMatches(true, 0, URN_PREFIX, 0, URN_PREFIX.length());
+  }
+
+  /**
+   * @return the notation this path was parsed from
+   */
+  public String getNotation() {
+    return notation;
+  }
+
+  /**
+   * @return the schema id or null if the notation does not contain one
+   */
+  public String getSchemaId() {
+    return schemaId;
+  }
+
+  /**
+   * @return the top level attribute name or null if the path addresses a whole schema
+   */
+  public String getAttributeName() {
+    return attributeName;
+  }
+
+  /**
+   * @return the sub-attribute name or null if the path addresses a top level attribute
+   */
+  public String getSubAttributeName() {
+    return subAttributeName;
+  }
+
+  /**
+   * @return the value filter, without the enclosing brackets, or null if the notation does not contain one
+   */
+  public String getValueFilter() {
+    return valueFilter;
+  }
+
+  public boolean hasSchema() {
+    return schemaId != null;
+  }
+
+  public boolean hasSubAttribute() {
+    return subAttributeName != null;
+  }
+
+  public boolean hasValueFilter() {
+    return valueFilter != null;
+  }
+
+  public boolean isSchemaOnly() {
+    return schemaId != null && attributeName == null;
+  }
+
+  /**
+   * @param defaultSchemaId schema to use if the notation does not contain one
+   * @return full attribute notation without the value filter, e.g. <b>urn:ietf:params:scim:schemas:core:2.0:User:emails.value</b>
+   */
+  public String getFullAttributeNotation(final String defaultSchemaId) {
+    String attributeNotation = getAttributeNotation();
+    String schema = hasSchema() ? schemaId : defaultSchemaId;
+
+    if (schema == null) {
+      return attributeNotation;
+    }
+    if (attributeNotation.isEmpty()) {
+      return schema;
+    }
+    return schema + SCHEMA_URN_DELIMITER + attributeNotation;
+  }
+
+  /**
+   * @return the attribute notation without schema and value filter, e.g. <b>emails.value</b>
+   */
+  public String getAttributeNotation() {
+    if (attributeName == null) {
+      return "";
+    }
+    if (subAttributeName == null) {
+      return attributeName;
+    }
+    return attributeName + COMPLEX_ATTRIBUTE_DELIMITER + subAttributeName;
+  }
+
+  /**
+   * @return the notation without the value filter, e.g. <b>urn:ietf:params:scim:schemas:core:2.0:User:emails.value</b>
+   */
+  public String getNotationWithoutValueFilter() {
+    if (!hasValueFilter()) {
+      return notation;
+    }
+    return getFullAttributeNotation(null);
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    AttributePath that = (AttributePath) o;
+    return Objects.equals(schemaId, that.schemaId) && Objects.equals(attributeName, that.attributeName)
+        && Objects.equals(subAttributeName, that.subAttributeName) && Objects.equals(valueFilter, that.valueFilter);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(schemaId, attributeName, subAttributeName, valueFilter);
+  }
+
+  @Override
+  public String toString() {
+    return notation;
+  }
+}
@@ -16,10 +16,11 @@ import javax.ws.rs.core.UriInfo;
 import com.sap.scimono.SCIMApplication;
 import com.sap.scimono.api.API;
 import com.sap.scimono.entity.validation.ValidationUtil;
+import com.sap.scimono.exception.InvalidInputException;
 
 import java.util.Map;
 
-class StartIdValidator implements ConstraintValidator<ValidStartId, String> {
+public class StartIdValidator implements ConstraintValidator<ValidStartId, String> {
   private Map<CustomInputValidator.Type, CustomInputValidator> customValidators;
   private UriInfo uriInfo;
 
@@ -30,7 +31,7 @@ class StartIdValidator implements ConstraintValidator<ValidStartId, String> {
 
   @Override
   public boolean isValid(String startId, ConstraintValidatorContext context) {
-    if (isNullOrEmpty(startId) || isValidStartId(startId)) {
+    if (isNullOrEmpty(startId) || isValidStartId(startId, customValidators, uriInfo.getPath())) {
       return true;
     }
 
@@ -38,22 +39,35 @@ class StartIdValidator implements ConstraintValidator<ValidStartId, String> {
     return false;
   }
 
-  private String generateViolationMessage(Object resourceId) {
+  /**
+   * Validates a startId which is not a query parameter, e.g. the startId of a search request, like {@link ValidStartId} does.
+   *
+   * @param path the path of the request relative to the base URI, e.g. {@link API#USERS}
+   * @throws InvalidInputException if the startId is not valid
+   */
+  public static void validateStartId(String startId, Map<CustomInputValidator.Type, CustomInputValidator> customValidators, String path) {
+    if (!isNullOrEmpty(startId) && !isValidStartId(startId, customValidators, path)) {
+      throw new InvalidInputException(generateViolationMessage(startId));
+    }
+  }
+
+  private static String generateViolationMessage(Object resourceId) {
     return String.format("\"%s\" is not a valid startId!", resourceId);
   }
 
-  private boolean isValidStartId(String startId) {
+  private static boolean isValidStartId(String startId, Map<CustomInputValidator.Type, CustomInputValidator> customValidators,
+      String path) {
     // @formatter:off
     return PAGINATION_BY_ID_START_PARAM.equalsIgnoreCase(startId)
         || PAGINATION_BY_ID_END_PARAM.equalsIgnoreCase(startId)
-        || isValid(startId);
+        || isValid(startId, customValidators, path);
     // @formatter:on
   }
 
-  private boolean isValid(Object resourceId) {
-    if (uriInfo.getPath().startsWith(API.GROUPS) && customValidators.containsKey(GROUP_ID)) {
+  private static boolean isValid(Object resourceId, Map<CustomInputValidator.Type, CustomInputValidator> customValidators, String path) {
+    if (path.startsWith(API.GROUPS) && customValidators.containsKey(GROUP_ID)) {
       return  customValidators.get(GROUP_ID).isValid(resourceId);
-    } else if (uriInfo.getPath().startsWith(API.USERS) && customValidators.containsKey(USER_ID)) {
+    } else if (path.startsWith(API.USERS) && customValidators.containsKey(USER_ID)) {
       return customValidators.get(USER_ID).isValid(resourceId);
     } else if (customValidators.containsKey(RESOURCE_ID)) {
       return customValidators.get(RESOURCE_ID).isValid(resourceId);
@@ -0,0 +1,271 @@
+package com.sap.scimono.entity.validation;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import javax.ws.rs.core.Response;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sap.scimono.callback.schemas.SchemasCallback;
+import com.sap.scimono.entity.schema.Attribute;
+import com.sap.scimono.entity.schema.AttributeDataType;
+import com.sap.scimono.entity.schema.Schema;
+import com.sap.scimono.exception.SCIMException;
+import com.sap.scimono.helper.Strings;
+
+/**
+ * Attribute definition compiled for validating values: the data type check is selected once, sub-attributes are looked up case-insensitively
+ * and the element definition of a multi-valued attribute is built once. The checks are the ones of {@link CanonicalValuesValidator},
+ * {@link AttributeDataTypeValidator} and {@link RequiredSubAttributesValidator}.
+ * <p>
+ * Compiled schemas are cached by schema id, an entry is reused as long as the schemas callback returns the same schema instance, which is the
+ * case for schemas served from a {@link com.sap.scimono.callback.schemas.SchemaRegistry}.
+ */
+public final class CompiledAttribute {
+  private static final Pattern BASE_64_PERMITTED_CHARACTERS_PATTERN = Pattern.compile("^[A-Za-z0-9+\\/=]+$");
+  private static final String DATA_TYPE_ERROR_MESSAGE = "The value data type is not correct";
+
+  private static final Map<String, CompiledAttribute> SCHEMAS = new ConcurrentHashMap<>();
+
+  private final Schema schema;
+  private final Attribute attribute;
+  private final boolean isComplex;
+  private final Predicate<JsonNode> dataTypeCheck;
+  private final Set<String> canonicalValues;
+  private final List<String> requiredSubAttributes;
+  private final Map<String, CompiledAttribute> subAttributes;
+  private final CompiledAttribute element;
+
+  private CompiledAttribute(final Schema schema, final Attribute attribute) {
+    this(schema, attribute, compileSubAttributes(attribute));
+  }
+
+  private CompiledAttribute(final Schema schema, final Attribute attribute, final Map<String, CompiledAttribute> subAttributes) {
+    this.schema = schema;
+    this.attribute = attribute;
+    this.isComplex = AttributeDataType.COMPLEX.toString().equals(attribute.getType());
+    this.dataTypeCheck = compileDataTypeCheck(attribute.getType());
+    this.canonicalValues = new HashSet<>(attribute.getCanonicalValues());
+    this.subAttributes = subAttributes;
+
+    if (attribute.getName() != null && SchemasCallback.isCoreSchema(attribute.getName())) {
+      this.requiredSubAttributes = Collections.emptyList();
+    } else {
+      // @formatter:off
+      this.requiredSubAttributes = attribute.getSubAttributes().stream()
+          .filter(Attribute::isRequired)
+          .map(Attribute::getName)
+          .collect(Collectors.toList());
+      // @formatter:on
+    }
+
+    if (attribute.isMultiValued()) {
+      // @formatter:off
+      Attribute singleValuedAttribute = new Attribute.Builder()
+          .name(attribute.getName())
+          .multiValued(false)
+          .required(false)
+          .type(attribute.getType())
+          .mutability(attribute.getMutability())
+          .addSubAttributes(attribute.getSubAttributes())
+          .build();
+      // @formatter:on
+      this.element = new CompiledAttribute(null, singleValuedAttribute, subAttributes);
+    } else {
+      this.element = this;
+    }
+  }
+
+  /**
+   * @param attribute the attribute definition
+   * @return the compiled attribute, it is not cached
+   */
+  public static CompiledAttribute of(final Attribute attribute) {
+    return new CompiledAttribute(null, attribute);
+  }
+
+  /**
+   * @param schema the schema
+   * @return the compiled attribute of the schema, see {@link Schema#toAttribute()}
+   */
+  public static CompiledAttribute ofSchema(final Schema schema) {
+    if (schema.getId() == null) {
+      return new CompiledAttribute(schema, schema.toAttribute());
+    }
+
+    CompiledAttribute compiledSchema = SCHEMAS.get(schema.getId());
+    if (compiledSchema == null || compiledSchema.schema != schema) {
+      compiledSchema = new CompiledAttribute(schema, schema.toAttribute());
+      SCHEMAS.put(schema.getId(), compiledSchema);
+    }
+    return compiledSchema;
+  }
+
+  /**
+   * Compiles the schemas whose attributes may be provided as a complex value named by the schema id, e.g. the enterprise extension attributes
+   * in the value of a patch operation without path.
+   *
+   * @param permittedSchemas the schemas by schema id
+   * @return the compiled schemas by lower case schema id
+   */
+  public static Map<String, CompiledAttribute> ofPermittedSchemas(final Map<String, Schema> permittedSchemas) {
+    Map<String, CompiledAttribute> compiledSchemas = new HashMap<>();
+    permittedSchemas.forEach((schemaId, schema) -> {
+      // @formatter:off
+      Attribute schemaAttribute = new Attribute.Builder()
+          .name(schemaId)
+          .multiValued(false)
+          .required(false)
+          .type(AttributeDataType.COMPLEX.toString())
+          .addSubAttributes(schema.getAttributes())
+          .build();
+      // @formatter:on
+      compiledSchemas.putIfAbsent(toKey(schemaId), of(schemaAttribute));
+    });
+    return Collections.unmodifiableMap(compiledSchemas);
+  }
+
+  static CompiledAttribute findPermittedSchema(final Map<String, CompiledAttribute> permittedSchemas, final String name) {
+    return permittedSchemas.isEmpty() ? null : permittedSchemas.get(toKey(name));
+  }
+
+  public Attribute getAttribute() {
+    return attribute;
+  }
+
+  public String getName() {
+    return attribute.getName();
+  }
+
+  public boolean isMultiValued() {
+    return attribute.isMultiValued();
+  }
+
+  public boolean isComplex() {
+    return isComplex;
+  }
+
+  public boolean isReadOnly() {
+    return "readOnly".equals(attribute.getMutability());
+  }
+
+  /**
+   * @return the definition of the values of a multi-valued attribute, the attribute itself if it is single-valued
+   */
+  public CompiledAttribute getElement() {
+    return element;
+  }
+
+  /**
+   * @param name the case-insensitive name of the sub-attribute
+   * @return the sub-attribute or null if there is no such sub-attribute
+   */
+  public CompiledAttribute getSubAttribute(final String name) {
+    return subAttributes.get(toKey(name));
+  }
+
+  /**
+   * Validates a value of a single-valued attribute or an element of a multi-valued one against the canonical values, the data type and the
+   * required sub-attributes.
+   *
+   * @param value the value
+   */
+  public void validateValue(final JsonNode value) {
+    if (!canonicalValues.isEmpty() && !Strings.isNullOrEmpty(value.asText()) && !canonicalValues.contains(value.asText())) {
+      throw new SCIMException(SCIMException.Type.INVALID_VALUE,
+          String.format("Provided value is not part of '%s' canonical values", attribute.getName()), Response.Status.BAD_REQUEST);
+    }
+
+    if (!dataTypeCheck.test(value)) {
+      throw new SCIMException(SCIMException.Type.INVALID_VALUE, DATA_TYPE_ERROR_MESSAGE, Response.Status.BAD_REQUEST);
+    }
+
+    for (String requiredSubAttribute : requiredSubAttributes) {
+      if (value.get(requiredSubAttribute) == null) {
+        throw new SCIMException(SCIMException.Type.INVALID_VALUE, String.format("Attribute with name %s is required.", requiredSubAttribute),
+            Response.Status.BAD_REQUEST);
+      }
+    }
+  }
+
+  private static Map<String, CompiledAttribute> compileSubAttributes(final Attribute attribute) {
+    if (attribute.getSubAttributes().isEmpty()) {
+      return Collections.emptyMap();
+    }
+
+    Map<String, CompiledAttribute> subAttributes = new HashMap<>();
+    for (Attribute subAttribute : attribute.getSubAttributes()) {
+      if (subAttribute.getName() != null) {
+        subAttributes.putIfAbsent(toKey(subAttribute.getName()), of(subAttribute));
+      }
+    }
+    return subAttributes;
+  }
+
+  private static Predicate<JsonNode> compileDataTypeCheck(final String type) {
+    AttributeDataType dataType;
+    try {
+      dataType = AttributeDataType.of(type);
+    } catch (IllegalArgumentException e) {
+      return value -> {
+        throw e;
+      };
+    }
+
+    switch (dataType) {
+      case STRING:
+        return JsonNode::isTextual;
+      case INTEGER:
+        return JsonNode::isIntegralNumber;
+      case BOOLEAN:
+        return JsonNode::isBoolean;
+      case COMPLEX:
+        return JsonNode::isObject;
+      case DECIMAL:
+        return value -> value.isBigDecimal() || value.isDouble() || value.isIntegralNumber();
+      case REFERENCE:
+        return value -> value.isTextual() && isValidURI(value.asText());
+      case BINARY:
+        return value -> value.isTextual() && BASE_64_PERMITTED_CHARACTERS_PATTERN.matcher(value.asText()).matches();
+      case DATE_TIME:
+        return value -> value.isTextual() && isValidDateTime(value.asText());
+      default:
+        return value -> false;
+    }
+  }
+
+  private static boolean isValidURI(final String value) {
+    try {
+      new URI(value);
+      return true;
+    } catch (final URISyntaxException e) {
+      return false;
+    }
+  }
+
+  private static boolean isValidDateTime(final String value) {
+    try {
+      DateTimeFormatter.ISO_INSTANT.parse(value);
+      return true;
+    } catch (DateTimeParseException e) {
+      return false;
+    }
+  }
+
+  private static String toKey(final String name) {
+    return name.toLowerCase(Locale.ENGLISH);
+  }
+}
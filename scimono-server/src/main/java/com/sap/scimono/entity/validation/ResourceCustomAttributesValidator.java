@@ -44,7 +44,7 @@ public class ResourceCustomAttributesValidator<T extends Resource<T>> implements
       });
     }
     resource.getExtensions().values().forEach(extension -> {
-      Attribute schemaAttribute = schemaAPI.getSchema(extension.getUrn()).toAttribute();
+      CompiledAttribute schemaAttribute = CompiledAttribute.ofSchema(schemaAPI.getSchema(extension.getUrn()));
       new SchemaBasedAttributeValueValidator(schemaAttribute, Collections.emptyMap()).validate(extension.getAttributes());
       if (isOperationPut) {
         validateForImmutableValue(extension, schemaAttribute);
@@ -52,21 +52,18 @@ public class ResourceCustomAttributesValidator<T extends Resource<T>> implements
     });
   }
 
-  private void validateForImmutableValue(final Extension extension, final Attribute schemaAttribute) {
+  private void validateForImmutableValue(final Extension extension, final CompiledAttribute schemaAttribute) {
     Validator<Attribute> mutabilityValidator = new AttributeImmutableValueValidator();
 
     extension.getAttributes().keySet().forEach(subAtrributeName -> {
-
-      // @formatter:off
-      Attribute subAttribute = schemaAttribute.getSubAttributes().stream()
-          .filter(attribute -> subAtrributeName.equalsIgnoreCase(attribute.getName()))
-          .findAny()
-          .orElseThrow(() -> new SCIMException(SCIMException.Type.INVALID_SYNTAX, String.format("Provided attribute with name '%s' does not exist according to the schema", subAtrributeName),
-              Response.Status.BAD_REQUEST));
-      // @formatter:on
+      CompiledAttribute subAttribute = schemaAttribute.getSubAttribute(subAtrributeName);
+      if (subAttribute == null) {
+        throw new SCIMException(SCIMException.Type.INVALID_SYNTAX, String.format("Provided attribute with name '%s' does not exist according to the schema", subAtrributeName),
+            Response.Status.BAD_REQUEST);
+      }
 
       if (!subAttribute.isMultiValued()) {
-        mutabilityValidator.validate(subAttribute);
+        mutabilityValidator.validate(subAttribute.getAttribute());
       }
     });
   }
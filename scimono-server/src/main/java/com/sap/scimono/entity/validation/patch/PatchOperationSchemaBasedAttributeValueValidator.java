@@ -1,4 +1,3 @@
-
 package com.sap.scimono.entity.validation.patch;
 
 import java.util.Iterator;
@@ -8,8 +7,10 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.sap.scimono.callback.schemas.SchemasCallback;
 import com.sap.scimono.entity.patch.PatchOperation;
 import com.sap.scimono.entity.schema.Attribute;
+import com.sap.scimono.entity.schema.AttributePath;
 import com.sap.scimono.entity.schema.Schema;
 import com.sap.scimono.entity.validation.AttributeImmutableValueValidator;
+import com.sap.scimono.entity.validation.CompiledAttribute;
 import com.sap.scimono.entity.validation.SchemaBasedAttributeValueValidator;
 import com.sap.scimono.entity.validation.Validator;
 import com.sap.scimono.exception.SCIMException;
@@ -19,13 +20,14 @@ public class PatchOperationSchemaBasedAttributeValueValidator implements Validat
 
   private final SchemasCallback schemaAPI;
   private final String coreSchemaId;
-  private final Map<String, Schema> permittedSchemas;
+  private final Map<String, CompiledAttribute> permittedSchemas;
+  private final Validator<Attribute> mutabilityValidator = new AttributeImmutableValueValidator();
 
   public PatchOperationSchemaBasedAttributeValueValidator(final SchemasCallback schemaAPI, final String coreSchemaId,
       final Map<String, Schema> permittedSchemas) {
     this.schemaAPI = schemaAPI;
     this.coreSchemaId = coreSchemaId;
-    this.permittedSchemas = permittedSchemas;
+    this.permittedSchemas = CompiledAttribute.ofPermittedSchemas(permittedSchemas);
   }
 
   @Override
@@ -33,56 +35,60 @@ public class PatchOperationSchemaBasedAttributeValueValidator implements Validat
     String path = operation.getPath();
     JsonNode value = operation.getValue();
 
-    SchemaBasedAttributeValueValidator attributeAndValueValidator;
+    CompiledAttribute targetAttribute;
     if (Strings.isNullOrEmpty(path)) {
-      Attribute coreSchemaAttribute = schemaAPI.getSchema(coreSchemaId).toAttribute();
-      validateSchemaAttributes(coreSchemaAttribute, operation);
-      attributeAndValueValidator = new SchemaBasedAttributeValueValidator(coreSchemaAttribute, permittedSchemas);
+      targetAttribute = CompiledAttribute.ofSchema(schemaAPI.getSchema(coreSchemaId));
+      validateSchemaAttributes(targetAttribute, operation);
     } else if (schemaAPI.getSchema(path) != null) {
-      Attribute schemaAttribute = schemaAPI.getSchema(path).toAttribute();
-      validateSchemaAttributes(schemaAttribute, operation);
-      attributeAndValueValidator = new SchemaBasedAttributeValueValidator(schemaAttribute, permittedSchemas);
+      targetAttribute = CompiledAttribute.ofSchema(schemaAPI.getSchema(path));
+      validateSchemaAttributes(targetAttribute, operation);
     } else {
-      String pathWithoutFilter = schemaAPI.removeValueFilterFromAttributeNotation(path);
-      Attribute targetAttribute = schemaAPI.getAttribute(pathWithoutFilter);
+      targetAttribute = getPathAttribute(AttributePath.parse(path).getNotationWithoutValueFilter());
       validatePathAttribute(targetAttribute, operation);
-      attributeAndValueValidator = new SchemaBasedAttributeValueValidator(targetAttribute, permittedSchemas);
     }
 
-    attributeAndValueValidator.validate(value);
+    new SchemaBasedAttributeValueValidator(targetAttribute, permittedSchemas).validate(value);
   }
 
-  private void validatePathAttribute(final Attribute attribute, final PatchOperation operation) {
+  private CompiledAttribute getPathAttribute(final String pathWithoutFilter) {
+    AttributePath attributePath = AttributePath.parse(pathWithoutFilter);
+    Schema schema = attributePath.hasSchema() && attributePath.getAttributeName() != null ? schemaAPI.getSchema(attributePath.getSchemaId())
+        : null;
+
+    CompiledAttribute attribute = schema == null ? null : CompiledAttribute.ofSchema(schema).getSubAttribute(attributePath.getAttributeName());
+    if (attribute != null && attributePath.hasSubAttribute()) {
+      attribute = attribute.getSubAttribute(attributePath.getSubAttributeName());
+    }
+    return attribute != null ? attribute : CompiledAttribute.of(schemaAPI.getAttribute(pathWithoutFilter));
+  }
+
+  private void validatePathAttribute(final CompiledAttribute attribute, final PatchOperation operation) {
     JsonNode value = operation.getValue();
 
-    Validator<Attribute> mutabilityValidator = new AttributeImmutableValueValidator();
     if (!value.isArray() && PatchOperation.Type.REPLACE.equals(operation.getOp())) {
-      mutabilityValidator.validate(attribute);
+      mutabilityValidator.validate(attribute.getAttribute());
     }
   }
 
-  private void validateSchemaAttributes(final Attribute schemaAttribute, final PatchOperation operation) {
+  private void validateSchemaAttributes(final CompiledAttribute schemaAttribute, final PatchOperation operation) {
     if (!PatchOperation.Type.REPLACE.equals(operation.getOp())) {
       return;
     }
 
     JsonNode value = operation.getValue();
-
-    Validator<Attribute> mutabilityValidator = new AttributeImmutableValueValidator();
     Iterator<Map.Entry<String, JsonNode>> fieldsIterator = value.fields();
 
     while (fieldsIterator.hasNext()) {
       String subAttrName = fieldsIterator.next().getKey();
 
-      // @formatter:off
-      Attribute subAttribute = schemaAttribute.getSubAttributes().stream()
-          .filter(attr -> subAttrName.equalsIgnoreCase(attr.getName()))
-          .findAny()
-          .orElseThrow(() -> new PatchValidationException(SCIMException.Type.INVALID_PATH, String.format("Provided attribute with name '%s' does not exist according to the schema", subAttrName)));
-      // @formatter:on
+      CompiledAttribute subAttribute = schemaAttribute.getSubAttribute(subAttrName);
+      if (subAttribute == null) {
+        throw new PatchValidationException(SCIMException.Type.INVALID_PATH,
+            String.format("Provided attribute with name '%s' does not exist according to the schema", subAttrName));
+      }
 
       if (!subAttribute.isMultiValued()) {
-        mutabilityValidator.validate(subAttribute);
+        mutabilityValidator.validate(subAttribute.getAttribute());
       }
     }
   }
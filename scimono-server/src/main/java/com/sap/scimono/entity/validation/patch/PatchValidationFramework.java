@@ -1,19 +1,23 @@
-
 package com.sap.scimono.entity.validation.patch;
 
 import static com.sap.scimono.callback.schemas.SchemasCallback.SCHEMA_URN_DELIMETER;
-import static com.sap.scimono.callback.schemas.SchemasCallback.isAttributeNotationContainsSchema;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import com.sap.scimono.callback.groups.GroupsCallback;
 import com.sap.scimono.callback.resourcetype.ResourceTypesCallback;
+import com.sap.scimono.callback.schemas.RegistrySchemasCallback;
+import com.sap.scimono.callback.schemas.SchemaRegistry;
 import com.sap.scimono.callback.schemas.SchemasCallback;
 import com.sap.scimono.callback.users.UsersCallback;
 import com.sap.scimono.entity.Group;
@@ -21,127 +25,148 @@ import com.sap.scimono.entity.User;
 import com.sap.scimono.entity.patch.PatchBody;
 import com.sap.scimono.entity.patch.PatchOperation;
 import com.sap.scimono.entity.schema.Attribute;
+import com.sap.scimono.entity.schema.AttributePath;
 import com.sap.scimono.entity.schema.Schema;
+import com.sap.scimono.entity.schema.SchemaExtension;
 import com.sap.scimono.entity.validation.Validator;
 import com.sap.scimono.helper.Strings;
 
-
+/**
+ * Validates patch requests against the schemas of a resource type. A framework, including its validators, is built once per resource type
+ * and {@link SchemaRegistry} and is shared between requests: it reads the schemas from the registry only and holds no request state.
+ * <p>
+ * The schema extensions of the resource type are read from the {@link ResourceTypesCallback} when the framework is built, they are expected
+ * to change only together with the schemas.
+ */
 public class PatchValidationFramework {
+  private static final Map<String, PatchValidationFramework> FRAMEWORKS = new ConcurrentHashMap<>();
 
-  private final SchemasCallback schemaAPI;
-  private final ResourceTypesCallback resourceTypesAPI;
+  private final SchemaRegistry schemaRegistry;
+  private final Set<String> schemaIdsAllowingPatch;
 
   private final String coreSchemaId;
-  private final String resourceType;
+  private final Map<String, String> coreAttributeNames;
 
-  private final Map<String, Schema> requiredSchemas;
+  private final List<Validator<PatchBody>> bodyValidators;
+  private final List<Validator<PatchOperation>> operationValidators;
+  private final ValuePathValidator valuePathValidator;
+  private final List<Validator<PatchOperation>> pathValidators;
+  private final Validator<PatchOperation> attributeValueValidator;
 
   // @formatter:off
-  private PatchValidationFramework(SchemasCallback schemaAPI,
-                                   ResourceTypesCallback resourceTypesAPI,
-                                   Map<String, Schema> requiredSchemas,
+  private PatchValidationFramework(SchemaRegistry schemaRegistry,
+                                   Set<String> schemaIdsAllowingPatch,
+                                   List<SchemaExtension> schemaExtensions,
                                    String coreSchemaId,
                                    String resourceType) {
-    this.schemaAPI = schemaAPI;
-    this.resourceTypesAPI = resourceTypesAPI;
-    this.requiredSchemas = requiredSchemas;
+    // @formatter:on
+    this.schemaRegistry = schemaRegistry;
+    this.schemaIdsAllowingPatch = schemaIdsAllowingPatch;
     this.coreSchemaId = coreSchemaId;
-    this.resourceType = resourceType;
+    this.coreAttributeNames = getCoreAttributeNames(schemaRegistry, coreSchemaId);
+
+    SchemasCallback schemaAPI = new RegistrySchemasCallback(schemaRegistry);
+    Map<String, Schema> requiredSchemas = getRequiredSchemas(schemaRegistry, schemaIdsAllowingPatch);
+
+    this.bodyValidators = Arrays.asList(new PatchSchemaPresenceValidator(), new AnyOperationPresenceValidator());
+    this.operationValidators = Arrays.asList(new OperationTypeValidator(), new MandatoryPathValidator(), new AddReplaceOperationValueValidator());
+
+    // @formatter:off
+    this.pathValidators = Arrays.asList(
+        new PathSchemaExistenceValidator(requiredSchemas),
+        new PathAttributeExistenceValidator(schemaAPI),
+        new PathMutabilityValidator(schemaAPI),
+        new PathRemoveRequiredAttributeValidator(schemaAPI, schemaExtensions, resourceType));
+    // @formatter:on
+    this.valuePathValidator = new ValuePathValidator(requiredSchemas, schemaAPI, coreSchemaId);
+    this.attributeValueValidator = new PatchOperationSchemaBasedAttributeValueValidator(schemaAPI, coreSchemaId, requiredSchemas);
   }
-  // @formatter:on
 
   public void validate(PatchBody body) {
-    List<Validator<PatchBody>> validators = Arrays.asList(new PatchSchemaPresenceValidator(), new AnyOperationPresenceValidator());
+    bodyValidators.forEach(v -> v.validate(body));
 
-    validators.forEach(v -> v.validate(body));
-    
-    // @formatter:off
     body.getOperations().forEach(operation -> {
-      List<String> matchingPaths = schemaAPI.getSchema(coreSchemaId)
-    		  .getAttributes()
-    		  .stream()
-    		  .map(Attribute::getName)
-    		  .filter(attributeName -> attributeName.equalsIgnoreCase(operation.getPath()))
-    		  .collect(Collectors.toList());
-      
-      String caseExactPath = matchingPaths.isEmpty() ? operation.getPath() : matchingPaths.get(0);
-      String fullPath = addSchemaToPathIfNotExist(caseExactPath, coreSchemaId);
-      validateOperation(new PatchOperation.Builder(operation).setPath(fullPath).build());
+      if (Strings.isNullOrEmpty(operation.getPath())) {
+        validateOperation(operation, operation, null);
+        return;
+      }
+
+      AttributePath path = AttributePath.parse(operation.getPath());
+      String fullPath = path.hasSchema() ? operation.getPath()
+          : String.join(SCHEMA_URN_DELIMETER, coreSchemaId, getCaseExactPath(path, operation.getPath()));
+      validateOperation(operation, new PatchOperation.Builder(operation).setPath(fullPath).build(), path);
     });
-    // @formatter:on
-  }
-  //TODO check utils that contain this method
-  private static String addSchemaToPathIfNotExist(String path, String defaultSchema) {
-    if (Strings.isNullOrEmpty(path) || isAttributeNotationContainsSchema(path)) {
-      return path;
-    }
-    return String.join(SCHEMA_URN_DELIMETER, defaultSchema, path);
   }
 
-  private void validateOperation(PatchOperation operation) {
-    List<Validator<PatchOperation>> validators = new LinkedList<>();
-    validators.add(new OperationTypeValidator());
-    validators.add(new MandatoryPathValidator());
-    validators.add(new AddReplaceOperationValueValidator());
-    validators.addAll(getPathValidators(operation.getPath()));
-
-    if (!PatchOperation.Type.REMOVE.equals(operation.getOp())) {
-        validators.add(new PatchOperationSchemaBasedAttributeValueValidator(schemaAPI, coreSchemaId, requiredSchemas));
+  private String getCaseExactPath(AttributePath path, String operationPath) {
+    if (path.hasSubAttribute() || path.hasValueFilter()) {
+      return operationPath;
     }
-
-    validators.forEach(v -> v.validate(operation));
+    return coreAttributeNames.getOrDefault(operationPath.toLowerCase(Locale.ENGLISH), operationPath);
   }
 
-  private List<Validator<PatchOperation>> getPathValidators(String path){
-    if(Strings.isNullOrEmpty(path)){
-      return new ArrayList<>();
+  /**
+   * @param operation the requested operation, value paths are validated on its expression tree which is parsed once and reused by the callback
+   * @param fullOperation the requested operation with the full notation of its path
+   */
+  private void validateOperation(PatchOperation operation, PatchOperation fullOperation, AttributePath path) {
+    operationValidators.forEach(v -> v.validate(fullOperation));
+    if (path != null && path.hasValueFilter()) {
+      valuePathValidator.validate(operation);
+    } else if (path != null) {
+      pathValidators.forEach(v -> v.validate(fullOperation));
     }
 
-    List<Validator<PatchOperation>> validators = new ArrayList<>();
-
-    if(isOperationPathContainsValueFilter(path)){
-      validators.add(new ValuePathAttributesValidator(requiredSchemas, schemaAPI, coreSchemaId));
-      validators.add(new ValuePathStructureValidator());
-      validators.add(new ValuePathRestrictionsValidator());
-    } else {
-      validators.add(new PathSchemaExistenceValidator(requiredSchemas));
-      validators.add(new PathAttributeExistenceValidator(schemaAPI));
-      validators.add(new PathMutabilityValidator(schemaAPI));
-      validators.add(new PathRemoveRequiredAttributeValidator(schemaAPI, resourceTypesAPI, resourceType));
+    if (!PatchOperation.Type.REMOVE.equals(fullOperation.getOp())) {
+      attributeValueValidator.validate(fullOperation);
     }
+  }
 
-    return validators;
+  public static PatchValidationFramework groupsFramework(final SchemasCallback schemaAPI, final ResourceTypesCallback resourceTypesAPI, final
+      GroupsCallback groupsAPI) {
+    return getFramework(Group.RESOURCE_TYPE_GROUP, Group.SCHEMA, schemaAPI, resourceTypesAPI, groupsAPI.getSchemaIdsAllowingPatch());
   }
 
-  private boolean isOperationPathContainsValueFilter(String path){
-    return path.contains("[");
+  public static PatchValidationFramework usersFramework(final SchemasCallback schemaAPI, final ResourceTypesCallback resourceTypesAPI, final UsersCallback usersAPI) {
+    return getFramework(User.RESOURCE_TYPE_USER, User.SCHEMA, schemaAPI, resourceTypesAPI, usersAPI.getSchemaIdsAllowingPatch());
   }
 
-  public static PatchValidationFramework groupsFramework(final SchemasCallback schemaAPI, final ResourceTypesCallback resourceTypesAPI, final
-      GroupsCallback groupsAPI) {
-    String coreSchemaId = Group.SCHEMA;
-    String resourceType = Group.RESOURCE_TYPE_GROUP;
+  /**
+   * Returns the cached framework of the resource type, it is rebuilt once the schema registry or the schemas allowing patch change.
+   */
+  private static PatchValidationFramework getFramework(final String resourceType, final String coreSchemaId, final SchemasCallback schemaAPI,
+      final ResourceTypesCallback resourceTypesAPI, final Set<String> schemaIdsAllowingPatch) {
+    SchemaRegistry schemaRegistry = schemaAPI.getSchemaRegistry();
+    PatchValidationFramework framework = FRAMEWORKS.get(resourceType);
+    if (framework != null && framework.schemaRegistry == schemaRegistry && framework.schemaIdsAllowingPatch.equals(schemaIdsAllowingPatch)) {
+      return framework;
+    }
 
-    Map<String, Schema> requiredSchemas = getRequiredSchemas(schemaAPI, groupsAPI.getSchemaIdsAllowingPatch());
-    return new PatchValidationFramework(schemaAPI, resourceTypesAPI, requiredSchemas, coreSchemaId, resourceType);
+    framework = new PatchValidationFramework(schemaRegistry, Collections.unmodifiableSet(new HashSet<>(schemaIdsAllowingPatch)),
+        new ArrayList<>(resourceTypesAPI.getSchemaExtensions(resourceType)), coreSchemaId, resourceType);
+    FRAMEWORKS.put(resourceType, framework);
+    return framework;
   }
 
-  public static PatchValidationFramework usersFramework(final SchemasCallback schemaAPI, final ResourceTypesCallback resourceTypesAPI, final UsersCallback usersAPI) {
-    String coreSchemaId = User.SCHEMA;
-    String resourceType = User.RESOURCE_TYPE_USER;
+  private static Map<String, String> getCoreAttributeNames(final SchemaRegistry schemaRegistry, final String coreSchemaId) {
+    Schema coreSchema = schemaRegistry.getSchema(coreSchemaId);
+    if (coreSchema == null) {
+      return Collections.emptyMap();
+    }
 
-    Map<String, Schema> requiredSchemas = getRequiredSchemas(schemaAPI, usersAPI.getSchemaIdsAllowingPatch());
-    return new PatchValidationFramework(schemaAPI, resourceTypesAPI, requiredSchemas, coreSchemaId, resourceType);
+    Map<String, String> coreAttributeNames = new HashMap<>();
+    for (Attribute attribute : coreSchema.getAttributes()) {
+      coreAttributeNames.putIfAbsent(attribute.getName().toLowerCase(Locale.ENGLISH), attribute.getName());
+    }
+    return coreAttributeNames;
   }
 
-  private static Map<String, Schema> getRequiredSchemas(final SchemasCallback schemaAPI, final Set<String> requiredSchemaIds) {
+  private static Map<String, Schema> getRequiredSchemas(final SchemaRegistry schemaRegistry, final Set<String> requiredSchemaIds) {
     // @formatter:off
-    Map<String, Schema> requiredSchemas = schemaAPI.getCustomSchemas().stream().collect(Collectors.toMap(Schema::getId, schema -> schema));
-    requiredSchemas.putAll(schemaAPI.getSchemas().stream()
-        .filter(schema -> requiredSchemaIds.contains(schema.getId()))
-        .collect(Collectors.toMap(Schema::getId, schema -> schema)));
+    return schemaRegistry.getSchemas().stream()
+        .filter(schema -> SchemasCallback.isCustomSchema(schema.getId()) || requiredSchemaIds.contains(schema.getId()))
+        .collect(Collectors.toMap(Schema::getId, schema -> schema, (first, second) -> second));
     // @formatter:on
-    return requiredSchemas;
   }
 
 }
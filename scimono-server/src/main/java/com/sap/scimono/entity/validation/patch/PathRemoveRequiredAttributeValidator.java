@@ -3,6 +3,9 @@ package com.sap.scimono.entity.validation.patch;
 import static com.sap.scimono.entity.patch.PatchOperation.Type.ADD;
 import static com.sap.scimono.entity.patch.PatchOperation.Type.REPLACE;
 
+import java.util.List;
+import java.util.function.Function;
+
 import com.sap.scimono.callback.resourcetype.ResourceTypesCallback;
 import com.sap.scimono.callback.schemas.SchemasCallback;
 import com.sap.scimono.entity.patch.PatchOperation;
@@ -13,12 +16,24 @@ import com.sap.scimono.exception.InvalidInputException;
 
 public class PathRemoveRequiredAttributeValidator implements Validator<PatchOperation> {
   private final SchemasCallback schemaAPI;
-  private final ResourceTypesCallback resourceTypeAPI;
+  private final Function<String, List<SchemaExtension>> schemaExtensions;
   private final String resourceType;
 
   public PathRemoveRequiredAttributeValidator(SchemasCallback schemaAPI, ResourceTypesCallback resourceTypeAPI, String resourceType) {
+    this(schemaAPI, resourceTypeId -> resourceTypeAPI.getSchemaExtensions(resourceTypeId), resourceType);
+  }
+
+  /**
+   * @param schemaExtensions the schema extensions of the resource type, read once
+   */
+  public PathRemoveRequiredAttributeValidator(SchemasCallback schemaAPI, List<SchemaExtension> schemaExtensions, String resourceType) {
+    this(schemaAPI, resourceTypeId -> schemaExtensions, resourceType);
+  }
+
+  private PathRemoveRequiredAttributeValidator(SchemasCallback schemaAPI, Function<String, List<SchemaExtension>> schemaExtensions,
+      String resourceType) {
     this.schemaAPI = schemaAPI;
-    this.resourceTypeAPI = resourceTypeAPI;
+    this.schemaExtensions = schemaExtensions;
     this.resourceType = resourceType;
   }
 
@@ -47,7 +62,7 @@ public class PathRemoveRequiredAttributeValidator implements Validator<PatchOper
     }
 
     // @formatter:off
-    boolean isExtensionRequired = resourceTypeAPI.getSchemaExtensions(resourceType).stream()
+    boolean isExtensionRequired = schemaExtensions.apply(resourceType).stream()
         .filter(SchemaExtension::isRequired)
         .map(SchemaExtension::getSchema)
         .anyMatch(schemaUrn::equalsIgnoreCase);
@@ -0,0 +1,57 @@
+
+package com.sap.scimono.entity.validation.patch;
+
+import java.util.Map;
+
+import com.sap.scimono.callback.schemas.SchemasCallback;
+import com.sap.scimono.entity.patch.PatchOperation;
+import com.sap.scimono.entity.schema.Schema;
+import com.sap.scimono.entity.validation.Validator;
+import com.sap.scimono.filter.patch.ValuePathValidationVisitor;
+
+/**
+ * Validates the structure, the filter restrictions and the attributes of a path with a value filter in a single pass over the expression tree
+ * of the path, see {@link PatchOperation#getValuePath()}.
+ */
+public class ValuePathValidator implements Validator<PatchOperation> {
+
+  private final SchemasCallback schemaAPI;
+  private final String coreSchemaId;
+
+  private final PathSchemaExistenceValidator schemaExistenceValidator;
+  private final PathAttributeExistenceValidator attributeExistenceValidator;
+  private final PathMutabilityValidator mutabilityValidator;
+
+  public ValuePathValidator(Map<String, Schema> requiredSchemas, SchemasCallback schemaAPI, String coreSchemaId) {
+    this.schemaAPI = schemaAPI;
+    this.coreSchemaId = coreSchemaId;
+    this.schemaExistenceValidator = new PathSchemaExistenceValidator(requiredSchemas);
+    this.attributeExistenceValidator = new PathAttributeExistenceValidator(schemaAPI);
+    this.mutabilityValidator = new PathMutabilityValidator(schemaAPI);
+  }
+
+  public SchemasCallback getSchemaAPI() {
+    return schemaAPI;
+  }
+
+  public String getCoreSchemaId() {
+    return coreSchemaId;
+  }
+
+  /**
+   * @param attributeOperation the patch operation with the full notation of an attribute of the value path as path
+   * @param validateMutability whether the attribute has to be mutable, which is the case for the attribute the value filter applies to
+   */
+  public void validateAttribute(PatchOperation attributeOperation, boolean validateMutability) {
+    schemaExistenceValidator.validate(attributeOperation);
+    attributeExistenceValidator.validate(attributeOperation);
+    if (validateMutability) {
+      mutabilityValidator.validate(attributeOperation);
+    }
+  }
+
+  @Override
+  public void validate(PatchOperation operation) {
+    operation.getValuePath().accept(new ValuePathValidationVisitor(this, operation));
+  }
+}
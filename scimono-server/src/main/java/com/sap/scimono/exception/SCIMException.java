@@ -55,7 +55,9 @@ public class SCIMException extends WebApplicationException {
     NO_TARGET("noTarget"),
     INVALID_VALUE("invalidValue"),
     INVALID_VERSION("invalidVers"),
-    SENSITIVE("sensitive");
+    SENSITIVE("sensitive"),
+    INVALID_CURSOR("invalidCursor"),
+    EXPIRED_CURSOR("expiredCursor");
     // @formatter:on
 
     private final String jsonRepresentation;
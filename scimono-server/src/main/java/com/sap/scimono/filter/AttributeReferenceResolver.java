@@ -0,0 +1,158 @@
+package com.sap.scimono.filter;
+
+import static com.sap.scimono.callback.schemas.SchemasCallback.SCHEMA_URN_DELIMETER;
+import static com.sap.scimono.entity.definition.ResourceConstants.EXTERNAL_ID_FIELD;
+import static com.sap.scimono.entity.definition.ResourceConstants.ID_FIELD;
+import static com.sap.scimono.entity.definition.ResourceConstants.META_ATTRIBUTES_FIELD;
+import static com.sap.scimono.entity.definition.ResourceConstants.META_CREATED_FIELD;
+import static com.sap.scimono.entity.definition.ResourceConstants.META_FIELD;
+import static com.sap.scimono.entity.definition.ResourceConstants.META_LAST_MODIFIED_FIELD;
+import static com.sap.scimono.entity.definition.ResourceConstants.META_LOCATION_FIELD;
+import static com.sap.scimono.entity.definition.ResourceConstants.META_RESOURCE_TYPE_FIELD;
+import static com.sap.scimono.entity.definition.ResourceConstants.META_VERSION_FIELD;
+import static com.sap.scimono.entity.definition.ResourceConstants.SCHEMAS_FIELD;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.sap.scimono.callback.schemas.SchemaRegistry;
+import com.sap.scimono.entity.definition.ScimAttribute;
+import com.sap.scimono.entity.schema.Attribute;
+import com.sap.scimono.entity.schema.AttributeDataType;
+import com.sap.scimono.entity.schema.AttributePath;
+import com.sap.scimono.exception.InvalidFilterException;
+import com.sap.scimono.filter.expression.AttributeReference;
+
+/**
+ * Resolves the attribute paths of a filter against the core schema of a resource type and the schemas of a {@link SchemaRegistry}. Core
+ * attributes which are not part of the schema definitions, i.e. the common attributes, are resolved with the core attributes of the resource
+ * type.
+ */
+final class AttributeReferenceResolver {
+  private static final Map<String, Attribute> COMMON_ATTRIBUTES = commonAttributes();
+
+  private final CoreAttributeAccessors<?> coreAttributes;
+  private final SchemaRegistry schemaRegistry;
+
+  AttributeReferenceResolver(final CoreAttributeAccessors<?> coreAttributes, final SchemaRegistry schemaRegistry) {
+    this.coreAttributes = coreAttributes;
+    this.schemaRegistry = schemaRegistry;
+  }
+
+  /**
+   * @param attributeNotation short or full attribute notation, as found in the filter
+   * @throws InvalidFilterException if the attribute does not exist
+   */
+  AttributeReference resolve(final String attributeNotation) {
+    AttributePath attributePath = schemaRegistry.getAttributePath(attributeNotation);
+    if (attributePath.getAttributeName() == null) {
+      throw notExistingAttribute(attributeNotation);
+    }
+
+    String schemaId = attributePath.hasSchema() ? attributePath.getSchemaId() : coreAttributes.getSchemaId();
+    return resolve(attributeNotation, schemaId, attributePath.getAttributeNotation());
+  }
+
+  /**
+   * Resolves an attribute path found in the value filter of a complex attribute, e.g. <b>type</b> in <b>emails[type eq "work"]</b>.
+   *
+   * @param parent the complex attribute the value filter is applied to
+   * @param attributeNotation the sub-attribute name, optionally prefixed by the schema and the parent attribute name
+   * @throws InvalidFilterException if the parent attribute cannot have a value filter or the sub-attribute does not exist
+   */
+  AttributeReference resolveSubAttribute(final AttributeReference parent, final String attributeNotation) {
+    if (!parent.isComplex() || parent.hasSubAttribute()) {
+      throw new InvalidFilterException(String.format("Value filter cannot be applied to attribute '%s'", parent));
+    }
+
+    String subAttributeName = getRelativeSubAttributeName(parent, attributeNotation);
+    if (subAttributeName == null) {
+      throw notExistingAttribute(attributeNotation);
+    }
+    return resolve(attributeNotation, parent.getSchemaId(), parent.getAttributeName() + "." + subAttributeName);
+  }
+
+  private String getRelativeSubAttributeName(final AttributeReference parent, final String attributeNotation) {
+    AttributePath attributePath = schemaRegistry.getAttributePath(attributeNotation);
+    if (!attributePath.hasSchema() && !attributePath.hasSubAttribute()) {
+      return attributePath.getAttributeName();
+    }
+
+    boolean isParentSchema = !attributePath.hasSchema() || parent.getSchemaId().equalsIgnoreCase(attributePath.getSchemaId());
+    if (isParentSchema && attributePath.hasSubAttribute() && parent.getAttributeName().equalsIgnoreCase(attributePath.getAttributeName())) {
+      return attributePath.getSubAttributeName();
+    }
+    return null;
+  }
+
+  private AttributeReference resolve(final String attributeNotation, final String schemaId, final String relativeNotation) {
+    List<Attribute> hierarchy = schemaRegistry.getComplexAttributePath(schemaId + SCHEMA_URN_DELIMETER + relativeNotation);
+    if (!hierarchy.isEmpty()) {
+      String canonicalSchemaId = schemaRegistry.getSchema(schemaId).getId();
+      String subAttributeName = hierarchy.size() > 1 ? hierarchy.get(1).getName() : null;
+      return new AttributeReference(attributeNotation, canonicalSchemaId, hierarchy.get(0).getName(), subAttributeName,
+          hierarchy.get(hierarchy.size() - 1));
+    }
+
+    if (!coreAttributes.getSchemaId().equalsIgnoreCase(schemaId)) {
+      throw notExistingAttribute(attributeNotation);
+    }
+    return resolveCommonAttribute(attributeNotation, relativeNotation);
+  }
+
+  private AttributeReference resolveCommonAttribute(final String attributeNotation, final String relativeNotation) {
+    ScimAttribute<?> attribute = coreAttributes.getAttribute(relativeNotation);
+    if (attribute == null) {
+      throw notExistingAttribute(attributeNotation);
+    }
+
+    Attribute definition = COMMON_ATTRIBUTES.get(attribute.relativePath().toLowerCase(Locale.ENGLISH));
+    if (definition == null) {
+      definition = new Attribute.Builder().name(attribute.scimName()).type(AttributeDataType.STRING.toString()).build();
+    }
+
+    if (attribute.isTopLevelAttribute()) {
+      return new AttributeReference(attributeNotation, coreAttributes.getSchemaId(), attribute.scimName(), null, definition);
+    }
+    return new AttributeReference(attributeNotation, coreAttributes.getSchemaId(), attribute.getParent().scimName(), attribute.scimName(),
+        definition);
+  }
+
+  private static InvalidFilterException notExistingAttribute(final String attributeNotation) {
+    return new InvalidFilterException(String.format("Attribute '%s' does not exist", attributeNotation));
+  }
+
+  /**
+   * The common attributes are not part of the core schema definitions.
+   */
+  private static Map<String, Attribute> commonAttributes() {
+    Map<String, Attribute> attributes = new HashMap<>();
+    putCommonAttribute(attributes, ID_FIELD, AttributeDataType.STRING, true, false);
+    putCommonAttribute(attributes, EXTERNAL_ID_FIELD, AttributeDataType.STRING, true, false);
+    putCommonAttribute(attributes, SCHEMAS_FIELD, AttributeDataType.REFERENCE, true, true);
+    putCommonAttribute(attributes, META_FIELD, AttributeDataType.COMPLEX, false, false);
+    putCommonAttribute(attributes, META_FIELD + "." + META_CREATED_FIELD, AttributeDataType.DATE_TIME, false, false);
+    putCommonAttribute(attributes, META_FIELD + "." + META_LAST_MODIFIED_FIELD, AttributeDataType.DATE_TIME, false, false);
+    putCommonAttribute(attributes, META_FIELD + "." + META_RESOURCE_TYPE_FIELD, AttributeDataType.STRING, true, false);
+    putCommonAttribute(attributes, META_FIELD + "." + META_LOCATION_FIELD, AttributeDataType.REFERENCE, true, false);
+    putCommonAttribute(attributes, META_FIELD + "." + META_VERSION_FIELD, AttributeDataType.STRING, true, false);
+    putCommonAttribute(attributes, META_FIELD + "." + META_ATTRIBUTES_FIELD, AttributeDataType.STRING, false, true);
+    return attributes;
+  }
+
+  private static void putCommonAttribute(final Map<String, Attribute> attributes, final String path, final AttributeDataType type,
+      final boolean caseExact, final boolean multiValued) {
+    String name = path.substring(path.lastIndexOf('.') + 1);
+    // @formatter:off
+    Attribute attribute = new Attribute.Builder()
+        .name(name)
+        .type(type.toString())
+        .caseExact(caseExact)
+        .multiValued(multiValued)
+        .build();
+    // @formatter:on
+    attributes.put(path.toLowerCase(Locale.ENGLISH), attribute);
+  }
+}
@@ -0,0 +1,182 @@
+package com.sap.scimono.filter;
+
+import static com.sap.scimono.entity.definition.ResourceConstants.META_ATTRIBUTES_FIELD;
+import static com.sap.scimono.entity.definition.ResourceConstants.META_CREATED_FIELD;
+import static com.sap.scimono.entity.definition.ResourceConstants.META_LAST_MODIFIED_FIELD;
+import static com.sap.scimono.entity.definition.ResourceConstants.META_LOCATION_FIELD;
+import static com.sap.scimono.entity.definition.ResourceConstants.META_RESOURCE_TYPE_FIELD;
+import static com.sap.scimono.entity.definition.ResourceConstants.META_VERSION_FIELD;
+import static com.sap.scimono.entity.definition.ResourceConstants.MultivaluedAttributeConstants.DISPLAY_FIELD;
+import static com.sap.scimono.entity.definition.ResourceConstants.MultivaluedAttributeConstants.OPERATION_FIELD;
+import static com.sap.scimono.entity.definition.ResourceConstants.MultivaluedAttributeConstants.PRIMARY_FIELD;
+import static com.sap.scimono.entity.definition.ResourceConstants.MultivaluedAttributeConstants.REF_FIELD;
+import static com.sap.scimono.entity.definition.ResourceConstants.MultivaluedAttributeConstants.TYPE_FIELD;
+import static com.sap.scimono.entity.definition.ResourceConstants.MultivaluedAttributeConstants.VALUE_FIELD;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.sap.scimono.entity.Address;
+import com.sap.scimono.entity.Email;
+import com.sap.scimono.entity.Entitlement;
+import com.sap.scimono.entity.Group;
+import com.sap.scimono.entity.GroupRef;
+import com.sap.scimono.entity.Im;
+import com.sap.scimono.entity.MemberRef;
+import com.sap.scimono.entity.Meta;
+import com.sap.scimono.entity.Name;
+import com.sap.scimono.entity.PhoneNumber;
+import com.sap.scimono.entity.Photo;
+import com.sap.scimono.entity.Resource;
+import com.sap.scimono.entity.Role;
+import com.sap.scimono.entity.User;
+import com.sap.scimono.entity.X509Certificate;
+import com.sap.scimono.entity.base.MultiValuedAttribute;
+import com.sap.scimono.entity.base.MultiValuedAttributeType;
+import com.sap.scimono.entity.definition.CoreGroupAttributes;
+import com.sap.scimono.entity.definition.CoreUserAttributes;
+import com.sap.scimono.entity.definition.NotExistingScimAttributeException;
+import com.sap.scimono.entity.definition.ScimAttribute;
+import com.sap.scimono.filter.FilterAttribute.Accessor;
+
+/**
+ * Accessors reading the core attributes of users and groups from the entity classes. Top-level attributes are read from the resource,
+ * sub-attributes from the value of their parent, i.e. from the {@link Name}, the {@link Meta} or a single element of a multi-valued
+ * attribute.
+ */
+final class CoreAttributeAccessors<A extends Enum<A> & ScimAttribute<A>> {
+  static final CoreAttributeAccessors<CoreUserAttributes> USER = new CoreAttributeAccessors<>(User.SCHEMA, CoreUserAttributes::from,
+      userAccessors());
+  static final CoreAttributeAccessors<CoreGroupAttributes> GROUP = new CoreAttributeAccessors<>(Group.SCHEMA, CoreGroupAttributes::from,
+      groupAccessors());
+
+  private final String schemaId;
+  private final Function<String, A> attributes;
+  private final Map<A, Accessor> accessors;
+
+  private CoreAttributeAccessors(final String schemaId, final Function<String, A> attributes, final Map<A, Accessor> accessors) {
+    this.schemaId = schemaId;
+    this.attributes = attributes;
+    this.accessors = accessors;
+  }
+
+  String getSchemaId() {
+    return schemaId;
+  }
+
+  /**
+   * @param attributeNotation the attribute name or the dot-separated attribute and sub-attribute name, without schema
+   * @return the core attribute or null if there is no such core attribute
+   */
+  A getAttribute(final String attributeNotation) {
+    try {
+      return attributes.apply(attributeNotation);
+    } catch (NotExistingScimAttributeException e) {
+      return null;
+    }
+  }
+
+  /**
+   * @return the sub-attribute of the provided core attribute or null if there is no such sub-attribute
+   */
+  A getSubAttribute(final A parent, final String subAttributeName) {
+    try {
+      return parent.subAttributeFrom(subAttributeName);
+    } catch (NotExistingScimAttributeException e) {
+      return null;
+    }
+  }
+
+  /**
+   * @return the accessor of the provided core attribute or null if its value is not exposed by the entity class
+   */
+  Accessor getAccessor(final A attribute) {
+    return accessors.get(attribute);
+  }
+
+  private static Map<CoreUserAttributes, Accessor> userAccessors() {
+    Map<CoreUserAttributes, Accessor> accessors = new EnumMap<>(CoreUserAttributes.class);
+    putCommonAttributes(accessors, CoreUserAttributes.ID, CoreUserAttributes.EXTERNAL_ID, CoreUserAttributes.SCHEMAS, CoreUserAttributes.META);
+
+    accessors.put(CoreUserAttributes.USER_NAME, user -> ((User) user).getUserName());
+    accessors.put(CoreUserAttributes.DISPLAY_NAME, user -> ((User) user).getDisplayName());
+    accessors.put(CoreUserAttributes.NICK_NAME, user -> ((User) user).getNickName());
+    accessors.put(CoreUserAttributes.PROFILE_URL, user -> ((User) user).getProfileUrl());
+    accessors.put(CoreUserAttributes.TITLE, user -> ((User) user).getTitle());
+    accessors.put(CoreUserAttributes.USER_TYPE, user -> ((User) user).getUserType());
+    accessors.put(CoreUserAttributes.PREFERRED_LANGUAGE, user -> ((User) user).getPreferredLanguage());
+    accessors.put(CoreUserAttributes.LOCALE, user -> ((User) user).getLocale());
+    accessors.put(CoreUserAttributes.TIMEZONE, user -> ((User) user).getTimezone());
+    accessors.put(CoreUserAttributes.ACTIVE, user -> ((User) user).isActive());
+
+    accessors.put(CoreUserAttributes.NAME, user -> ((User) user).getName());
+    accessors.put(CoreUserAttributes.NAME_FORMATTED, name -> ((Name) name).getFormatted());
+    accessors.put(CoreUserAttributes.NAME_FAMILY_NAME, name -> ((Name) name).getFamilyName());
+    accessors.put(CoreUserAttributes.NAME_GIVEN_NAME, name -> ((Name) name).getGivenName());
+    accessors.put(CoreUserAttributes.NAME_MIDDLE_NAME, name -> ((Name) name).getMiddleName());
+    accessors.put(CoreUserAttributes.NAME_HONORIFIC_PREFIX, name -> ((Name) name).getHonorificPrefix());
+    accessors.put(CoreUserAttributes.NAME_HONORIFIC_SUFFIX, name -> ((Name) name).getHonorificSuffix());
+
+    putMultiValuedAttribute(accessors, CoreUserAttributes.EMAILS, user -> ((User) user).getEmails(), email -> ((Email) email).getType());
+    putMultiValuedAttribute(accessors, CoreUserAttributes.PHONE_NUMBERS, user -> ((User) user).getPhoneNumbers(),
+        phoneNumber -> ((PhoneNumber) phoneNumber).getType());
+    putMultiValuedAttribute(accessors, CoreUserAttributes.IMS, user -> ((User) user).getIms(), im -> ((Im) im).getType());
+    putMultiValuedAttribute(accessors, CoreUserAttributes.PHOTOS, user -> ((User) user).getPhotos(), photo -> ((Photo) photo).getType());
+    putMultiValuedAttribute(accessors, CoreUserAttributes.GROUPS, user -> ((User) user).getGroups(), group -> ((GroupRef) group).getType());
+    putMultiValuedAttribute(accessors, CoreUserAttributes.ENTITLEMENTS, user -> ((User) user).getEntitlements(),
+        entitlement -> ((Entitlement) entitlement).getType());
+    putMultiValuedAttribute(accessors, CoreUserAttributes.ROLES, user -> ((User) user).getRoles(), role -> ((Role) role).getType());
+    putMultiValuedAttribute(accessors, CoreUserAttributes.X509_CERTIFICATES, user -> ((User) user).getX509Certificates(),
+        certificate -> ((X509Certificate) certificate).getType());
+    putMultiValuedAttribute(accessors, CoreUserAttributes.ADDRESSES, user -> ((User) user).getAddresses(),
+        address -> ((Address) address).getType());
+
+    accessors.put(CoreUserAttributes.ADDRESSES_FORMATTED, address -> ((Address) address).getFormatted());
+    accessors.put(CoreUserAttributes.ADDRESSES_STREET_ADDRESS, address -> ((Address) address).getStreetAddress());
+    accessors.put(CoreUserAttributes.ADDRESSES_LOCALITY, address -> ((Address) address).getLocality());
+    accessors.put(CoreUserAttributes.ADDRESSES_REGION, address -> ((Address) address).getRegion());
+    accessors.put(CoreUserAttributes.ADDRESSES_POSTAL_CODE, address -> ((Address) address).getPostalCode());
+    accessors.put(CoreUserAttributes.ADDRESSES_COUNTRY, address -> ((Address) address).getCountry());
+    return accessors;
+  }
+
+  private static Map<CoreGroupAttributes, Accessor> groupAccessors() {
+    Map<CoreGroupAttributes, Accessor> accessors = new EnumMap<>(CoreGroupAttributes.class);
+    putCommonAttributes(accessors, CoreGroupAttributes.ID, CoreGroupAttributes.EXTERNAL_ID, CoreGroupAttributes.SCHEMAS,
+        CoreGroupAttributes.META);
+
+    accessors.put(CoreGroupAttributes.DISPLAY_NAME, group -> ((Group) group).getDisplayName());
+    putMultiValuedAttribute(accessors, CoreGroupAttributes.MEMBERS, group -> ((Group) group).getMembers(), member -> ((MemberRef) member).getType());
+    return accessors;
+  }
+
+  private static <A extends Enum<A> & ScimAttribute<A>> void putCommonAttributes(final Map<A, Accessor> accessors, final A id,
+      final A externalId, final A schemas, final A meta) {
+    accessors.put(id, resource -> ((Resource<?>) resource).getId());
+    accessors.put(externalId, resource -> ((Resource<?>) resource).getExternalId());
+    accessors.put(schemas, resource -> ((Resource<?>) resource).getSchemas());
+
+    accessors.put(meta, resource -> ((Resource<?>) resource).getMeta());
+    accessors.put(meta.subAttributeFrom(META_CREATED_FIELD), metaValue -> ((Meta) metaValue).getCreated());
+    accessors.put(meta.subAttributeFrom(META_LAST_MODIFIED_FIELD), metaValue -> ((Meta) metaValue).getLastModified());
+    accessors.put(meta.subAttributeFrom(META_ATTRIBUTES_FIELD), metaValue -> ((Meta) metaValue).getAttributes());
+    accessors.put(meta.subAttributeFrom(META_RESOURCE_TYPE_FIELD), metaValue -> ((Meta) metaValue).getResourceType());
+    accessors.put(meta.subAttributeFrom(META_LOCATION_FIELD), metaValue -> ((Meta) metaValue).getLocation());
+    accessors.put(meta.subAttributeFrom(META_VERSION_FIELD), metaValue -> ((Meta) metaValue).getVersion());
+  }
+
+  private static <A extends Enum<A> & ScimAttribute<A>> void putMultiValuedAttribute(final Map<A, Accessor> accessors, final A attribute,
+      final Accessor values, final Function<Object, MultiValuedAttributeType> type) {
+    accessors.put(attribute, values);
+    accessors.put(attribute.subAttributeFrom(VALUE_FIELD), element -> ((MultiValuedAttribute) element).getValue());
+    accessors.put(attribute.subAttributeFrom(DISPLAY_FIELD), element -> ((MultiValuedAttribute) element).getDisplay());
+    accessors.put(attribute.subAttributeFrom(PRIMARY_FIELD), element -> ((MultiValuedAttribute) element).isPrimary());
+    accessors.put(attribute.subAttributeFrom(REF_FIELD), element -> ((MultiValuedAttribute) element).getReference());
+    accessors.put(attribute.subAttributeFrom(OPERATION_FIELD), element -> ((MultiValuedAttribute) element).getOperation());
+    accessors.put(attribute.subAttributeFrom(TYPE_FIELD), element -> {
+      MultiValuedAttributeType elementType = type.apply(element);
+      return elementType == null ? null : elementType.getValue();
+    });
+  }
+}
@@ -0,0 +1,122 @@
+package com.sap.scimono.filter;
+
+import static com.sap.scimono.entity.definition.ResourceConstants.MultivaluedAttributeConstants.PRIMARY_FIELD;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import com.sap.scimono.entity.base.MultiValuedAttribute;
+import com.sap.scimono.filter.expression.AttributeReference;
+
+/**
+ * An attribute of a filter bound to the accessors reading its values. Values of multi-valued attributes are iterated in place, reading them
+ * does not allocate.
+ */
+final class FilterAttribute {
+  private final AttributeReference reference;
+  private final Accessor accessor;
+  private final Accessor subAttributeAccessor;
+
+  /**
+   * @param reference the attribute
+   * @param accessor reads the value of the attribute from its owner
+   * @param subAttributeAccessor reads the sub-attribute from the attribute value, or from each value of a multi-valued attribute, or null if
+   *          the attribute value is the compared one
+   */
+  FilterAttribute(final AttributeReference reference, final Accessor accessor, final Accessor subAttributeAccessor) {
+    this.reference = reference;
+    this.accessor = accessor;
+    this.subAttributeAccessor = subAttributeAccessor;
+  }
+
+  AttributeReference getReference() {
+    return reference;
+  }
+
+  /**
+   * Tests the values of the attribute read from the owner. Multi-valued attributes match if any of their values matches, missing values never
+   * match.
+   */
+  boolean anyValueMatches(final Object owner, final Predicate<Object> matcher) {
+    Object value = accessor.get(owner);
+    if (subAttributeAccessor == null) {
+      return anyMatches(value, matcher);
+    }
+
+    if (value instanceof Collection) {
+      for (Object element : (Collection<?>) value) {
+        if (element != null && anyMatches(subAttributeAccessor.get(element), matcher)) {
+          return true;
+        }
+      }
+      return false;
+    }
+    return value != null && anyMatches(subAttributeAccessor.get(value), matcher);
+  }
+
+  private static boolean anyMatches(final Object value, final Predicate<Object> matcher) {
+    if (value instanceof Collection) {
+      for (Object element : (Collection<?>) value) {
+        if (element != null && matcher.test(element)) {
+          return true;
+        }
+      }
+      return false;
+    }
+    return value != null && matcher.test(value);
+  }
+
+  /**
+   * Reads the value resources are sorted by, see RFC 7644, section 3.4.2.3: multi-valued attributes are represented by their primary value or
+   * else by their first value.
+   *
+   * @return the value or null if the attribute has no value
+   */
+  Object getSortValue(final Object owner) {
+    Object value = accessor.get(owner);
+    if (subAttributeAccessor != null) {
+      value = getPrimaryOrFirst(value);
+      value = value == null ? null : subAttributeAccessor.get(value);
+    }
+    return getPrimaryOrFirst(value);
+  }
+
+  private static Object getPrimaryOrFirst(final Object value) {
+    if (!(value instanceof Collection)) {
+      return value;
+    }
+
+    Object first = null;
+    for (Object element : (Collection<?>) value) {
+      if (isPrimary(element)) {
+        return element;
+      }
+      if (first == null) {
+        first = element;
+      }
+    }
+    return first;
+  }
+
+  private static boolean isPrimary(final Object element) {
+    if (element instanceof MultiValuedAttribute) {
+      return Boolean.TRUE.equals(((MultiValuedAttribute) element).isPrimary());
+    }
+    return element instanceof Map && Boolean.TRUE.equals(((Map<?, ?>) element).get(PRIMARY_FIELD));
+  }
+
+  @Override
+  public String toString() {
+    return reference.toString();
+  }
+
+  /**
+   * Reads the value of an attribute from its owner: the resource, the value of a complex attribute or a single element of a multi-valued
+   * attribute.
+   */
+  @FunctionalInterface
+  interface Accessor {
+    Object get(Object owner);
+  }
+}
@@ -0,0 +1,122 @@
+package com.sap.scimono.filter;
+
+import static com.sap.scimono.entity.definition.ResourceConstants.DISPLAY_NAME_FIELD;
+import static com.sap.scimono.entity.definition.ResourceConstants.MultivaluedAttributeConstants.REF_FIELD;
+import static com.sap.scimono.entity.definition.ResourceConstants.MultivaluedAttributeConstants.VALUE_FIELD;
+
+import java.util.Map;
+
+import com.sap.scimono.entity.Manager;
+import com.sap.scimono.entity.Resource;
+import com.sap.scimono.entity.definition.ScimAttribute;
+import com.sap.scimono.exception.InvalidFilterException;
+import com.sap.scimono.filter.FilterAttribute.Accessor;
+import com.sap.scimono.filter.expression.AttributeReference;
+
+/**
+ * Binds the attribute references of a filter to the accessors reading them from the entity classes: core attributes through the
+ * {@link CoreAttributeAccessors} of the resource type, extension attributes through the {@link com.sap.scimono.entity.base.Extension} values.
+ */
+final class FilterAttributeResolver<A extends Enum<A> & ScimAttribute<A>> {
+  private final CoreAttributeAccessors<A> coreAttributes;
+
+  FilterAttributeResolver(final CoreAttributeAccessors<A> coreAttributes) {
+    this.coreAttributes = coreAttributes;
+  }
+
+  /**
+   * @return the attribute, read from the resource
+   * @throws InvalidFilterException if the attribute value is not exposed by the entity classes
+   */
+  FilterAttribute resolve(final AttributeReference reference) {
+    if (!isCoreAttribute(reference)) {
+      Accessor subAttributeAccessor = reference.hasSubAttribute() ? extensionSubAttributeAccessor(reference.getSubAttributeName()) : null;
+      return new FilterAttribute(reference, extensionAccessor(reference.getSchemaId(), reference.getAttributeName()), subAttributeAccessor);
+    }
+
+    A attribute = coreAttributes.getAttribute(reference.getAttributeName());
+    Accessor accessor = getCoreAccessor(reference, attribute);
+    if (!reference.hasSubAttribute()) {
+      return new FilterAttribute(reference, accessor, null);
+    }
+    return new FilterAttribute(reference, accessor, getCoreAccessor(reference, getCoreSubAttribute(reference, attribute)));
+  }
+
+  /**
+   * @param reference a sub-attribute referenced in the value filter of a complex attribute
+   * @return the sub-attribute, read from a single value of the complex attribute
+   * @throws InvalidFilterException if the attribute value is not exposed by the entity classes
+   */
+  FilterAttribute resolveValueFilterAttribute(final AttributeReference reference) {
+    if (!reference.hasSubAttribute()) {
+      throw unsupportedAttribute(reference);
+    }
+
+    if (!isCoreAttribute(reference)) {
+      return new FilterAttribute(reference, extensionSubAttributeAccessor(reference.getSubAttributeName()), null);
+    }
+
+    A subAttribute = getCoreSubAttribute(reference, coreAttributes.getAttribute(reference.getAttributeName()));
+    return new FilterAttribute(reference, getCoreAccessor(reference, subAttribute), null);
+  }
+
+  private boolean isCoreAttribute(final AttributeReference reference) {
+    return coreAttributes.getSchemaId().equalsIgnoreCase(reference.getSchemaId());
+  }
+
+  private A getCoreSubAttribute(final AttributeReference reference, final A attribute) {
+    A subAttribute = attribute == null ? null : coreAttributes.getSubAttribute(attribute, reference.getSubAttributeName());
+    if (subAttribute == null) {
+      throw unsupportedAttribute(reference);
+    }
+    return subAttribute;
+  }
+
+  private Accessor getCoreAccessor(final AttributeReference reference, final A attribute) {
+    Accessor accessor = attribute == null ? null : coreAttributes.getAccessor(attribute);
+    if (accessor == null) {
+      throw unsupportedAttribute(reference);
+    }
+    return accessor;
+  }
+
+  private static Accessor extensionAccessor(final String schemaId, final String attributeName) {
+    return resource -> {
+      Resource<?> extensible = (Resource<?>) resource;
+      return extensible.isExtensionPresent(schemaId) ? extensible.getExtension(schemaId).getAttribute(attributeName) : null;
+    };
+  }
+
+  /**
+   * Extension values are either deserialized as maps or, for the manager of the enterprise extension, as {@link Manager}.
+   */
+  private static Accessor extensionSubAttributeAccessor(final String subAttributeName) {
+    Accessor managerAccessor = managerAccessor(subAttributeName);
+    return value -> {
+      if (value instanceof Map) {
+        return ((Map<?, ?>) value).get(subAttributeName);
+      }
+      if (value instanceof Manager) {
+        return managerAccessor.get(value);
+      }
+      return null;
+    };
+  }
+
+  private static Accessor managerAccessor(final String subAttributeName) {
+    switch (subAttributeName) {
+      case VALUE_FIELD:
+        return manager -> ((Manager) manager).getValue();
+      case DISPLAY_NAME_FIELD:
+        return manager -> ((Manager) manager).getDisplayName();
+      case REF_FIELD:
+        return manager -> ((Manager) manager).getReference();
+      default:
+        return manager -> null;
+    }
+  }
+
+  private static InvalidFilterException unsupportedAttribute(final AttributeReference reference) {
+    return new InvalidFilterException(String.format("Filtering by attribute '%s' is not supported", reference));
+  }
+}
@@ -0,0 +1,47 @@
+package com.sap.scimono.filter;
+
+/**
+ * Snapshot of the parsed filter cache counters, see {@link QueryFilterParser#getCacheStatistics()}.
+ */
+public final class FilterCacheStatistics {
+  private final long hits;
+  private final long misses;
+  private final long evictions;
+  private final int size;
+
+  FilterCacheStatistics(final long hits, final long misses, final long evictions, final int size) {
+    this.hits = hits;
+    this.misses = misses;
+    this.evictions = evictions;
+    this.size = size;
+  }
+
+  public long getHits() {
+    return hits;
+  }
+
+  public long getMisses() {
+    return misses;
+  }
+
+  public long getEvictions() {
+    return evictions;
+  }
+
+  /**
+   * @return the number of filter templates currently in the cache
+   */
+  public int getSize() {
+    return size;
+  }
+
+  public double getHitRatio() {
+    long requests = hits + misses;
+    return requests == 0 ? 0 : (double) hits / requests;
+  }
+
+  @Override
+  public String toString() {
+    return "FilterCacheStatistics [hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + ", size=" + size + "]";
+  }
+}
@@ -0,0 +1,208 @@
+package com.sap.scimono.filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Computes the canonical form of a filter without running the ANTLR lexer. Literal values (strings, numbers and booleans) are replaced by a
+ * placeholder and keywords (comparison operators, <b>pr</b>, <b>and</b>, <b>or</b>, <b>not</b>) are lower-cased, so that e.g.
+ * <b>userName eq "a"</b> and <b>userName EQ "b"</b> share one canonical key. The lifted lexemes are returned in the order in which the
+ * corresponding tokens appear in the parse tree.
+ * <p>
+ * A lexeme is lifted only if it matches the respective lexer rule exactly, so two filters with the same key always produce the same token
+ * types and therefore the same parse tree shape.
+ */
+final class FilterCanonicalizer {
+  private static final char PLACEHOLDER_ESCAPE = '\u0000';
+  private static final char PLACEHOLDER = '?';
+
+  private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList("eq", "ne", "co", "sw", "ew", "gt", "ge", "lt", "le", "pr", "and", "or", "not"));
+
+  private FilterCanonicalizer() {
+  }
+
+  static CanonicalFilter canonicalize(final String filter) {
+    StringBuilder key = new StringBuilder(filter.length());
+    List<String> parameters = new ArrayList<>();
+
+    int length = filter.length();
+    int position = 0;
+    while (position < length) {
+      char current = filter.charAt(position);
+
+      if (current == '"') {
+        int end = findStringEnd(filter, position);
+        if (end < 0) {
+          appendRaw(key, filter, position, length);
+          break;
+        }
+        appendPlaceholder(key);
+        parameters.add(filter.substring(position, end));
+        position = end;
+      } else if (isDelimiter(current)) {
+        appendRaw(key, filter, position, position + 1);
+        position++;
+      } else {
+        int end = position + 1;
+        while (end < length && !isDelimiter(filter.charAt(end)) && filter.charAt(end) != '"') {
+          end++;
+        }
+
+        String word = filter.substring(position, end);
+        String keyword = word.toLowerCase(Locale.ENGLISH);
+        if (KEYWORDS.contains(keyword)) {
+          key.append(keyword);
+          parameters.add(word);
+        } else if (isLiteral(word)) {
+          appendPlaceholder(key);
+          parameters.add(word);
+        } else {
+          appendRaw(key, filter, position, end);
+        }
+        position = end;
+      }
+    }
+
+    return new CanonicalFilter(key.toString(), parameters);
+  }
+
+  private static boolean isDelimiter(final char c) {
+    return c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == '(' || c == ')' || c == '[' || c == ']' || c == '&';
+  }
+
+  private static void appendPlaceholder(final StringBuilder key) {
+    key.append(PLACEHOLDER_ESCAPE).append(PLACEHOLDER);
+  }
+
+  private static void appendRaw(final StringBuilder key, final String filter, final int start, final int end) {
+    for (int i = start; i < end; i++) {
+      char c = filter.charAt(i);
+      if (c == PLACEHOLDER_ESCAPE) {
+        key.append(PLACEHOLDER_ESCAPE);
+      }
+      key.append(c);
+    }
+  }
+
+  /**
+   * Matches the STRING lexer rule: <b>'"' (ESC | SAFECODEPOINT)* '"'</b>.
+   *
+   * @return the index after the closing quote or -1 if the string is not terminated or contains illegal characters
+   */
+  private static int findStringEnd(final String filter, final int start) {
+    int length = filter.length();
+    int position = start + 1;
+    while (position < length) {
+      char c = filter.charAt(position);
+      if (c == '"') {
+        return position + 1;
+      }
+      if (c < 0x20) {
+        return -1;
+      }
+      if (c == '\\') {
+        int escapeLength = getEscapeLength(filter, position + 1);
+        if (escapeLength < 0) {
+          return -1;
+        }
+        position += escapeLength + 1;
+      } else {
+        position++;
+      }
+    }
+    return -1;
+  }
+
+  private static int getEscapeLength(final String filter, final int position) {
+    if (position >= filter.length()) {
+      return -1;
+    }
+
+    char c = filter.charAt(position);
+    if ("\"\\/bfnrt".indexOf(c) >= 0) {
+      return 1;
+    }
+    if (c == 'u' && position + 4 < filter.length()) {
+      for (int i = position + 1; i <= position + 4; i++) {
+        if (Character.digit(filter.charAt(i), 16) < 0) {
+          return -1;
+        }
+      }
+      return 5;
+    }
+    return -1;
+  }
+
+  /**
+   * Matches the INTEGER, DECIMAL and BOOLEAN lexer rules.
+   */
+  private static boolean isLiteral(final String word) {
+    return "true".equalsIgnoreCase(word) || "false".equalsIgnoreCase(word) || isNumber(word);
+  }
+
+  private static boolean isNumber(final String word) {
+    int position = 0;
+    int length = word.length();
+    if (word.charAt(0) == '+' || word.charAt(0) == '-') {
+      position++;
+    }
+
+    int integerDigits = countDigits(word, position);
+    position += integerDigits;
+    if (position == length) {
+      return integerDigits > 0;
+    }
+
+    if (word.charAt(position) != '.') {
+      return false;
+    }
+    int fractionDigits = countDigits(word, ++position);
+    if (fractionDigits == 0) {
+      return false;
+    }
+    position += fractionDigits;
+    if (position == length) {
+      return true;
+    }
+
+    if (word.charAt(position) != 'e' && word.charAt(position) != 'E') {
+      return false;
+    }
+    position++;
+    if (position < length && (word.charAt(position) == '+' || word.charAt(position) == '-')) {
+      position++;
+    }
+    int exponentDigits = countDigits(word, position);
+    return exponentDigits > 0 && position + exponentDigits == length;
+  }
+
+  private static int countDigits(final String word, final int start) {
+    int position = start;
+    while (position < word.length() && word.charAt(position) >= '0' && word.charAt(position) <= '9') {
+      position++;
+    }
+    return position - start;
+  }
+
+  static final class CanonicalFilter {
+    private final String key;
+    private final List<String> parameters;
+
+    private CanonicalFilter(final String key, final List<String> parameters) {
+      this.key = key;
+      this.parameters = parameters;
+    }
+
+    String getKey() {
+      return key;
+    }
+
+    List<String> getParameters() {
+      return parameters;
+    }
+  }
+}
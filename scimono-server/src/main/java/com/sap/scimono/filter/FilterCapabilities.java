@@ -0,0 +1,158 @@
+package com.sap.scimono.filter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import com.sap.scimono.filter.expression.AttributeReference;
+import com.sap.scimono.filter.expression.ComparisonOperator;
+
+/**
+ * Declares which parts of a filter a callback evaluates itself, e.g. because its backend indexes them. Parts of a filter which are not
+ * supported are applied by the server to the resources returned by the callback, see {@link FilterPlanner}.
+ * <p>
+ * Attributes are declared by their short notation, e.g. <b>emails.value</b>, which refers to the core schema of the resource type, or by
+ * their full notation, e.g. <b>urn:ietf:params:scim:schemas:extension:enterprise:2.0:User:employeeNumber</b>.
+ */
+public final class FilterCapabilities {
+  private static final FilterCapabilities ALL = new FilterCapabilities(true, Collections.emptyMap(), Collections.emptySet(), true, true);
+  private static final FilterCapabilities NONE = new FilterCapabilities(false, Collections.emptyMap(), Collections.emptySet(), false, false);
+
+  private final boolean supportsAll;
+  private final Map<String, Set<ComparisonOperator>> comparisons;
+  private final Set<String> presentAttributes;
+  private final boolean supportsOr;
+  private final boolean supportsNot;
+
+  private FilterCapabilities(final boolean supportsAll, final Map<String, Set<ComparisonOperator>> comparisons,
+      final Set<String> presentAttributes, final boolean supportsOr, final boolean supportsNot) {
+    this.supportsAll = supportsAll;
+    this.comparisons = comparisons;
+    this.presentAttributes = presentAttributes;
+    this.supportsOr = supportsOr;
+    this.supportsNot = supportsNot;
+  }
+
+  /**
+   * @return the capabilities of a callback which evaluates any filter
+   */
+  public static FilterCapabilities all() {
+    return ALL;
+  }
+
+  /**
+   * @return the capabilities of a callback which does not evaluate filters, all filters are applied by the server
+   */
+  public static FilterCapabilities none() {
+    return NONE;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public boolean supportsAll() {
+    return supportsAll;
+  }
+
+  public boolean supportsOr() {
+    return supportsOr;
+  }
+
+  public boolean supportsNot() {
+    return supportsNot;
+  }
+
+  /**
+   * @param coreSchemaId the core schema of the filtered resource type
+   */
+  public boolean supportsComparison(final AttributeReference attribute, final ComparisonOperator operator, final String coreSchemaId) {
+    if (supportsAll) {
+      return true;
+    }
+    Set<ComparisonOperator> operators = findDeclaration(comparisons, attribute, coreSchemaId);
+    return operators != null && operators.contains(operator);
+  }
+
+  /**
+   * @param coreSchemaId the core schema of the filtered resource type
+   */
+  public boolean supportsPresent(final AttributeReference attribute, final String coreSchemaId) {
+    if (supportsAll) {
+      return true;
+    }
+    return presentAttributes.contains(toKey(attribute.getFullAttributeNotation()))
+        || isCoreAttribute(attribute, coreSchemaId) && presentAttributes.contains(toKey(attribute.getAttributeNotation()));
+  }
+
+  private static <V> V findDeclaration(final Map<String, V> declarations, final AttributeReference attribute, final String coreSchemaId) {
+    V declaration = declarations.get(toKey(attribute.getFullAttributeNotation()));
+    if (declaration == null && isCoreAttribute(attribute, coreSchemaId)) {
+      declaration = declarations.get(toKey(attribute.getAttributeNotation()));
+    }
+    return declaration;
+  }
+
+  private static boolean isCoreAttribute(final AttributeReference attribute, final String coreSchemaId) {
+    return attribute.getSchemaId().equalsIgnoreCase(coreSchemaId);
+  }
+
+  private static String toKey(final String attributeNotation) {
+    return attributeNotation.toLowerCase(Locale.ENGLISH);
+  }
+
+  public static class Builder {
+    private final Map<String, Set<ComparisonOperator>> comparisons = new HashMap<>();
+    private final Set<String> presentAttributes = new HashSet<>();
+    private boolean supportsOr;
+    private boolean supportsNot;
+
+    private Builder() {
+    }
+
+    /**
+     * @param attributeNotation the short or full attribute notation
+     * @param operators the operators the attribute can be compared with
+     */
+    public Builder comparison(final String attributeNotation, final ComparisonOperator... operators) {
+      comparisons.computeIfAbsent(toKey(attributeNotation), key -> EnumSet.noneOf(ComparisonOperator.class)).addAll(Arrays.asList(operators));
+      return this;
+    }
+
+    /**
+     * @param attributeNotation the short or full notation of an attribute which can be tested with the <b>pr</b> operator
+     */
+    public Builder present(final String attributeNotation) {
+      presentAttributes.add(toKey(attributeNotation));
+      return this;
+    }
+
+    /**
+     * Declares that disjunctions of supported expressions are supported.
+     */
+    public Builder or() {
+      supportsOr = true;
+      return this;
+    }
+
+    /**
+     * Declares that negations of supported expressions are supported.
+     */
+    public Builder not() {
+      supportsNot = true;
+      return this;
+    }
+
+    public FilterCapabilities build() {
+      Map<String, Set<ComparisonOperator>> declaredComparisons = new HashMap<>();
+      comparisons.forEach((attribute, operators) -> declaredComparisons.put(attribute, Collections.unmodifiableSet(EnumSet.copyOf(operators))));
+      return new FilterCapabilities(false, Collections.unmodifiableMap(declaredComparisons), Collections.unmodifiableSet(new HashSet<>(presentAttributes)),
+          supportsOr, supportsNot);
+    }
+  }
+}
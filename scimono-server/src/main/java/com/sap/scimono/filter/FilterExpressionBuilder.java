@@ -0,0 +1,169 @@
+package com.sap.scimono.filter;
+
+import static com.sap.scimono.entity.definition.ResourceConstants.MultivaluedAttributeConstants.VALUE_FIELD;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+import com.sap.scimono.SCIMFilterParser;
+import com.sap.scimono.exception.InvalidFilterException;
+import com.sap.scimono.filter.expression.AttributeReference;
+import com.sap.scimono.filter.expression.ComparisonExpression;
+import com.sap.scimono.filter.expression.ComparisonOperator;
+import com.sap.scimono.filter.expression.FilterExpression;
+import com.sap.scimono.filter.expression.LogicalExpression;
+import com.sap.scimono.filter.expression.LogicalOperator;
+import com.sap.scimono.filter.expression.NotExpression;
+import com.sap.scimono.filter.expression.PresentExpression;
+import com.sap.scimono.filter.expression.ValuePathExpression;
+
+/**
+ * Builds the {@link FilterExpression} of a filter from its expression tree. Attribute paths are resolved and literals are converted to the
+ * attribute types, filters which are syntactically valid but reference unknown attributes or compare incompatible values are rejected.
+ */
+class FilterExpressionBuilder extends QueryFilterVisitor<FilterExpression, FilterExpression> {
+  private final AttributeReferenceResolver attributeResolver;
+  private final AttributeReference valueFilterScope;
+  private FilterExpression expression;
+
+  FilterExpressionBuilder(final AttributeReferenceResolver attributeResolver) {
+    this(attributeResolver, null);
+  }
+
+  private FilterExpressionBuilder(final AttributeReferenceResolver attributeResolver, final AttributeReference valueFilterScope) {
+    this.attributeResolver = attributeResolver;
+    this.valueFilterScope = valueFilterScope;
+  }
+
+  @Override
+  public FilterExpression getParsedFilter() {
+    if (expression == null) {
+      throw new InvalidFilterException("Filter expression is empty");
+    }
+    return expression;
+  }
+
+  @Override
+  public FilterExpression visitParse(final SCIMFilterParser.ParseContext ctx) {
+    expression = visit(ctx.filter());
+    return expression;
+  }
+
+  @Override
+  public FilterExpression visitAttrExpression(final SCIMFilterParser.AttrExpressionContext ctx) {
+    return visit(ctx.attrExp());
+  }
+
+  @Override
+  public FilterExpression visitValuePathExpression(final SCIMFilterParser.ValuePathExpressionContext ctx) {
+    return visit(ctx.valuePath());
+  }
+
+  @Override
+  public FilterExpression visitAndExpression(final SCIMFilterParser.AndExpressionContext ctx) {
+    return new LogicalExpression(LogicalOperator.AND, visit(ctx.filter(0)), visit(ctx.filter(1)));
+  }
+
+  @Override
+  public FilterExpression visitOrExpression(final SCIMFilterParser.OrExpressionContext ctx) {
+    return new LogicalExpression(LogicalOperator.OR, visit(ctx.filter(0)), visit(ctx.filter(1)));
+  }
+
+  @Override
+  public FilterExpression visitBraceExpression(final SCIMFilterParser.BraceExpressionContext ctx) {
+    FilterExpression inner = visit(ctx.filter());
+    return ctx.NOT() == null ? inner : new NotExpression(inner);
+  }
+
+  @Override
+  public FilterExpression visitValAttrExpression(final SCIMFilterParser.ValAttrExpressionContext ctx) {
+    return visit(ctx.attrExp());
+  }
+
+  @Override
+  public FilterExpression visitValValuePathExpression(final SCIMFilterParser.ValValuePathExpressionContext ctx) {
+    throw new InvalidFilterException("Value filters cannot be nested");
+  }
+
+  @Override
+  public FilterExpression visitValAndExpression(final SCIMFilterParser.ValAndExpressionContext ctx) {
+    return new LogicalExpression(LogicalOperator.AND, visit(ctx.valFilter(0)), visit(ctx.valFilter(1)));
+  }
+
+  @Override
+  public FilterExpression visitValOrExpression(final SCIMFilterParser.ValOrExpressionContext ctx) {
+    return new LogicalExpression(LogicalOperator.OR, visit(ctx.valFilter(0)), visit(ctx.valFilter(1)));
+  }
+
+  @Override
+  public FilterExpression visitValBraceExpression(final SCIMFilterParser.ValBraceExpressionContext ctx) {
+    FilterExpression inner = visit(ctx.valFilter());
+    return ctx.NOT() == null ? inner : new NotExpression(inner);
+  }
+
+  @Override
+  public FilterExpression visitPresentExpression(final SCIMFilterParser.PresentExpressionContext ctx) {
+    return new PresentExpression(resolve(ctx.attrPath()));
+  }
+
+  @Override
+  public FilterExpression visitLogExpression(final SCIMFilterParser.LogExpressionContext ctx) {
+    AttributeReference attribute = resolveComparedAttribute(ctx.attrPath());
+    ComparisonOperator operator = ComparisonOperator.from(ctx.OPERATOR().getText());
+    return new ComparisonExpression(attribute, operator, FilterLiterals.parse(attribute, operator, ctx.PARAM().getText()));
+  }
+
+  @Override
+  public FilterExpression visitValuePath(final SCIMFilterParser.ValuePathContext ctx) {
+    if (valueFilterScope != null) {
+      throw new InvalidFilterException("Value filters cannot be nested");
+    }
+    if (ctx.SUBATTRNAME() != null) {
+      throw new InvalidFilterException(String.format("Sub-attribute '%s' is not allowed after a value filter", ctx.SUBATTRNAME().getText()));
+    }
+
+    AttributeReference attribute = resolve(ctx.attrPath());
+    if (!attribute.isComplex() || attribute.hasSubAttribute()) {
+      throw new InvalidFilterException(String.format("Value filter cannot be applied to attribute '%s'", attribute));
+    }
+
+    SCIMFilterParser.ValExpressionContext valExpression = ctx.valExpression();
+    SCIMFilterParser.ValFilterContext valFilter = valExpression == null ? ctx.valFilter() : valExpression.valFilter();
+    FilterExpression valueFilter = valFilter == null ? null : new FilterExpressionBuilder(attributeResolver, attribute).visit(valFilter);
+    if (valExpression == null) {
+      return new ValuePathExpression(attribute, valueFilter);
+    }
+    return new ValuePathExpression(attribute, valueFilter, getPagingParameters(valExpression.pagingQuery()));
+  }
+
+  private static Map<String, String> getPagingParameters(final SCIMFilterParser.PagingQueryContext ctx) {
+    Map<String, String> pagingParameters = new LinkedHashMap<>();
+    for (TerminalNode assignment : ctx.PAGING_ASSIGNMENT()) {
+      String text = assignment.getText();
+      int separator = text.indexOf('=');
+      pagingParameters.put(text.substring(0, separator), text.substring(separator + 1));
+    }
+    return pagingParameters;
+  }
+
+  /**
+   * Multi-valued complex attributes are compared by their <b>value</b> sub-attribute, e.g. <b>emails co "example.com"</b>.
+   */
+  private AttributeReference resolveComparedAttribute(final SCIMFilterParser.AttrPathContext ctx) {
+    AttributeReference attribute = resolve(ctx);
+    if (valueFilterScope == null && attribute.isComplex() && !attribute.hasSubAttribute() && attribute.getDefinition().isMultiValued()) {
+      return attributeResolver.resolve(ctx.getText() + "." + VALUE_FIELD);
+    }
+    return attribute;
+  }
+
+  private AttributeReference resolve(final SCIMFilterParser.AttrPathContext ctx) {
+    String attributeNotation = ctx.getText();
+    if (valueFilterScope == null) {
+      return attributeResolver.resolve(attributeNotation);
+    }
+    return attributeResolver.resolveSubAttribute(valueFilterScope, attributeNotation);
+  }
+}
@@ -0,0 +1,66 @@
+package com.sap.scimono.filter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.sap.scimono.callback.schemas.SchemaRegistry;
+import com.sap.scimono.exception.InvalidFilterException;
+import com.sap.scimono.filter.expression.FilterExpression;
+
+/**
+ * Parses SCIM filters into validated {@link FilterExpression}s of a resource type. Parsed expressions are cached per filter and schema
+ * registry, so a filter is parsed and validated once as long as the schemas do not change.
+ */
+public final class FilterExpressionParser {
+  private static final int MAX_CACHED_EXPRESSIONS = 1024;
+
+  private static final FilterExpressionParser USERS = new FilterExpressionParser(CoreAttributeAccessors.USER);
+  private static final FilterExpressionParser GROUPS = new FilterExpressionParser(CoreAttributeAccessors.GROUP);
+
+  private final CoreAttributeAccessors<?> coreAttributes;
+  private final Map<String, ParsedFilter> expressions = new ConcurrentHashMap<>();
+
+  private FilterExpressionParser(final CoreAttributeAccessors<?> coreAttributes) {
+    this.coreAttributes = coreAttributes;
+  }
+
+  public static FilterExpressionParser forUsers() {
+    return USERS;
+  }
+
+  public static FilterExpressionParser forGroups() {
+    return GROUPS;
+  }
+
+  /**
+   * @param filter the incoming filter query (needs to be decoded)
+   * @param schemaRegistry the schemas the attributes of the filter are resolved against
+   * @return the parsed filter
+   * @throws InvalidFilterException if the filter cannot be parsed, references unknown attributes or compares them with incompatible values
+   */
+  public FilterExpression parse(final String filter, final SchemaRegistry schemaRegistry) {
+    ParsedFilter parsedFilter = expressions.get(filter);
+    if (parsedFilter != null && parsedFilter.schemaRegistry == schemaRegistry) {
+      return parsedFilter.expression;
+    }
+
+    FilterExpressionBuilder builder = new FilterExpressionBuilder(new AttributeReferenceResolver(coreAttributes, schemaRegistry));
+    QueryFilterParser.parseTree(filter).accept(builder);
+    FilterExpression expression = builder.getParsedFilter();
+
+    if (parsedFilter != null || expressions.size() < MAX_CACHED_EXPRESSIONS) {
+      expressions.put(filter, new ParsedFilter(schemaRegistry, expression));
+    }
+    return expression;
+  }
+
+  private static final class ParsedFilter {
+    private final SchemaRegistry schemaRegistry;
+    private final FilterExpression expression;
+
+    private ParsedFilter(final SchemaRegistry schemaRegistry, final FilterExpression expression) {
+      this.schemaRegistry = schemaRegistry;
+      this.expression = expression;
+    }
+  }
+}
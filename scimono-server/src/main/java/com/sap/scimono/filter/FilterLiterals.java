@@ -0,0 +1,149 @@
+package com.sap.scimono.filter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+
+import com.sap.scimono.entity.schema.AttributeDataType;
+import com.sap.scimono.exception.InvalidFilterException;
+import com.sap.scimono.filter.expression.AttributeReference;
+import com.sap.scimono.filter.expression.ComparisonExpression;
+import com.sap.scimono.filter.expression.ComparisonOperator;
+
+/**
+ * Converts the literals of a filter to the type of the compared attribute, see {@link ComparisonExpression}, and rejects operators which
+ * cannot be applied to it (RFC 7644, section 3.4.2.2). Non-string literals may be quoted, e.g. <b>active eq "true"</b>.
+ */
+final class FilterLiterals {
+
+  private FilterLiterals() {
+  }
+
+  /**
+   * @param attribute the compared attribute
+   * @param operator the comparison operator
+   * @param literal the literal as found in the filter
+   * @return the typed literal
+   * @throws InvalidFilterException if the operator or the literal cannot be applied to the attribute
+   */
+  static Object parse(final AttributeReference attribute, final ComparisonOperator operator, final String literal) {
+    AttributeDataType type = attribute.getType();
+    switch (type) {
+      case STRING:
+      case REFERENCE:
+      case BINARY:
+        if (type == AttributeDataType.BINARY && operator.isOrdering()) {
+          throw unsupportedOperator(attribute, operator);
+        }
+        return unquote(literal);
+      case BOOLEAN:
+        if (operator != ComparisonOperator.EQ && operator != ComparisonOperator.NE) {
+          throw unsupportedOperator(attribute, operator);
+        }
+        return parseBoolean(attribute, unquote(literal));
+      case INTEGER:
+      case DECIMAL:
+        if (operator.isSubstring()) {
+          throw unsupportedOperator(attribute, operator);
+        }
+        return parseNumber(attribute, unquote(literal));
+      case DATE_TIME:
+        if (operator.isSubstring()) {
+          throw unsupportedOperator(attribute, operator);
+        }
+        return parseDateTime(attribute, unquote(literal));
+      default:
+        throw new InvalidFilterException(String.format("Complex attribute '%s' cannot be compared, use one of its sub-attributes", attribute));
+    }
+  }
+
+  private static Boolean parseBoolean(final AttributeReference attribute, final String literal) {
+    if (Boolean.TRUE.toString().equalsIgnoreCase(literal)) {
+      return Boolean.TRUE;
+    }
+    if (Boolean.FALSE.toString().equalsIgnoreCase(literal)) {
+      return Boolean.FALSE;
+    }
+    throw invalidLiteral(attribute, literal);
+  }
+
+  private static BigDecimal parseNumber(final AttributeReference attribute, final String literal) {
+    try {
+      return new BigDecimal(literal);
+    } catch (NumberFormatException e) {
+      throw invalidLiteral(attribute, literal);
+    }
+  }
+
+  private static Instant parseDateTime(final AttributeReference attribute, final String literal) {
+    try {
+      return OffsetDateTime.parse(literal).toInstant();
+    } catch (DateTimeParseException e) {
+      throw invalidLiteral(attribute, literal);
+    }
+  }
+
+  private static String unquote(final String literal) {
+    if (literal.length() < 2 || literal.charAt(0) != '"') {
+      return literal;
+    }
+    return unescape(literal.substring(1, literal.length() - 1));
+  }
+
+  /**
+   * Resolves the JSON escape sequences the filter grammar allows in string literals.
+   */
+  private static String unescape(final String value) {
+    int escape = value.indexOf('\\');
+    if (escape < 0) {
+      return value;
+    }
+
+    StringBuilder unescaped = new StringBuilder(value.length());
+    unescaped.append(value, 0, escape);
+    for (int i = escape; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c != '\\' || i + 1 == value.length()) {
+        unescaped.append(c);
+        continue;
+      }
+
+      char escaped = value.charAt(++i);
+      switch (escaped) {
+        case 'b':
+          unescaped.append('\b');
+          break;
+        case 'f':
+          unescaped.append('\f');
+          break;
+        case 'n':
+          unescaped.append('\n');
+          break;
+        case 'r':
+          unescaped.append('\r');
+          break;
+        case 't':
+          unescaped.append('\t');
+          break;
+        case 'u':
+          unescaped.append((char) Integer.parseInt(value.substring(i + 1, i + 5), 16));
+          i += 4;
+          break;
+        default:
+          unescaped.append(escaped);
+      }
+    }
+    return unescaped.toString();
+  }
+
+  private static InvalidFilterException unsupportedOperator(final AttributeReference attribute, final ComparisonOperator operator) {
+    return new InvalidFilterException(String.format("Operator '%s' cannot be applied to attribute '%s' of type %s", operator, attribute,
+        attribute.getType()));
+  }
+
+  private static InvalidFilterException invalidLiteral(final AttributeReference attribute, final String literal) {
+    return new InvalidFilterException(String.format("Value '%s' is not valid for attribute '%s' of type %s", literal, attribute,
+        attribute.getType()));
+  }
+}
@@ -0,0 +1,46 @@
+package com.sap.scimono.filter;
+
+import com.sap.scimono.filter.expression.FilterExpression;
+
+/**
+ * A filter split by {@link FilterPlanner} into the part evaluated by the callback and the residual part applied by the server to the
+ * resources returned by the callback. Resources match the filter if they match both parts.
+ */
+public final class FilterPlan {
+  private static final FilterPlan EMPTY = new FilterPlan(null, null);
+
+  private final FilterExpression pushdownFilter;
+  private final FilterExpression residualFilter;
+
+  FilterPlan(final FilterExpression pushdownFilter, final FilterExpression residualFilter) {
+    this.pushdownFilter = pushdownFilter;
+    this.residualFilter = residualFilter;
+  }
+
+  static FilterPlan empty() {
+    return EMPTY;
+  }
+
+  /**
+   * @return the filter handed to the callback or null if the callback has to return all resources
+   */
+  public FilterExpression getPushdownFilter() {
+    return pushdownFilter;
+  }
+
+  /**
+   * @return the filter applied by the server to the resources returned by the callback or null if there is none
+   */
+  public FilterExpression getResidualFilter() {
+    return residualFilter;
+  }
+
+  public boolean hasResidualFilter() {
+    return residualFilter != null;
+  }
+
+  @Override
+  public String toString() {
+    return "FilterPlan [pushdownFilter=" + pushdownFilter + ", residualFilter=" + residualFilter + "]";
+  }
+}
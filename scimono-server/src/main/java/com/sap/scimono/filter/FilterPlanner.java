@@ -0,0 +1,122 @@
+package com.sap.scimono.filter;
+
+import com.sap.scimono.filter.expression.ComparisonExpression;
+import com.sap.scimono.filter.expression.FilterExpression;
+import com.sap.scimono.filter.expression.FilterExpressionVisitor;
+import com.sap.scimono.filter.expression.LogicalExpression;
+import com.sap.scimono.filter.expression.LogicalOperator;
+import com.sap.scimono.filter.expression.NotExpression;
+import com.sap.scimono.filter.expression.PresentExpression;
+import com.sap.scimono.filter.expression.ValuePathExpression;
+
+/**
+ * Splits a filter into the part a callback evaluates, according to its {@link FilterCapabilities}, and a residual part applied by the server.
+ * The pushed down filter selects a superset of the matching resources:
+ * <ul>
+ * <li>the supported operands of a conjunction are pushed down, the others become the residual filter</li>
+ * <li>a disjunction of partially supported operands is pushed down as the disjunction of their supported parts and applied entirely as
+ * residual filter</li>
+ * <li>negations and value filters are pushed down only if they are supported entirely, the values of a complex attribute cannot be matched by
+ * two independent filters</li>
+ * </ul>
+ */
+public final class FilterPlanner {
+  private static final FilterPlanner USERS = new FilterPlanner(CoreAttributeAccessors.USER.getSchemaId());
+  private static final FilterPlanner GROUPS = new FilterPlanner(CoreAttributeAccessors.GROUP.getSchemaId());
+
+  private final String coreSchemaId;
+
+  private FilterPlanner(final String coreSchemaId) {
+    this.coreSchemaId = coreSchemaId;
+  }
+
+  public static FilterPlanner forUsers() {
+    return USERS;
+  }
+
+  public static FilterPlanner forGroups() {
+    return GROUPS;
+  }
+
+  /**
+   * @param filter the parsed filter or null if there is no filter
+   * @param capabilities the parts of filters the callback evaluates
+   * @return the plan splitting the filter
+   */
+  public FilterPlan plan(final FilterExpression filter, final FilterCapabilities capabilities) {
+    if (filter == null) {
+      return FilterPlan.empty();
+    }
+    if (capabilities.supportsAll()) {
+      return new FilterPlan(filter, null);
+    }
+    return filter.accept(new PlanningVisitor(capabilities));
+  }
+
+  private class PlanningVisitor implements FilterExpressionVisitor<FilterPlan> {
+    private final FilterCapabilities capabilities;
+
+    PlanningVisitor(final FilterCapabilities capabilities) {
+      this.capabilities = capabilities;
+    }
+
+    @Override
+    public FilterPlan visitComparison(final ComparisonExpression expression) {
+      return planEntirely(expression, capabilities.supportsComparison(expression.getAttribute(), expression.getOperator(), coreSchemaId));
+    }
+
+    @Override
+    public FilterPlan visitPresent(final PresentExpression expression) {
+      return planEntirely(expression, capabilities.supportsPresent(expression.getAttribute(), coreSchemaId));
+    }
+
+    @Override
+    public FilterPlan visitLogical(final LogicalExpression expression) {
+      FilterPlan left = expression.getLeft().accept(this);
+      FilterPlan right = expression.getRight().accept(this);
+
+      if (expression.getOperator() == LogicalOperator.AND) {
+        return new FilterPlan(and(left.getPushdownFilter(), right.getPushdownFilter()), and(left.getResidualFilter(), right.getResidualFilter()));
+      }
+
+      if (!capabilities.supportsOr() || left.getPushdownFilter() == null || right.getPushdownFilter() == null) {
+        return new FilterPlan(null, expression);
+      }
+      if (!left.hasResidualFilter() && !right.hasResidualFilter()) {
+        return new FilterPlan(expression, null);
+      }
+      return new FilterPlan(new LogicalExpression(LogicalOperator.OR, left.getPushdownFilter(), right.getPushdownFilter()), expression);
+    }
+
+    @Override
+    public FilterPlan visitNot(final NotExpression expression) {
+      return planEntirely(expression, capabilities.supportsNot() && isSupportedEntirely(expression.getOperand()));
+    }
+
+    @Override
+    public FilterPlan visitValuePath(final ValuePathExpression expression) {
+      if (!expression.hasValueFilter()) {
+        return planEntirely(expression, capabilities.supportsPresent(expression.getAttribute(), coreSchemaId));
+      }
+      return planEntirely(expression, isSupportedEntirely(expression.getValueFilter()));
+    }
+
+    private boolean isSupportedEntirely(final FilterExpression expression) {
+      return !expression.accept(this).hasResidualFilter();
+    }
+
+    private FilterPlan planEntirely(final FilterExpression expression, final boolean isSupported) {
+      return isSupported ? new FilterPlan(expression, null) : new FilterPlan(null, expression);
+    }
+
+    private FilterExpression and(final FilterExpression left, final FilterExpression right) {
+      if (left == null) {
+        return right;
+      }
+      if (right == null) {
+        return left;
+      }
+      return new LogicalExpression(LogicalOperator.AND, left, right);
+    }
+  }
+}
@@ -0,0 +1,108 @@
+package com.sap.scimono.filter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import com.sap.scimono.callback.schemas.SchemaRegistry;
+import com.sap.scimono.callback.schemas.SchemasCallback;
+import com.sap.scimono.entity.Group;
+import com.sap.scimono.entity.Resource;
+import com.sap.scimono.entity.User;
+import com.sap.scimono.entity.definition.ScimAttribute;
+import com.sap.scimono.exception.InvalidFilterException;
+import com.sap.scimono.filter.expression.FilterExpression;
+
+/**
+ * Compiles SCIM filters into predicates which can be evaluated against resources held in memory, e.g. by callbacks without a query capable
+ * backend. Attributes are resolved and literals converted to the attribute types once, when parsing, and compiled predicates are cached per
+ * filter expression, so they can be shared between requests and threads.
+ * <p>
+ * Comparisons follow RFC 7644, section 3.4.2.2: string comparisons respect the case exactness of the attribute, multi-valued attributes match
+ * if any of their values matches and complex multi-valued attributes are compared by their <b>value</b> sub-attribute.
+ * <p>
+ * The cache is dropped whenever the schemas callback returns another {@link SchemaRegistry}, use the callback of
+ * {@link com.sap.scimono.SCIMApplication#getCompiledSchemasCallback()} to keep it between calls.
+ *
+ * @param <T> the resource type the filters are applied to
+ */
+public final class FilterPredicateCompiler<T extends Resource<T>> {
+  private static final int MAX_CACHED_PREDICATES = 1024;
+
+  private final FilterExpressionParser parser;
+  private final FilterAttributeResolver<?> attributeResolver;
+  private final SchemasCallback schemaAPI;
+  private final Map<FilterExpression, Predicate<T>> predicates = new ConcurrentHashMap<>();
+  private volatile SchemaRegistry cachedSchemaRegistry;
+
+  private FilterPredicateCompiler(final FilterExpressionParser parser, final CoreAttributeAccessors<?> coreAttributes,
+      final SchemasCallback schemaAPI) {
+    this.parser = parser;
+    this.attributeResolver = createAttributeResolver(coreAttributes);
+    this.schemaAPI = schemaAPI;
+  }
+
+  public static FilterPredicateCompiler<User> forUsers(final SchemasCallback schemaAPI) {
+    return new FilterPredicateCompiler<>(FilterExpressionParser.forUsers(), CoreAttributeAccessors.USER, schemaAPI);
+  }
+
+  public static FilterPredicateCompiler<Group> forGroups(final SchemasCallback schemaAPI) {
+    return new FilterPredicateCompiler<>(FilterExpressionParser.forGroups(), CoreAttributeAccessors.GROUP, schemaAPI);
+  }
+
+  /**
+   * @param filter the incoming filter query (needs to be decoded), null matches all resources
+   * @return the predicate matching the resources selected by the filter
+   * @throws InvalidFilterException if the filter cannot be parsed or references unknown attributes
+   */
+  public Predicate<T> compile(final String filter) {
+    if (filter == null) {
+      return resource -> true;
+    }
+    return compile(parser.parse(filter, getSchemaRegistry()));
+  }
+
+  /**
+   * @param filter the parsed filter, e.g. as handed to the users or groups callback, null matches all resources
+   * @return the predicate matching the resources selected by the filter
+   * @throws InvalidFilterException if the filter references attributes which are not exposed by the entity classes
+   */
+  public Predicate<T> compile(final FilterExpression filter) {
+    if (filter == null) {
+      return resource -> true;
+    }
+
+    Predicate<T> predicate = predicates.get(filter);
+    if (predicate != null) {
+      return predicate;
+    }
+
+    Predicate<Object> compiledFilter = filter.accept(new FilterPredicateVisitor(attributeResolver));
+    predicate = compiledFilter::test;
+    if (predicates.size() < MAX_CACHED_PREDICATES) {
+      predicates.putIfAbsent(filter, predicate);
+    }
+    return predicate;
+  }
+
+  /**
+   * Compiled predicates depend on the schema definitions, they are dropped once the schemas change.
+   */
+  private SchemaRegistry getSchemaRegistry() {
+    SchemaRegistry schemaRegistry = schemaAPI.getSchemaRegistry();
+    if (schemaRegistry != cachedSchemaRegistry) {
+      synchronized (this) {
+        if (schemaRegistry != cachedSchemaRegistry) {
+          predicates.clear();
+          cachedSchemaRegistry = schemaRegistry;
+        }
+      }
+    }
+    return schemaRegistry;
+  }
+
+  private static <A extends Enum<A> & ScimAttribute<A>> FilterAttributeResolver<A> createAttributeResolver(
+      final CoreAttributeAccessors<A> coreAttributes) {
+    return new FilterAttributeResolver<>(coreAttributes);
+  }
+}
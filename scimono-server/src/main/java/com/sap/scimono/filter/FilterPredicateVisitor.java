@@ -0,0 +1,79 @@
+package com.sap.scimono.filter;
+
+import java.util.function.Predicate;
+
+import com.sap.scimono.filter.expression.AttributeReference;
+import com.sap.scimono.filter.expression.ComparisonExpression;
+import com.sap.scimono.filter.expression.ComparisonOperator;
+import com.sap.scimono.filter.expression.FilterExpressionVisitor;
+import com.sap.scimono.filter.expression.LogicalExpression;
+import com.sap.scimono.filter.expression.LogicalOperator;
+import com.sap.scimono.filter.expression.NotExpression;
+import com.sap.scimono.filter.expression.PresentExpression;
+import com.sap.scimono.filter.expression.ValuePathExpression;
+
+/**
+ * Builds a predicate over resources from a filter expression. Attributes inside a value filter, e.g. <b>emails[type eq "work"]</b>, are
+ * tested against the single values of the filtered attribute.
+ */
+class FilterPredicateVisitor implements FilterExpressionVisitor<Predicate<Object>> {
+  private final FilterAttributeResolver<?> attributeResolver;
+  private final boolean isValueFilter;
+
+  FilterPredicateVisitor(final FilterAttributeResolver<?> attributeResolver) {
+    this(attributeResolver, false);
+  }
+
+  private FilterPredicateVisitor(final FilterAttributeResolver<?> attributeResolver, final boolean isValueFilter) {
+    this.attributeResolver = attributeResolver;
+    this.isValueFilter = isValueFilter;
+  }
+
+  @Override
+  public Predicate<Object> visitComparison(final ComparisonExpression expression) {
+    FilterAttribute attribute = resolve(expression.getAttribute());
+    ComparisonOperator operator = expression.getOperator();
+    ComparisonOperator matchedOperator = operator == ComparisonOperator.NE ? ComparisonOperator.EQ : operator;
+    Predicate<Object> matcher = FilterValueMatchers.compile(expression.getAttribute(), matchedOperator, expression.getValue());
+
+    Predicate<Object> comparison = owner -> attribute.anyValueMatches(owner, matcher);
+    return operator == ComparisonOperator.NE ? comparison.negate() : comparison;
+  }
+
+  @Override
+  public Predicate<Object> visitPresent(final PresentExpression expression) {
+    FilterAttribute attribute = resolve(expression.getAttribute());
+    return owner -> attribute.anyValueMatches(owner, FilterValueMatchers::isPresent);
+  }
+
+  @Override
+  public Predicate<Object> visitLogical(final LogicalExpression expression) {
+    Predicate<Object> left = expression.getLeft().accept(this);
+    Predicate<Object> right = expression.getRight().accept(this);
+    return expression.getOperator() == LogicalOperator.AND ? left.and(right) : left.or(right);
+  }
+
+  @Override
+  public Predicate<Object> visitNot(final NotExpression expression) {
+    return expression.getOperand().accept(this).negate();
+  }
+
+  /**
+   * Paging parameters of the values do not select resources, a value path without value filter matches resources having any value.
+   */
+  @Override
+  public Predicate<Object> visitValuePath(final ValuePathExpression expression) {
+    FilterAttribute attribute = attributeResolver.resolve(expression.getAttribute());
+    Predicate<Object> valueFilter;
+    if (expression.hasValueFilter()) {
+      valueFilter = expression.getValueFilter().accept(new FilterPredicateVisitor(attributeResolver, true));
+    } else {
+      valueFilter = value -> true;
+    }
+    return owner -> attribute.anyValueMatches(owner, valueFilter);
+  }
+
+  private FilterAttribute resolve(final AttributeReference reference) {
+    return isValueFilter ? attributeResolver.resolveValueFilterAttribute(reference) : attributeResolver.resolve(reference);
+  }
+}
@@ -0,0 +1,218 @@
+package com.sap.scimono.filter;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.antlr.v4.runtime.tree.TerminalNodeImpl;
+
+import com.sap.scimono.SCIMFilterParser;
+import com.sap.scimono.filter.FilterCanonicalizer.CanonicalFilter;
+
+/**
+ * Bounded LRU cache of parsed filter trees, keyed on the canonical filter form. A cached tree is a template: on a hit it is copied and the
+ * tokens lifted by {@link FilterCanonicalizer} (literals and keywords) are replaced with the lexemes of the requested filter. The copy is
+ * handed to the caller, so visitors may keep references to the tree they visited.
+ * <p>
+ * Only the text of the replaced tokens is updated, their start and stop indexes still refer to the filter the template was parsed from.
+ */
+class FilterTemplateCache {
+  private static final Map<Class<?>, Constructor<?>> CONTEXT_CONSTRUCTORS = new ConcurrentHashMap<>();
+
+  private final Map<String, Template> templates;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  FilterTemplateCache(final int maxSize) {
+    this.templates = new LinkedHashMap<String, Template>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, Template> eldest) {
+        boolean evict = size() > maxSize;
+        if (evict) {
+          evictions.incrementAndGet();
+        }
+        return evict;
+      }
+    };
+  }
+
+  /**
+   * @return a copy of the cached tree bound to the parameters of the provided filter or null if there is no template for its canonical form
+   */
+  SCIMFilterParser.ParseContext get(final CanonicalFilter filter) {
+    Template template;
+    synchronized (templates) {
+      template = templates.get(filter.getKey());
+    }
+
+    if (template == null || template.parameterCount != filter.getParameters().size()) {
+      misses.incrementAndGet();
+      return null;
+    }
+
+    hits.incrementAndGet();
+    return (SCIMFilterParser.ParseContext) copy(template.parseTree, null, filter.getParameters().iterator(), new IdentityHashMap<>());
+  }
+
+  /**
+   * Caches a copy of a freshly parsed tree as template for its canonical form, the tree itself remains the caller's. Trees whose lifted
+   * tokens do not line up with the canonicalized lexemes are not cached.
+   */
+  void put(final CanonicalFilter filter, final SCIMFilterParser.ParseContext parseTree) {
+    List<TerminalNode> liftedTerminals = new ArrayList<>();
+    collectLiftedTerminals(parseTree, liftedTerminals);
+
+    List<String> parameters = filter.getParameters();
+    if (liftedTerminals.size() != parameters.size()) {
+      return;
+    }
+    for (int i = 0; i < parameters.size(); i++) {
+      if (!parameters.get(i).equals(liftedTerminals.get(i).getText())) {
+        return;
+      }
+    }
+
+    ParserRuleContext template = copy(parseTree, null, parameters.iterator(), new IdentityHashMap<>());
+    synchronized (templates) {
+      templates.put(filter.getKey(), new Template((SCIMFilterParser.ParseContext) template, parameters.size()));
+    }
+  }
+
+  void clear() {
+    synchronized (templates) {
+      templates.clear();
+      hits.set(0);
+      misses.set(0);
+      evictions.set(0);
+    }
+  }
+
+  FilterCacheStatistics getStatistics() {
+    int size;
+    synchronized (templates) {
+      size = templates.size();
+    }
+    return new FilterCacheStatistics(hits.get(), misses.get(), evictions.get(), size);
+  }
+
+  private static boolean isLifted(final Token token) {
+    switch (token.getType()) {
+      case SCIMFilterParser.PARAM:
+      case SCIMFilterParser.OPERATOR:
+      case SCIMFilterParser.PRESENT:
+      case SCIMFilterParser.AND:
+      case SCIMFilterParser.OR:
+      case SCIMFilterParser.NOT:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private static void collectLiftedTerminals(final ParseTree tree, final List<TerminalNode> liftedTerminals) {
+    for (int i = 0; i < tree.getChildCount(); i++) {
+      ParseTree child = tree.getChild(i);
+      if (child instanceof TerminalNode) {
+        if (isLifted(((TerminalNode) child).getSymbol())) {
+          liftedTerminals.add((TerminalNode) child);
+        }
+      } else {
+        collectLiftedTerminals(child, liftedTerminals);
+      }
+    }
+  }
+
+  private static ParserRuleContext copy(final ParserRuleContext source, final ParserRuleContext parent, final Iterator<String> parameters,
+      final Map<Token, Token> replacedTokens) {
+    ParserRuleContext target = newContext(source, parent);
+
+    if (source.children != null) {
+      for (ParseTree child : source.children) {
+        if (child instanceof TerminalNode) {
+          target.addChild(new TerminalNodeImpl(bind(((TerminalNode) child).getSymbol(), parameters, replacedTokens)));
+        } else {
+          target.addChild(copy((ParserRuleContext) child, target, parameters, replacedTokens));
+        }
+      }
+    }
+
+    target.start = replacedTokens.getOrDefault(source.start, source.start);
+    target.stop = replacedTokens.getOrDefault(source.stop, source.stop);
+    return target;
+  }
+
+  private static Token bind(final Token token, final Iterator<String> parameters, final Map<Token, Token> replacedTokens) {
+    if (!isLifted(token)) {
+      return token;
+    }
+
+    String text = parameters.next();
+    if (text.equals(token.getText())) {
+      return token;
+    }
+
+    CommonToken boundToken = new CommonToken(token);
+    boundToken.setText(text);
+    replacedTokens.put(token, boundToken);
+    return boundToken;
+  }
+
+  /**
+   * Instantiates a context of the same generated class as the source. Contexts of unlabeled rules are created with their
+   * <b>(parent, invokingState)</b> constructor, labeled alternatives with their copy constructor.
+   */
+  private static ParserRuleContext newContext(final ParserRuleContext source, final ParserRuleContext parent) {
+    Constructor<?> constructor = CONTEXT_CONSTRUCTORS.computeIfAbsent(source.getClass(), FilterTemplateCache::findConstructor);
+
+    try {
+      ParserRuleContext target;
+      if (constructor.getParameterCount() == 2) {
+        target = (ParserRuleContext) constructor.newInstance(parent, source.invokingState);
+      } else {
+        target = (ParserRuleContext) constructor.newInstance(source);
+        target.parent = parent;
+        target.children = null;
+      }
+      return target;
+    } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+      throw new IllegalStateException("Cannot copy parse tree node " + source.getClass().getName(), e);
+    }
+  }
+
+  private static Constructor<?> findConstructor(final Class<?> contextClass) {
+    try {
+      return contextClass.getConstructor(ParserRuleContext.class, int.class);
+    } catch (NoSuchMethodException e) {
+      try {
+        return contextClass.getConstructor(contextClass.getSuperclass());
+      } catch (NoSuchMethodException e1) {
+        throw new IllegalStateException("Cannot copy parse tree node " + contextClass.getName(), e1);
+      }
+    }
+  }
+
+  private static class Template {
+    private final SCIMFilterParser.ParseContext parseTree;
+    private final int parameterCount;
+
+    private Template(final SCIMFilterParser.ParseContext parseTree, final int parameterCount) {
+      this.parseTree = parseTree;
+      this.parameterCount = parameterCount;
+    }
+  }
+}
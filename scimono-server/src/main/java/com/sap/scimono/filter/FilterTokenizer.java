@@ -0,0 +1,355 @@
+package com.sap.scimono.filter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.Token;
+
+import com.sap.scimono.SCIMFilterLexer;
+
+/**
+ * Hand-written equivalent of the generated {@link SCIMFilterLexer}. It follows the same rules as the ANTLR lexer - the longest match wins and
+ * ties are resolved in favour of the rule defined first in <b>SCIMFilter.g4</b> - and produces tokens of the same types. Whitespace which the
+ * lexer skips (anything but a single space) is skipped as well.
+ */
+final class FilterTokenizer {
+  private static final String[] PAGING_PARAMS = { "startIndex", "startId", "count" };
+  private static final String[] OPERATORS = { "eq", "ew", "sw", "co", "gt", "ge", "lt", "le", "ne" };
+
+  private final String filter;
+  private final List<Token> tokens = new ArrayList<>();
+  private int position;
+  private int line = 1;
+  private int lineStart;
+
+  private FilterTokenizer(final String filter) {
+    this.filter = filter;
+  }
+
+  /**
+   * @param filter the filter to tokenize
+   * @return the tokens or null if the filter contains characters which the lexer would not recognize
+   */
+  static List<Token> tokenize(final String filter) {
+    FilterTokenizer tokenizer = new FilterTokenizer(filter);
+    return tokenizer.tokenize() ? tokenizer.tokens : null;
+  }
+
+  private boolean tokenize() {
+    while (position < filter.length()) {
+      char current = filter.charAt(position);
+      switch (current) {
+        case '(':
+          addToken(SCIMFilterLexer.T__0, 1);
+          break;
+        case ')':
+          addToken(SCIMFilterLexer.T__1, 1);
+          break;
+        case '&':
+          addToken(SCIMFilterLexer.T__2, 1);
+          break;
+        case '[':
+          addToken(SCIMFilterLexer.LEFT_BRACKET, 1);
+          break;
+        case ']':
+          addToken(SCIMFilterLexer.RIGHT_BRACKET, 1);
+          break;
+        case ' ':
+        case '\t':
+        case '\r':
+        case '\n':
+          whitespace();
+          break;
+        case '"':
+          if (!addToken(SCIMFilterLexer.PARAM, matchString(position))) {
+            return false;
+          }
+          break;
+        default:
+          if (isAlpha(current)) {
+            word();
+          } else if (!addToken(SCIMFilterLexer.PARAM, matchNumber(position))
+              && !addToken(SCIMFilterLexer.SUBATTRNAME, matchSubAttributeName(position))) {
+            return false;
+          }
+      }
+    }
+    return true;
+  }
+
+  private void whitespace() {
+    int end = position;
+    while (end < filter.length() && isWhitespace(filter.charAt(end))) {
+      if (filter.charAt(end) == '\n') {
+        line++;
+        lineStart = end + 1;
+      }
+      end++;
+    }
+
+    if (end - position == 1 && filter.charAt(position) == ' ') {
+      addToken(SCIMFilterLexer.SP, 1);
+    } else {
+      position = end;
+    }
+  }
+
+  private void word() {
+    int attributeNameLength = matchAttributeName(position);
+    char next = position + attributeNameLength < filter.length() ? filter.charAt(position + attributeNameLength) : ' ';
+
+    // only a URI or a paging assignment can be longer than the attribute name, and only if it is followed by one of their characters
+    if (next == '=' && addToken(SCIMFilterLexer.PAGING_ASSIGNMENT, matchPagingAssignment(position))) {
+      return;
+    }
+    if ((next == ':' || next == '.' || next == '+') && addToken(SCIMFilterLexer.URI, matchUri(position))) {
+      return;
+    }
+    addToken(getKeywordType(attributeNameLength), attributeNameLength);
+  }
+
+  /**
+   * Resolves an alphanumeric word to the first lexer rule matching it completely.
+   */
+  private int getKeywordType(final int length) {
+    switch (length) {
+      case 2:
+        if (matchesIgnoreCase("or", length)) {
+          return SCIMFilterLexer.OR;
+        }
+        if (matchesIgnoreCase("pr", length)) {
+          return SCIMFilterLexer.PRESENT;
+        }
+        for (String operator : OPERATORS) {
+          if (matchesIgnoreCase(operator, length)) {
+            return SCIMFilterLexer.OPERATOR;
+          }
+        }
+        return SCIMFilterLexer.ATTRNAME;
+      case 3:
+        if (matchesIgnoreCase("and", length)) {
+          return SCIMFilterLexer.AND;
+        }
+        return matchesIgnoreCase("not", length) ? SCIMFilterLexer.NOT : SCIMFilterLexer.ATTRNAME;
+      case 4:
+        return matchesIgnoreCase("true", length) ? SCIMFilterLexer.PARAM : SCIMFilterLexer.ATTRNAME;
+      case 5:
+        if (filter.startsWith("count", position)) {
+          return SCIMFilterLexer.PAGING_PARAMS;
+        }
+        return matchesIgnoreCase("false", length) ? SCIMFilterLexer.PARAM : SCIMFilterLexer.ATTRNAME;
+      case 7:
+        return filter.startsWith("startId", position) ? SCIMFilterLexer.PAGING_PARAMS : SCIMFilterLexer.ATTRNAME;
+      case 10:
+        return filter.startsWith("startIndex", position) ? SCIMFilterLexer.PAGING_PARAMS : SCIMFilterLexer.ATTRNAME;
+      default:
+        return SCIMFilterLexer.ATTRNAME;
+    }
+  }
+
+  private boolean matchesIgnoreCase(final String keyword, final int length) {
+    return keyword.length() == length && filter.regionMatches(true, position, keyword, 0, length);
+  }
+
+  private boolean addToken(final int type, final int length) {
+    if (length <= 0) {
+      return false;
+    }
+
+    CommonToken token = new CommonToken(type, filter.substring(position, position + length));
+    token.setStartIndex(position);
+    token.setStopIndex(position + length - 1);
+    token.setLine(line);
+    token.setCharPositionInLine(position - lineStart);
+    token.setTokenIndex(tokens.size());
+    tokens.add(token);
+
+    position += length;
+    return true;
+  }
+
+  /**
+   * ATTRNAME: ALPHA ('-' | '_' | DIGIT | ALPHA)*
+   */
+  private int matchAttributeName(final int start) {
+    if (start >= filter.length() || !isAlpha(filter.charAt(start))) {
+      return 0;
+    }
+
+    int end = start + 1;
+    while (end < filter.length() && isAttributeNameChar(filter.charAt(end))) {
+      end++;
+    }
+    return end - start;
+  }
+
+  /**
+   * SUBATTRNAME: '.' ATTRNAME
+   */
+  private int matchSubAttributeName(final int start) {
+    if (filter.charAt(start) != '.') {
+      return 0;
+    }
+
+    int attributeNameLength = matchAttributeName(start + 1);
+    return attributeNameLength == 0 ? 0 : attributeNameLength + 1;
+  }
+
+  /**
+   * URI: ALPHA (ALPHA | DIGIT | '+' | '-' | '.')* ':' (ALPHA | DIGIT | '-' | '.' | '_' | '~' | ':' | '@')+ ':'
+   */
+  private int matchUri(final int start) {
+    int end = start + 1;
+    while (end < filter.length() && isSchemeChar(filter.charAt(end))) {
+      end++;
+    }
+    if (end >= filter.length() || filter.charAt(end) != ':') {
+      return 0;
+    }
+
+    int bodyStart = end + 1;
+    int lastDelimiter = -1;
+    for (int i = bodyStart; i < filter.length() && isUriBodyChar(filter.charAt(i)); i++) {
+      if (filter.charAt(i) == ':' && i > bodyStart) {
+        lastDelimiter = i;
+      }
+    }
+    return lastDelimiter < 0 ? 0 : lastDelimiter + 1 - start;
+  }
+
+  /**
+   * PAGING_ASSIGNMENT: PAGING_PARAMS '=' UNRESERVED+
+   */
+  private int matchPagingAssignment(final int start) {
+    for (String pagingParam : PAGING_PARAMS) {
+      int assignment = start + pagingParam.length();
+      if (filter.startsWith(pagingParam, start) && assignment < filter.length() && filter.charAt(assignment) == '=') {
+        int end = assignment + 1;
+        while (end < filter.length() && isUnreserved(filter.charAt(end))) {
+          end++;
+        }
+        return end > assignment + 1 ? end - start : 0;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * STRING: '"' (ESC | SAFECODEPOINT)* '"'
+   */
+  private int matchString(final int start) {
+    int end = start + 1;
+    while (end < filter.length()) {
+      char c = filter.charAt(end);
+      if (c == '"') {
+        return end + 1 - start;
+      }
+      if (c < 0x20) {
+        return 0;
+      }
+      if (c == '\\') {
+        int escapeLength = matchEscape(end + 1);
+        if (escapeLength == 0) {
+          return 0;
+        }
+        end += escapeLength + 1;
+      } else {
+        end++;
+      }
+    }
+    return 0;
+  }
+
+  private int matchEscape(final int start) {
+    if (start >= filter.length()) {
+      return 0;
+    }
+
+    char c = filter.charAt(start);
+    if ("\"\\/bfnrt".indexOf(c) >= 0) {
+      return 1;
+    }
+    if (c != 'u' || start + 4 >= filter.length()) {
+      return 0;
+    }
+    for (int i = start + 1; i <= start + 4; i++) {
+      if (!isHex(filter.charAt(i))) {
+        return 0;
+      }
+    }
+    return 5;
+  }
+
+  /**
+   * The longest of INTEGER: [+-]? DIGIT+ and DECIMAL: [+-]? DIGIT* '.' DIGIT+ ( [eE] [+-]? DIGIT+ )?
+   */
+  private int matchNumber(final int start) {
+    int end = start;
+    if (end < filter.length() && (filter.charAt(end) == '+' || filter.charAt(end) == '-')) {
+      end++;
+    }
+
+    int integerEnd = skipDigits(end);
+    int longest = integerEnd > end ? integerEnd : start;
+
+    if (integerEnd < filter.length() && filter.charAt(integerEnd) == '.') {
+      int fractionEnd = skipDigits(integerEnd + 1);
+      if (fractionEnd > integerEnd + 1) {
+        longest = fractionEnd;
+
+        if (fractionEnd < filter.length() && (filter.charAt(fractionEnd) == 'e' || filter.charAt(fractionEnd) == 'E')) {
+          int exponentStart = fractionEnd + 1;
+          if (exponentStart < filter.length() && (filter.charAt(exponentStart) == '+' || filter.charAt(exponentStart) == '-')) {
+            exponentStart++;
+          }
+          int exponentEnd = skipDigits(exponentStart);
+          if (exponentEnd > exponentStart) {
+            longest = exponentEnd;
+          }
+        }
+      }
+    }
+    return longest - start;
+  }
+
+  private int skipDigits(final int start) {
+    int end = start;
+    while (end < filter.length() && isDigit(filter.charAt(end))) {
+      end++;
+    }
+    return end;
+  }
+
+  private static boolean isAlpha(final char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+  }
+
+  private static boolean isDigit(final char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean isHex(final char c) {
+    return isDigit(c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+  }
+
+  private static boolean isWhitespace(final char c) {
+    return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+  }
+
+  private static boolean isAttributeNameChar(final char c) {
+    return isAlpha(c) || isDigit(c) || c == '-' || c == '_';
+  }
+
+  private static boolean isSchemeChar(final char c) {
+    return isAlpha(c) || isDigit(c) || c == '+' || c == '-' || c == '.';
+  }
+
+  private static boolean isUriBodyChar(final char c) {
+    return isAlpha(c) || isDigit(c) || c == '-' || c == '.' || c == '_' || c == '~' || c == ':' || c == '@';
+  }
+
+  private static boolean isUnreserved(final char c) {
+    return isAlpha(c) || isDigit(c) || c == '-' || c == '.' || c == '_' || c == '~';
+  }
+}
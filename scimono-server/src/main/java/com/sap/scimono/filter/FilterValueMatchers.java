@@ -0,0 +1,239 @@
+package com.sap.scimono.filter;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAccessor;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import com.sap.scimono.entity.Manager;
+import com.sap.scimono.entity.Name;
+import com.sap.scimono.exception.InvalidFilterException;
+import com.sap.scimono.filter.expression.AttributeReference;
+import com.sap.scimono.filter.expression.ComparisonExpression;
+import com.sap.scimono.filter.expression.ComparisonOperator;
+
+/**
+ * Compiles the comparison of a filter into a predicate over a single attribute value. Literals are already converted to the attribute type,
+ * see {@link ComparisonExpression}, so evaluating the predicate does not allocate for values of the expected type.
+ */
+final class FilterValueMatchers {
+  private static final int INCOMPARABLE = Integer.MIN_VALUE;
+
+  private FilterValueMatchers() {
+  }
+
+  /**
+   * Matches values which are neither null nor empty.
+   */
+  static boolean isPresent(final Object value) {
+    if (value == null) {
+      return false;
+    }
+    if (value instanceof String) {
+      return !((String) value).isEmpty();
+    }
+    if (value instanceof Collection) {
+      return !((Collection<?>) value).isEmpty();
+    }
+    if (value instanceof Map) {
+      return !((Map<?, ?>) value).isEmpty();
+    }
+    if (value instanceof Name) {
+      return !((Name) value).isEmpty();
+    }
+    if (value instanceof Manager) {
+      return !((Manager) value).isEmpty();
+    }
+    return true;
+  }
+
+  /**
+   * @param attribute the compared attribute
+   * @param operator any operator but {@link ComparisonOperator#NE}, which is the negation of {@link ComparisonOperator#EQ}
+   * @param expected the typed literal of the filter
+   * @return the predicate over a single value of the attribute
+   * @throws InvalidFilterException if the operator cannot be applied to the literal, e.g. any operator but EQ to a boolean
+   */
+  static Predicate<Object> compile(final AttributeReference attribute, final ComparisonOperator operator, final Object expected) {
+    if (expected instanceof String) {
+      return stringMatcher(operator, (String) expected, attribute.getDefinition().isCaseExact());
+    }
+    if (expected instanceof Boolean) {
+      return booleanMatcher(attribute, operator, (Boolean) expected);
+    }
+    if (expected instanceof BigDecimal) {
+      return numberMatcher(operator, (BigDecimal) expected);
+    }
+    if (expected instanceof Instant) {
+      return dateTimeMatcher(operator, (Instant) expected);
+    }
+    throw new InvalidFilterException(String.format("Value '%s' cannot be compared with attribute '%s'", expected, attribute));
+  }
+
+  private static Predicate<Object> stringMatcher(final ComparisonOperator operator, final String expected, final boolean caseExact) {
+    switch (operator) {
+      case EQ:
+        return caseExact ? value -> expected.equals(asString(value)) : value -> expected.equalsIgnoreCase(asString(value));
+      case CO:
+        return caseExact ? value -> asString(value).contains(expected) : value -> containsIgnoreCase(asString(value), expected);
+      case SW:
+        return value -> asString(value).regionMatches(!caseExact, 0, expected, 0, expected.length());
+      case EW:
+        return value -> {
+          String actual = asString(value);
+          int offset = actual.length() - expected.length();
+          return offset >= 0 && actual.regionMatches(!caseExact, offset, expected, 0, expected.length());
+        };
+      default:
+        if (caseExact) {
+          return value -> matches(operator, asString(value).compareTo(expected));
+        }
+        return value -> matches(operator, String.CASE_INSENSITIVE_ORDER.compare(asString(value), expected));
+    }
+  }
+
+  private static boolean containsIgnoreCase(final String value, final String expected) {
+    int lastOffset = value.length() - expected.length();
+    for (int offset = 0; offset <= lastOffset; offset++) {
+      if (value.regionMatches(true, offset, expected, 0, expected.length())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  static String asString(final Object value) {
+    return value instanceof String ? (String) value : value.toString();
+  }
+
+  private static Predicate<Object> booleanMatcher(final AttributeReference attribute, final ComparisonOperator operator,
+      final Boolean expected) {
+    if (operator != ComparisonOperator.EQ) {
+      throw new InvalidFilterException(String.format("Operator '%s' cannot be applied to boolean value '%s' of attribute '%s'", operator,
+          expected, attribute));
+    }
+    String expectedText = expected.toString();
+    return value -> value instanceof Boolean ? expected.equals(value) : expectedText.equalsIgnoreCase(asString(value));
+  }
+
+  private static Predicate<Object> numberMatcher(final ComparisonOperator operator, final BigDecimal expected) {
+    boolean isIntegral = expected.signum() == 0 || expected.stripTrailingZeros().scale() <= 0;
+    boolean fitsLong = isIntegral && expected.compareTo(BigDecimal.valueOf(Long.MIN_VALUE)) >= 0
+        && expected.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) <= 0;
+    long expectedLong = fitsLong ? expected.longValue() : 0;
+    double expectedDouble = expected.doubleValue();
+
+    return value -> {
+      int comparison = compareNumber(value, expected, fitsLong, expectedLong, expectedDouble);
+      return comparison != INCOMPARABLE && matches(operator, comparison);
+    };
+  }
+
+  private static int compareNumber(final Object value, final BigDecimal expected, final boolean fitsLong, final long expectedLong,
+      final double expectedDouble) {
+    if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+      long actual = ((Number) value).longValue();
+      return fitsLong ? Long.compare(actual, expectedLong) : BigDecimal.valueOf(actual).compareTo(expected);
+    }
+    if (value instanceof Double || value instanceof Float) {
+      double actual = ((Number) value).doubleValue();
+      return Double.isNaN(actual) ? INCOMPARABLE : Integer.signum(Double.compare(actual, expectedDouble));
+    }
+    if (value instanceof BigDecimal) {
+      return ((BigDecimal) value).compareTo(expected);
+    }
+    if (value instanceof BigInteger) {
+      return new BigDecimal((BigInteger) value).compareTo(expected);
+    }
+    if (value instanceof String) {
+      try {
+        return new BigDecimal((String) value).compareTo(expected);
+      } catch (NumberFormatException e) {
+        return INCOMPARABLE;
+      }
+    }
+    return INCOMPARABLE;
+  }
+
+  /**
+   * @return the number or null if the value is not a finite number
+   */
+  static BigDecimal toDecimal(final Object value) {
+    if (value instanceof BigDecimal) {
+      return (BigDecimal) value;
+    }
+    if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+      return BigDecimal.valueOf(((Number) value).longValue());
+    }
+    if (value instanceof Double || value instanceof Float) {
+      double number = ((Number) value).doubleValue();
+      return Double.isNaN(number) || Double.isInfinite(number) ? null : BigDecimal.valueOf(number);
+    }
+    if (value instanceof BigInteger) {
+      return new BigDecimal((BigInteger) value);
+    }
+    if (value instanceof String) {
+      try {
+        return new BigDecimal((String) value);
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    }
+    return null;
+  }
+
+  private static Predicate<Object> dateTimeMatcher(final ComparisonOperator operator, final Instant expected) {
+    return value -> {
+      Instant actual = toInstant(value);
+      return actual != null && matches(operator, Integer.signum(actual.compareTo(expected)));
+    };
+  }
+
+  /**
+   * @return the instant or null if the value is not a date time
+   */
+  static Instant toInstant(final Object value) {
+    if (value instanceof Instant) {
+      return (Instant) value;
+    }
+    if (value instanceof Date) {
+      return ((Date) value).toInstant();
+    }
+    if (value instanceof TemporalAccessor) {
+      try {
+        return Instant.from((TemporalAccessor) value);
+      } catch (RuntimeException e) {
+        return null;
+      }
+    }
+    if (value instanceof String) {
+      try {
+        return OffsetDateTime.parse((String) value).toInstant();
+      } catch (DateTimeParseException e) {
+        return null;
+      }
+    }
+    return null;
+  }
+
+  private static boolean matches(final ComparisonOperator operator, final int comparison) {
+    switch (operator) {
+      case GT:
+        return comparison > 0;
+      case GE:
+        return comparison >= 0;
+      case LT:
+        return comparison < 0;
+      case LE:
+        return comparison <= 0;
+      default:
+        return comparison == 0;
+    }
+  }
+}
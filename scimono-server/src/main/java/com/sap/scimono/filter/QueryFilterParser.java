@@ -1,9 +1,9 @@
-
 package com.sap.scimono.filter;
 
 import com.sap.scimono.SCIMFilterBaseVisitor;
 import com.sap.scimono.SCIMFilterLexer;
 import com.sap.scimono.SCIMFilterParser;
+import com.sap.scimono.filter.FilterCanonicalizer.CanonicalFilter;
 import org.antlr.v4.runtime.BailErrorStrategy;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
@@ -11,6 +11,10 @@ import org.antlr.v4.runtime.atn.PredictionMode;
 
 public class QueryFilterParser {
   private static final boolean TWO_STAGE_PARSING = false;
+  private static final boolean RECURSIVE_DESCENT_PARSING = true;
+  private static final int FILTER_CACHE_SIZE = 1024;
+
+  private static final FilterTemplateCache FILTER_CACHE = new FilterTemplateCache(FILTER_CACHE_SIZE);
 
   private QueryFilterParser() {
   }
@@ -27,7 +31,61 @@ public class QueryFilterParser {
       return null;
     }
 
-    SCIMFilterLexer lexer = new SCIMFilterLexer(CharStreams.fromString(filter.trim()));
+    return visitor.visit(parseTree(filter));
+  }
+
+  /**
+   * Returns the expression tree of the provided filter. Filters which differ from an already parsed one only in their literal values or in the
+   * case of their operators are served from a cache, without lexing and parsing them again. Every call returns a new tree which the caller
+   * may visit as often as needed.
+   * <p>
+   * Filters are parsed by a hand-written recursive descent parser, which produces the same tree as the generated ANTLR parser. Filters it does
+   * not accept are handed to the ANTLR parser.
+   *
+   * @param filter the incoming filter query (needs to be decoded)
+   * @return the expression tree
+   */
+  public static SCIMFilterParser.ParseContext parseTree(final String filter) {
+    String trimmedFilter = filter.trim();
+    CanonicalFilter canonicalFilter = FilterCanonicalizer.canonicalize(trimmedFilter);
+
+    SCIMFilterParser.ParseContext parseTree = FILTER_CACHE.get(canonicalFilter);
+    if (parseTree != null) {
+      return parseTree;
+    }
+
+    parseTree = RECURSIVE_DESCENT_PARSING ? RecursiveDescentFilterParser.parse(trimmedFilter) : null;
+    if (parseTree == null) {
+      parseTree = parseWithAntlr(trimmedFilter);
+    }
+    FILTER_CACHE.put(canonicalFilter, parseTree);
+    return parseTree;
+  }
+
+  /**
+   * @return hit, miss and eviction counters of the parsed filter cache
+   */
+  public static FilterCacheStatistics getCacheStatistics() {
+    return FILTER_CACHE.getStatistics();
+  }
+
+  /**
+   * Removes all cached filter trees and resets the cache counters.
+   */
+  public static void clearCache() {
+    FILTER_CACHE.clear();
+  }
+
+  /**
+   * Parses the filter with the generated parser only. Filters which the recursive descent parser does not accept, are parsed (and their errors
+   * reported) by it.
+   */
+  static SCIMFilterParser.ParseContext parseWithAntlr(final String filter) {
+    return createParser(filter).parse();
+  }
+
+  private static SCIMFilterParser createParser(final String filter) {
+    SCIMFilterLexer lexer = new SCIMFilterLexer(CharStreams.fromString(filter));
     SCIMFilterParser parser = new SCIMFilterParser(new CommonTokenStream(lexer));
 
     if (TWO_STAGE_PARSING) {
@@ -38,7 +96,6 @@ public class QueryFilterParser {
       parser.addErrorListener(new QueryFilterErrorHandler());
     }
 
-    SCIMFilterParser.ParseContext parseTree = parser.parse();
-    return visitor.visit(parseTree);
+    return parser;
   }
 }
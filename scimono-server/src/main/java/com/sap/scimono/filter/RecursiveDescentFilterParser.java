@@ -0,0 +1,445 @@
+package com.sap.scimono.filter;
+
+import java.util.List;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.atn.ATNState;
+import org.antlr.v4.runtime.atn.RuleTransition;
+import org.antlr.v4.runtime.atn.Transition;
+import org.antlr.v4.runtime.tree.TerminalNodeImpl;
+
+import com.sap.scimono.SCIMFilterParser;
+import com.sap.scimono.SCIMFilterParser.AndExpressionContext;
+import com.sap.scimono.SCIMFilterParser.AttrExpContext;
+import com.sap.scimono.SCIMFilterParser.AttrExpressionContext;
+import com.sap.scimono.SCIMFilterParser.AttrPathContext;
+import com.sap.scimono.SCIMFilterParser.BraceExpressionContext;
+import com.sap.scimono.SCIMFilterParser.FilterContext;
+import com.sap.scimono.SCIMFilterParser.LogExpressionContext;
+import com.sap.scimono.SCIMFilterParser.OrExpressionContext;
+import com.sap.scimono.SCIMFilterParser.PagingQueryContext;
+import com.sap.scimono.SCIMFilterParser.ParseContext;
+import com.sap.scimono.SCIMFilterParser.PresentExpressionContext;
+import com.sap.scimono.SCIMFilterParser.ValAndExpressionContext;
+import com.sap.scimono.SCIMFilterParser.ValAttrExpressionContext;
+import com.sap.scimono.SCIMFilterParser.ValBraceExpressionContext;
+import com.sap.scimono.SCIMFilterParser.ValExpressionContext;
+import com.sap.scimono.SCIMFilterParser.ValFilterContext;
+import com.sap.scimono.SCIMFilterParser.ValOrExpressionContext;
+import com.sap.scimono.SCIMFilterParser.ValValuePathExpressionContext;
+import com.sap.scimono.SCIMFilterParser.ValuePathExpressionContext;
+import com.sap.scimono.SCIMFilterParser.ValuePathContext;
+
+/**
+ * Hand-written recursive descent parser for <b>SCIMFilter.g4</b>. It builds the same tree as the generated {@link SCIMFilterParser} - the same
+ * context classes, children, invoking states and start/stop tokens - so visitors cannot tell which of the two parsed a filter.
+ * <p>
+ * The parser only accepts filters which match the grammar completely. Anything else, including filters the generated parser recovers from
+ * or accepts with trailing input, is rejected by returning null and left to the generated parser, which reports the error.
+ */
+final class RecursiveDescentFilterParser {
+  private static final int OR_PRECEDENCE = 2;
+  private static final int AND_PRECEDENCE = 3;
+
+  // ATN states of the generated parser from which the respective rules are invoked, looked up so that they follow changes of the grammar
+  private static final int PARSE_FILTER_STATE = invokingState(SCIMFilterParser.RULE_parse, SCIMFilterParser.RULE_filter, 0);
+  private static final int PRESENT_ATTR_PATH_STATE = invokingState(SCIMFilterParser.RULE_attrExp, SCIMFilterParser.RULE_attrPath, 0);
+  private static final int LOG_ATTR_PATH_STATE = invokingState(SCIMFilterParser.RULE_attrExp, SCIMFilterParser.RULE_attrPath, 1);
+  private static final int VALUE_PATH_ATTR_PATH_STATE = invokingState(SCIMFilterParser.RULE_valuePath, SCIMFilterParser.RULE_attrPath, 0);
+  private static final int VALUE_PATH_VAL_FILTER_STATE = invokingState(SCIMFilterParser.RULE_valuePath, SCIMFilterParser.RULE_valFilter, 0);
+  private static final int VALUE_PATH_VAL_EXPRESSION_STATE = invokingState(SCIMFilterParser.RULE_valuePath,
+      SCIMFilterParser.RULE_valExpression, 0);
+  private static final int PAGING_QUERY_STATE = invokingState(SCIMFilterParser.RULE_valExpression, SCIMFilterParser.RULE_pagingQuery, 0);
+  private static final int FILTERED_PAGING_QUERY_VAL_FILTER_STATE = invokingState(SCIMFilterParser.RULE_valExpression,
+      SCIMFilterParser.RULE_valFilter, 0);
+  private static final int FILTERED_PAGING_QUERY_STATE = invokingState(SCIMFilterParser.RULE_valExpression,
+      SCIMFilterParser.RULE_pagingQuery, 1);
+  private static final int PAGING_QUERY_FIRST_STATE = invokingState(SCIMFilterParser.RULE_valExpression, SCIMFilterParser.RULE_pagingQuery,
+      2);
+  private static final int PAGING_QUERY_FIRST_VAL_FILTER_STATE = invokingState(SCIMFilterParser.RULE_valExpression,
+      SCIMFilterParser.RULE_valFilter, 1);
+
+  private static final Mismatch MISMATCH = new Mismatch();
+
+  private final List<Token> tokens;
+  private int position;
+
+  private RecursiveDescentFilterParser(final List<Token> tokens) {
+    this.tokens = tokens;
+  }
+
+  /**
+   * @param filter the trimmed filter
+   * @return the expression tree or null if the filter has to be parsed by the generated parser
+   */
+  static ParseContext parse(final String filter) {
+    List<Token> tokens = FilterTokenizer.tokenize(filter);
+    if (tokens == null || tokens.isEmpty()) {
+      return null;
+    }
+
+    try {
+      return new RecursiveDescentFilterParser(tokens).parse();
+    } catch (Mismatch e) {
+      return null;
+    }
+  }
+
+  private ParseContext parse() {
+    ParseContext context = open(new ParseContext(null, -1));
+    context.addChild(expression(Expression.FILTER, context, PARSE_FILTER_STATE, 0));
+    if (position != tokens.size()) {
+      throw MISMATCH;
+    }
+    return close(context);
+  }
+
+  /**
+   * filter and valFilter, the loop resolves the left-recursive AND and OR alternatives the same way the generated parser does.
+   */
+  private ParserRuleContext expression(final Expression rule, final ParserRuleContext parent, final int invokingState, final int precedence) {
+    ParserRuleContext left = primaryExpression(rule, parent, invokingState);
+
+    while (true) {
+      ParserRuleContext binary;
+      int operator;
+      int rightState;
+      int rightPrecedence;
+      if (precedence <= AND_PRECEDENCE && isBinaryOperator(SCIMFilterParser.AND)) {
+        binary = rule.newAndExpression(parent, invokingState);
+        operator = SCIMFilterParser.AND;
+        rightState = rule.andRightState;
+        rightPrecedence = AND_PRECEDENCE + 1;
+      } else if (precedence <= OR_PRECEDENCE && isBinaryOperator(SCIMFilterParser.OR)) {
+        binary = rule.newOrExpression(parent, invokingState);
+        operator = SCIMFilterParser.OR;
+        rightState = rule.orRightState;
+        rightPrecedence = OR_PRECEDENCE + 1;
+      } else {
+        return left;
+      }
+
+      left.parent = binary;
+      left.invokingState = rule.startState;
+      binary.addChild(left);
+      binary.start = left.start;
+
+      match(binary, SCIMFilterParser.SP);
+      match(binary, operator);
+      match(binary, SCIMFilterParser.SP);
+      binary.addChild(expression(rule, binary, rightState, rightPrecedence));
+      left = close(binary);
+    }
+  }
+
+  private ParserRuleContext primaryExpression(final Expression rule, final ParserRuleContext parent, final int invokingState) {
+    switch (LA(0)) {
+      case SCIMFilterParser.NOT:
+      case SCIMFilterParser.T__0:
+        ParserRuleContext brace = open(rule.newBraceExpression(parent, invokingState));
+        if (LA(0) == SCIMFilterParser.NOT) {
+          match(brace, SCIMFilterParser.NOT);
+          match(brace, SCIMFilterParser.SP);
+        }
+        match(brace, SCIMFilterParser.T__0);
+        brace.addChild(expression(rule, brace, rule.braceState, 0));
+        match(brace, SCIMFilterParser.T__1);
+        return close(brace);
+      case SCIMFilterParser.URI:
+      case SCIMFilterParser.ATTRNAME:
+        if (isValuePath()) {
+          ParserRuleContext valuePath = open(rule.newValuePathExpression(parent, invokingState));
+          valuePath.addChild(valuePath(valuePath, rule.valuePathState));
+          return close(valuePath);
+        }
+        ParserRuleContext attrExp = open(rule.newAttrExpression(parent, invokingState));
+        attrExp.addChild(attrExp(attrExp, rule.attrExpState));
+        return close(attrExp);
+      default:
+        throw MISMATCH;
+    }
+  }
+
+  private AttrExpContext attrExp(final ParserRuleContext parent, final int invokingState) {
+    int attrPathLength = getAttrPathLength();
+    int operator = LA(attrPathLength + 1);
+    if (LA(attrPathLength) != SCIMFilterParser.SP) {
+      throw MISMATCH;
+    }
+
+    if (operator == SCIMFilterParser.PRESENT) {
+      AttrExpContext present = open(new PresentExpressionContext(new AttrExpContext(parent, invokingState)));
+      present.addChild(attrPath(present, PRESENT_ATTR_PATH_STATE));
+      match(present, SCIMFilterParser.SP);
+      match(present, SCIMFilterParser.PRESENT);
+      return close(present);
+    }
+    if (operator == SCIMFilterParser.OPERATOR) {
+      AttrExpContext log = open(new LogExpressionContext(new AttrExpContext(parent, invokingState)));
+      log.addChild(attrPath(log, LOG_ATTR_PATH_STATE));
+      match(log, SCIMFilterParser.SP);
+      match(log, SCIMFilterParser.OPERATOR);
+      match(log, SCIMFilterParser.SP);
+      match(log, SCIMFilterParser.PARAM);
+      return close(log);
+    }
+    throw MISMATCH;
+  }
+
+  private ValuePathContext valuePath(final ParserRuleContext parent, final int invokingState) {
+    ValuePathContext valuePath = open(new ValuePathContext(parent, invokingState));
+    valuePath.addChild(attrPath(valuePath, VALUE_PATH_ATTR_PATH_STATE));
+    matchSpaces(valuePath);
+    match(valuePath, SCIMFilterParser.LEFT_BRACKET);
+    matchSpaces(valuePath);
+
+    if (LA(0) == SCIMFilterParser.PAGING_ASSIGNMENT) {
+      valuePath.addChild(pagingQueryFirst(valuePath));
+    } else {
+      ParserRuleContext valFilter = expression(Expression.VAL_FILTER, valuePath, VALUE_PATH_VAL_FILTER_STATE, 0);
+      valuePath.addChild(isPagingQuerySeparator() ? filteredPagingQuery(valuePath, valFilter) : valFilter);
+    }
+
+    matchSpaces(valuePath);
+    match(valuePath, SCIMFilterParser.RIGHT_BRACKET);
+    if (LA(0) == SCIMFilterParser.SUBATTRNAME) {
+      match(valuePath, SCIMFilterParser.SUBATTRNAME);
+    }
+    return close(valuePath);
+  }
+
+  /**
+   * valExpression: pagingQuery | pagingQuery SP* '&amp;' SP* valFilter
+   */
+  private ValExpressionContext pagingQueryFirst(final ParserRuleContext parent) {
+    ValExpressionContext valExpression = open(new ValExpressionContext(parent, VALUE_PATH_VAL_EXPRESSION_STATE));
+    PagingQueryContext pagingQuery = pagingQuery(valExpression, PAGING_QUERY_STATE);
+    valExpression.addChild(pagingQuery);
+
+    if (isPagingQuerySeparator()) {
+      pagingQuery.invokingState = PAGING_QUERY_FIRST_STATE;
+      matchPagingQuerySeparator(valExpression);
+      valExpression.addChild(expression(Expression.VAL_FILTER, valExpression, PAGING_QUERY_FIRST_VAL_FILTER_STATE, 0));
+    }
+    return close(valExpression);
+  }
+
+  /**
+   * valExpression: valFilter SP* '&amp;' SP* pagingQuery, the valFilter is already parsed as child of the valuePath and is moved over.
+   */
+  private ValExpressionContext filteredPagingQuery(final ParserRuleContext parent, final ParserRuleContext valFilter) {
+    ValExpressionContext valExpression = new ValExpressionContext(parent, VALUE_PATH_VAL_EXPRESSION_STATE);
+    valExpression.start = valFilter.start;
+    valFilter.parent = valExpression;
+    valFilter.invokingState = FILTERED_PAGING_QUERY_VAL_FILTER_STATE;
+    valExpression.addChild(valFilter);
+
+    matchPagingQuerySeparator(valExpression);
+    valExpression.addChild(pagingQuery(valExpression, FILTERED_PAGING_QUERY_STATE));
+    return close(valExpression);
+  }
+
+  private PagingQueryContext pagingQuery(final ParserRuleContext parent, final int invokingState) {
+    PagingQueryContext pagingQuery = open(new PagingQueryContext(parent, invokingState));
+    match(pagingQuery, SCIMFilterParser.PAGING_ASSIGNMENT);
+    while (LA(0) == SCIMFilterParser.T__2 && LA(1) == SCIMFilterParser.PAGING_ASSIGNMENT) {
+      match(pagingQuery, SCIMFilterParser.T__2);
+      match(pagingQuery, SCIMFilterParser.PAGING_ASSIGNMENT);
+    }
+    return close(pagingQuery);
+  }
+
+  private AttrPathContext attrPath(final ParserRuleContext parent, final int invokingState) {
+    AttrPathContext attrPath = open(new AttrPathContext(parent, invokingState));
+    if (LA(0) == SCIMFilterParser.URI) {
+      match(attrPath, SCIMFilterParser.URI);
+    }
+    match(attrPath, SCIMFilterParser.ATTRNAME);
+    if (LA(0) == SCIMFilterParser.SUBATTRNAME) {
+      match(attrPath, SCIMFilterParser.SUBATTRNAME);
+    }
+    return close(attrPath);
+  }
+
+  private int getAttrPathLength() {
+    int length = LA(0) == SCIMFilterParser.URI ? 1 : 0;
+    if (LA(length) != SCIMFilterParser.ATTRNAME) {
+      throw MISMATCH;
+    }
+    length++;
+    return LA(length) == SCIMFilterParser.SUBATTRNAME ? length + 1 : length;
+  }
+
+  private boolean isValuePath() {
+    int offset = getAttrPathLength();
+    while (LA(offset) == SCIMFilterParser.SP) {
+      offset++;
+    }
+    return LA(offset) == SCIMFilterParser.LEFT_BRACKET;
+  }
+
+  private boolean isBinaryOperator(final int operator) {
+    return LA(0) == SCIMFilterParser.SP && LA(1) == operator && LA(2) == SCIMFilterParser.SP;
+  }
+
+  private boolean isPagingQuerySeparator() {
+    int offset = 0;
+    while (LA(offset) == SCIMFilterParser.SP) {
+      offset++;
+    }
+    return LA(offset) == SCIMFilterParser.T__2;
+  }
+
+  private void matchPagingQuerySeparator(final ParserRuleContext context) {
+    matchSpaces(context);
+    match(context, SCIMFilterParser.T__2);
+    matchSpaces(context);
+  }
+
+  private void matchSpaces(final ParserRuleContext context) {
+    while (LA(0) == SCIMFilterParser.SP) {
+      match(context, SCIMFilterParser.SP);
+    }
+  }
+
+  private void match(final ParserRuleContext context, final int type) {
+    if (LA(0) != type) {
+      throw MISMATCH;
+    }
+    context.addChild(new TerminalNodeImpl(tokens.get(position++)));
+  }
+
+  private int LA(final int offset) {
+    int index = position + offset;
+    return index < tokens.size() ? tokens.get(index).getType() : Token.EOF;
+  }
+
+  /**
+   * @param rule the invoking rule
+   * @param invokedRule the invoked rule
+   * @param occurrence the index of the invocation among the invocations of the invoked rule by the invoking rule, in the order of the
+   *          ATN states, e.g. 0 for the first one
+   * @return the ATN state of the generated parser from which the rule invokes the other rule
+   */
+  private static int invokingState(final int rule, final int invokedRule, final int occurrence) {
+    int remaining = occurrence;
+    for (ATNState state : SCIMFilterParser._ATN.states) {
+      if (state == null || state.ruleIndex != rule || state.getNumberOfTransitions() != 1) {
+        continue;
+      }
+      Transition transition = state.transition(0);
+      if (transition instanceof RuleTransition && ((RuleTransition) transition).ruleIndex == invokedRule && remaining-- == 0) {
+        return state.stateNumber;
+      }
+    }
+    throw new IllegalStateException(String.format("Rule %s does not invoke rule %s %d times", SCIMFilterParser.ruleNames[rule],
+        SCIMFilterParser.ruleNames[invokedRule], occurrence + 1));
+  }
+
+  private <T extends ParserRuleContext> T open(final T context) {
+    context.start = position < tokens.size() ? tokens.get(position) : null;
+    return context;
+  }
+
+  private <T extends ParserRuleContext> T close(final T context) {
+    context.stop = tokens.get(position - 1);
+    return context;
+  }
+
+  /**
+   * The two left-recursive rules, filter and valFilter, with the labeled contexts and ATN states of their alternatives. The right
+   * operand of AND is invoked before the one of OR by the generated parser, both after the filter in braces.
+   */
+  private enum Expression {
+    FILTER(SCIMFilterParser.RULE_filter) {
+      @Override
+      ParserRuleContext newAttrExpression(final ParserRuleContext parent, final int invokingState) {
+        return new AttrExpressionContext(new FilterContext(parent, invokingState));
+      }
+
+      @Override
+      ParserRuleContext newValuePathExpression(final ParserRuleContext parent, final int invokingState) {
+        return new ValuePathExpressionContext(new FilterContext(parent, invokingState));
+      }
+
+      @Override
+      ParserRuleContext newBraceExpression(final ParserRuleContext parent, final int invokingState) {
+        return new BraceExpressionContext(new FilterContext(parent, invokingState));
+      }
+
+      @Override
+      ParserRuleContext newAndExpression(final ParserRuleContext parent, final int invokingState) {
+        return new AndExpressionContext(new FilterContext(parent, invokingState));
+      }
+
+      @Override
+      ParserRuleContext newOrExpression(final ParserRuleContext parent, final int invokingState) {
+        return new OrExpressionContext(new FilterContext(parent, invokingState));
+      }
+    },
+    VAL_FILTER(SCIMFilterParser.RULE_valFilter) {
+      @Override
+      ParserRuleContext newAttrExpression(final ParserRuleContext parent, final int invokingState) {
+        return new ValAttrExpressionContext(new ValFilterContext(parent, invokingState));
+      }
+
+      @Override
+      ParserRuleContext newValuePathExpression(final ParserRuleContext parent, final int invokingState) {
+        return new ValValuePathExpressionContext(new ValFilterContext(parent, invokingState));
+      }
+
+      @Override
+      ParserRuleContext newBraceExpression(final ParserRuleContext parent, final int invokingState) {
+        return new ValBraceExpressionContext(new ValFilterContext(parent, invokingState));
+      }
+
+      @Override
+      ParserRuleContext newAndExpression(final ParserRuleContext parent, final int invokingState) {
+        return new ValAndExpressionContext(new ValFilterContext(parent, invokingState));
+      }
+
+      @Override
+      ParserRuleContext newOrExpression(final ParserRuleContext parent, final int invokingState) {
+        return new ValOrExpressionContext(new ValFilterContext(parent, invokingState));
+      }
+    };
+
+    private final int startState;
+    private final int attrExpState;
+    private final int valuePathState;
+    private final int braceState;
+    private final int andRightState;
+    private final int orRightState;
+
+    Expression(final int rule) {
+      this.startState = SCIMFilterParser._ATN.ruleToStartState[rule].stateNumber;
+      this.attrExpState = invokingState(rule, SCIMFilterParser.RULE_attrExp, 0);
+      this.valuePathState = invokingState(rule, SCIMFilterParser.RULE_valuePath, 0);
+      this.braceState = invokingState(rule, rule, 0);
+      this.andRightState = invokingState(rule, rule, 1);
+      this.orRightState = invokingState(rule, rule, 2);
+    }
+
+    abstract ParserRuleContext newAttrExpression(ParserRuleContext parent, int invokingState);
+
+    abstract ParserRuleContext newValuePathExpression(ParserRuleContext parent, int invokingState);
+
+    abstract ParserRuleContext newBraceExpression(ParserRuleContext parent, int invokingState);
+
+    abstract ParserRuleContext newAndExpression(ParserRuleContext parent, int invokingState);
+
+    abstract ParserRuleContext newOrExpression(ParserRuleContext parent, int invokingState);
+  }
+
+  /**
+   * Thrown when the filter does not match the grammar, preallocated and without stack trace as it only unwinds the descent.
+   */
+  private static final class Mismatch extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private Mismatch() {
+      super(null, null, false, false);
+    }
+  }
+}
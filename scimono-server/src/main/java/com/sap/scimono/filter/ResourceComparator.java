@@ -0,0 +1,133 @@
+package com.sap.scimono.filter;
+
+import static com.sap.scimono.entity.definition.ResourceConstants.MultivaluedAttributeConstants.VALUE_FIELD;
+
+import java.util.Comparator;
+import java.util.function.Function;
+
+import com.sap.scimono.callback.schemas.SchemaRegistry;
+import com.sap.scimono.entity.Group;
+import com.sap.scimono.entity.Resource;
+import com.sap.scimono.entity.User;
+import com.sap.scimono.entity.definition.ScimAttribute;
+import com.sap.scimono.entity.paging.SortInfo;
+import com.sap.scimono.exception.InvalidFilterException;
+import com.sap.scimono.exception.InvalidInputException;
+import com.sap.scimono.filter.expression.AttributeReference;
+
+/**
+ * Orders resources held in memory by the <b>sortBy</b> and <b>sortOrder</b> parameters, following RFC 7644, section 3.4.2.3: strings are
+ * compared case insensitively unless the attribute is case exact, date times, numbers and booleans by their values, and multi-valued
+ * attributes by their primary value or else by their first value. Complex attributes are sorted by their <b>value</b> sub-attribute.
+ * Resources without a value are sorted last in ascending order and first in descending order.
+ * <p>
+ * The value a resource is sorted by is converted to the attribute type by {@link #getSortKey(Resource)}, so that callers comparing a resource
+ * many times, e.g. in a heap, convert it once and compare the keys with {@link #compareSortKeys(Object, Object)}.
+ *
+ * @param <T> the resource type
+ */
+public final class ResourceComparator<T extends Resource<T>> implements Comparator<T> {
+  private final FilterAttribute attribute;
+  private final Function<Object, Object> keyConverter;
+  private final Comparator<Object> keyOrder;
+  private final boolean descending;
+
+  private ResourceComparator(final FilterAttribute attribute, final Function<Object, Object> keyConverter, final Comparator<Object> keyOrder,
+      final boolean descending) {
+    this.attribute = attribute;
+    this.keyConverter = keyConverter;
+    this.keyOrder = keyOrder;
+    this.descending = descending;
+  }
+
+  /**
+   * @throws InvalidInputException if the users cannot be sorted by the attribute
+   */
+  public static ResourceComparator<User> forUsers(final SchemaRegistry schemaRegistry, final SortInfo sortInfo) {
+    return create(CoreAttributeAccessors.USER, schemaRegistry, sortInfo);
+  }
+
+  /**
+   * @throws InvalidInputException if the groups cannot be sorted by the attribute
+   */
+  public static ResourceComparator<Group> forGroups(final SchemaRegistry schemaRegistry, final SortInfo sortInfo) {
+    return create(CoreAttributeAccessors.GROUP, schemaRegistry, sortInfo);
+  }
+
+  /**
+   * @return the value the resource is sorted by, converted to the attribute type, or null if the resource has no such value
+   */
+  public Object getSortKey(final T resource) {
+    Object value = attribute.getSortValue(resource);
+    return value == null ? null : keyConverter.apply(value);
+  }
+
+  /**
+   * @param left a key returned by {@link #getSortKey(Resource)}
+   * @param right a key returned by {@link #getSortKey(Resource)}
+   * @return the comparison of the resources the keys belong to, in the requested sort order
+   */
+  public int compareSortKeys(final Object left, final Object right) {
+    int comparison;
+    if (left == null || right == null) {
+      comparison = left == null ? (right == null ? 0 : 1) : -1;
+    } else {
+      comparison = keyOrder.compare(left, right);
+    }
+    return descending ? -comparison : comparison;
+  }
+
+  @Override
+  public int compare(final T left, final T right) {
+    return compareSortKeys(getSortKey(left), getSortKey(right));
+  }
+
+  private static <T extends Resource<T>, A extends Enum<A> & ScimAttribute<A>> ResourceComparator<T> create(
+      final CoreAttributeAccessors<A> coreAttributes, final SchemaRegistry schemaRegistry, final SortInfo sortInfo) {
+    AttributeReferenceResolver referenceResolver = new AttributeReferenceResolver(coreAttributes, schemaRegistry);
+    AttributeReference reference;
+    FilterAttribute attribute;
+    try {
+      reference = referenceResolver.resolve(sortInfo.getSortBy());
+      if (reference.isComplex()) {
+        reference = referenceResolver.resolveSubAttribute(reference, VALUE_FIELD);
+      }
+      attribute = new FilterAttributeResolver<>(coreAttributes).resolve(reference);
+    } catch (InvalidFilterException e) {
+      throw new InvalidInputException(String.format("Resources cannot be sorted by attribute '%s'", sortInfo.getSortBy()));
+    }
+
+    switch (reference.getType()) {
+      case DATE_TIME:
+        return new ResourceComparator<>(attribute, FilterValueMatchers::toInstant, naturalOrder(), sortInfo.isDescending());
+      case DECIMAL:
+      case INTEGER:
+        return new ResourceComparator<>(attribute, FilterValueMatchers::toDecimal, naturalOrder(), sortInfo.isDescending());
+      case BOOLEAN:
+        return new ResourceComparator<>(attribute, ResourceComparator::toBoolean, naturalOrder(), sortInfo.isDescending());
+      default:
+        Comparator<Object> stringOrder = reference.getDefinition().isCaseExact() ? naturalOrder() : caseInsensitiveOrder();
+        return new ResourceComparator<>(attribute, FilterValueMatchers::asString, stringOrder, sortInfo.isDescending());
+    }
+  }
+
+  private static Object toBoolean(final Object value) {
+    if (value instanceof Boolean) {
+      return value;
+    }
+    String text = FilterValueMatchers.asString(value);
+    if (Boolean.TRUE.toString().equalsIgnoreCase(text) || Boolean.FALSE.toString().equalsIgnoreCase(text)) {
+      return Boolean.valueOf(text);
+    }
+    return null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Comparator<Object> naturalOrder() {
+    return (left, right) -> ((Comparable<Object>) left).compareTo(right);
+  }
+
+  private static Comparator<Object> caseInsensitiveOrder() {
+    return (left, right) -> String.CASE_INSENSITIVE_ORDER.compare((String) left, (String) right);
+  }
+}
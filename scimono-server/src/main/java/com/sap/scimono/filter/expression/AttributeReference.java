@@ -0,0 +1,109 @@
+package com.sap.scimono.filter.expression;
+
+import java.util.Objects;
+
+import com.sap.scimono.entity.schema.Attribute;
+import com.sap.scimono.entity.schema.AttributeDataType;
+
+/**
+ * Attribute of a filter resolved against the schemas. Schema, attribute and sub-attribute names are the canonical ones of the schema
+ * definition, regardless of the case used in the filter.
+ */
+public final class AttributeReference {
+  private static final char SCHEMA_URN_DELIMITER = ':';
+  private static final char COMPLEX_ATTRIBUTE_DELIMITER = '.';
+
+  private final String notation;
+  private final String schemaId;
+  private final String attributeName;
+  private final String subAttributeName;
+  private final Attribute definition;
+
+  /**
+   * @param notation the attribute as found in the filter
+   * @param schemaId id of the schema defining the attribute
+   * @param attributeName name of the top level attribute
+   * @param subAttributeName name of the sub-attribute or null if the top level attribute is referenced
+   * @param definition definition of the referenced attribute, i.e. of the sub-attribute if there is one
+   */
+  public AttributeReference(final String notation, final String schemaId, final String attributeName, final String subAttributeName,
+      final Attribute definition) {
+    this.notation = Objects.requireNonNull(notation, "notation must not be null");
+    this.schemaId = Objects.requireNonNull(schemaId, "schemaId must not be null");
+    this.attributeName = Objects.requireNonNull(attributeName, "attributeName must not be null");
+    this.subAttributeName = subAttributeName;
+    this.definition = Objects.requireNonNull(definition, "definition must not be null");
+  }
+
+  /**
+   * @return the attribute as found in the filter, e.g. <b>name.givenName</b> or <b>type</b> inside a value path
+   */
+  public String getNotation() {
+    return notation;
+  }
+
+  public String getSchemaId() {
+    return schemaId;
+  }
+
+  public String getAttributeName() {
+    return attributeName;
+  }
+
+  public String getSubAttributeName() {
+    return subAttributeName;
+  }
+
+  public boolean hasSubAttribute() {
+    return subAttributeName != null;
+  }
+
+  public Attribute getDefinition() {
+    return definition;
+  }
+
+  public AttributeDataType getType() {
+    return AttributeDataType.of(definition.getType());
+  }
+
+  public boolean isComplex() {
+    return AttributeDataType.COMPLEX.toString().equals(definition.getType());
+  }
+
+  /**
+   * @return attribute and sub-attribute name, e.g. <b>name.givenName</b>
+   */
+  public String getAttributeNotation() {
+    return hasSubAttribute() ? attributeName + COMPLEX_ATTRIBUTE_DELIMITER + subAttributeName : attributeName;
+  }
+
+  /**
+   * @return the full attribute notation, e.g. <b>urn:ietf:params:scim:schemas:core:2.0:User:name.givenName</b>
+   */
+  public String getFullAttributeNotation() {
+    return schemaId + SCHEMA_URN_DELIMITER + getAttributeNotation();
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    AttributeReference that = (AttributeReference) o;
+    return schemaId.equals(that.schemaId) && attributeName.equals(that.attributeName) && Objects.equals(subAttributeName, that.subAttributeName);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(schemaId, attributeName, subAttributeName);
+  }
+
+  @Override
+  public String toString() {
+    return notation;
+  }
+}
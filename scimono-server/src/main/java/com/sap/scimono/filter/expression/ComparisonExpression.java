@@ -0,0 +1,92 @@
+package com.sap.scimono.filter.expression;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Comparison of an attribute with a literal, e.g. <b>userName eq "bjensen"</b>. The literal has the type of the attribute:
+ * <ul>
+ * <li>{@link String} for string, reference and binary attributes</li>
+ * <li>{@link Boolean} for boolean attributes</li>
+ * <li>{@link BigDecimal} for integer and decimal attributes</li>
+ * <li>{@link Instant} for dateTime attributes</li>
+ * </ul>
+ * Complex multi-valued attributes are compared by their <b>value</b> sub-attribute, which is referenced explicitly.
+ */
+public final class ComparisonExpression extends FilterExpression {
+  private final AttributeReference attribute;
+  private final ComparisonOperator operator;
+  private final Object value;
+
+  public ComparisonExpression(final AttributeReference attribute, final ComparisonOperator operator, final Object value) {
+    this.attribute = Objects.requireNonNull(attribute, "attribute must not be null");
+    this.operator = Objects.requireNonNull(operator, "operator must not be null");
+    this.value = Objects.requireNonNull(value, "value must not be null");
+  }
+
+  public AttributeReference getAttribute() {
+    return attribute;
+  }
+
+  public ComparisonOperator getOperator() {
+    return operator;
+  }
+
+  public Object getValue() {
+    return value;
+  }
+
+  @Override
+  public <R> R accept(final FilterExpressionVisitor<R> visitor) {
+    return visitor.visitComparison(this);
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    ComparisonExpression that = (ComparisonExpression) o;
+    return attribute.equals(that.attribute) && operator == that.operator && value.equals(that.value);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(attribute, operator, value);
+  }
+
+  @Override
+  public String toString() {
+    return attribute + " " + operator + " " + renderValue();
+  }
+
+  private String renderValue() {
+    if (value instanceof BigDecimal) {
+      return ((BigDecimal) value).toPlainString();
+    }
+    if (value instanceof Boolean) {
+      return value.toString();
+    }
+    return quote(value.toString());
+  }
+
+  private static String quote(final String value) {
+    StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        quoted.append('\\').append(c);
+      } else if (c < 0x20) {
+        quoted.append(String.format("\\u%04x", (int) c));
+      } else {
+        quoted.append(c);
+      }
+    }
+    return quoted.append('"').toString();
+  }
+}
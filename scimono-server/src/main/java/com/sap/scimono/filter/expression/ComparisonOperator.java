@@ -0,0 +1,31 @@
+package com.sap.scimono.filter.expression;
+
+import java.util.Locale;
+
+/**
+ * Attribute operators of RFC 7644, section 3.4.2.2, except <b>pr</b> which is represented by {@link PresentExpression}.
+ */
+public enum ComparisonOperator {
+  EQ, NE, CO, SW, EW, GT, GE, LT, LE;
+
+  /**
+   * @param operator the operator as found in the filter, in any case
+   * @throws IllegalArgumentException if there is no such operator
+   */
+  public static ComparisonOperator from(final String operator) {
+    return valueOf(operator.toUpperCase(Locale.ENGLISH));
+  }
+
+  public boolean isOrdering() {
+    return this == GT || this == GE || this == LT || this == LE;
+  }
+
+  public boolean isSubstring() {
+    return this == CO || this == SW || this == EW;
+  }
+
+  @Override
+  public String toString() {
+    return name().toLowerCase(Locale.ENGLISH);
+  }
+}
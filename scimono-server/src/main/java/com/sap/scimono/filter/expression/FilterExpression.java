@@ -0,0 +1,22 @@
+package com.sap.scimono.filter.expression;
+
+/**
+ * Immutable node of a parsed and validated SCIM filter. Attribute references are resolved against the schemas and literals are converted to
+ * the type of the compared attribute, so backends can translate the tree (e.g. to SQL or index lookups) without parsing the filter again.
+ * <p>
+ * {@link #toString()} renders the expression back to SCIM filter syntax.
+ */
+public abstract class FilterExpression {
+
+  FilterExpression() {
+  }
+
+  public abstract <R> R accept(FilterExpressionVisitor<R> visitor);
+
+  /**
+   * @return true if the expression has to be enclosed in parentheses when it is the operand of the provided logical operator
+   */
+  boolean needsParenthesesIn(final LogicalOperator operator) {
+    return false;
+  }
+}
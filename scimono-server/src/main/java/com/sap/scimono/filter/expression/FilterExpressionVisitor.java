@@ -0,0 +1,20 @@
+package com.sap.scimono.filter.expression;
+
+/**
+ * Visitor over a {@link FilterExpression} tree. Implementations decide themselves whether and in which order to visit the operands of
+ * logical, negated and value path expressions.
+ *
+ * @param <R> the result of visiting a single expression
+ */
+public interface FilterExpressionVisitor<R> {
+
+  R visitComparison(ComparisonExpression expression);
+
+  R visitPresent(PresentExpression expression);
+
+  R visitLogical(LogicalExpression expression);
+
+  R visitNot(NotExpression expression);
+
+  R visitValuePath(ValuePathExpression expression);
+}
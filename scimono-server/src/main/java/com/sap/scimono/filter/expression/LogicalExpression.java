@@ -0,0 +1,70 @@
+package com.sap.scimono.filter.expression;
+
+import java.util.Objects;
+
+/**
+ * Conjunction or disjunction of two expressions, e.g. <b>title pr and userType eq "Employee"</b>.
+ */
+public final class LogicalExpression extends FilterExpression {
+  private final LogicalOperator operator;
+  private final FilterExpression left;
+  private final FilterExpression right;
+
+  public LogicalExpression(final LogicalOperator operator, final FilterExpression left, final FilterExpression right) {
+    this.operator = Objects.requireNonNull(operator, "operator must not be null");
+    this.left = Objects.requireNonNull(left, "left must not be null");
+    this.right = Objects.requireNonNull(right, "right must not be null");
+  }
+
+  public LogicalOperator getOperator() {
+    return operator;
+  }
+
+  public FilterExpression getLeft() {
+    return left;
+  }
+
+  public FilterExpression getRight() {
+    return right;
+  }
+
+  @Override
+  public <R> R accept(final FilterExpressionVisitor<R> visitor) {
+    return visitor.visitLogical(this);
+  }
+
+  /**
+   * <b>and</b> binds stronger than <b>or</b>.
+   */
+  @Override
+  boolean needsParenthesesIn(final LogicalOperator parentOperator) {
+    return operator == LogicalOperator.OR && parentOperator == LogicalOperator.AND;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    LogicalExpression that = (LogicalExpression) o;
+    return operator == that.operator && left.equals(that.left) && right.equals(that.right);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(operator, left, right);
+  }
+
+  @Override
+  public String toString() {
+    return render(left) + " " + operator + " " + render(right);
+  }
+
+  private String render(final FilterExpression operand) {
+    return operand.needsParenthesesIn(operator) ? "(" + operand + ")" : operand.toString();
+  }
+}
@@ -0,0 +1,12 @@
+package com.sap.scimono.filter.expression;
+
+import java.util.Locale;
+
+public enum LogicalOperator {
+  AND, OR;
+
+  @Override
+  public String toString() {
+    return name().toLowerCase(Locale.ENGLISH);
+  }
+}
@@ -0,0 +1,44 @@
+package com.sap.scimono.filter.expression;
+
+import java.util.Objects;
+
+/**
+ * Negation of an expression, e.g. <b>not (userType eq "Employee")</b>.
+ */
+public final class NotExpression extends FilterExpression {
+  private final FilterExpression operand;
+
+  public NotExpression(final FilterExpression operand) {
+    this.operand = Objects.requireNonNull(operand, "operand must not be null");
+  }
+
+  public FilterExpression getOperand() {
+    return operand;
+  }
+
+  @Override
+  public <R> R accept(final FilterExpressionVisitor<R> visitor) {
+    return visitor.visitNot(this);
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    return operand.equals(((NotExpression) o).operand);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(NotExpression.class, operand);
+  }
+
+  @Override
+  public String toString() {
+    return "not (" + operand + ")";
+  }
+}
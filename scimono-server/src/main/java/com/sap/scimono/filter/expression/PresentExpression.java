@@ -0,0 +1,44 @@
+package com.sap.scimono.filter.expression;
+
+import java.util.Objects;
+
+/**
+ * Matches resources having a non-empty value for the attribute, e.g. <b>title pr</b>.
+ */
+public final class PresentExpression extends FilterExpression {
+  private final AttributeReference attribute;
+
+  public PresentExpression(final AttributeReference attribute) {
+    this.attribute = Objects.requireNonNull(attribute, "attribute must not be null");
+  }
+
+  public AttributeReference getAttribute() {
+    return attribute;
+  }
+
+  @Override
+  public <R> R accept(final FilterExpressionVisitor<R> visitor) {
+    return visitor.visitPresent(this);
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    return attribute.equals(((PresentExpression) o).attribute);
+  }
+
+  @Override
+  public int hashCode() {
+    return attribute.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return attribute + " pr";
+  }
+}
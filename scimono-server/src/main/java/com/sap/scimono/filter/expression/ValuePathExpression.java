@@ -0,0 +1,97 @@
+package com.sap.scimono.filter.expression;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Filter applied to the single values of a complex attribute, e.g. <b>emails[type eq "work" and value co "@example.com"]</b>. The attributes
+ * of the value filter reference the sub-attributes of the filtered attribute.
+ * <p>
+ * The value filter may be combined with, or replaced by, paging parameters of the values, e.g. <b>members[value eq "1" &amp; count=10]</b>.
+ */
+public final class ValuePathExpression extends FilterExpression {
+  private final AttributeReference attribute;
+  private final FilterExpression valueFilter;
+  private final Map<String, String> pagingParameters;
+
+  public ValuePathExpression(final AttributeReference attribute, final FilterExpression valueFilter) {
+    this(attribute, valueFilter, Collections.emptyMap());
+  }
+
+  /**
+   * @param attribute the filtered complex attribute
+   * @param valueFilter the filter of the values or null if there are only paging parameters
+   * @param pagingParameters paging parameter names mapped to their values, in the order found in the filter
+   */
+  public ValuePathExpression(final AttributeReference attribute, final FilterExpression valueFilter, final Map<String, String> pagingParameters) {
+    this.attribute = Objects.requireNonNull(attribute, "attribute must not be null");
+    this.valueFilter = valueFilter;
+    this.pagingParameters = Collections.unmodifiableMap(new LinkedHashMap<>(pagingParameters));
+
+    if (valueFilter == null && this.pagingParameters.isEmpty()) {
+      throw new IllegalArgumentException("Either value filter or paging parameters are required");
+    }
+  }
+
+  public AttributeReference getAttribute() {
+    return attribute;
+  }
+
+  /**
+   * @return the filter of the values or null if there are only paging parameters
+   */
+  public FilterExpression getValueFilter() {
+    return valueFilter;
+  }
+
+  public boolean hasValueFilter() {
+    return valueFilter != null;
+  }
+
+  public Map<String, String> getPagingParameters() {
+    return pagingParameters;
+  }
+
+  @Override
+  public <R> R accept(final FilterExpressionVisitor<R> visitor) {
+    return visitor.visitValuePath(this);
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    ValuePathExpression that = (ValuePathExpression) o;
+    return attribute.equals(that.attribute) && Objects.equals(valueFilter, that.valueFilter) && pagingParameters.equals(that.pagingParameters);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(attribute, valueFilter, pagingParameters);
+  }
+
+  @Override
+  public String toString() {
+    // @formatter:off
+    String pagingQuery = pagingParameters.entrySet().stream()
+        .map(parameter -> parameter.getKey() + "=" + parameter.getValue())
+        .collect(Collectors.joining("&"));
+    // @formatter:on
+
+    if (valueFilter == null) {
+      return attribute + "[" + pagingQuery + "]";
+    }
+    if (pagingQuery.isEmpty()) {
+      return attribute + "[" + valueFilter + "]";
+    }
+    return attribute + "[" + valueFilter + " & " + pagingQuery + "]";
+  }
+}
@@ -4,6 +4,7 @@ package com.sap.scimono.filter.patch;
 import com.sap.scimono.SCIMFilterParser;
 import com.sap.scimono.callback.schemas.SchemasCallback;
 import com.sap.scimono.entity.patch.PatchOperation;
+import com.sap.scimono.entity.schema.AttributePath;
 import com.sap.scimono.entity.validation.Validator;
 import com.sap.scimono.entity.validation.patch.PatchValidationException;
 import com.sap.scimono.entity.validation.patch.PathAttributeExistenceValidator;
@@ -46,7 +47,8 @@ public class ValuePathAttributesValidationVisitor extends QueryFilterVisitor<Voi
   protected void validateAttribute(String attributeName) {
     String fullAttrName;
     if (isParentAttribute()) {
-      fullAttrName = SchemasCallback.addSchemaToPathIfNotExist(attributeName, valuePathValidator.getCoreSchemaId());
+      fullAttrName = AttributePath.startsWithUrn(attributeName) ? attributeName
+          : String.join(SchemasCallback.SCHEMA_URN_DELIMETER, valuePathValidator.getCoreSchemaId(), attributeName);
     } else if (isSubAttrBelongToParentSchema(attributeName, valuePathValidator.getCoreSchemaId())) {
       fullAttrName = createMultivaluedFullSubAttributeNotation(attributeName);
     } else {
@@ -74,7 +76,7 @@ public class ValuePathAttributesValidationVisitor extends QueryFilterVisitor<Voi
   private String createMultivaluedFullSubAttributeNotation(String subAttributeName) {
     SchemasCallback schemaAPI = valuePathValidator.getSchemaAPI();
 
-    if (SchemasCallback.isAttributeNotationContainsSchema(subAttributeName)) {
+    if (AttributePath.startsWithUrn(subAttributeName)) {
       return subAttributeName;
     }
 
@@ -86,13 +88,12 @@ public class ValuePathAttributesValidationVisitor extends QueryFilterVisitor<Voi
   }
 
   private boolean isSubAttrBelongToParentSchema(String targetAttr, String parentAttr) {
-    if (!SchemasCallback.isAttributeNotationContainsSchema(targetAttr)) {
+    if (!AttributePath.startsWithUrn(targetAttr)) {
       return true;
     }
 
-    SchemasCallback schemaAPI = valuePathValidator.getSchemaAPI();
-    String targetAttrSchema = schemaAPI.getSchemaIdFromAttributeNotation(targetAttr);
-    return parentAttr.startsWith(targetAttrSchema);
+    String targetAttrSchema = valuePathValidator.getSchemaAPI().getAttributePath(targetAttr).getSchemaId();
+    return targetAttrSchema != null && parentAttr.startsWith(targetAttrSchema);
   }
 
   @Override
@@ -127,12 +128,8 @@ public class ValuePathAttributesValidationVisitor extends QueryFilterVisitor<Voi
 
       pathContext.accept(new AttrPathVisitor(valuePathValidator, operation, currentAttributePath));
 
-      String attributeName = pathContext.getText();
-
       SchemasCallback schemaAPI = valuePathValidator.getSchemaAPI();
-      if (SchemasCallback.isAttributeNotationContainsSchema(attributeName)) {
-        attributeName = schemaAPI.removeSchemaFromAttributeNotation(attributeName, valuePathValidator.getCoreSchemaId());
-      }
+      String attributeName = schemaAPI.getAttributePath(pathContext.getText()).getAttributeNotation();
 
       String newCurrentAttributePath = schemaAPI.appendSubAttributeToPath(currentAttributePath, attributeName);
       return ctx.valFilter().accept(new ValuePathAttributesValidationVisitor(valuePathValidator, operation, newCurrentAttributePath));
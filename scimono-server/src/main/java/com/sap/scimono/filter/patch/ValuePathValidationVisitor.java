@@ -0,0 +1,125 @@
+package com.sap.scimono.filter.patch;
+
+import java.util.stream.Stream;
+
+import com.sap.scimono.SCIMFilterParser;
+import com.sap.scimono.callback.schemas.SchemasCallback;
+import com.sap.scimono.entity.patch.PatchOperation;
+import com.sap.scimono.entity.schema.AttributePath;
+import com.sap.scimono.entity.validation.patch.PatchValidationException;
+import com.sap.scimono.entity.validation.patch.ValuePathValidator;
+import com.sap.scimono.exception.SCIMException;
+import com.sap.scimono.filter.QueryFilterVisitor;
+
+/**
+ * Combines the checks of {@link ValuePathStructureValidationVisitor}, {@link ValuePathRestrictionsValidatorVisitor} and
+ * {@link ValuePathAttributesValidationVisitor} in a single traversal of the expression tree of a value path.
+ */
+public class ValuePathValidationVisitor extends QueryFilterVisitor<Void, Void> {
+  private final ValuePathValidator valuePathValidator;
+  private final PatchOperation operation;
+  private String currentAttributePath;
+
+  public ValuePathValidationVisitor(ValuePathValidator valuePathValidator, PatchOperation operation) {
+    this.valuePathValidator = valuePathValidator;
+    this.operation = operation;
+    this.currentAttributePath = valuePathValidator.getCoreSchemaId();
+  }
+
+  @Override
+  public Void visitParse(SCIMFilterParser.ParseContext ctx) {
+    SCIMFilterParser.FilterContext filterContext = ctx.filter();
+
+    if (!(filterContext instanceof SCIMFilterParser.ValuePathExpressionContext)) {
+      throw new PatchValidationException(SCIMException.Type.INVALID_PATH, "The specified 'valuePath' is not valid");
+    }
+
+    return visit(filterContext);
+  }
+
+  @Override
+  public Void visitValuePath(SCIMFilterParser.ValuePathContext ctx) {
+    String attributePath = ctx.attrPath().getText();
+    validateAttribute(attributePath);
+
+    SchemasCallback schemaAPI = valuePathValidator.getSchemaAPI();
+    String attributeName = schemaAPI.getAttributePath(attributePath).getAttributeNotation();
+    currentAttributePath = schemaAPI.appendSubAttributeToPath(currentAttributePath, attributeName);
+
+    if (ctx.valFilter() != null) {
+      return visit(ctx.valFilter());
+    }
+    return visit(ctx.valExpression());
+  }
+
+  @Override
+  public Void visitValValuePathExpression(SCIMFilterParser.ValValuePathExpressionContext ctx) {
+    throw new PatchValidationException(SCIMException.Type.INVALID_FILTER, "Multivalued sub attribute of multivalued attribute is not allowed");
+  }
+
+  @Override
+  public Void visitBraceExpression(SCIMFilterParser.BraceExpressionContext ctx) {
+    throw new PatchValidationException(SCIMException.Type.INVALID_FILTER, "Brace filter expression is not supported");
+  }
+
+  @Override
+  public Void visitValBraceExpression(SCIMFilterParser.ValBraceExpressionContext ctx) {
+    throw new PatchValidationException(SCIMException.Type.INVALID_FILTER, "Brace filter expression is not supported");
+  }
+
+  @Override
+  public Void visitLogExpression(SCIMFilterParser.LogExpressionContext ctx) {
+    validateAttribute(ctx.attrPath().getText());
+
+    String operator = ctx.OPERATOR().getText();
+    if (!isOperatorSupported(operator)) {
+      throw new PatchValidationException(SCIMException.Type.INVALID_FILTER,
+          String.format("Filter following value fitler operation is not supported: '%s'", operator));
+    }
+    return null;
+  }
+
+  @Override
+  public Void visitPresentExpression(SCIMFilterParser.PresentExpressionContext ctx) {
+    validateAttribute(ctx.attrPath().getText());
+    return null;
+  }
+
+  private void validateAttribute(String attributeName) {
+    String fullAttrName;
+    if (isParentAttribute()) {
+      fullAttrName = AttributePath.startsWithUrn(attributeName) ? attributeName
+          : String.join(SchemasCallback.SCHEMA_URN_DELIMETER, valuePathValidator.getCoreSchemaId(), attributeName);
+    } else if (isSubAttrBelongToParentSchema(attributeName)) {
+      fullAttrName = AttributePath.startsWithUrn(attributeName) ? attributeName
+          : valuePathValidator.getSchemaAPI().appendSubAttributeToPath(currentAttributePath, attributeName);
+    } else {
+      throw new PatchValidationException(SCIMException.Type.INVALID_PATH, String.format("Attribute with name '%s' does not exist", attributeName));
+    }
+
+    PatchOperation attributeOperation = new PatchOperation.Builder(operation).setPath(fullAttrName).build();
+    valuePathValidator.validateAttribute(attributeOperation, valuePathValidator.getSchemaAPI().getSchema(currentAttributePath) != null);
+  }
+
+  private boolean isParentAttribute() {
+    return valuePathValidator.getCoreSchemaId().equals(currentAttributePath);
+  }
+
+  private boolean isSubAttrBelongToParentSchema(String targetAttr) {
+    if (!AttributePath.startsWithUrn(targetAttr)) {
+      return true;
+    }
+
+    String targetAttrSchema = valuePathValidator.getSchemaAPI().getAttributePath(targetAttr).getSchemaId();
+    return targetAttrSchema != null && currentAttributePath.startsWith(targetAttrSchema);
+  }
+
+  private boolean isOperatorSupported(String operator) {
+    return Stream.of("eq", "co").anyMatch(operator::equalsIgnoreCase);
+  }
+
+  @Override
+  public Void getParsedFilter() {
+    return null;
+  }
+}
@@ -0,0 +1,44 @@
+package com.sap.scimono.helper;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public final class BulkExecutors {
+  private static final Logger logger = LoggerFactory.getLogger(BulkExecutors.class);
+
+  private BulkExecutors() {
+  }
+
+  /**
+   * @return an executor starting a virtual thread per task if the runtime supports virtual threads, or else a shared pool of daemon threads
+   */
+  public static Executor getDefaultExecutor() {
+    return DefaultExecutorHolder.EXECUTOR;
+  }
+
+  private static final class DefaultExecutorHolder {
+    private static final Executor EXECUTOR = createExecutor();
+
+    private static Executor createExecutor() {
+      try {
+        return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+      } catch (ReflectiveOperationException e) {
+        logger.debug("Virtual threads are not available, bulk operations are executed by a thread pool");
+      }
+
+      AtomicInteger threadCount = new AtomicInteger();
+      ThreadFactory threadFactory = runnable -> {
+        Thread thread = new Thread(runnable, "scimono-bulk-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      };
+      return Executors.newCachedThreadPool(threadFactory);
+    }
+  }
+}
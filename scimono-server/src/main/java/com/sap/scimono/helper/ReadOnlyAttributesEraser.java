@@ -1,8 +1,6 @@
 
 package com.sap.scimono.helper;
 
-import static com.sap.scimono.entity.schema.AttributeDataType.COMPLEX;
-
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -16,8 +14,8 @@ import com.sap.scimono.callback.schemas.SchemasCallback;
 import com.sap.scimono.entity.EnterpriseExtension;
 import com.sap.scimono.entity.Resource;
 import com.sap.scimono.entity.base.Extension;
-import com.sap.scimono.entity.schema.Attribute;
 import com.sap.scimono.entity.schema.Schema;
+import com.sap.scimono.entity.validation.CompiledAttribute;
 import com.sap.scimono.exception.SCIMException;
 
 public class ReadOnlyAttributesEraser<T extends Resource<T>> {
@@ -50,7 +48,7 @@ public class ReadOnlyAttributesEraser<T extends Resource<T>> {
         throw new SCIMException(SCIMException.Type.INVALID_SYNTAX, String.format("Schema '%s' does not exist.", extension.getUrn()),
             Response.Status.BAD_REQUEST);
       }
-      removeReadOnlyAttributes(customSchema.toAttribute(), attributes);
+      removeReadOnlyAttributes(CompiledAttribute.ofSchema(customSchema), attributes);
 
       return new Extension.Builder(extension).setAttributes(attributes).build();
     }).collect(Collectors.toList());
@@ -58,12 +56,12 @@ public class ReadOnlyAttributesEraser<T extends Resource<T>> {
     return resource.builder().removeExtensions().addExtensions(extensions).build();
   }
 
-  private boolean removeReadOnlyAttributes(final Attribute targetAttribute, final Object value) {
-    if ("readOnly".equals(targetAttribute.getMutability())) {
+  private boolean removeReadOnlyAttributes(final CompiledAttribute targetAttribute, final Object value) {
+    if (targetAttribute.isReadOnly()) {
       return true;
     }
 
-    if (!COMPLEX.toString().equals(targetAttribute.getType())) {
+    if (!targetAttribute.isComplex()) {
       return false;
     }
 
@@ -73,16 +71,8 @@ public class ReadOnlyAttributesEraser<T extends Resource<T>> {
         Collection<Object> valueCollection = (Collection<Object>) value;
 
         // @formatter:off
-        Attribute singleValuedAttribute = new Attribute.Builder()
-            .name(targetAttribute.getName())
-            .multiValued(false)
-            .type(targetAttribute.getType())
-            .mutability(targetAttribute.getMutability())
-            .addSubAttributes(targetAttribute.getSubAttributes())
-            .build();
-
         valueCollection.removeAll(valueCollection.stream()
-            .filter(object -> removeReadOnlyAttributes(singleValuedAttribute, object))
+            .filter(object -> removeReadOnlyAttributes(targetAttribute.getElement(), object))
             .collect(Collectors.toList()));
         // @formatter:on
       } else {
@@ -99,14 +89,12 @@ public class ReadOnlyAttributesEraser<T extends Resource<T>> {
       Iterator<Entry<String, Object>> iterator = valueMap.entrySet().iterator();
       while(iterator.hasNext()) {
         Map.Entry<String, Object> entry = iterator.next();
-        // @formatter:off
-        Attribute subAttribute = targetAttribute.getSubAttributes().stream()
-            .filter(attribute -> entry.getKey().equalsIgnoreCase(attribute.getName()))
-            .findAny()
-            .orElseThrow(() -> new SCIMException(SCIMException.Type.INVALID_SYNTAX,
-                String.format("Provided attribute with name '%s' does not exist according to the schema", entry.getKey()),
-                Response.Status.BAD_REQUEST));
-        // @formatter:on
+        CompiledAttribute subAttribute = targetAttribute.getSubAttribute(entry.getKey());
+        if (subAttribute == null) {
+          throw new SCIMException(SCIMException.Type.INVALID_SYNTAX,
+              String.format("Provided attribute with name '%s' does not exist according to the schema", entry.getKey()),
+              Response.Status.BAD_REQUEST);
+        }
         if (removeReadOnlyAttributes(subAttribute, entry.getValue())) {
           iterator.remove();
         }
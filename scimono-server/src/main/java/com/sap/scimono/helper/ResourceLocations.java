@@ -0,0 +1,64 @@
+package com.sap.scimono.helper;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+import javax.ws.rs.core.UriBuilder;
+
+import com.sap.scimono.api.API;
+import com.sap.scimono.exception.InternalScimonoException;
+
+/**
+ * Locations of users and groups, built from the root URI of the API computed once per response. The locations of the response being written
+ * are bound to the writing thread, so that <b>meta.location</b> and the <b>$ref</b> attributes are added to the resources while they are
+ * serialized, see {@link com.sap.scimono.api.helper.ResourceLocationModule}.
+ */
+public final class ResourceLocations {
+  private static final ThreadLocal<ResourceLocations> CURRENT = new ThreadLocal<>();
+
+  private final String usersPrefix;
+  private final String groupsPrefix;
+
+  public ResourceLocations(final URI apiRoot) {
+    this.usersPrefix = getPrefix(apiRoot, API.USERS);
+    this.groupsPrefix = getPrefix(apiRoot, API.GROUPS);
+  }
+
+  /**
+   * @return the locations bound to the current thread or null if the current thread is not writing a response
+   */
+  public static ResourceLocations current() {
+    return CURRENT.get();
+  }
+
+  public static void bind(final ResourceLocations locations) {
+    CURRENT.set(locations);
+  }
+
+  public static void unbind() {
+    CURRENT.remove();
+  }
+
+  public String getUserLocation(final String userId) {
+    return usersPrefix + encodePath(userId);
+  }
+
+  public String getGroupLocation(final String groupId) {
+    return groupsPrefix + encodePath(groupId);
+  }
+
+  private static String getPrefix(final URI apiRoot, final String endpoint) {
+    String endpointLocation = UriBuilder.fromUri(apiRoot).path(endpoint).build().toString();
+    return endpointLocation.endsWith("/") ? endpointLocation : endpointLocation + "/";
+  }
+
+  private static String encodePath(final String path) {
+    try {
+      return URLEncoder.encode(path, StandardCharsets.UTF_8.name());
+    } catch (UnsupportedEncodingException e) {
+      throw new InternalScimonoException("Unrecognized encoding", e);
+    }
+  }
+}
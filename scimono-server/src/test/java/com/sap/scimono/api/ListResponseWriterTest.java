@@ -0,0 +1,85 @@
+package com.sap.scimono.api;
+
+import static com.sap.scimono.entity.paging.PagedResult.UNKNOWN_TOTAL_RESOURCE_COUNT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sap.scimono.api.helper.ObjectMapperFactory;
+import com.sap.scimono.entity.User;
+import com.sap.scimono.entity.paging.PagedByIdentitySearchResult;
+import com.sap.scimono.entity.paging.PagedByIndexSearchResult;
+
+public class ListResponseWriterTest {
+  private static final ObjectMapper MAPPER = ObjectMapperFactory.createObjectMapper();
+
+  // @formatter:off
+  private static final List<User> USERS = IntStream.rangeClosed(1, 4)
+      .mapToObj(i -> new User.Builder("user" + i).setId(String.valueOf(i)).build())
+      .collect(Collectors.toList());
+  // @formatter:on
+
+  @Test
+  public void testPageByIndexIsWrittenAsListResponse() throws IOException {
+    JsonNode expected = MAPPER.valueToTree(new PagedByIndexSearchResult<>(USERS, 10, 4, 1));
+
+    assertEquals(expected, write(ListResponseWriter.pagedByIndex(MAPPER, USERS.stream(), 10, 4, 1)));
+  }
+
+  @Test
+  public void testPageByIdentityWritesIdOfNextResource() throws IOException {
+    JsonNode expected = MAPPER.valueToTree(new PagedByIdentitySearchResult<>(USERS.subList(0, 3), 10, 3, "initial", "4"));
+
+    assertEquals(expected, write(ListResponseWriter.pagedByIdentity(MAPPER, USERS.stream(), 10, 3, "initial")));
+  }
+
+  @Test
+  public void testEmptyPageIsWrittenWithoutResources() throws IOException {
+    JsonNode listResponse = write(ListResponseWriter.pagedByIndex(MAPPER, USERS.stream().limit(0), 0, 100, 1));
+
+    assertEquals(MAPPER.valueToTree(new PagedByIndexSearchResult<User>(null, 0, 100, 1)), listResponse);
+  }
+
+  @Test
+  public void testUnknownTotalResultsCountResourcesSeen() throws IOException {
+    ListResponseWriter<User> fullPage = ListResponseWriter.pagedByIndex(MAPPER, USERS.stream(), UNKNOWN_TOTAL_RESOURCE_COUNT, 4, 5);
+    ListResponseWriter<User> lastPage = ListResponseWriter.pagedByIndex(MAPPER, USERS.stream().limit(2), UNKNOWN_TOTAL_RESOURCE_COUNT, 4, 5);
+
+    assertEquals(9, write(fullPage.withInexactTotalResults()).get("totalResults").asInt());
+    assertEquals(6, write(lastPage.withInexactTotalResults()).get("totalResults").asInt());
+  }
+
+  @Test
+  public void testEstimatedTotalResultsAreNotBelowResourcesSeen() throws IOException {
+    ListResponseWriter<User> underestimated = ListResponseWriter.pagedByIdentity(MAPPER, USERS.stream(), 2, 3, "initial");
+    ListResponseWriter<User> overestimated = ListResponseWriter.pagedByIdentity(MAPPER, USERS.stream(), 1000, 3, "initial");
+
+    assertEquals(4, write(underestimated.withInexactTotalResults()).get("totalResults").asInt());
+    assertEquals(1000, write(overestimated.withInexactTotalResults()).get("totalResults").asInt());
+  }
+
+  @Test
+  public void testResourcesStreamIsClosed() throws IOException {
+    AtomicBoolean closed = new AtomicBoolean();
+
+    write(ListResponseWriter.pagedByIndex(MAPPER, USERS.stream().onClose(() -> closed.set(true)), 4, 4, 1));
+
+    assertTrue(closed.get());
+  }
+
+  private static JsonNode write(ListResponseWriter<User> writer) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    writer.write(output);
+    return MAPPER.readTree(output.toByteArray());
+  }
+}
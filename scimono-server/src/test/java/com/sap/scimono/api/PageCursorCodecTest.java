@@ -0,0 +1,86 @@
+package com.sap.scimono.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import com.sap.scimono.callback.config.DefaultSCIMConfigurationCallback;
+import com.sap.scimono.callback.config.SCIMConfigurationCallback;
+import com.sap.scimono.callback.schemas.SchemaRegistry;
+import com.sap.scimono.entity.Meta;
+import com.sap.scimono.entity.User;
+import com.sap.scimono.entity.paging.PageCursor;
+import com.sap.scimono.entity.paging.SortInfo;
+import com.sap.scimono.entity.schema.resources.SchemaCSVReader;
+import com.sap.scimono.exception.SCIMException;
+import com.sap.scimono.filter.FilterExpressionParser;
+import com.sap.scimono.filter.expression.FilterExpression;
+
+public class PageCursorCodecTest {
+  private static final SchemaRegistry REGISTRY = SchemaRegistry.compile(new ArrayList<>(SchemaCSVReader.getImportedSchemasFromCSVs().values()));
+  private static final SCIMConfigurationCallback SCIM_CONFIG = new DefaultSCIMConfigurationCallback();
+  private static final FilterExpression FILTER = FilterExpressionParser.forUsers().parse("userName sw \"a\"", REGISTRY);
+
+  private static final User USER = new User.Builder("alice").setId("01")
+      .setMeta(new Meta.Builder(Instant.parse("2020-01-01T00:00:00Z"), Instant.parse("2020-01-02T00:00:00.5Z")).build()).build();
+
+  @Test
+  public void testEmptyCursorRequestsFirstPage() {
+    assertTrue(PageCursorCodec.forUsers(SCIM_CONFIG, REGISTRY, null, null).decode("").isInitial());
+  }
+
+  @Test
+  public void testUnsortedCursorHoldsStartId() {
+    PageCursorCodec<User> codec = PageCursorCodec.forUsers(SCIM_CONFIG, REGISTRY, FILTER, null);
+
+    PageCursor cursor = codec.decode(codec.encode(USER));
+
+    assertEquals("01", cursor.getStartId());
+    assertNull(cursor.getStartSortKey());
+  }
+
+  @Test
+  public void testSortedCursorHoldsStartSortKey() {
+    PageCursorCodec<User> byUserName = PageCursorCodec.forUsers(SCIM_CONFIG, REGISTRY, null, SortInfo.getInstance("userName", null));
+    PageCursorCodec<User> byLastModified = PageCursorCodec.forUsers(SCIM_CONFIG, REGISTRY, null,
+        SortInfo.getInstance("meta.lastModified", null));
+
+    assertEquals("alice", byUserName.decode(byUserName.encode(USER)).getStartSortKey());
+    assertEquals(Instant.parse("2020-01-02T00:00:00.5Z"), byLastModified.decode(byLastModified.encode(USER)).getStartSortKey());
+  }
+
+  @Test
+  public void testTamperedCursorIsRejected() {
+    PageCursorCodec<User> codec = PageCursorCodec.forUsers(SCIM_CONFIG, REGISTRY, FILTER, null);
+    String token = codec.encode(USER);
+    String tamperedToken = token.substring(0, 5) + (token.charAt(5) == 'A' ? 'B' : 'A') + token.substring(6);
+
+    assertThrows(SCIMException.class, () -> codec.decode(tamperedToken));
+    assertThrows(SCIMException.class, () -> codec.decode("not a cursor"));
+  }
+
+  @Test
+  public void testCursorOfAnotherFilterIsRejected() {
+    String token = PageCursorCodec.forUsers(SCIM_CONFIG, REGISTRY, FILTER, null).encode(USER);
+
+    assertThrows(SCIMException.class, () -> PageCursorCodec.forUsers(SCIM_CONFIG, REGISTRY, null, null).decode(token));
+    assertThrows(SCIMException.class,
+        () -> PageCursorCodec.forUsers(SCIM_CONFIG, REGISTRY, FILTER, SortInfo.getInstance("userName", null)).decode(token));
+  }
+
+  @Test
+  public void testCursorOfFilterWithSameHashCodeIsRejected() {
+    FilterExpression filter = FilterExpressionParser.forUsers().parse("userName eq \"Aa\"", REGISTRY);
+    FilterExpression collidingFilter = FilterExpressionParser.forUsers().parse("userName eq \"BB\"", REGISTRY);
+    String token = PageCursorCodec.forUsers(SCIM_CONFIG, REGISTRY, filter, null).encode(USER);
+
+    assertEquals(filter.toString().hashCode(), collidingFilter.toString().hashCode());
+    assertThrows(SCIMException.class, () -> PageCursorCodec.forUsers(SCIM_CONFIG, REGISTRY, collidingFilter, null).decode(token));
+  }
+}
@@ -0,0 +1,73 @@
+package com.sap.scimono.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.sap.scimono.entity.User;
+import com.sap.scimono.entity.paging.PageInfo;
+import com.sap.scimono.entity.paging.PagedResult;
+import com.sap.scimono.exception.SCIMException;
+
+public class ResidualFilterPagerTest {
+  private static final int PAGE_SIZE = 4;
+
+  // @formatter:off
+  private static final List<User> USERS = IntStream.rangeClosed(1, 10)
+      .mapToObj(i -> new User.Builder("user" + i).setId(String.format("%02d", i)).build())
+      .collect(Collectors.toList());
+  // @formatter:on
+
+  private static final Predicate<User> EVEN_USERS = user -> Integer.parseInt(user.getId()) % 2 == 0;
+
+  @Test
+  public void testPageByIndexCountsMatchingResources() {
+    ResidualFilterPager<User> pager = new ResidualFilterPager<>(ResidualFilterPagerTest::readCandidates, EVEN_USERS, PAGE_SIZE, 0);
+
+    PagedResult<User> page = pager.getPage(PageInfo.getInstance(2, 1, null));
+
+    assertEquals(5, page.getTotalResourceCount());
+    assertEquals("04,06", ids(page));
+  }
+
+  @Test
+  public void testPageByIdReturnsNextResource() {
+    ResidualFilterPager<User> pager = new ResidualFilterPager<>(ResidualFilterPagerTest::readCandidates, EVEN_USERS, PAGE_SIZE, 0);
+
+    PagedResult<User> page = pager.getPage(PageInfo.getInstance(2, 0, "03"));
+
+    assertEquals(4, page.getTotalResourceCount());
+    assertEquals("04,06,08", ids(page));
+  }
+
+  @Test
+  public void testTooManyCandidatesAreRejected() {
+    ResidualFilterPager<User> pager = new ResidualFilterPager<>(ResidualFilterPagerTest::readCandidates, EVEN_USERS, PAGE_SIZE, 8);
+
+    assertThrows(SCIMException.class, () -> pager.getPage(PageInfo.getInstance(2, 0, null)));
+  }
+
+  /**
+   * Pages by id return one more resource if there is a next page, like the callbacks do.
+   */
+  private static PagedResult<User> readCandidates(final PageInfo pageInfo) {
+    int fromIndex = pageInfo.getStartIndex();
+    int count = pageInfo.getEntityCount();
+    if (!pageInfo.isStandardPaging()) {
+      fromIndex = Integer.parseInt(pageInfo.getStartId()) - 1;
+      count++;
+    }
+    List<User> page = USERS.subList(Math.min(fromIndex, USERS.size()), Math.min(fromIndex + count, USERS.size()));
+    return new PagedResult<>(USERS.size(), page);
+  }
+
+  private static String ids(final PagedResult<User> page) {
+    return page.getResources().stream().map(User::getId).collect(Collectors.joining(","));
+  }
+}
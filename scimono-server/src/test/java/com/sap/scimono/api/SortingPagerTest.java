@@ -0,0 +1,138 @@
+package com.sap.scimono.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.sap.scimono.callback.schemas.SchemaRegistry;
+import com.sap.scimono.entity.Email;
+import com.sap.scimono.entity.Meta;
+import com.sap.scimono.entity.Name;
+import com.sap.scimono.entity.User;
+import com.sap.scimono.entity.paging.PageCursor;
+import com.sap.scimono.entity.paging.PageInfo;
+import com.sap.scimono.entity.paging.PagedResult;
+import com.sap.scimono.entity.paging.SortInfo;
+import com.sap.scimono.entity.paging.SortInfo.SortOrder;
+import com.sap.scimono.entity.schema.resources.SchemaCSVReader;
+import com.sap.scimono.exception.InvalidInputException;
+import com.sap.scimono.filter.ResourceComparator;
+
+public class SortingPagerTest {
+  private static final SchemaRegistry REGISTRY = SchemaRegistry.compile(new ArrayList<>(SchemaCSVReader.getImportedSchemasFromCSVs().values()));
+  private static final int PAGE_SIZE = 2;
+
+  // @formatter:off
+  private static final List<User> USERS = Arrays.asList(
+      user("01", "carol", "Young", "2020-03-01T00:00:00Z", "carol@example.com"),
+      user("02", "Alice", "Smith", "2020-01-01T00:00:00Z", "alice@example.com"),
+      user("03", "dave", null, "2020-05-01T00:00:00Z", "dave@example.com"),
+      user("04", "bob", "smith", "2020-02-01T00:00:00Z", "zed@example.com", "bob@example.com"),
+      user("05", "Eve", "Adams", "2020-04-01T00:00:00Z"));
+  // @formatter:on
+
+  @Test
+  public void testStringsAreSortedCaseInsensitively() {
+    assertEquals("02,04,01,03,05", ids(getPage("userName", null, 0, 10)));
+    assertEquals("05,03,01,04,02", ids(getPage("userName", SortOrder.DESCENDING, 0, 10)));
+  }
+
+  @Test
+  public void testPageIsCutFromSortedResources() {
+    PagedResult<User> page = getPage("userName", null, 1, 2);
+
+    assertEquals(5, page.getTotalResourceCount());
+    assertEquals("04,01", ids(page));
+  }
+
+  @Test
+  public void testDateTimesAreSortedByInstant() {
+    assertEquals("02,04,01", ids(getPage("meta.created", null, 0, 3)));
+    assertEquals("03,05", ids(getPage("meta.created", SortOrder.DESCENDING, 0, 2)));
+  }
+
+  @Test
+  public void testMissingValuesAreSortedLastAndEqualValuesById() {
+    assertEquals("05,02,04,01,03", ids(getPage("name.familyName", null, 0, 10)));
+    assertEquals("03,01,02,04,05", ids(getPage("name.familyName", SortOrder.DESCENDING, 0, 10)));
+  }
+
+  @Test
+  public void testMultiValuedAttributesAreSortedByPrimaryValue() {
+    assertEquals("02,04,01,03,05", ids(getPage("emails", null, 0, 10)));
+  }
+
+  @Test
+  public void testResidualFilterIsAppliedBeforeSorting() {
+    SortingPager<User> pager = new SortingPager<>(SortingPagerTest::readCandidates, user -> !user.getId().equals("02"),
+        comparator("userName", null), PAGE_SIZE, 0);
+
+    PagedResult<User> page = pager.getPage(PageInfo.getInstance(2, 0, null));
+
+    assertEquals(4, page.getTotalResourceCount());
+    assertEquals("04,01", ids(page));
+  }
+
+  @Test
+  public void testPagesByCursorStartAtCursor() {
+    SortingPager<User> pager = new SortingPager<>(SortingPagerTest::readCandidates, null, comparator("userName", null), PAGE_SIZE, 0);
+
+    PagedResult<User> firstPage = pager.getPage(PageInfo.getInstance(2, PageCursor.initial()));
+    PagedResult<User> secondPage = pager.getPage(PageInfo.getInstance(2, PageCursor.startingAt("01", "carol")));
+    PagedResult<User> lastPage = pager.getPage(PageInfo.getInstance(2, PageCursor.startingAt("05", "Eve")));
+
+    assertEquals("02,04,01", ids(firstPage));
+    assertEquals("01,03,05", ids(secondPage));
+    assertEquals("05", ids(lastPage));
+  }
+
+  @Test
+  public void testPagingByIdIsRejected() {
+    SortingPager<User> pager = new SortingPager<>(SortingPagerTest::readCandidates, null, comparator("userName", null), PAGE_SIZE, 0);
+
+    assertThrows(InvalidInputException.class, () -> pager.getPage(PageInfo.getInstance(2, 0, "01")));
+  }
+
+  @Test
+  public void testUnknownAttributesAreRejected() {
+    assertThrows(InvalidInputException.class, () -> comparator("unknown", null));
+    assertThrows(InvalidInputException.class, () -> comparator("name", null));
+  }
+
+  private static PagedResult<User> getPage(final String sortBy, final SortOrder sortOrder, final int startIndex, final int count) {
+    SortingPager<User> pager = new SortingPager<>(SortingPagerTest::readCandidates, null, comparator(sortBy, sortOrder), PAGE_SIZE, 0);
+    return pager.getPage(PageInfo.getInstance(count, startIndex, null));
+  }
+
+  private static ResourceComparator<User> comparator(final String sortBy, final SortOrder sortOrder) {
+    return ResourceComparator.forUsers(REGISTRY, SortInfo.getInstance(sortBy, sortOrder));
+  }
+
+  private static PagedResult<User> readCandidates(final PageInfo pageInfo) {
+    int fromIndex = Math.min(pageInfo.getStartIndex(), USERS.size());
+    return new PagedResult<>(USERS.size(), USERS.subList(fromIndex, Math.min(fromIndex + pageInfo.getEntityCount(), USERS.size())));
+  }
+
+  private static User user(final String id, final String userName, final String familyName, final String created, final String... emails) {
+    User.Builder builder = new User.Builder(userName).setId(id);
+    if (familyName != null) {
+      builder.setName(new Name.Builder().setFamilyName(familyName).build());
+    }
+    builder.setMeta(new Meta.Builder(Instant.parse(created), Instant.parse(created)).build());
+    for (int i = 0; i < emails.length; i++) {
+      builder.addEmail(new Email.Builder().setValue(emails[i]).setPrimary(i == emails.length - 1).build());
+    }
+    return builder.build();
+  }
+
+  private static String ids(final PagedResult<User> page) {
+    return page.getResources().stream().map(User::getId).collect(Collectors.joining(","));
+  }
+}
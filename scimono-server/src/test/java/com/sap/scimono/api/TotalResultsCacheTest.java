@@ -0,0 +1,56 @@
+package com.sap.scimono.api;
+
+import static com.sap.scimono.entity.User.RESOURCE_TYPE_USER;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import com.sap.scimono.callback.schemas.SchemaRegistry;
+import com.sap.scimono.entity.paging.StreamedPagedResult;
+import com.sap.scimono.entity.schema.resources.SchemaCSVReader;
+import com.sap.scimono.filter.FilterExpressionParser;
+import com.sap.scimono.filter.expression.FilterExpression;
+
+public class TotalResultsCacheTest {
+  private static final SchemaRegistry REGISTRY = SchemaRegistry.compile(new ArrayList<>(SchemaCSVReader.getImportedSchemasFromCSVs().values()));
+  private static final FilterExpression FILTER = FilterExpressionParser.forUsers().parse("userName sw \"a\"", REGISTRY);
+  private static final Duration TIME_TO_LIVE = Duration.ofMinutes(1);
+
+  private final TotalResultsCache cache = new TotalResultsCache();
+
+  @Test
+  public void testExactCountIsReusedForSameFilter() {
+    cache.complete(RESOURCE_TYPE_USER, FILTER, TIME_TO_LIVE, new StreamedPagedResult<>(42, Stream.empty()), null);
+
+    Integer cachedCount = cache.get(RESOURCE_TYPE_USER, FilterExpressionParser.forUsers().parse("userName sw \"a\"", REGISTRY), TIME_TO_LIVE);
+    StreamedPagedResult<String> uncountedPage = StreamedPagedResult.withUnknownTotal(Stream.of("a"));
+    StreamedPagedResult<String> page = cache.complete(RESOURCE_TYPE_USER, FILTER, TIME_TO_LIVE, uncountedPage, cachedCount);
+
+    assertEquals(42, page.getTotalResourceCount());
+    assertTrue(page.isTotalResourceCountExact());
+    assertNull(cache.get(RESOURCE_TYPE_USER, null, TIME_TO_LIVE));
+  }
+
+  @Test
+  public void testInexactCountsAreNotCached() {
+    StreamedPagedResult<String> estimatedPage = StreamedPagedResult.withEstimatedTotal(40, Stream.empty());
+    StreamedPagedResult<String> page = cache.complete(RESOURCE_TYPE_USER, FILTER, TIME_TO_LIVE, estimatedPage, null);
+
+    assertFalse(page.isTotalResourceCountExact());
+    assertNull(cache.get(RESOURCE_TYPE_USER, FILTER, TIME_TO_LIVE));
+  }
+
+  @Test
+  public void testCacheIsDisabledWithoutTimeToLive() {
+    cache.complete(RESOURCE_TYPE_USER, FILTER, Duration.ZERO, new StreamedPagedResult<>(42, Stream.empty()), null);
+
+    assertNull(cache.get(RESOURCE_TYPE_USER, FILTER, TIME_TO_LIVE));
+  }
+}
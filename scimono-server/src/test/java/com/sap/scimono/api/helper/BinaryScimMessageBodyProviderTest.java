@@ -0,0 +1,77 @@
+package com.sap.scimono.api.helper;
+
+import static com.sap.scimono.api.API.APPLICATION_CBOR_SCIM;
+import static com.sap.scimono.api.API.APPLICATION_JSON_SCIM;
+import static com.sap.scimono.api.API.APPLICATION_SMILE_SCIM;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sap.scimono.entity.User;
+
+public class BinaryScimMessageBodyProviderTest {
+  private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+  private static final User USER = new User.Builder("bjensen").setId("2819c223").setDisplayName("Babs Jensen").build();
+
+  private final BinaryScimMessageBodyProvider provider = new BinaryScimMessageBodyProvider(null);
+
+  @ParameterizedTest
+  @ValueSource(strings = { APPLICATION_CBOR_SCIM, APPLICATION_SMILE_SCIM })
+  public void testEntityIsWrittenAndReadInBinaryDataFormat(String mediaTypeName) throws IOException {
+    MediaType mediaType = toMediaType(mediaTypeName);
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    provider.writeTo(USER, User.class, User.class, NO_ANNOTATIONS, mediaType, new MultivaluedHashMap<>(), output);
+    User user = (User) provider.readFrom(Object.class, User.class, NO_ANNOTATIONS, mediaType, new MultivaluedHashMap<>(),
+        new ByteArrayInputStream(output.toByteArray()));
+
+    ObjectMapper jsonMapper = ObjectMapperFactory.getObjectMapper(ObjectMapperFactory.Profile.COMPACT);
+    assertEquals(jsonMapper.writeValueAsString(USER), jsonMapper.writeValueAsString(user));
+    assertTrue(output.size() < jsonMapper.writeValueAsBytes(USER).length);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = { "list", "bulk" })
+  public void testBinaryPayloadIsSmallerThanJson(String payload) throws IOException {
+    int jsonSize = getEncodedSize(APPLICATION_JSON_SCIM, payload);
+    int cborSize = getEncodedSize(APPLICATION_CBOR_SCIM, payload);
+    int smileSize = getEncodedSize(APPLICATION_SMILE_SCIM, payload);
+
+    assertTrue(cborSize < jsonSize, "CBOR payload of " + cborSize + " bytes, JSON payload of " + jsonSize + " bytes");
+    assertTrue(smileSize < jsonSize, "Smile payload of " + smileSize + " bytes, JSON payload of " + jsonSize + " bytes");
+  }
+
+  @Test
+  public void testJsonMediaTypeIsNotHandled() {
+    MediaType jsonMediaType = new MediaType("application", "scim+json");
+
+    assertFalse(provider.isWriteable(User.class, User.class, NO_ANNOTATIONS, jsonMediaType));
+    assertFalse(provider.isReadable(User.class, User.class, NO_ANNOTATIONS, jsonMediaType));
+  }
+
+  private static int getEncodedSize(String mediaType, String payload) throws IOException {
+    DataFormatBenchmark benchmark = new DataFormatBenchmark();
+    benchmark.mediaType = mediaType;
+    benchmark.payload = payload;
+    benchmark.setUp();
+    return benchmark.getEncodedSize();
+  }
+
+  private static MediaType toMediaType(String mediaTypeName) {
+    String[] typeAndSubtype = mediaTypeName.split("/");
+    return new MediaType(typeAndSubtype[0], typeAndSubtype[1]);
+  }
+}
@@ -0,0 +1,125 @@
+package com.sap.scimono.api.helper;
+
+import static com.sap.scimono.api.API.APPLICATION_CBOR_SCIM;
+import static com.sap.scimono.api.API.APPLICATION_JSON_SCIM;
+import static com.sap.scimono.api.API.APPLICATION_SMILE_SCIM;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.ws.rs.core.MediaType;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sap.scimono.entity.Email;
+import com.sap.scimono.entity.GroupRef;
+import com.sap.scimono.entity.Name;
+import com.sap.scimono.entity.User;
+import com.sap.scimono.entity.bulk.BulkBody;
+import com.sap.scimono.entity.bulk.RequestMethod;
+import com.sap.scimono.entity.bulk.RequestOperation;
+import com.sap.scimono.entity.paging.PagedByIndexSearchResult;
+
+/**
+ * Compares the encoding and decoding time of list responses and bulk requests of 100 users in the SCIM media types. Their payload sizes are
+ * compared by {@link BinaryScimMessageBodyProviderTest#testBinaryPayloadIsSmallerThanJson(String)}. Not a unit test, run it with
+ * <b>mvn test-compile exec:java -Dexec.mainClass=com.sap.scimono.api.helper.DataFormatBenchmark -Dexec.classpathScope=test</b>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataFormatBenchmark {
+  private static final int USERS_COUNT = 100;
+
+  @Param({ APPLICATION_JSON_SCIM, APPLICATION_CBOR_SCIM, APPLICATION_SMILE_SCIM })
+  public String mediaType;
+
+  @Param({ "list", "bulk" })
+  public String payload;
+
+  private ObjectMapper objectMapper;
+  private Object value;
+  private JavaType valueType;
+  private byte[] encodedValue;
+
+  @Setup
+  public void setUp() throws IOException {
+    String[] type = mediaType.split("/");
+    objectMapper = ObjectMapperFactory.getObjectMapper(new MediaType(type[0], type[1]), ObjectMapperFactory.Profile.COMPACT);
+
+    // @formatter:off
+    List<User> users = IntStream.range(0, USERS_COUNT)
+        .mapToObj(DataFormatBenchmark::createUser)
+        .collect(Collectors.toList());
+    // @formatter:on
+    if ("list".equals(payload)) {
+      value = new PagedByIndexSearchResult<>(users, USERS_COUNT, USERS_COUNT, 1);
+      valueType = objectMapper.getTypeFactory().constructParametricType(PagedByIndexSearchResult.class, User.class);
+    } else {
+      // @formatter:off
+      List<RequestOperation> operations = users.stream()
+          .map(user -> new RequestOperation.Builder().setMethod(RequestMethod.POST).setBulkId(user.getExternalId()).setPath("/Users").setData(user).build())
+          .collect(Collectors.toList());
+      // @formatter:on
+      value = BulkBody.forRequest(operations);
+      valueType = objectMapper.getTypeFactory().constructParametricType(BulkBody.class, RequestOperation.class);
+    }
+
+    encodedValue = objectMapper.writeValueAsBytes(value);
+  }
+
+  /**
+   * @return the size of the encoded payload in bytes, available after {@link #setUp()}
+   */
+  int getEncodedSize() {
+    return encodedValue.length;
+  }
+
+  @Benchmark
+  public byte[] encode() throws IOException {
+    return objectMapper.writeValueAsBytes(value);
+  }
+
+  @Benchmark
+  public Object decode() throws IOException {
+    return objectMapper.readValue(encodedValue, valueType);
+  }
+
+  private static User createUser(final int index) {
+    // @formatter:off
+    return new User.Builder("user" + index)
+        .setId("2819c223-7f76-453a-919d-" + String.format("%012d", index))
+        .setExternalId("external" + index)
+        .setName(new Name.Builder().setGivenName("Barbara").setFamilyName("Jensen " + index).build())
+        .setDisplayName("Babs Jensen " + index)
+        .addEmail(new Email.Builder().setValue("user" + index + "@example.com").setType(Email.Type.WORK).setPrimary(true).build())
+        .addGroup(new GroupRef.Builder().setValue("e9e30dba-f08f-4109-8486-d5c6a331660a").setDisplay("Tour Guides").build())
+        .build();
+    // @formatter:on
+  }
+
+  public static void main(final String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(DataFormatBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,43 @@
+package com.sap.scimono.api.helper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sap.scimono.api.helper.ObjectMapperFactory.Profile;
+import com.sap.scimono.entity.User;
+
+public class ObjectMapperFactoryTest {
+  private static final User USER = new User.Builder("bjensen").setId("2819c223").build();
+
+  @Test
+  public void testCompactProfileWritesWithoutWhitespace() throws IOException {
+    String compactUser = ObjectMapperFactory.getObjectMapper(Profile.COMPACT).writeValueAsString(USER);
+    String prettyUser = ObjectMapperFactory.getObjectMapper(Profile.PRETTY).writeValueAsString(USER);
+
+    assertFalse(compactUser.contains("\n"));
+    assertTrue(prettyUser.contains("\n"));
+  }
+
+  @Test
+  public void testCompactProfileReadsAttributeNamesCaseInsensitive() throws IOException {
+    ObjectMapper compactMapper = ObjectMapperFactory.getObjectMapper(Profile.COMPACT);
+
+    User user = compactMapper.readValue("{\"SCHEMAS\":[\"" + User.SCHEMA + "\"],\"USERNAME\":\"bjensen\",\"Id\":\"2819c223\"}",
+        User.class);
+
+    assertEquals(USER.getUserName(), user.getUserName());
+    assertEquals(USER.getId(), user.getId());
+  }
+
+  @Test
+  public void testObjectMapperOfProfileIsShared() {
+    assertSame(ObjectMapperFactory.getObjectMapper(Profile.COMPACT), ObjectMapperFactory.getObjectMapper(Profile.COMPACT));
+  }
+}
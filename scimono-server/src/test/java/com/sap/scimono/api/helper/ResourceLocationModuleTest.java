@@ -0,0 +1,62 @@
+package com.sap.scimono.api.helper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.net.URI;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sap.scimono.entity.Group;
+import com.sap.scimono.entity.GroupRef;
+import com.sap.scimono.entity.MemberRef;
+import com.sap.scimono.entity.User;
+import com.sap.scimono.helper.ResourceLocations;
+
+public class ResourceLocationModuleTest {
+  private static final String API_ROOT = "https://example.com/scim/v2";
+
+  private final ObjectMapper mapper = ObjectMapperFactory.createObjectMapper();
+
+  @AfterEach
+  public void unbindLocations() {
+    ResourceLocations.unbind();
+  }
+
+  @Test
+  public void testUserLocationsAreWrittenWhenBound() {
+    User user = new User.Builder("bjensen").setId("2819c223").addGroup(new GroupRef.Builder().setValue("e9e30dba").build()).build();
+    ResourceLocations.bind(new ResourceLocations(URI.create(API_ROOT)));
+
+    JsonNode json = mapper.valueToTree(user);
+
+    assertEquals(API_ROOT + "/Users/2819c223", json.get("meta").get("location").asText());
+    assertEquals(API_ROOT + "/Groups/e9e30dba", json.get("groups").get(0).get("$ref").asText());
+  }
+
+  @Test
+  public void testMemberLocationDependsOnMemberType() {
+    // @formatter:off
+    Group group = new Group.Builder().setDisplayName("Tour Guides").setId("e9e30dba")
+        .addMember(new MemberRef.Builder().setValue("2819c223").setType(MemberRef.Type.USER).build())
+        .addMember(new MemberRef.Builder().setValue("fc348aa8").setType(MemberRef.Type.GROUP).build())
+        .build();
+    // @formatter:on
+    ResourceLocations.bind(new ResourceLocations(URI.create(API_ROOT)));
+
+    JsonNode members = mapper.valueToTree(group).get("members");
+
+    assertEquals(API_ROOT + "/Users/2819c223", members.get(0).get("$ref").asText());
+    assertEquals(API_ROOT + "/Groups/fc348aa8", members.get(1).get("$ref").asText());
+  }
+
+  @Test
+  public void testResourceIsWrittenUnchangedWithoutBoundLocations() {
+    User user = new User.Builder("bjensen").setId("2819c223").build();
+
+    assertNull(mapper.valueToTree(user).get("meta"));
+  }
+}
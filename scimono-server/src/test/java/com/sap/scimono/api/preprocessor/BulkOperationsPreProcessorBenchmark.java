@@ -0,0 +1,97 @@
+package com.sap.scimono.api.preprocessor;
+
+import static com.sap.scimono.api.API.USERS;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.sap.scimono.callback.config.DefaultSCIMConfigurationCallback;
+import com.sap.scimono.callback.resourcetype.DefaultResourceTypesCallback;
+import com.sap.scimono.callback.schemas.CompiledSchemasCallback;
+import com.sap.scimono.callback.schemas.DefaultSchemasCallback;
+import com.sap.scimono.callback.schemas.SchemaRegistryProvider;
+import com.sap.scimono.callback.users.DefaultUsersCallback;
+import com.sap.scimono.entity.Email;
+import com.sap.scimono.entity.Name;
+import com.sap.scimono.entity.User;
+import com.sap.scimono.entity.bulk.RequestMethod;
+import com.sap.scimono.entity.bulk.RequestOperation;
+import com.sap.scimono.helper.BulkExecutors;
+import com.sap.scimono.helper.ResourceLocationService;
+
+/**
+ * Measures the preprocessing of a bulk request of 1000 user creations by the number of operations preprocessed at once, which scales with
+ * the number of available cores. Not a unit test, run it with
+ * <b>mvn test-compile exec:java -Dexec.mainClass=com.sap.scimono.api.preprocessor.BulkOperationsPreProcessorBenchmark
+ * -Dexec.classpathScope=test</b>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkOperationsPreProcessorBenchmark {
+  private static final int OPERATIONS_COUNT = 1000;
+
+  @Param({ "1", "2", "4", "8", "16" })
+  public int parallelism;
+
+  private ResourcePreProcessor<User> userPreProcessor;
+  private List<RequestOperation> operations;
+
+  @Setup
+  public void setUp() {
+    ResourceLocationService locationService = new ResourceLocationService(null, new DefaultSCIMConfigurationCallback(), USERS);
+    CompiledSchemasCallback schemasAPI = new CompiledSchemasCallback(new DefaultSchemasCallback(), new SchemaRegistryProvider());
+    userPreProcessor = ResourcePreProcessor.forUsers(locationService, new DefaultUsersCallback(), new DefaultResourceTypesCallback(), schemasAPI);
+
+    // @formatter:off
+    operations = IntStream.range(0, OPERATIONS_COUNT)
+        .mapToObj(index -> new RequestOperation.Builder().setMethod(RequestMethod.POST).setBulkId("user" + index).setPath("/Users")
+            .setData(createUser(index)).build())
+        .collect(Collectors.toList());
+    // @formatter:on
+  }
+
+  @Benchmark
+  public List<RequestOperation> preProcess() {
+    BulkOperationsPreProcessor operationsPreProcessor = new BulkOperationsPreProcessor(
+        operation -> operation.builder().setData(userPreProcessor.prepareForCreate(operation.getDataAsUser())).build(),
+        BulkExecutors.getDefaultExecutor(), parallelism);
+    operations.forEach(operationsPreProcessor::submit);
+    return operationsPreProcessor.getPreProcessedOperations();
+  }
+
+  private static User createUser(final int index) {
+    // @formatter:off
+    return new User.Builder("user" + index)
+        .setExternalId("external" + index)
+        .setName(new Name.Builder().setGivenName("Barbara").setFamilyName("Jensen " + index).build())
+        .setDisplayName("Babs Jensen " + index)
+        .addEmail(new Email.Builder().setValue("user" + index + "@example.com").setType(Email.Type.WORK).setPrimary(true).build())
+        .build();
+    // @formatter:on
+  }
+
+  public static void main(final String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(BulkOperationsPreProcessorBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,73 @@
+package com.sap.scimono.api.preprocessor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.sap.scimono.entity.bulk.RequestMethod;
+import com.sap.scimono.entity.bulk.RequestOperation;
+
+public class BulkOperationsPreProcessorTest {
+  private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+  @AfterEach
+  public void shutdownExecutor() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testOperationsKeepTheirOrderAndFailIndividually() {
+    BulkOperationsPreProcessor operationsPreProcessor = new BulkOperationsPreProcessor(operation -> {
+      int index = Integer.parseInt(operation.getBulkId());
+      if (index == 3) {
+        throw new IllegalStateException("invalid operation");
+      }
+      sleep(10 - index);
+      return operation.builder().setVersion("v" + index).build();
+    }, executor, 4);
+
+    IntStream.range(0, 10).mapToObj(BulkOperationsPreProcessorTest::operation).forEach(operationsPreProcessor::submit);
+    List<RequestOperation> operations = operationsPreProcessor.getPreProcessedOperations();
+
+    assertEquals(IntStream.range(0, 10).mapToObj(String::valueOf).collect(Collectors.toList()),
+        operations.stream().map(RequestOperation::getBulkId).collect(Collectors.toList()));
+    assertTrue(operations.get(3).hasValidationError());
+    assertFalse(operations.get(4).hasValidationError());
+    assertEquals("v9", operations.get(9).getVersion());
+  }
+
+  @Test
+  public void testOperationsArePreProcessedByTheSubmittingThreadWithoutParallelism() {
+    Thread submittingThread = Thread.currentThread();
+    BulkOperationsPreProcessor operationsPreProcessor = new BulkOperationsPreProcessor(operation -> {
+      assertEquals(submittingThread, Thread.currentThread());
+      return operation;
+    }, executor, 1);
+
+    operationsPreProcessor.submit(operation(0));
+
+    assertFalse(operationsPreProcessor.getPreProcessedOperations().get(0).hasValidationError());
+  }
+
+  private static RequestOperation operation(final int index) {
+    return new RequestOperation.Builder().setMethod(RequestMethod.DELETE).setBulkId(String.valueOf(index)).setPath("/Users/u" + index).build();
+  }
+
+  private static void sleep(final int millis) {
+    try {
+      TimeUnit.MILLISECONDS.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
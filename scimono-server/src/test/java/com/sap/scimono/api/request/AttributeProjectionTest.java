@@ -0,0 +1,117 @@
+package com.sap.scimono.api.request;
+
+import static com.sap.scimono.entity.EnterpriseExtension.ENTERPRISE_URN;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sap.scimono.api.helper.ObjectMapperFactory;
+import com.sap.scimono.api.helper.ObjectMapperFactory.Profile;
+import com.sap.scimono.callback.schemas.SchemaRegistry;
+import com.sap.scimono.entity.Email;
+import com.sap.scimono.entity.EnterpriseExtension;
+import com.sap.scimono.entity.GroupRef;
+import com.sap.scimono.entity.Name;
+import com.sap.scimono.entity.User;
+import com.sap.scimono.entity.schema.resources.SchemaCSVReader;
+
+public class AttributeProjectionTest {
+  private static final SchemaRegistry REGISTRY = SchemaRegistry.compile(new ArrayList<>(SchemaCSVReader.getImportedSchemasFromCSVs().values()));
+  private static final ObjectMapper MAPPER = ObjectMapperFactory.createObjectMapper(Profile.COMPACT);
+
+  @AfterEach
+  public void unbind() {
+    AttributeProjection.unbind();
+  }
+
+  @Test
+  public void testRequestedAttributesAndAlwaysReturnedAttributesAreReturned() {
+    AttributeProjection projection = compile("userName,name.givenName", null);
+
+    assertTrue(projection.isReturned("userName"));
+    assertTrue(projection.isReturned("id"));
+    assertTrue(projection.isReturned("schemas"));
+    assertTrue(projection.isReturned("name.givenName"));
+    assertFalse(projection.isReturned("name.familyName"));
+    assertTrue(projection.isPartiallyReturned(User.SCHEMA, "name"));
+    assertFalse(projection.isReturned("emails"));
+    assertFalse(projection.isReturned("meta"));
+    assertFalse(projection.isSchemaReturned(ENTERPRISE_URN));
+  }
+
+  @Test
+  public void testExcludedAttributesAreNotReturned() {
+    AttributeProjection projection = compile(null, "groups,name.middleName," + ENTERPRISE_URN);
+
+    assertFalse(projection.isReturned("groups"));
+    assertFalse(projection.isReturned("name.middleName"));
+    assertTrue(projection.isReturned("name.givenName"));
+    assertTrue(projection.isReturned("emails"));
+    assertTrue(projection.isReturned("meta"));
+    assertFalse(projection.isSchemaReturned(ENTERPRISE_URN));
+  }
+
+  @Test
+  public void testNeverReturnedAttributesAreNotReturnedWhenRequested() {
+    assertFalse(compile("userName,password", null).isReturned("password"));
+    assertFalse(compile(null, null).isReturned("password"));
+  }
+
+  @Test
+  public void testExtensionAttributesAreReturnedByFullNotation() {
+    AttributeProjection projection = compile(ENTERPRISE_URN + ":employeeNumber", null);
+
+    assertTrue(projection.isSchemaReturned(ENTERPRISE_URN));
+    assertTrue(projection.isReturned(ENTERPRISE_URN, "employeeNumber"));
+    assertFalse(projection.isReturned(ENTERPRISE_URN, "manager"));
+    assertFalse(projection.isReturned("userName"));
+  }
+
+  @Test
+  public void testCompiledProjectionsAreReused() {
+    assertSame(compile("userName", "groups"), compile("userName", "groups"));
+  }
+
+  @Test
+  public void testNotReturnedAttributesAreNotWritten() throws JsonProcessingException {
+    AttributeProjection.bind(compile("userName,name.givenName,groups.value," + ENTERPRISE_URN + ":employeeNumber", null));
+
+    assertEquals("{\"id\":\"2819c223\",\"schemas\":[\"urn:ietf:params:scim:schemas:core:2.0:User\",\"" + ENTERPRISE_URN + "\"],"
+        + "\"userName\":\"bjensen\",\"name\":{\"givenName\":\"Barbara\"},\"groups\":[{\"value\":\"e9e30dba\"}],\"" + ENTERPRISE_URN
+        + "\":{\"employeeNumber\":\"701984\"}}", MAPPER.writeValueAsString(createUser()));
+  }
+
+  @Test
+  public void testAllAttributesAreWrittenWithoutProjection() throws JsonProcessingException {
+    String json = MAPPER.writeValueAsString(createUser());
+
+    assertTrue(json.contains("\"familyName\":\"Jensen\""));
+    assertTrue(json.contains("\"display\":\"Tour Guides\""));
+    assertTrue(json.contains("\"emails\""));
+    assertTrue(json.contains("\"costCenter\":\"4130\""));
+  }
+
+  private static AttributeProjection compile(String attributes, String excludedAttributes) {
+    return AttributeProjection.compile(REGISTRY, User.SCHEMA, attributes, excludedAttributes);
+  }
+
+  private static User createUser() {
+    // @formatter:off
+    return new User.Builder("bjensen")
+        .setId("2819c223")
+        .setName(new Name.Builder().setGivenName("Barbara").setFamilyName("Jensen").build())
+        .addEmail(new Email.Builder().setValue("bjensen@example.com").setType(Email.Type.WORK).setPrimary(true).build())
+        .addGroup(new GroupRef.Builder().setValue("e9e30dba").setDisplay("Tour Guides").build())
+        .addExtension(new EnterpriseExtension.Builder().setEmployeeNumber("701984").setCostCenter("4130").build())
+        .build();
+    // @formatter:on
+  }
+}
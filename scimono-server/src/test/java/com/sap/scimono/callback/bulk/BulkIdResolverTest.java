@@ -0,0 +1,72 @@
+package com.sap.scimono.callback.bulk;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.sap.scimono.entity.EnterpriseExtension;
+import com.sap.scimono.entity.Manager;
+import com.sap.scimono.entity.Meta;
+import com.sap.scimono.entity.User;
+import com.sap.scimono.entity.bulk.RequestMethod;
+import com.sap.scimono.entity.bulk.RequestOperation;
+import com.sap.scimono.entity.patch.PatchBody;
+import com.sap.scimono.entity.patch.PatchOperation;
+import com.sap.scimono.exception.SCIMException;
+
+public class BulkIdResolverTest {
+
+  @Test
+  public void testPathIdAndManagerAreResolved() {
+    BulkIdResolver resolver = new BulkIdResolver();
+    resolver.register("employee", "u1");
+    resolver.register("boss", "u2");
+    EnterpriseExtension enterpriseExtension = new EnterpriseExtension.Builder().setManager(new Manager.Builder().setValue("bulkId:boss").build())
+        .build();
+    User user = new User.Builder("alice").setId("bulkId:employee").addExtension(enterpriseExtension)
+        .setMeta(new Meta.Builder().setLocation("https://example.com/scim/Users/bulkId:employee").build()).build();
+    RequestOperation operation = new RequestOperation.Builder().setMethod(RequestMethod.PUT).setBulkId("put").setPath("/Users/bulkId:employee")
+        .setData(user).build();
+
+    RequestOperation resolvedOperation = resolver.resolve(operation);
+    User resolvedUser = resolvedOperation.getDataAsUser();
+
+    assertEquals("/Users/u1", resolvedOperation.getPath());
+    assertEquals("u1", resolvedOperation.getResourceId().get());
+    assertEquals("u1", resolvedUser.getId());
+    assertEquals("https://example.com/scim/Users/u1", resolvedUser.getMeta().getLocation());
+    assertEquals("u2", ((EnterpriseExtension) resolvedUser.getExtension(EnterpriseExtension.ENTERPRISE_URN)).getManager().getValue());
+  }
+
+  @Test
+  public void testPatchValuesAreResolved() {
+    BulkIdResolver resolver = new BulkIdResolver();
+    resolver.register("member", "u1");
+    PatchOperation addMember = new PatchOperation.Builder().setOp(PatchOperation.Type.ADD).setPath("members")
+        .setValue(JsonNodeFactory.instance.arrayNode().add(JsonNodeFactory.instance.objectNode().put("value", "bulkId:member"))).build();
+    RequestOperation operation = new RequestOperation.Builder().setMethod(RequestMethod.PATCH).setPath("/Groups/g1")
+        .setData(new PatchBody.Builder(Collections.singletonList(addMember)).build()).build();
+
+    RequestOperation resolvedOperation = resolver.resolve(operation);
+
+    assertEquals(Collections.singleton("member"), BulkIdResolver.getReferencedBulkIds(operation));
+    assertEquals("u1", resolvedOperation.getDataAsPatch().getOperations().get(0).getValue().get(0).get("value").textValue());
+  }
+
+  @Test
+  public void testOperationsWithoutReferencesAreNotCopiedAndUnresolvedReferencesAreRejected() {
+    BulkIdResolver resolver = new BulkIdResolver();
+    RequestOperation delete = new RequestOperation.Builder().setMethod(RequestMethod.DELETE).setPath("/Users/u1").build();
+    RequestOperation unresolved = new RequestOperation.Builder().setMethod(RequestMethod.DELETE).setPath("/Users/bulkId:unknown").build();
+
+    assertSame(delete, resolver.resolve(delete));
+    assertEquals(Arrays.asList("unknown"), Arrays.asList(BulkIdResolver.getReferencedBulkIds(unresolved).toArray()));
+    assertThrows(SCIMException.class, () -> resolver.resolve(unresolved));
+  }
+}
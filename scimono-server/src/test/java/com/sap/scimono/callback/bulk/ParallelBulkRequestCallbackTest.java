@@ -0,0 +1,169 @@
+package com.sap.scimono.callback.bulk;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.sap.scimono.api.helper.ObjectMapperFactory;
+import com.sap.scimono.callback.groups.GroupsCallback;
+import com.sap.scimono.callback.users.UsersCallback;
+import com.sap.scimono.entity.Group;
+import com.sap.scimono.entity.MemberRef;
+import com.sap.scimono.entity.User;
+import com.sap.scimono.entity.bulk.BulkBody;
+import com.sap.scimono.entity.bulk.RequestOperation;
+import com.sap.scimono.entity.bulk.ResponseOperation;
+
+public class ParallelBulkRequestCallbackTest {
+  private final ExecutorService executor = Executors.newFixedThreadPool(4);
+  private final Queue<String> calls = new ConcurrentLinkedQueue<>();
+  private final Queue<Group> createdGroups = new ConcurrentLinkedQueue<>();
+
+  @AfterEach
+  public void shutdownExecutor() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testReferringOperationRunsAfterReferredOperationWithResolvedReferences() throws IOException {
+    RequestOperation createGroup = operation("{\"method\":\"POST\",\"bulkId\":\"g\",\"path\":\"/Groups\","
+        + "\"data\":{\"displayName\":\"admins\",\"members\":[{\"value\":\"bulkId:u\"}]}}", group("g1", "bulkId:u"));
+    RequestOperation createUser = operation("{\"method\":\"POST\",\"bulkId\":\"u\",\"path\":\"/Users\",\"data\":{\"userName\":\"alice\"}}",
+        new User.Builder("alice").setId("u1").build());
+
+    List<ResponseOperation> responses = newCallback(4).handleBulkRequest(BulkBody.forRequest(Arrays.asList(createGroup, createUser)))
+        .getOperations();
+
+    assertEquals(Arrays.asList("createUser", "createGroup"), Arrays.asList(calls.toArray()));
+    assertEquals(Arrays.asList("g", "u"), responses.stream().map(ResponseOperation::getBulkId).collect(Collectors.toList()));
+    assertEquals(Arrays.asList("g1", "u1"), responses.stream().map(ResponseOperation::getResourceId).collect(Collectors.toList()));
+    assertTrue(createdGroups.peek().containsMember("u1"));
+  }
+
+  @Test
+  public void testOperationsOnTheSameResourceRunInRequestOrder() throws IOException {
+    RequestOperation updateUser = operation("{\"method\":\"PUT\",\"bulkId\":\"p\",\"path\":\"/Users/123\",\"data\":{\"userName\":\"a\"}}",
+        new User.Builder("a").setId("123").build());
+    RequestOperation deleteUser = operation("{\"method\":\"DELETE\",\"bulkId\":\"d\",\"path\":\"/Users/123\"}", null);
+    UsersCallback usersAPI = (UsersCallback) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { UsersCallback.class },
+        (proxy, method, args) -> {
+          if ("updateUser".equals(method.getName())) {
+            Thread.sleep(200);
+          }
+          calls.add(method.getName());
+          return args[0];
+        });
+
+    List<ResponseOperation> responses = new ParallelBulkRequestCallback(usersAPI, newGroupsCallback(), executor, 4)
+        .handleBulkRequest(BulkBody.forRequest(Arrays.asList(updateUser, deleteUser))).getOperations();
+
+    assertEquals(Arrays.asList("updateUser", "deleteUser"), Arrays.asList(calls.toArray()));
+    assertTrue(responses.stream().allMatch(ResponseOperation::isSuccessful));
+  }
+
+  @Test
+  public void testNoOperationIsStartedAfterFailOnErrors() throws IOException {
+    RequestOperation failingDelete = operation("{\"method\":\"DELETE\",\"bulkId\":\"d\",\"path\":\"/Users/missing\"}", null);
+    RequestOperation createUser = operation("{\"method\":\"POST\",\"bulkId\":\"u\",\"path\":\"/Users\",\"data\":{\"userName\":\"alice\"}}",
+        new User.Builder("alice").setId("u1").build());
+
+    List<ResponseOperation> responses = newCallback(1).handleBulkRequest(BulkBody.forRequest(1, Arrays.asList(failingDelete, createUser)))
+        .getOperations();
+
+    assertEquals(1, responses.size());
+    assertFalse(responses.get(0).isSuccessful());
+    assertEquals(Arrays.asList("deleteUser"), Arrays.asList(calls.toArray()));
+  }
+
+  @Test
+  public void testCircularReferencesAreNotExecuted() throws IOException {
+    RequestOperation first = operation("{\"method\":\"POST\",\"bulkId\":\"a\",\"path\":\"/Groups\","
+        + "\"data\":{\"displayName\":\"a\",\"members\":[{\"value\":\"bulkId:b\"}]}}", group("a1", "bulkId:b"));
+    RequestOperation second = operation("{\"method\":\"POST\",\"bulkId\":\"b\",\"path\":\"/Groups\","
+        + "\"data\":{\"displayName\":\"b\",\"members\":[{\"value\":\"bulkId:a\"}]}}", group("b1", "bulkId:a"));
+
+    List<ResponseOperation> responses = newCallback(4).handleBulkRequest(BulkBody.forRequest(Arrays.asList(first, second))).getOperations();
+
+    assertEquals(2, responses.size());
+    assertTrue(responses.stream().allMatch(response -> "409".equals(response.getStatus())));
+    assertTrue(calls.isEmpty());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testContiguousIndependentOperationsAreExecutedInBatches() throws IOException {
+    RequestOperation createAlice = operation("{\"method\":\"POST\",\"bulkId\":\"a\",\"path\":\"/Users\",\"data\":{\"userName\":\"alice\"}}",
+        new User.Builder("alice").setId("u1").build());
+    RequestOperation createBob = operation("{\"method\":\"POST\",\"bulkId\":\"b\",\"path\":\"/Users\",\"data\":{\"userName\":\"bob\"}}",
+        new User.Builder("bob").setId("u2").build());
+    RequestOperation createGroup = operation("{\"method\":\"POST\",\"bulkId\":\"g\",\"path\":\"/Groups\","
+        + "\"data\":{\"displayName\":\"admins\",\"members\":[{\"value\":\"bulkId:a\"}]}}", group("g1", "bulkId:a"));
+    RequestOperation createCarol = operation("{\"method\":\"POST\",\"bulkId\":\"c\",\"path\":\"/Users\",\"data\":{\"userName\":\"carol\"}}",
+        new User.Builder("carol").setId("u3").build());
+    UsersCallback usersAPI = (UsersCallback) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { UsersCallback.class },
+        (proxy, method, args) -> {
+          calls.add(method.getName());
+          if (!"createUsers".equals(method.getName())) {
+            return args[0];
+          }
+          List<BatchItemResult<User>> results = new ArrayList<>();
+          for (User user : (List<User>) args[0]) {
+            boolean exists = "bob".equals(user.getUserName());
+            results.add(exists ? BatchItemResult.failure(new IllegalStateException("exists")) : BatchItemResult.success(user));
+          }
+          return results;
+        });
+
+    List<ResponseOperation> responses = new ParallelBulkRequestCallback(usersAPI, newGroupsCallback(), executor, 1, 10)
+        .handleBulkRequest(BulkBody.forRequest(Arrays.asList(createAlice, createBob, createGroup, createCarol))).getOperations();
+
+    assertEquals(Arrays.asList("createUsers", "createGroup", "createUser"), Arrays.asList(calls.toArray()));
+    assertEquals(Arrays.asList(true, false, true, true), responses.stream().map(ResponseOperation::isSuccessful).collect(Collectors.toList()));
+    assertEquals("u3", responses.get(3).getResourceId());
+    assertTrue(createdGroups.peek().containsMember("u1"));
+  }
+
+  private ParallelBulkRequestCallback newCallback(final int parallelism) {
+    UsersCallback usersAPI = (UsersCallback) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { UsersCallback.class },
+        (proxy, method, args) -> {
+          calls.add(method.getName());
+          if ("deleteUser".equals(method.getName())) {
+            throw new IllegalStateException("missing");
+          }
+          return args[0];
+        });
+    return new ParallelBulkRequestCallback(usersAPI, newGroupsCallback(), executor, parallelism);
+  }
+
+  private GroupsCallback newGroupsCallback() {
+    return (GroupsCallback) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { GroupsCallback.class },
+        (proxy, method, args) -> {
+          calls.add(method.getName());
+          createdGroups.add((Group) args[0]);
+          return args[0];
+        });
+  }
+
+  private static Group group(final String id, final String memberId) {
+    return new Group.Builder("group").setId(id).addMember(new MemberRef.Builder().setValue(memberId).build()).build();
+  }
+
+  private static RequestOperation operation(final String json, final Object data) throws IOException {
+    RequestOperation operation = ObjectMapperFactory.createObjectMapper().readValue(json, RequestOperation.class);
+    return data == null ? operation : operation.builder().setData(data).build();
+  }
+}
@@ -0,0 +1,68 @@
+package com.sap.scimono.callback.schemas;
+
+import static com.sap.scimono.entity.schema.AttributeDataType.STRING;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.sap.scimono.entity.schema.Attribute;
+import com.sap.scimono.entity.schema.Schema;
+
+class SchemaRegistryProviderTest {
+  private static final String SCHEMA_ID = "urn:test:schemas:Tenant";
+
+  private final SchemaRegistryProvider provider = new SchemaRegistryProvider();
+
+  @Test
+  public void testRegistryIsCompiledPerKey() {
+    SchemasCallback tenantWithSchema = new TenantSchemasCallback("a", true);
+    SchemasCallback tenantWithoutSchema = new TenantSchemasCallback("b", false);
+
+    assertNotNull(provider.get(tenantWithSchema).getSchema(SCHEMA_ID));
+    assertNull(provider.get(tenantWithoutSchema).getSchema(SCHEMA_ID));
+    assertSame(provider.get(tenantWithSchema), provider.get(new TenantSchemasCallback("a", true)));
+  }
+
+  @Test
+  public void testInvalidationOfKeyKeepsRegistriesOfOtherKeys() {
+    SchemasCallback firstTenant = new TenantSchemasCallback("a", true);
+    SchemasCallback secondTenant = new TenantSchemasCallback("b", true);
+    SchemaRegistry firstRegistry = provider.get(firstTenant);
+    SchemaRegistry secondRegistry = provider.get(secondTenant);
+
+    provider.invalidate("a");
+
+    assertNotSame(firstRegistry, provider.get(firstTenant));
+    assertSame(secondRegistry, provider.get(secondTenant));
+  }
+
+  private static class TenantSchemasCallback extends DefaultSchemasCallback {
+    private final String tenant;
+    private final boolean hasCustomSchema;
+
+    TenantSchemasCallback(final String tenant, final boolean hasCustomSchema) {
+      this.tenant = tenant;
+      this.hasCustomSchema = hasCustomSchema;
+    }
+
+    @Override
+    public String getSchemaRegistryKey() {
+      return tenant;
+    }
+
+    @Override
+    public List<Schema> getCustomSchemas() {
+      if (!hasCustomSchema) {
+        return Collections.emptyList();
+      }
+      Attribute attribute = new Attribute.Builder().name("costCenter").type(STRING.toString()).build();
+      return Collections.singletonList(new Schema.Builder().setId(SCHEMA_ID).addAttribute(attribute).build());
+    }
+  }
+}
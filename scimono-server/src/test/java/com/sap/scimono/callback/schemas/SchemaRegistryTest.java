@@ -0,0 +1,64 @@
+package com.sap.scimono.callback.schemas;
+
+import static com.sap.scimono.entity.schema.AttributeDataType.COMPLEX;
+import static com.sap.scimono.entity.schema.AttributeDataType.STRING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sap.scimono.entity.schema.Attribute;
+import com.sap.scimono.entity.schema.Schema;
+
+class SchemaRegistryTest {
+  private static final String SCHEMA_ID = "urn:test:schemas:Test";
+  private static final String EXTENDED_SCHEMA_ID = "urn:test:schemas:Test:Extended";
+
+  private SchemaRegistry registry;
+
+  @BeforeEach
+  public void setUp() {
+    Attribute name = new Attribute.Builder().name("name").type(COMPLEX.toString())
+        .addSubAttribute(new Attribute.Builder().name("givenName").type(STRING.toString()).build()).build();
+    Attribute extended = new Attribute.Builder().name("department").type(STRING.toString()).build();
+
+    Schema schema = new Schema.Builder().setId(SCHEMA_ID).addAttribute(name).build();
+    Schema extendedSchema = new Schema.Builder().setId(EXTENDED_SCHEMA_ID).addAttribute(extended).build();
+
+    registry = SchemaRegistry.compile(Arrays.asList(schema, extendedSchema));
+  }
+
+  @Test
+  public void testSchemaIdIsLongestMatchingUrn() {
+    assertEquals(SCHEMA_ID, registry.getSchemaIdFromAttributeNotation(SCHEMA_ID + ":name.givenName"));
+    assertEquals(EXTENDED_SCHEMA_ID, registry.getSchemaIdFromAttributeNotation(EXTENDED_SCHEMA_ID + ":department"));
+    assertEquals(EXTENDED_SCHEMA_ID, registry.getSchemaIdFromAttributeNotation(EXTENDED_SCHEMA_ID));
+    assertNull(registry.getSchemaIdFromAttributeNotation("urn:test:schemas:TestOther:name"));
+  }
+
+  @Test
+  public void testComplexAttributePathIsCaseInsensitive() {
+    List<Attribute> hierarchy = registry.getComplexAttributePath(SCHEMA_ID.toUpperCase() + ":NAME.givenname");
+
+    assertEquals(2, hierarchy.size());
+    assertEquals("name", hierarchy.get(0).getName());
+    assertEquals("givenName", hierarchy.get(1).getName());
+  }
+
+  @Test
+  public void testMissingAttribute() {
+    assertTrue(registry.getComplexAttributePath(SCHEMA_ID + ":name.familyName").isEmpty());
+    assertNull(registry.getAttribute(SCHEMA_ID + ":unknown"));
+  }
+
+  @Test
+  public void testAppendSubAttributeToPath() {
+    assertEquals(SCHEMA_ID + ":name", registry.appendSubAttributeToPath(SCHEMA_ID, "name"));
+    assertEquals(SCHEMA_ID + ":name.givenName", registry.appendSubAttributeToPath(SCHEMA_ID + ":name", "givenName"));
+  }
+}
@@ -0,0 +1,78 @@
+package com.sap.scimono.entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.introspect.Annotated;
+import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import com.sap.scimono.api.helper.ObjectMapperFactory;
+
+public class ReferenceAttributeJsonTest {
+  private static final ObjectMapper STREAMING_MAPPER = ObjectMapperFactory.createObjectMapper();
+  private static final ObjectMapper REFLECTIVE_MAPPER = createReflectiveMapper();
+
+  // @formatter:off
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "{\"value\":\"2819c223\"}",
+      "{\"operation\":\"delete\",\"value\":\"2819c223\",\"display\":\"Babs\",\"$ref\":\"Users/2819c223\",\"type\":\"User\",\"primary\":true}",
+      "{\"VALUE\":\"2819c223\",\"Display\":\"Babs\",\"$REF\":\"Users/2819c223\",\"Type\":\"direct\"}",
+      "{\"value\":null,\"display\":null,\"type\":null,\"primary\":null}",
+      "{\"value\":\"2819c223\",\"type\":\"\",\"primary\":\"false\"}",
+      "{\"value\":1,\"display\":true}"
+  })
+  // @formatter:on
+  public void testReferencesAreReadAndWrittenAsByReflectiveMapping(String json) throws IOException {
+    assertRoundTripEquivalence(json, MemberRef.class);
+    assertRoundTripEquivalence(json, GroupRef.class);
+  }
+
+  // @formatter:off
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "{}",
+      "{\"value\":[\"2819c223\"]}",
+      "[]"
+  })
+  // @formatter:on
+  public void testInvalidReferencesAreRejected(String json) {
+    assertThrows(MismatchedInputException.class, () -> STREAMING_MAPPER.readValue(json, MemberRef.class));
+    assertThrows(MismatchedInputException.class, () -> STREAMING_MAPPER.readValue(json, GroupRef.class));
+  }
+
+  private static <T> void assertRoundTripEquivalence(String json, Class<T> referenceClass) throws IOException {
+    T reference = STREAMING_MAPPER.readValue(json, referenceClass);
+
+    assertEquals(REFLECTIVE_MAPPER.readValue(json, referenceClass), reference);
+    assertEquals(REFLECTIVE_MAPPER.writeValueAsString(reference), STREAMING_MAPPER.writeValueAsString(reference));
+  }
+
+  private static ObjectMapper createReflectiveMapper() {
+    ObjectMapper mapper = ObjectMapperFactory.createObjectMapper();
+    mapper.setAnnotationIntrospector(new JacksonAnnotationIntrospector() {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      public Object findSerializer(Annotated annotated) {
+        return isReference(annotated) ? null : super.findSerializer(annotated);
+      }
+
+      @Override
+      public Object findDeserializer(Annotated annotated) {
+        return isReference(annotated) ? null : super.findDeserializer(annotated);
+      }
+
+      private boolean isReference(Annotated annotated) {
+        return annotated.getRawType() == MemberRef.class || annotated.getRawType() == GroupRef.class;
+      }
+    });
+    return mapper;
+  }
+}
@@ -0,0 +1,82 @@
+package com.sap.scimono.entity.bulk;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import org.junit.jupiter.api.Test;
+
+import com.sap.scimono.api.helper.ObjectMapperFactory;
+import com.sap.scimono.entity.User;
+import com.sap.scimono.entity.config.BulkSetting;
+import com.sap.scimono.entity.patch.PatchBody;
+import com.sap.scimono.exception.SCIMException;
+
+public class BulkRequestReaderTest {
+  private static final BulkRequestReader READER = new BulkRequestReader(ObjectMapperFactory.createObjectMapper(), new BulkSetting(true, 2, 1024));
+
+  @Test
+  public void testDataIsDecodedByMethodAndPath() throws IOException {
+    List<String> preparedBulkIds = new ArrayList<>();
+    UnaryOperator<RequestOperation> preparer = operation -> {
+      preparedBulkIds.add(operation.getBulkId());
+      return operation;
+    };
+
+    BulkBody<RequestOperation> bulkRequest = READER.read(payload("{\"failOnErrors\":1,\"Operations\":["
+        + "{\"method\":\"POST\",\"path\":\"/Users\",\"bulkId\":\"u\",\"data\":{\"schemas\":[\"" + User.SCHEMA + "\"],\"userName\":\"alice\"}},"
+        + "{\"data\":{\"schemas\":[\"" + PatchBody.PATCH_SCHEMA + "\"],\"Operations\":[{\"op\":\"remove\",\"path\":\"members\"}]},\"method\":\"PATCH\",\"path\":\"/Groups/g1\",\"bulkId\":\"p\"}],"
+        + "\"schemas\":[\"" + BulkBody.BULK_REQUEST_SCHEMA + "\"]}"), preparer);
+
+    assertEquals(1, bulkRequest.getFailOnErrors().intValue());
+    assertEquals("alice", bulkRequest.getOperations().get(0).getDataAsUser().getUserName());
+    assertEquals(1, bulkRequest.getOperations().get(1).getDataAsPatch().getOperations().size());
+    assertEquals(RequestMethod.PATCH, bulkRequest.getOperations().get(1).getMethod());
+    assertEquals("[u, p]", preparedBulkIds.toString());
+  }
+
+  @Test
+  public void testDataWhichCannotBeDecodedFailsItsOperationOnly() throws IOException {
+    BulkBody<RequestOperation> bulkRequest = READER.read(payload("{\"schemas\":[\"" + BulkBody.BULK_REQUEST_SCHEMA + "\"],\"Operations\":["
+        + "{\"method\":\"POST\",\"path\":\"/Users\",\"bulkId\":\"bad\",\"data\":{\"userName\":\"bob\",\"active\":{\"nested\":[1,2]},\"title\":\"x\"}},"
+        + "{\"method\":\"DELETE\",\"path\":\"/Users/u1\",\"bulkId\":\"good\"}]}"), UnaryOperator.identity());
+
+    assertTrue(bulkRequest.getOperations().get(0).hasValidationError());
+    assertFalse(bulkRequest.getOperations().get(1).hasValidationError());
+    assertEquals("good", bulkRequest.getOperations().get(1).getBulkId());
+  }
+
+  @Test
+  public void testMissingPathFailsItsOperationOnly() throws IOException {
+    BulkBody<RequestOperation> bulkRequest = READER.read(payload("{\"schemas\":[\"" + BulkBody.BULK_REQUEST_SCHEMA + "\"],\"Operations\":["
+        + "{\"method\":\"POST\",\"bulkId\":\"nopath\",\"data\":{\"userName\":\"bob\"}},"
+        + "{\"method\":\"DELETE\",\"path\":\"/Users/u1\",\"bulkId\":\"good\"}]}"), UnaryOperator.identity());
+
+    assertTrue(bulkRequest.getOperations().get(0).hasValidationError());
+    assertEquals("nopath", bulkRequest.getOperations().get(0).getBulkId());
+    assertFalse(bulkRequest.getOperations().get(1).hasValidationError());
+  }
+
+  @Test
+  public void testRequestsOverTheLimitsAreRejected() {
+    String operation = "{\"method\":\"DELETE\",\"path\":\"/Users/u1\"}";
+
+    assertThrows(SCIMException.class, () -> READER.read(payload("{\"Operations\":[" + operation + "," + operation + "," + operation + "]}"),
+        UnaryOperator.identity()));
+    assertThrows(SCIMException.class, () -> READER.read(payload("{\"padding\":\"" + new String(new char[2048]).replace('\0', ' ') + "\"}"),
+        UnaryOperator.identity()));
+  }
+
+  private static InputStream payload(final String json) {
+    return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,62 @@
+package com.sap.scimono.entity.paging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sap.scimono.api.helper.ObjectMapperFactory;
+
+public class SearchRequestTest {
+  private static final ObjectMapper MAPPER = ObjectMapperFactory.createObjectMapper();
+
+  @Test
+  public void testSearchRequestOfRfcIsRead() throws IOException {
+    // @formatter:off
+    String json = "{\"schemas\": [\"urn:ietf:params:scim:api:messages:2.0:SearchRequest\"],"
+        + "\"attributes\": [\"displayName\", \"userName\"],"
+        + "\"excludedAttributes\": [\"emails\"],"
+        + "\"filter\": \"displayName sw \\\"smith\\\"\","
+        + "\"startIndex\": 1,"
+        + "\"count\": 10,"
+        + "\"sortBy\": \"userName\","
+        + "\"sortOrder\": \"descending\"}";
+    // @formatter:on
+
+    SearchRequest searchRequest = MAPPER.readValue(json, SearchRequest.class);
+
+    assertEquals(Arrays.asList("displayName", "userName"), searchRequest.getAttributes());
+    assertEquals(Arrays.asList("emails"), searchRequest.getExcludedAttributes());
+    assertEquals("displayName sw \"smith\"", searchRequest.getFilter());
+    assertEquals(Integer.valueOf(1), searchRequest.getStartIndex());
+    assertEquals(Integer.valueOf(10), searchRequest.getCount());
+    assertEquals("userName", searchRequest.getSortBy());
+    assertEquals("descending", searchRequest.getSortOrder());
+    assertNull(searchRequest.getCursor());
+  }
+
+  @Test
+  public void testAttributeNamesAreCaseInsensitiveAndAttributesMayBeCommaSeparated() throws IOException {
+    String json = "{\"ATTRIBUTES\": \"id, userName\", \"StartId\": \"initial\", \"cursor\": \"\", \"count\": null}";
+
+    SearchRequest searchRequest = MAPPER.readValue(json, SearchRequest.class);
+
+    assertEquals(Arrays.asList("id", "userName"), searchRequest.getAttributes());
+    assertEquals("initial", searchRequest.getStartId());
+    assertEquals("", searchRequest.getCursor());
+    assertNull(searchRequest.getCount());
+  }
+
+  @Test
+  public void testOtherSchemasAreRejected() {
+    String json = "{\"schemas\": [\"urn:ietf:params:scim:api:messages:2.0:PatchOp\"], \"filter\": \"id eq \\\"1\\\"\"}";
+
+    assertThrows(JsonMappingException.class, () -> MAPPER.readValue(json, SearchRequest.class));
+  }
+}
@@ -0,0 +1,49 @@
+package com.sap.scimono.entity.schema;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.sap.scimono.entity.User;
+
+class AttributePathTest {
+
+  @Test
+  public void testParseShortNotation() {
+    AttributePath path = AttributePath.parse("name.givenName");
+
+    assertFalse(path.hasSchema());
+    assertEquals("name", path.getAttributeName());
+    assertEquals("givenName", path.getSubAttributeName());
+    assertEquals(User.SCHEMA + ":name.givenName", path.getFullAttributeNotation(User.SCHEMA));
+  }
+
+  @Test
+  public void testParseFullNotationWithValueFilter() {
+    AttributePath path = AttributePath.parse(User.SCHEMA + ":emails[type eq \"work\" and value co \"urn:test\"].value");
+
+    assertEquals(User.SCHEMA, path.getSchemaId());
+    assertEquals("emails", path.getAttributeName());
+    assertEquals("value", path.getSubAttributeName());
+    assertEquals("type eq \"work\" and value co \"urn:test\"", path.getValueFilter());
+    assertEquals(User.SCHEMA + ":emails.value", path.getNotationWithoutValueFilter());
+  }
+
+  @Test
+  public void testParseSchemaOnlyNotationWithKnownSchema() {
+    AttributePath path = AttributePath.parse(User.SCHEMA, User.SCHEMA);
+
+    assertTrue(path.isSchemaOnly());
+    assertNull(path.getAttributeName());
+    assertEquals(User.SCHEMA, path.getFullAttributeNotation(null));
+  }
+
+  @Test
+  public void testParsedPathsAreInterned() {
+    assertSame(AttributePath.parse("userName"), AttributePath.parse("userName"));
+  }
+}
@@ -0,0 +1,54 @@
+package com.sap.scimono.entity.validation;
+
+import static com.sap.scimono.entity.schema.AttributeDataType.COMPLEX;
+import static com.sap.scimono.entity.schema.AttributeDataType.STRING;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.sap.scimono.entity.schema.Attribute;
+import com.sap.scimono.entity.schema.Schema;
+
+class CompiledAttributeTest {
+  private static final String SCHEMA_ID = Schema.EXTENSION_SCHEMA_URN.concat("compiled");
+
+  @Test
+  public void testCompiledSchemaIsReusedForSameSchemaInstance() {
+    Schema schema = createSchema();
+
+    assertSame(CompiledAttribute.ofSchema(schema), CompiledAttribute.ofSchema(schema));
+    assertNotSame(CompiledAttribute.ofSchema(schema), CompiledAttribute.ofSchema(createSchema()));
+  }
+
+  @Test
+  public void testSubAttributesAreLookedUpCaseInsensitive() {
+    CompiledAttribute schemaAttribute = CompiledAttribute.ofSchema(createSchema());
+
+    assertSame(schemaAttribute.getSubAttribute("addresses"), schemaAttribute.getSubAttribute("ADDRESSES"));
+    assertNull(schemaAttribute.getSubAttribute("unknown"));
+  }
+
+  @Test
+  public void testElementOfMultiValuedAttribute() {
+    CompiledAttribute addresses = CompiledAttribute.ofSchema(createSchema()).getSubAttribute("addresses");
+    CompiledAttribute address = addresses.getElement();
+
+    assertTrue(addresses.isMultiValued());
+    assertFalse(address.isMultiValued());
+    assertTrue(address.isComplex());
+    assertTrue(address.getSubAttribute("street").isReadOnly());
+  }
+
+  private static Schema createSchema() {
+    // @formatter:off
+    Attribute addresses = new Attribute.Builder().name("addresses").type(COMPLEX.toString()).multiValued(true).mutability("readWrite")
+        .addSubAttribute(new Attribute.Builder().name("street").type(STRING.toString()).mutability("readOnly").build())
+        .build();
+    return new Schema.Builder().setId(SCHEMA_ID).addAttribute(addresses).build();
+    // @formatter:on
+  }
+}
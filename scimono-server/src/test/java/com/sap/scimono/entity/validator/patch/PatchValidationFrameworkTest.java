@@ -0,0 +1,49 @@
+package com.sap.scimono.entity.validator.patch;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sap.scimono.callback.resourcetype.ResourceTypesCallback;
+import com.sap.scimono.callback.schemas.SchemaRegistry;
+import com.sap.scimono.callback.schemas.SchemasCallback;
+import com.sap.scimono.callback.users.UsersCallback;
+import com.sap.scimono.entity.schema.Schema;
+import com.sap.scimono.entity.schema.resources.SchemaCSVReader;
+import com.sap.scimono.entity.validation.patch.PatchValidationFramework;
+
+public class PatchValidationFrameworkTest {
+  private static final List<Schema> SCHEMAS = new ArrayList<>(SchemaCSVReader.getImportedSchemasFromCSVs().values());
+
+  private final ResourceTypesCallback resourceTypesAPI = spy(ResourceTypesCallback.class);
+  private final UsersCallback usersAPI = spy(UsersCallback.class);
+  private SchemasCallback schemaAPI;
+
+  @BeforeEach
+  public void setup() {
+    schemaAPI = spy(SchemasCallback.class);
+    doReturn(SchemaRegistry.compile(SCHEMAS)).when(schemaAPI).getSchemaRegistry();
+  }
+
+  @Test
+  public void testFrameworkIsSharedForSameSchemaRegistry() {
+    PatchValidationFramework framework = PatchValidationFramework.usersFramework(schemaAPI, resourceTypesAPI, usersAPI);
+
+    assertSame(framework, PatchValidationFramework.usersFramework(schemaAPI, resourceTypesAPI, usersAPI));
+  }
+
+  @Test
+  public void testFrameworkIsRebuiltOnSchemaRegistryChange() {
+    PatchValidationFramework framework = PatchValidationFramework.usersFramework(schemaAPI, resourceTypesAPI, usersAPI);
+    doReturn(SchemaRegistry.compile(SCHEMAS)).when(schemaAPI).getSchemaRegistry();
+
+    assertNotSame(framework, PatchValidationFramework.usersFramework(schemaAPI, resourceTypesAPI, usersAPI));
+  }
+}
@@ -0,0 +1,71 @@
+package com.sap.scimono.entity.validator.patch;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.sap.scimono.callback.schemas.RegistrySchemasCallback;
+import com.sap.scimono.callback.schemas.SchemaRegistry;
+import com.sap.scimono.entity.User;
+import com.sap.scimono.entity.patch.PatchOperation;
+import com.sap.scimono.entity.schema.Schema;
+import com.sap.scimono.entity.schema.resources.SchemaCSVReader;
+import com.sap.scimono.entity.validation.patch.PatchValidationException;
+import com.sap.scimono.entity.validation.patch.ValuePathValidator;
+
+public class ValuePathValidatorTest {
+  private static final Map<String, Schema> SCHEMAS = SchemaCSVReader.getImportedSchemasFromCSVs();
+
+  private final ValuePathValidator validator = new ValuePathValidator(SCHEMAS,
+      new RegistrySchemasCallback(SchemaRegistry.compile(SCHEMAS.values())), User.SCHEMA);
+
+  // @formatter:off
+  @DisplayName("Test for valid value paths")
+  @ParameterizedTest(name = "Test that --- {0} --- is valid value path")
+  @ValueSource(strings = {
+      "emails[type eq \"work\"]",
+      "emails[type eq \"work\"].value",
+      "urn:ietf:params:scim:schemas:core:2.0:User:emails[type eq \"work\"]",
+      "emails[type eq \"work\" and value co \"example.com\"]",
+      "emails[type pr]",
+      "addresses[type eq \"work\"].streetAddress"
+  })
+  public void testValidValuePath(String path) {
+    assertDoesNotThrow(() -> validator.validate(newRemoveOperation(path)));
+  }
+
+  @DisplayName("Test for invalid value paths")
+  @ParameterizedTest(name = "Test that --- {0} --- is NOT valid value path")
+  @ValueSource(strings = {
+      "userName eq \"something\"",
+      "emails[(type eq \"work\")]",
+      "emails[type[value eq \"work\"]]",
+      "emails[type sw \"work\"]",
+      "emails[typo eq \"work\"]",
+      "userName[type eq \"work\"]",
+      "id[value eq \"work\"]"
+  })
+  public void testInvalidValuePath(String path) {
+    assertThrows(PatchValidationException.class, () -> validator.validate(newRemoveOperation(path)));
+  }
+  // @formatter:on
+
+  @Test
+  public void testValuePathIsParsedOnce() {
+    PatchOperation operation = newRemoveOperation("members[value eq \"2819c223\"]");
+
+    assertSame(operation.getValuePath(), operation.getValuePath());
+    assertSame(operation.getValuePath(), new PatchOperation.Builder(operation).build().getValuePath());
+  }
+
+  private static PatchOperation newRemoveOperation(String path) {
+    return new PatchOperation.Builder().setOp(PatchOperation.Type.REMOVE).setPath(path).build();
+  }
+}
@@ -0,0 +1,117 @@
+package com.sap.scimono.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.sap.scimono.callback.schemas.SchemaRegistry;
+import com.sap.scimono.entity.schema.resources.SchemaCSVReader;
+import com.sap.scimono.exception.InvalidFilterException;
+import com.sap.scimono.filter.expression.ComparisonExpression;
+import com.sap.scimono.filter.expression.ComparisonOperator;
+import com.sap.scimono.filter.expression.FilterExpression;
+import com.sap.scimono.filter.expression.LogicalExpression;
+import com.sap.scimono.filter.expression.LogicalOperator;
+import com.sap.scimono.filter.expression.ValuePathExpression;
+
+public class FilterExpressionParserTest {
+  private static final SchemaRegistry SCHEMA_REGISTRY = SchemaRegistry
+      .compile(new ArrayList<>(SchemaCSVReader.getImportedSchemasFromCSVs().values()));
+
+  private final FilterExpressionParser parser = FilterExpressionParser.forUsers();
+
+  @Test
+  public void testAttributesAndLiteralsAreTyped() {
+    FilterExpression expression = parser.parse("urn:ietf:params:scim:schemas:core:2.0:User:USERNAME eq \"bjensen\" and active eq \"true\"",
+        SCHEMA_REGISTRY);
+
+    LogicalExpression and = (LogicalExpression) expression;
+    assertEquals(LogicalOperator.AND, and.getOperator());
+
+    ComparisonExpression userName = (ComparisonExpression) and.getLeft();
+    assertEquals("urn:ietf:params:scim:schemas:core:2.0:User", userName.getAttribute().getSchemaId());
+    assertEquals("userName", userName.getAttribute().getAttributeName());
+    assertEquals(ComparisonOperator.EQ, userName.getOperator());
+    assertEquals("bjensen", userName.getValue());
+
+    ComparisonExpression active = (ComparisonExpression) and.getRight();
+    assertEquals(Boolean.TRUE, active.getValue());
+  }
+
+  @Test
+  public void testMultiValuedComplexAttributeIsComparedByValue() {
+    ComparisonExpression expression = (ComparisonExpression) parser.parse("emails co \"example.com\"", SCHEMA_REGISTRY);
+
+    assertEquals("emails", expression.getAttribute().getAttributeName());
+    assertEquals("value", expression.getAttribute().getSubAttributeName());
+  }
+
+  @Test
+  public void testValuePathKeepsPagingParameters() {
+    ValuePathExpression expression = (ValuePathExpression) FilterExpressionParser.forGroups()
+        .parse("members[value eq \"1\" & count=10]", SCHEMA_REGISTRY);
+
+    assertTrue(expression.hasValueFilter());
+    assertEquals(Collections.singletonMap("count", "10"), expression.getPagingParameters());
+  }
+
+  @Test
+  public void testDateTimeLiteralIsParsed() {
+    ComparisonExpression expression = (ComparisonExpression) parser.parse("meta.created gt \"2011-05-13T06:42:34+02:00\"", SCHEMA_REGISTRY);
+
+    assertEquals(Instant.parse("2011-05-13T04:42:34Z"), expression.getValue());
+  }
+
+  // @formatter:off
+  @DisplayName("Test that the rendered expression parses to an equal expression")
+  @ParameterizedTest(name = "Test that --- {0} --- is rendered back")
+  @ValueSource(strings = {
+      "userName eq \"bjensen\" and (title pr or active eq true)",
+      "not (emails.value co \"x\\\"y\")",
+      "emails[type eq \"work\" and not (primary eq false)] or userName sw \"b\"",
+      "meta.created gt \"2011-05-13T04:42:34Z\""})
+  // @formatter:on
+  public void testRenderedExpressionIsParsedAgain(final String filter) {
+    FilterExpression expression = parser.parse(filter, SCHEMA_REGISTRY);
+
+    assertEquals(filter, expression.toString());
+    assertEquals(expression, parser.parse(expression.toString(), SchemaRegistry.compile(SCHEMA_REGISTRY.getSchemas())));
+  }
+
+  // @formatter:off
+  @DisplayName("Test that the invalid filter is rejected")
+  @ParameterizedTest(name = "Test that --- {0} --- is rejected")
+  @ValueSource(strings = {
+      "unknown eq \"x\"",
+      "active gt true",
+      "active eq \"yes\"",
+      "meta.created co \"2011\"",
+      "name eq \"Barbara\"",
+      "emails[type[value pr]]",
+      "emails[type eq \"work\"].value",
+      "userName[value pr]"})
+  // @formatter:on
+  public void testInvalidFilterIsRejected(final String filter) {
+    assertThrows(InvalidFilterException.class, () -> parser.parse(filter, SCHEMA_REGISTRY));
+  }
+
+  @Test
+  public void testParsedExpressionsAreCachedPerSchemaRegistry() {
+    String filter = "userName eq \"bjensen\"";
+    FilterExpression expression = parser.parse(filter, SCHEMA_REGISTRY);
+
+    assertSame(expression, parser.parse(filter, SCHEMA_REGISTRY));
+    assertNotSame(expression, parser.parse(filter, SchemaRegistry.compile(SCHEMA_REGISTRY.getSchemas())));
+  }
+}
@@ -0,0 +1,72 @@
+package com.sap.scimono.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import com.sap.scimono.callback.schemas.SchemaRegistry;
+import com.sap.scimono.entity.schema.resources.SchemaCSVReader;
+import com.sap.scimono.filter.expression.ComparisonOperator;
+import com.sap.scimono.filter.expression.FilterExpression;
+
+public class FilterPlannerTest {
+  private static final SchemaRegistry SCHEMA_REGISTRY = SchemaRegistry
+      .compile(new ArrayList<>(SchemaCSVReader.getImportedSchemasFromCSVs().values()));
+
+  // @formatter:off
+  private static final FilterCapabilities CAPABILITIES = FilterCapabilities.builder()
+      .comparison("userName", ComparisonOperator.EQ)
+      .comparison("externalId", ComparisonOperator.EQ)
+      .comparison("emails.value", ComparisonOperator.EQ, ComparisonOperator.SW)
+      .comparison("urn:ietf:params:scim:schemas:extension:enterprise:2.0:User:employeeNumber", ComparisonOperator.EQ)
+      .or()
+      .build();
+  // @formatter:on
+
+  // @formatter:off
+  @DisplayName("Test that the filter is split into the pushed down and the residual filter")
+  @ParameterizedTest(name = "Test that --- {0} --- is split")
+  @CsvSource(delimiter = '|', value = {
+      "userName eq \"bjensen\"                                           | userName eq \"bjensen\"                                           |",
+      "title pr                                                          |                                                                   | title pr",
+      "userName eq \"bjensen\" and title pr                              | userName eq \"bjensen\"                                           | title pr",
+      "userName sw \"b\" and title pr                                    |                                                                   | userName sw \"b\" and title pr",
+      "userName eq \"bjensen\" or externalId eq \"BJensen\"              | userName eq \"bjensen\" or externalId eq \"BJensen\"              |",
+      "userName eq \"bjensen\" or title pr                               |                                                                   | userName eq \"bjensen\" or title pr",
+      "(userName eq \"a\" and title pr) or externalId eq \"b\"           | userName eq \"a\" or externalId eq \"b\"                          | userName eq \"a\" and title pr or externalId eq \"b\"",
+      "not (userName eq \"bjensen\")                                     |                                                                   | not (userName eq \"bjensen\")",
+      "emails[value sw \"b\"] and emails[type eq \"work\"]               | emails[value sw \"b\"]                                            | emails[type eq \"work\"]",
+      "emails[value eq \"b\" and type eq \"work\"]                       |                                                                   | emails[value eq \"b\" and type eq \"work\"]",
+      "urn:ietf:params:scim:schemas:extension:enterprise:2.0:User:employeeNumber eq \"7\" | urn:ietf:params:scim:schemas:extension:enterprise:2.0:User:employeeNumber eq \"7\" |",
+      "urn:ietf:params:scim:schemas:extension:enterprise:2.0:User:costCenter eq \"7\"     |                                                                   | urn:ietf:params:scim:schemas:extension:enterprise:2.0:User:costCenter eq \"7\""})
+  // @formatter:on
+  public void testFilterIsSplit(final String filter, final String pushdownFilter, final String residualFilter) {
+    FilterPlan plan = FilterPlanner.forUsers().plan(parse(filter), CAPABILITIES);
+
+    assertEquals(pushdownFilter, render(plan.getPushdownFilter()));
+    assertEquals(residualFilter, render(plan.getResidualFilter()));
+  }
+
+  @Test
+  public void testAllCapabilitiesPushDownEverything() {
+    String filter = "title pr or not (userName eq \"bjensen\")";
+    FilterPlan plan = FilterPlanner.forUsers().plan(parse(filter), FilterCapabilities.all());
+
+    assertEquals(filter, render(plan.getPushdownFilter()));
+    assertNull(plan.getResidualFilter());
+  }
+
+  private static FilterExpression parse(final String filter) {
+    return FilterExpressionParser.forUsers().parse(filter, SCHEMA_REGISTRY);
+  }
+
+  private static String render(final FilterExpression expression) {
+    return expression == null ? null : expression.toString();
+  }
+}
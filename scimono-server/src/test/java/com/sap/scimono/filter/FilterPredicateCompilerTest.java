@@ -0,0 +1,156 @@
+package com.sap.scimono.filter;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.sap.scimono.callback.schemas.SchemaRegistry;
+import com.sap.scimono.callback.schemas.SchemasCallback;
+import com.sap.scimono.entity.Email;
+import com.sap.scimono.entity.EnterpriseExtension;
+import com.sap.scimono.entity.Group;
+import com.sap.scimono.entity.Manager;
+import com.sap.scimono.entity.MemberRef;
+import com.sap.scimono.entity.Meta;
+import com.sap.scimono.entity.Name;
+import com.sap.scimono.entity.User;
+import com.sap.scimono.entity.schema.Schema;
+import com.sap.scimono.entity.schema.resources.SchemaCSVReader;
+import com.sap.scimono.exception.InvalidFilterException;
+import com.sap.scimono.filter.expression.ComparisonExpression;
+import com.sap.scimono.filter.expression.ComparisonOperator;
+
+public class FilterPredicateCompilerTest {
+  private static final List<Schema> SCHEMAS = new ArrayList<>(SchemaCSVReader.getImportedSchemasFromCSVs().values());
+
+  private SchemasCallback schemaAPI;
+  private User user;
+
+  @BeforeEach
+  public void setup() {
+    schemaAPI = spy(SchemasCallback.class);
+    doReturn(SchemaRegistry.compile(SCHEMAS)).when(schemaAPI).getSchemaRegistry();
+
+    // @formatter:off
+    user = new User.Builder("bjensen")
+        .setId("2819c223-7f76-453a-919d-413861904646")
+        .setExternalId("BJensen")
+        .setActive(true)
+        .setName(new Name.Builder().setGivenName("Barbara").setFamilyName("Jensen").build())
+        .addEmail(new Email.Builder().setValue("bjensen@example.com").setType(Email.Type.WORK).setPrimary(true).build())
+        .addEmail(new Email.Builder().setValue("babs@jensen.org").setType(Email.Type.HOME).build())
+        .setMeta(new Meta.Builder(Instant.parse("2011-05-13T04:42:34Z"), Instant.parse("2011-05-13T04:42:34Z")).setResourceType("User").build())
+        .addExtension(new EnterpriseExtension.Builder()
+            .setEmployeeNumber("701984")
+            .setManager(new Manager.Builder().setValue("26118915-6090-4610-87e4-49d8ca9f808d").setDisplayName("John Smith").build())
+            .build())
+        .build();
+    // @formatter:on
+  }
+
+  // @formatter:off
+  @DisplayName("Test that the compiled predicate matches the user")
+  @ParameterizedTest(name = "Test that --- {0} --- matches")
+  @ValueSource(strings = {
+      "userName eq \"BJENSEN\"",
+      "urn:ietf:params:scim:schemas:core:2.0:User:userName sw \"bj\"",
+      "externalId eq \"BJensen\"",
+      "name.familyName co \"ens\" and name.givenName ew \"ARA\"",
+      "emails co \"example.com\"",
+      "emails[type eq \"work\" and value ew \"@example.com\"]",
+      "emails[type eq \"home\" and not (primary eq true)]",
+      "active eq true",
+      "meta.created lt \"2011-05-13T05:00:00+00:00\"",
+      "meta.lastModified ge \"2011-05-13T04:42:34Z\"",
+      "title pr or name pr",
+      "emails.value ne \"nobody@example.com\"",
+      "urn:ietf:params:scim:schemas:extension:enterprise:2.0:User:employeeNumber gt \"700000\"",
+      "urn:ietf:params:scim:schemas:extension:enterprise:2.0:User:manager.displayName eq \"John Smith\""
+  }) void testMatches(String filter) {
+    assertTrue(FilterPredicateCompiler.forUsers(schemaAPI).compile(filter).test(user));
+  }
+
+  @DisplayName("Test that the compiled predicate does not match the user")
+  @ParameterizedTest(name = "Test that --- {0} --- does not match")
+  @ValueSource(strings = {
+      "externalId eq \"bjensen\"",
+      "title pr",
+      "userName ne \"bjensen\"",
+      "emails[type eq \"home\" and primary eq true]",
+      "emails.value ew \"@example.org\"",
+      "active eq false",
+      "meta.created gt \"2011-05-13T04:42:34Z\"",
+      "urn:ietf:params:scim:schemas:extension:enterprise:2.0:User:costCenter pr"
+  }) void testDoesNotMatch(String filter) {
+    assertFalse(FilterPredicateCompiler.forUsers(schemaAPI).compile(filter).test(user));
+  }
+
+  @DisplayName("Test that filters which cannot be evaluated are rejected when compiling")
+  @ParameterizedTest(name = "Test that --- {0} --- is rejected")
+  @ValueSource(strings = {
+      "unknown eq \"x\"",
+      "active gt true",
+      "active co true",
+      "meta.created eq \"yesterday\"",
+      "name eq \"Barbara\"",
+      "emails[type[value pr]]",
+      "urn:ietf:params:scim:schemas:extension:unknown:2.0:User:employeeNumber pr"
+  }) void testRejected(String filter) {
+    FilterPredicateCompiler<User> compiler = FilterPredicateCompiler.forUsers(schemaAPI);
+    assertThrows(InvalidFilterException.class, () -> compiler.compile(filter));
+  }
+  // @formatter:on
+
+  @DisplayName("Test that boolean literals are compared by equality only")
+  @ParameterizedTest(name = "Test that --- active {0} true --- is rejected")
+  @EnumSource(value = ComparisonOperator.class, names = { "GT", "CO" })
+  public void testBooleanLiteralsRejectOtherOperators(ComparisonOperator operator) {
+    ComparisonExpression activeFilter = (ComparisonExpression) FilterExpressionParser.forUsers().parse("active eq true",
+        schemaAPI.getSchemaRegistry());
+    ComparisonExpression filter = new ComparisonExpression(activeFilter.getAttribute(), operator, true);
+    FilterPredicateCompiler<User> compiler = FilterPredicateCompiler.forUsers(schemaAPI);
+
+    assertThrows(InvalidFilterException.class, () -> compiler.compile(filter));
+  }
+
+  @Test
+  public void testGroupMembers() {
+    Group group = new Group.Builder().setDisplayName("Admins").addMember(new MemberRef.Builder().setValue("user-1").build()).build();
+    FilterPredicateCompiler<Group> compiler = FilterPredicateCompiler.forGroups(schemaAPI);
+
+    assertTrue(compiler.compile("displayName eq \"admins\" and members[value eq \"user-1\"]").test(group));
+    assertFalse(compiler.compile("members.value eq \"user-2\"").test(group));
+  }
+
+  @Test
+  public void testCompiledPredicatesAreCached() {
+    FilterPredicateCompiler<User> compiler = FilterPredicateCompiler.forUsers(schemaAPI);
+
+    assertSame(compiler.compile("userName eq \"bjensen\""), compiler.compile("userName eq \"bjensen\""));
+  }
+
+  @Test
+  public void testCacheIsDroppedWhenSchemasChange() {
+    FilterPredicateCompiler<User> compiler = FilterPredicateCompiler.forUsers(schemaAPI);
+    compiler.compile("urn:ietf:params:scim:schemas:extension:enterprise:2.0:User:employeeNumber pr");
+
+    doReturn(SchemaRegistry.compile(Collections.emptyList())).when(schemaAPI).getSchemaRegistry();
+    assertThrows(InvalidFilterException.class,
+        () -> compiler.compile("urn:ietf:params:scim:schemas:extension:enterprise:2.0:User:employeeNumber pr"));
+  }
+}
@@ -0,0 +1,55 @@
+package com.sap.scimono.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class FilterTemplateCacheTest {
+
+  @BeforeEach
+  public void setup() {
+    QueryFilterParser.clearCache();
+  }
+
+  @Test
+  public void testLiteralsAndOperatorCaseShareCanonicalKey() {
+    FilterCanonicalizer.CanonicalFilter first = FilterCanonicalizer.canonicalize("userName eq \"a\" and age gt 5");
+    FilterCanonicalizer.CanonicalFilter second = FilterCanonicalizer.canonicalize("userName EQ \"b\\\"c\" AND age gt -1.5e3");
+
+    assertEquals(first.getKey(), second.getKey());
+    assertEquals(Arrays.asList("EQ", "\"b\\\"c\"", "AND", "gt", "-1.5e3"), second.getParameters());
+  }
+
+  @Test
+  public void testDifferentAttributesDoNotShareCanonicalKey() {
+    assertNotEquals(FilterCanonicalizer.canonicalize("userName eq \"a\"").getKey(), FilterCanonicalizer.canonicalize("externalId eq \"a\"").getKey());
+    assertNotEquals(FilterCanonicalizer.canonicalize("userName eq 5").getKey(), FilterCanonicalizer.canonicalize("userName eq 5abc").getKey());
+  }
+
+  @Test
+  public void testCachedTreeIsBoundToRequestedLiterals() {
+    String firstFilter = "emails[type eq \"work\" and value co \"example.com\"]";
+    String secondFilter = "emails[type EQ \"home\" and value co \"example.org\"]";
+
+    assertEquals(firstFilter, QueryFilterParser.parseTree(firstFilter).getText());
+    assertEquals(secondFilter, QueryFilterParser.parseTree(secondFilter).getText());
+
+    FilterCacheStatistics statistics = QueryFilterParser.getCacheStatistics();
+    assertEquals(1, statistics.getHits());
+    assertEquals(1, statistics.getSize());
+  }
+
+  @Test
+  public void testChangesOfParsedTreeDoNotAffectCachedTree() {
+    String filter = "userName eq \"a\" and active eq true";
+
+    QueryFilterParser.parseTree(filter).children.clear();
+
+    assertEquals(filter, QueryFilterParser.parseTree(filter).getText());
+    assertEquals(1, QueryFilterParser.getCacheStatistics().getHits());
+  }
+}
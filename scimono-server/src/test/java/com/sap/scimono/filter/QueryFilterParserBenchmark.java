@@ -0,0 +1,61 @@
+package com.sap.scimono.filter;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.sap.scimono.SCIMFilterParser;
+
+/**
+ * Compares the recursive descent parser with the generated ANTLR parser. Not a unit test, run it with
+ * <b>mvn test-compile exec:java -Dexec.mainClass=com.sap.scimono.filter.QueryFilterParserBenchmark -Dexec.classpathScope=test</b>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryFilterParserBenchmark {
+
+  // @formatter:off
+  @Param({
+      "userName eq \"bjensen\"",
+      "userType eq \"Employee\" and (emails co \"example.com\" or emails.value co \"example.org\")",
+      "emails[type eq \"work\" and value co \"@example.com\"] or ims[type eq \"xmpp\" and value co \"@foo.com\"]",
+      "members[value eq \"2819c223-7f76-453a-919d-413861904646\" & startIndex=1&count=100]"
+  })
+  // @formatter:on
+  public String filter;
+
+  @Benchmark
+  public SCIMFilterParser.ParseContext antlr() {
+    return QueryFilterParser.parseWithAntlr(filter);
+  }
+
+  @Benchmark
+  public SCIMFilterParser.ParseContext recursiveDescent() {
+    return RecursiveDescentFilterParser.parse(filter);
+  }
+
+  @Benchmark
+  public SCIMFilterParser.ParseContext parseTree() {
+    return QueryFilterParser.parseTree(filter);
+  }
+
+  public static void main(final String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(QueryFilterParserBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,95 @@
+package com.sap.scimono.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class RecursiveDescentFilterParserTest {
+
+  // @formatter:off
+  @DisplayName("Test that the recursive descent parser builds the same tree as the generated parser")
+  @ParameterizedTest(name = "Test that --- {0} --- is parsed like the generated parser does")
+  @ValueSource(strings = {
+      "userName pr",
+      "urn:ietf:params:scim:schemas:core:2.0:User:name.firstName pr",
+      "userName eq \"bjensen\"",
+      "name.familyName co \"O'Malley\"",
+      "userName EQ \"a\\\"b\\u00e9\"",
+      "age gt -1.5e3 and active eq FALSE",
+      "a pr or b pr and c pr",
+      "a pr and b pr or c pr and d pr",
+      "a pr or b pr or c pr",
+      "userType ne \"Employee\" and not (emails co \"example.com\" or emails.value co \"example.org\")",
+      "emails[type eq \"work\" and value co \"@example.com\"] or ims[type eq \"xmpp\" and value co \"@foo.com\"]",
+      "userType eq \"Employee\" and emails  [ type eq \"work\" ]",
+      "name.firstName[not (type eq \"work\")].value",
+      "members[a[b pr] and (c pr or d pr)]",
+      "members[count=10]",
+      "members[startIndex=1&count=5]",
+      "members[value eq \"x\" & count=2]",
+      "members[count=2&startId=a-b & value eq \"x\"]",
+      "emails[type eq \"work\"].display",
+      "not (a pr) or emails[not (type eq \"work\") or primary eq true and value pr]",
+      "members[(a pr or b pr) & startIndex=2]"
+  }) void testSameTreeAsGeneratedParser(String filter) {
+    ParserRuleContext expected = QueryFilterParser.parseWithAntlr(filter);
+    ParserRuleContext actual = RecursiveDescentFilterParser.parse(filter);
+
+    assertNotNull(actual);
+    assertEquals(expected.toStringTree(), actual.toStringTree());
+    assertSameTree(expected, actual);
+  }
+
+  @DisplayName("Test that filters the recursive descent parser does not accept are left to the generated parser")
+  @ParameterizedTest(name = "Test that --- {0} --- is not accepted")
+  @ValueSource(strings = {
+      "",
+      "userName prs",
+      "userName  pr",
+      "userName eq 5abc",
+      "userName eq \"bad\\x\"",
+      "userName pr and",
+      "(userName pr",
+      "emails[type eq \"work\"",
+      "members[count=2 & count=3]",
+      "userName eq #"
+  }) void testNotAccepted(String filter) {
+    assertNull(RecursiveDescentFilterParser.parse(filter));
+  }
+  // @formatter:on
+
+  private static void assertSameTree(final ParseTree expected, final ParseTree actual) {
+    assertSame(expected.getClass(), actual.getClass());
+    assertEquals(expected.getChildCount(), actual.getChildCount());
+
+    if (expected instanceof TerminalNode) {
+      Token expectedToken = ((TerminalNode) expected).getSymbol();
+      Token actualToken = ((TerminalNode) actual).getSymbol();
+      assertEquals(expectedToken.getType(), actualToken.getType());
+      assertEquals(expectedToken.getText(), actualToken.getText());
+      assertEquals(expectedToken.getStartIndex(), actualToken.getStartIndex());
+      assertEquals(expectedToken.getTokenIndex(), actualToken.getTokenIndex());
+      return;
+    }
+
+    ParserRuleContext expectedContext = (ParserRuleContext) expected;
+    ParserRuleContext actualContext = (ParserRuleContext) actual;
+    assertEquals(expectedContext.invokingState, actualContext.invokingState);
+    assertEquals(expectedContext.getStart().getTokenIndex(), actualContext.getStart().getTokenIndex());
+    assertEquals(expectedContext.getStop().getTokenIndex(), actualContext.getStop().getTokenIndex());
+
+    for (int i = 0; i < expected.getChildCount(); i++) {
+      assertSame(actual, actual.getChild(i).getParent());
+      assertSameTree(expected.getChild(i), actual.getChild(i));
+    }
+  }
+}